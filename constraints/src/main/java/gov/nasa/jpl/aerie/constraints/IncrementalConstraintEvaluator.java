@@ -0,0 +1,223 @@
+package gov.nasa.jpl.aerie.constraints;
+
+import gov.nasa.jpl.aerie.constraints.model.SimulationResults;
+import gov.nasa.jpl.aerie.constraints.model.SimulationResultsDiff;
+import gov.nasa.jpl.aerie.constraints.model.Violation;
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.constraints.tree.Expression;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Evaluates a set of constraints against successive simulation results,
+ * re-evaluating only those constraints whose dependencies changed since the last evaluation.
+ *
+ * A constraint depends on the resources it references and the activity types it iterates over.
+ * If only referenced resources changed, the constraint is re-evaluated over the changed windows alone,
+ * and the new violations are spliced into the previous ones.
+ * If a referenced activity type changed, or the simulation bounds changed, the constraint is re-evaluated in full,
+ * since the violations attributed to an activity instance are not confined to the extent of that activity.
+ *
+ * This relies on every {@link Expression} being point-wise in its resources:
+ * the result at a given time depends only on resource values at (or immediately adjacent to) that time.
+ */
+public final class IncrementalConstraintEvaluator<Key> {
+  private final Map<Key, Entry> entries = new LinkedHashMap<>();
+
+  private SimulationResults results = null;
+  private SimulationResultsDiff diff = null;
+  private long generation = 0;
+
+  private long fullEvaluations = 0;
+  private long partialEvaluations = 0;
+  private long reusedEvaluations = 0;
+
+  /**
+   * Register a constraint under the given key.
+   *
+   * If an equal constraint is already registered under this key, its cached violations are retained.
+   */
+  public void put(final Key key, final Expression<List<Violation>> constraint) {
+    final var existing = this.entries.get(key);
+    if (existing != null && existing.constraint.equals(constraint)) return;
+
+    this.entries.put(key, new Entry(constraint));
+  }
+
+  public void remove(final Key key) {
+    this.entries.remove(key);
+  }
+
+  /** Register exactly the given constraints, retaining cached violations for those which are unchanged. */
+  public void putAll(final Map<Key, Expression<List<Violation>>> constraints) {
+    this.entries.keySet().retainAll(constraints.keySet());
+    constraints.forEach(this::put);
+  }
+
+  /** Provide a new set of simulation results against which constraints will subsequently be evaluated. */
+  public void update(final SimulationResults results) {
+    this.diff = (this.results == null) ? null : SimulationResultsDiff.between(this.results, results);
+    this.results = Objects.requireNonNull(results);
+    this.generation += 1;
+  }
+
+  /**
+   * Evaluate the constraint registered under the given key against the latest results.
+   *
+   * @throws InputMismatchException if the constraint cannot be evaluated against these results.
+   */
+  public List<Violation> evaluate(final Key key) {
+    if (this.results == null) throw new IllegalStateException("No simulation results have been provided");
+
+    final var entry = this.entries.get(key);
+    if (entry == null) throw new IllegalArgumentException("No constraint is registered under key " + key);
+
+    return entry.evaluate();
+  }
+
+  /**
+   * Evaluate every registered constraint against the given results.
+   *
+   * @throws InputMismatchException if any constraint cannot be evaluated against these results.
+   */
+  public Map<Key, List<Violation>> evaluateAll(final SimulationResults results) {
+    this.update(results);
+
+    final var violations = new LinkedHashMap<Key, List<Violation>>(this.entries.size());
+    for (final var entry : this.entries.entrySet()) {
+      violations.put(entry.getKey(), entry.getValue().evaluate());
+    }
+    return violations;
+  }
+
+  /** Forget all cached violations, forcing the next evaluation of every constraint to start from scratch. */
+  public void invalidate() {
+    for (final var entry : this.entries.values()) entry.violations = null;
+  }
+
+  public long getFullEvaluationCount() {
+    return this.fullEvaluations;
+  }
+
+  public long getPartialEvaluationCount() {
+    return this.partialEvaluations;
+  }
+
+  public long getReusedEvaluationCount() {
+    return this.reusedEvaluations;
+  }
+
+  private final class Entry {
+    private final Expression<List<Violation>> constraint;
+    private final Set<String> resources = new HashSet<>();
+    private final Set<String> activityTypes = new HashSet<>();
+
+    // The violations of this constraint against the results of the given generation, if any.
+    private List<Violation> violations = null;
+    private long generation = 0;
+
+    public Entry(final Expression<List<Violation>> constraint) {
+      this.constraint = Objects.requireNonNull(constraint);
+      constraint.extractResources(this.resources);
+      constraint.extractActivityTypes(this.activityTypes);
+    }
+
+    public List<Violation> evaluate() {
+      final var results = IncrementalConstraintEvaluator.this.results;
+      final var diff = IncrementalConstraintEvaluator.this.diff;
+      final var generation = IncrementalConstraintEvaluator.this.generation;
+
+      if (this.violations != null && this.generation == generation) {
+        return this.violations;
+      }
+
+      final var previous = this.violations;
+      // Clear the cache first, so that a failed evaluation isn't mistaken for an up-to-date one.
+      this.violations = null;
+
+      if (previous == null
+          || diff == null
+          || this.generation != generation - 1
+          || diff.boundsChanged
+          || !diff.changedWindowsOfActivityTypes(this.activityTypes).isEmpty())
+      {
+        this.violations = this.constraint.evaluate(results);
+        this.generation = generation;
+        IncrementalConstraintEvaluator.this.fullEvaluations += 1;
+        return this.violations;
+      }
+
+      final var changed = diff.changedWindowsOfResources(this.resources);
+      changed.intersectWith(results.bounds);
+      if (changed.isEmpty()) {
+        this.violations = previous;
+        this.generation = generation;
+        IncrementalConstraintEvaluator.this.reusedEvaluations += 1;
+        return this.violations;
+      }
+
+      this.violations = splice(previous, this.constraint.evaluate(results, hull(changed)), changed);
+      this.generation = generation;
+      IncrementalConstraintEvaluator.this.partialEvaluations += 1;
+      return this.violations;
+    }
+  }
+
+  /**
+   * Replace the portions of the previous violations lying within the changed windows
+   * with the corresponding portions of the updated violations.
+   *
+   * Violations are matched up by their activity instances and resource names.
+   * Violations attributed to activity instances are dropped if they no longer cover any windows,
+   * as they would be by {@link gov.nasa.jpl.aerie.constraints.tree.ForEachActivity}.
+   */
+  private static List<Violation> splice(
+      final List<Violation> previous,
+      final List<Violation> updated,
+      final Windows changed
+  ) {
+    final var spliced = new LinkedHashMap<List<Object>, Violation>();
+
+    for (final var violation : previous) {
+      final var windows = Windows.minus(violation.violationWindows, changed);
+      merge(spliced, violation, windows);
+    }
+    for (final var violation : updated) {
+      final var windows = Windows.intersection(violation.violationWindows, changed);
+      merge(spliced, violation, windows);
+    }
+
+    final var violations = new ArrayList<Violation>(spliced.size());
+    for (final var violation : spliced.values()) {
+      if (violation.violationWindows.isEmpty() && !violation.activityInstanceIds.isEmpty()) continue;
+      violations.add(violation);
+    }
+    return violations;
+  }
+
+  private static void merge(final Map<List<Object>, Violation> violations, final Violation violation, final Windows windows) {
+    final var key = List.<Object>of(violation.activityInstanceIds, violation.resourceNames);
+
+    final var existing = violations.get(key);
+    if (existing == null) {
+      violations.put(key, new Violation(violation.activityInstanceIds, violation.resourceNames, windows));
+    } else {
+      existing.violationWindows.addAll(windows);
+    }
+  }
+
+  private static Window hull(final Windows windows) {
+    final var start = windows.iterator().next();
+    var end = start;
+    for (final var window : windows) end = window;
+
+    return Window.between(start.start, start.startInclusivity, end.end, end.endInclusivity);
+  }
+}
@@ -0,0 +1,48 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A read-only view over a contiguous run of profile pieces, clipped to a window.
+ *
+ * Only the first and last pieces can extend beyond the window, so only they are clipped (on access);
+ * all other pieces are returned as-is.
+ */
+final class ClippedPieces<Piece> extends AbstractList<Piece> implements RandomAccess {
+  private final List<Piece> pieces;
+  private final Window window;
+  private final Function<Piece, Window> windowOf;
+  private final BiFunction<Piece, Window, Piece> clip;
+
+  ClippedPieces(
+      final List<Piece> pieces,
+      final Window window,
+      final Function<Piece, Window> windowOf,
+      final BiFunction<Piece, Window, Piece> clip
+  ) {
+    this.pieces = pieces;
+    this.window = window;
+    this.windowOf = windowOf;
+    this.clip = clip;
+  }
+
+  @Override
+  public Piece get(final int index) {
+    final var piece = this.pieces.get(index);
+    if (index != 0 && index != this.pieces.size() - 1) return piece;
+    if (this.window.contains(this.windowOf.apply(piece))) return piece;
+
+    return this.clip.apply(piece, Window.intersect(this.windowOf.apply(piece), this.window));
+  }
+
+  @Override
+  public int size() {
+    return this.pieces.size();
+  }
+}
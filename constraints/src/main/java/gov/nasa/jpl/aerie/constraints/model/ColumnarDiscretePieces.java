@@ -0,0 +1,58 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of discrete profile pieces stored column-wise in primitive arrays.
+ *
+ * Pieces are closed windows laid end-to-end: the piece at index `i` covers `[offsets[i], offsets[i+1]]`.
+ * Values are stored as indices into a table of interned values, which may be shared between profiles.
+ * Each piece is only allocated the first time it is accessed, and kept for later accesses.
+ */
+final class ColumnarDiscretePieces extends AbstractList<DiscreteProfilePiece> implements RandomAccess {
+  // In microseconds; one longer than the other columns.
+  final long[] offsets;
+  private final int[] valueIds;
+  private final List<SerializedValue> values;
+  private final int size;
+
+  // Allocated on first access. Pieces are immutable, so racing threads may at worst build the same piece twice.
+  private DiscreteProfilePiece[] pieces = null;
+
+  ColumnarDiscretePieces(final long[] offsets, final int[] valueIds, final List<SerializedValue> values, final int size) {
+    this.offsets = offsets;
+    this.valueIds = valueIds;
+    this.values = values;
+    this.size = size;
+  }
+
+  @Override
+  public DiscreteProfilePiece get(final int index) {
+    if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException(index);
+
+    var pieces = this.pieces;
+    if (pieces == null) this.pieces = pieces = new DiscreteProfilePiece[this.size];
+
+    var piece = pieces[index];
+    if (piece == null) {
+      piece = new DiscreteProfilePiece(
+          Window.between(
+              Duration.of(this.offsets[index], Duration.MICROSECONDS),
+              Duration.of(this.offsets[index + 1], Duration.MICROSECONDS)),
+          this.values.get(this.valueIds[index]));
+      pieces[index] = piece;
+    }
+    return piece;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+}
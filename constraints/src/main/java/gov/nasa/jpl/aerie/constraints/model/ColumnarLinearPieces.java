@@ -0,0 +1,57 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of linear profile pieces stored column-wise in primitive arrays.
+ *
+ * Pieces are closed windows laid end-to-end: the piece at index `i` covers `[offsets[i], offsets[i+1]]`.
+ * Each piece is only allocated the first time it is accessed, and kept for later accesses,
+ * so that profile operations walking the same pieces repeatedly do not allocate them again.
+ */
+final class ColumnarLinearPieces extends AbstractList<LinearProfilePiece> implements RandomAccess {
+  // In microseconds; one longer than the other columns.
+  final long[] offsets;
+  private final double[] initialValues;
+  private final double[] rates;
+  private final int size;
+
+  // Allocated on first access. Pieces are immutable, so racing threads may at worst build the same piece twice.
+  private LinearProfilePiece[] pieces = null;
+
+  ColumnarLinearPieces(final long[] offsets, final double[] initialValues, final double[] rates, final int size) {
+    this.offsets = offsets;
+    this.initialValues = initialValues;
+    this.rates = rates;
+    this.size = size;
+  }
+
+  @Override
+  public LinearProfilePiece get(final int index) {
+    if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException(index);
+
+    var pieces = this.pieces;
+    if (pieces == null) this.pieces = pieces = new LinearProfilePiece[this.size];
+
+    var piece = pieces[index];
+    if (piece == null) {
+      piece = new LinearProfilePiece(
+          Window.between(
+              Duration.of(this.offsets[index], Duration.MICROSECONDS),
+              Duration.of(this.offsets[index + 1], Duration.MICROSECONDS)),
+          this.initialValues[index],
+          this.rates[index]);
+      pieces[index] = piece;
+    }
+    return piece;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+}
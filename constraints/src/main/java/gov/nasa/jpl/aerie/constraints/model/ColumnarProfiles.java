@@ -0,0 +1,70 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts profiles in the form produced by the simulation driver -- a sequence of segments,
+ * each given by its extent and its dynamics -- into profiles for the constraint evaluation engine.
+ *
+ * The converted profiles are stored column-wise, holding one array each of offsets, initial values, and rates,
+ * rather than one {@link LinearProfilePiece} (and its {@link Window} and {@link Duration}s) per segment.
+ * Discrete values are interned across all profiles converted by the same instance.
+ * Conversion is thread-safe, so a converter may back maps converting profiles on access, such as {@link MemoizedProfiles}.
+ */
+public final class ColumnarProfiles {
+  private final Map<SerializedValue, Integer> valueIds = new HashMap<>();
+  private final List<SerializedValue> values = new ArrayList<>();
+
+  /** Convert a sequence of real segments into a linear profile, starting from the zero duration. */
+  public LinearProfile linear(final List<Pair<Duration, RealDynamics>> segments) {
+    final var size = segments.size();
+    final var offsets = new long[size + 1];
+    final var initialValues = new double[size];
+    final var rates = new double[size];
+
+    var i = 0;
+    for (final var segment : segments) {
+      final var dynamics = segment.getRight();
+      offsets[i + 1] = offsets[i] + segment.getLeft().in(Duration.MICROSECONDS);
+      initialValues[i] = dynamics.initial;
+      rates[i] = dynamics.rate;
+      i += 1;
+    }
+
+    return new LinearProfile(new ColumnarLinearPieces(offsets, initialValues, rates, size));
+  }
+
+  /** Convert a sequence of discrete segments into a discrete profile, starting from the zero duration. */
+  public synchronized DiscreteProfile discrete(final List<Pair<Duration, SerializedValue>> segments) {
+    final var size = segments.size();
+    final var offsets = new long[size + 1];
+    final var valueIds = new int[size];
+
+    var i = 0;
+    for (final var segment : segments) {
+      offsets[i + 1] = offsets[i] + segment.getLeft().in(Duration.MICROSECONDS);
+      valueIds[i] = this.intern(segment.getRight());
+      i += 1;
+    }
+
+    return new DiscreteProfile(new ColumnarDiscretePieces(offsets, valueIds, this.values, size));
+  }
+
+  private int intern(final SerializedValue value) {
+    final var id = this.valueIds.get(value);
+    if (id != null) return id;
+
+    this.values.add(value);
+    this.valueIds.put(value, this.values.size() - 1);
+    return this.values.size() - 1;
+  }
+}
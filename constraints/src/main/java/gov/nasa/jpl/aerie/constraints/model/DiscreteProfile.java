@@ -2,14 +2,19 @@ package gov.nasa.jpl.aerie.constraints.model;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 public final class DiscreteProfile implements Profile<DiscreteProfile> {
   public final List<DiscreteProfilePiece> profilePieces;
 
+  // Built on first use, since many profiles are never queried by time.
+  private PieceIndex<DiscreteProfilePiece> index = null;
+
   public DiscreteProfile(final List<DiscreteProfilePiece> profilePieces) {
     this.profilePieces = profilePieces;
   }
@@ -18,6 +23,34 @@ public final class DiscreteProfile implements Profile<DiscreteProfile> {
     this(List.of(profilePieces));
   }
 
+  /** Get the value of this profile at the given time, if any piece of this profile covers it. */
+  public Optional<SerializedValue> valueAt(final Duration time) {
+    final var i = this.index().indexAt(time);
+    if (i < 0) return Optional.empty();
+
+    return Optional.of(this.profilePieces.get(i).value);
+  }
+
+  /** Get a view of the pieces of this profile which intersect the given window, without copying them. */
+  public List<DiscreteProfilePiece> slice(final Window window) {
+    final var range = this.index().rangeOf(window);
+    return this.profilePieces.subList(range[0], range[1]);
+  }
+
+  /** Get a view of this profile restricted to the given window, without copying its pieces. */
+  public DiscreteProfile restrictTo(final Window window) {
+    return new DiscreteProfile(new ClippedPieces<>(this.slice(window), window, p -> p.window, DiscreteProfilePiece::restrictTo));
+  }
+
+  private PieceIndex<DiscreteProfilePiece> index() {
+    if (this.index == null) {
+      this.index = (this.profilePieces instanceof ColumnarDiscretePieces c)
+          ? new PieceIndex<>(this.profilePieces, p -> p.window, c.offsets)
+          : new PieceIndex<>(this.profilePieces, p -> p.window);
+    }
+    return this.index;
+  }
+
   @Override
   public Windows notEqualTo(final DiscreteProfile other, final Window bounds) {
     final var windows = new Windows(bounds);
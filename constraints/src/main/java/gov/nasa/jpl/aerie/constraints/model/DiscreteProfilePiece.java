@@ -14,6 +14,11 @@ public final class DiscreteProfilePiece {
     this.value = value;
   }
 
+  /** Get this piece restricted to a sub-window of its own window. */
+  public DiscreteProfilePiece restrictTo(final Window window) {
+    return new DiscreteProfilePiece(window, this.value);
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (!(obj instanceof DiscreteProfilePiece)) return false;
@@ -0,0 +1,60 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/**
+ * A list of profile pieces which are computed on demand.
+ *
+ * The pieces are only computed from the source when they are first accessed, whether by traversal or by index,
+ * and are kept for every later access, so that a profile shared by several operations is only computed once.
+ * The computed pieces are safely published, so a profile may be read from several threads.
+ */
+final class LazyPieces<Piece> extends AbstractList<Piece> implements RandomAccess {
+  private final Supplier<Iterator<Piece>> source;
+  private volatile List<Piece> materialized = null;
+
+  LazyPieces(final Supplier<Iterator<Piece>> source) {
+    this.source = source;
+  }
+
+  @Override
+  public Iterator<Piece> iterator() {
+    return this.materialize().iterator();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.materialize().isEmpty();
+  }
+
+  @Override
+  public Piece get(final int index) {
+    return this.materialize().get(index);
+  }
+
+  @Override
+  public int size() {
+    return this.materialize().size();
+  }
+
+  private List<Piece> materialize() {
+    var materialized = this.materialized;
+    if (materialized == null) {
+      synchronized (this) {
+        materialized = this.materialized;
+        if (materialized == null) {
+          final var pieces = new ArrayList<Piece>();
+          this.source.get().forEachRemaining(pieces::add);
+          this.materialized = materialized = Collections.unmodifiableList(pieces);
+        }
+      }
+    }
+    return materialized;
+  }
+}
@@ -2,10 +2,13 @@ package gov.nasa.jpl.aerie.constraints.model;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -13,6 +16,9 @@ public final class LinearProfile implements Profile<LinearProfile> {
   // IMPORTANT: Profile pieces must be non-overlapping, and increasing (based on window field)
   public final List<LinearProfilePiece> profilePieces;
 
+  // Built on first use, since many profiles are never queried by time.
+  private PieceIndex<LinearProfilePiece> index = null;
+
   public LinearProfile(final List<LinearProfilePiece> profilePieces) {
     this.profilePieces = Objects.requireNonNull(profilePieces);
   }
@@ -21,6 +27,34 @@ public final class LinearProfile implements Profile<LinearProfile> {
     this(List.of(profilePieces));
   }
 
+  /** Get the value of this profile at the given time, if any piece of this profile covers it. */
+  public Optional<Double> valueAt(final Duration time) {
+    final var i = this.index().indexAt(time);
+    if (i < 0) return Optional.empty();
+
+    return Optional.of(this.profilePieces.get(i).valueAt(time));
+  }
+
+  /** Get a view of the pieces of this profile which intersect the given window, without copying them. */
+  public List<LinearProfilePiece> slice(final Window window) {
+    final var range = this.index().rangeOf(window);
+    return this.profilePieces.subList(range[0], range[1]);
+  }
+
+  /** Get a view of this profile restricted to the given window, without copying its pieces. */
+  public LinearProfile restrictTo(final Window window) {
+    return new LinearProfile(new ClippedPieces<>(this.slice(window), window, p -> p.window, LinearProfilePiece::restrictTo));
+  }
+
+  private PieceIndex<LinearProfilePiece> index() {
+    if (this.index == null) {
+      this.index = (this.profilePieces instanceof ColumnarLinearPieces c)
+          ? new PieceIndex<>(this.profilePieces, p -> p.window, c.offsets)
+          : new PieceIndex<>(this.profilePieces, p -> p.window);
+    }
+    return this.index;
+  }
+
   @Override
   public Windows equalTo(final LinearProfile other, final Window bounds) {
     return this.getWindowsSatisfying(other, bounds, LinearProfilePiece::equalTo);
@@ -48,9 +82,9 @@ public final class LinearProfile implements Profile<LinearProfile> {
   }
 
   public LinearProfile plus(final LinearProfile other) {
-    final var profilePieces = processIntersections(
-        this,
-        other,
+    return new LinearProfile(new LazyPieces<>(() -> intersections(
+        this.profilePieces.iterator(),
+        other.profilePieces.iterator(),
         (p, o) -> {
           final var intersection = Window.intersect(p.window, o.window);
           return new LinearProfilePiece(
@@ -59,9 +93,7 @@ public final class LinearProfile implements Profile<LinearProfile> {
               p.rate + o.rate
           );
         }
-    );
-
-    return new LinearProfile(profilePieces);
+    )));
   }
 
   public LinearProfile times(final double multiplier) {
@@ -86,8 +118,9 @@ public final class LinearProfile implements Profile<LinearProfile> {
 
   private Windows getWindowsSatisfying(final LinearProfile other, final Window bounds, final BiFunction<LinearProfilePiece, LinearProfilePiece, Windows> condition) {
     final var windows = new Windows();
-    for (final var satisfying : processIntersections(this, other, condition)) {
-      windows.addAll(satisfying);
+    final var satisfying = intersections(this.profilePieces.iterator(), other.profilePieces.iterator(), condition);
+    while (satisfying.hasNext()) {
+      windows.addAll(satisfying.next());
     }
 
     return Windows.intersection(
@@ -101,9 +134,10 @@ public final class LinearProfile implements Profile<LinearProfile> {
     @Override
     public Windows changePoints(final Window bounds) {
       final var changePoints = new Windows();
-      if (this.profilePieces.size() == 0) return changePoints;
 
       final var iter = this.profilePieces.iterator();
+      if (!iter.hasNext()) return changePoints;
+
       var prev = iter.next();
       changePoints.add(prev.changePoints());
 
@@ -124,71 +158,86 @@ public final class LinearProfile implements Profile<LinearProfile> {
     }
 
   /**
-   * Process each pair of intersecting profile pieces to build a list of results
+   * Lazily process each pair of intersecting profile pieces, in order of increasing time.
+   *
+   * Nothing is computed until the returned iterator is advanced,
+   * so that arithmetic over profiles can be fused with the comparison consuming it.
    *
    * ASSUMPTION: Both sets of profile pieces are ordered in increasing order
-   * @param right LinearProfile to intersect with
+   * @param lefts profile pieces to intersect
+   * @param rights profile pieces to intersect with
    * @param processor BiFunction taking two profile pieces and a desired result based on their intersection
-   * @return Set of all windows within bounds for which condition is satisfied between this and another profile
+   * @return An iterator over the results of processing each pair of intersecting pieces
    */
-  private static <T> List<T> processIntersections(final LinearProfile left, final LinearProfile right, final BiFunction<LinearProfilePiece, LinearProfilePiece, T> processor) {
-    if (left.profilePieces.size() == 0 || right.profilePieces.size() == 0) return new ArrayList<>();
-
-    // Setup to step through profiles simultaneously,
-    // finding all windows satisfying condition within the supplied bounds
-    final var processedIntersections = new ArrayList<T>();
-    final var rightIter = right.profilePieces.iterator();
-
-    // Loop through the left pieces, stepping up the right pieces
-    // appropriately each time to get intersections
-    if (!rightIter.hasNext()) return processedIntersections;
-    var rightPiece = rightIter.next();
-    for (final var leftPiece : left.profilePieces) {
-      // If left piece ends before right piece, skip left piece
-      if (Window.compareEndToStart(leftPiece.window, rightPiece.window) < 0) continue;
-
-      // Step through right pieces ending before left piece starts
-      // If no right pieces ending after left piece starts exist, end the loop
-      while (Window.compareEndToStart(rightPiece.window, leftPiece.window) < 0) {
-        if (rightIter.hasNext()) {
-          rightPiece = rightIter.next();
-        } else {
-          break;
-        }
-      }
-
-      // Process all intersections with right pieces that start before the left piece ends
-      // If we run out of right pieces, end the loop
-      while (Window.compareStartToEnd(rightPiece.window, leftPiece.window) <= 0) {
-        processedIntersections.add(processor.apply(leftPiece, rightPiece));
+  private static <T> Iterator<T> intersections(
+      final Iterator<LinearProfilePiece> lefts,
+      final Iterator<LinearProfilePiece> rights,
+      final BiFunction<LinearProfilePiece, LinearProfilePiece, T> processor
+  ) {
+    return new Iterator<>() {
+      private LinearProfilePiece left = (lefts.hasNext()) ? lefts.next() : null;
+      private LinearProfilePiece right = (rights.hasNext()) ? rights.next() : null;
+
+      private boolean ready = false;
+      private T result = null;
+
+      @Override
+      public boolean hasNext() {
+        while (!this.ready && this.left != null && this.right != null) {
+          final var leftPiece = this.left;
+          final var rightPiece = this.right;
+
+          // Step past whichever piece ends first; the other may intersect further pieces.
+          if (Window.compareEndToEnd(leftPiece.window, rightPiece.window) <= 0) {
+            this.left = (lefts.hasNext()) ? lefts.next() : null;
+          } else {
+            this.right = (rights.hasNext()) ? rights.next() : null;
+          }
 
-        // Only step passed right piece if it doesn't exceed the left piece
-        if (Window.compareEndToEnd(rightPiece.window, leftPiece.window) <= 0) {
-          if (rightIter.hasNext()) {
-            rightPiece = rightIter.next();
-            continue;
+          // Neither piece may end before the other starts.
+          if (Window.compareEndToStart(leftPiece.window, rightPiece.window) >= 0 &&
+              Window.compareEndToStart(rightPiece.window, leftPiece.window) >= 0)
+          {
+            this.result = processor.apply(leftPiece, rightPiece);
+            this.ready = true;
           }
         }
-        break;
+
+        return this.ready;
       }
-    }
 
-    return processedIntersections;
+      @Override
+      public T next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+
+        final var result = this.result;
+        this.result = null;
+        this.ready = false;
+        return result;
+      }
+    };
   }
 
   /**
-   * Apply a transformation to each piece of this profile
+   * Lazily apply a transformation to each piece of this profile
    * @param transformation - function to transform a single piece of this profile into the desired form
    * @return a new LinearProfile representing the transformation of this profile
    */
   private LinearProfile transformProfile(final Function<LinearProfilePiece, LinearProfilePiece> transformation) {
-    final var profilePieces = new ArrayList<LinearProfilePiece>(this.profilePieces.size());
-
-    for (final var piece : this.profilePieces) {
-      profilePieces.add(transformation.apply(piece));
-    }
+    return new LinearProfile(new LazyPieces<>(() -> {
+      final var pieces = this.profilePieces.iterator();
+      return new Iterator<LinearProfilePiece>() {
+        @Override
+        public boolean hasNext() {
+          return pieces.hasNext();
+        }
 
-    return new LinearProfile(profilePieces);
+        @Override
+        public LinearProfilePiece next() {
+          return transformation.apply(pieces.next());
+        }
+      };
+    }));
   }
 
   public String toString() {
@@ -29,6 +29,11 @@ public final class LinearProfilePiece {
     return this.initialValue + this.rate*(time.minus(this.window.start)).ratioOver(Duration.SECOND);
   }
 
+  /** Get this piece restricted to a sub-window of its own window. */
+  public LinearProfilePiece restrictTo(final Window window) {
+    return new LinearProfilePiece(window, this.valueAt(window.start), this.rate);
+  }
+
   public Window changePoints() {
     return (this.rate == 0.0) ? Window.EMPTY : this.window;
   }
@@ -0,0 +1,97 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A read-only map of profiles, converting each source profile the first time it is accessed
+ * and returning the same converted profile on every subsequent access.
+ *
+ * Profiles which are never accessed are never converted.
+ * Conversion is thread-safe, and each profile is converted at most once.
+ */
+public final class MemoizedProfiles<S, P> extends AbstractMap<String, P> {
+  private final Map<String, S> sources;
+  private final Function<S, P> conversion;
+  private final Map<String, P> converted = new ConcurrentHashMap<>();
+
+  private final LongAdder conversions = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+
+  public MemoizedProfiles(final Map<String, S> sources, final Function<S, P> conversion) {
+    this.sources = sources;
+    this.conversion = conversion;
+  }
+
+  @Override
+  public P get(final Object key) {
+    if (!(key instanceof String name)) return null;
+
+    final var cached = this.converted.get(name);
+    if (cached != null) {
+      this.hits.increment();
+      return cached;
+    }
+
+    final var source = this.sources.get(name);
+    if (source == null) return null;
+
+    return this.converted.computeIfAbsent(name, n -> {
+      this.conversions.increment();
+      return this.conversion.apply(source);
+    });
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return this.sources.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return this.sources.size();
+  }
+
+  /** Get the number of profiles converted so far. */
+  public long getConversionCount() {
+    return this.conversions.sum();
+  }
+
+  /** Get the number of accesses which returned an already-converted profile. */
+  public long getHitCount() {
+    return this.hits.sum();
+  }
+
+  @Override
+  public Set<Entry<String, P>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, P>> iterator() {
+        final var names = MemoizedProfiles.this.sources.keySet().iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return names.hasNext();
+          }
+
+          @Override
+          public Entry<String, P> next() {
+            final var name = names.next();
+            return new SimpleImmutableEntry<>(name, MemoizedProfiles.this.get(name));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return MemoizedProfiles.this.sources.size();
+      }
+    };
+  }
+}
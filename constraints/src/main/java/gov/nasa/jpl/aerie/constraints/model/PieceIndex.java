@@ -0,0 +1,100 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A time index over an ordered list of non-overlapping profile pieces,
+ * supporting logarithmic point and range lookups.
+ *
+ * ASSUMPTION: The pieces are non-empty, non-overlapping, and ordered by increasing start time.
+ */
+final class PieceIndex<Piece> {
+  private final List<Piece> pieces;
+  private final Function<Piece, Window> windowOf;
+
+  // The start of each piece's window, in microseconds.
+  // This may be longer than the list of pieces, in which case only its first `size` entries are meaningful.
+  private final long[] starts;
+  private final int size;
+
+  PieceIndex(final List<Piece> pieces, final Function<Piece, Window> windowOf) {
+    this(pieces, windowOf, startsOf(pieces, windowOf));
+  }
+
+  /** Index pieces whose start times are already known, such as those stored in columns. */
+  PieceIndex(final List<Piece> pieces, final Function<Piece, Window> windowOf, final long[] starts) {
+    this.pieces = pieces;
+    this.windowOf = windowOf;
+    this.starts = starts;
+    this.size = pieces.size();
+  }
+
+  private static <Piece> long[] startsOf(final List<Piece> pieces, final Function<Piece, Window> windowOf) {
+    final var starts = new long[pieces.size()];
+    for (var i = 0; i < starts.length; i += 1) {
+      starts[i] = windowOf.apply(pieces.get(i)).start.in(Duration.MICROSECONDS);
+    }
+    return starts;
+  }
+
+  /**
+   * Find the piece containing the given time.
+   *
+   * @return The index of the piece containing the given time, or -1 if no piece contains it.
+   */
+  int indexAt(final Duration time) {
+    final var i = this.floor(time.in(Duration.MICROSECONDS));
+
+    // A piece excluding its start may be preceded by one ending inclusively at the same time.
+    for (var j = i; j >= 0 && j >= i - 1; j -= 1) {
+      if (this.windowOf.apply(this.pieces.get(j)).contains(time)) return j;
+    }
+    return -1;
+  }
+
+  /**
+   * Find the range of pieces intersecting the given window.
+   *
+   * @return A two-element array holding the (inclusive) index of the first intersecting piece
+   *     and the (exclusive) index after the last intersecting piece.
+   */
+  int[] rangeOf(final Window window) {
+    if (window.isEmpty() || this.size == 0) return new int[] {0, 0};
+
+    // As in `indexAt`, a piece excluding its start may be preceded by one ending inclusively at the same time.
+    var from = Math.max(0, this.floor(window.start.in(Duration.MICROSECONDS)) - 1);
+    while (from < this.size && Window.compareEndToStart(this.windowOf.apply(this.pieces.get(from)), window) < 0) {
+      from += 1;
+    }
+
+    var to = this.floor(window.end.in(Duration.MICROSECONDS)) + 1;
+    while (to > from && Window.compareStartToEnd(this.windowOf.apply(this.pieces.get(to - 1)), window) > 0) {
+      to -= 1;
+    }
+
+    return new int[] {from, Math.max(from, to)};
+  }
+
+  /** Get the index of the last piece starting no later than the given time, or -1 if there is none. */
+  private int floor(final long time) {
+    var low = 0;
+    var high = this.size - 1;
+    var result = -1;
+
+    while (low <= high) {
+      final var mid = (low + high) >>> 1;
+      if (this.starts[mid] <= time) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    return result;
+  }
+}
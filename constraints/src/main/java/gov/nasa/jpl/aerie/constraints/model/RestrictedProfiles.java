@@ -0,0 +1,78 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A read-only view of a map of profiles, restricting each profile to a window the first time it is accessed.
+ *
+ * Profiles which are never accessed are never restricted, so that a restricted set of simulation results
+ * costs nothing for the resources an expression doesn't reference.
+ */
+final class RestrictedProfiles<P> extends AbstractMap<String, P> {
+  private final Map<String, P> profiles;
+  private final Function<P, P> restriction;
+  private final Map<String, P> restricted = new HashMap<>();
+
+  RestrictedProfiles(final Map<String, P> profiles, final Function<P, P> restriction) {
+    this.profiles = profiles;
+    this.restriction = restriction;
+  }
+
+  @Override
+  public P get(final Object key) {
+    if (!(key instanceof String name)) return null;
+
+    final var cached = this.restricted.get(name);
+    if (cached != null) return cached;
+
+    final var profile = this.profiles.get(name);
+    if (profile == null) return null;
+
+    final var restricted = this.restriction.apply(profile);
+    this.restricted.put(name, restricted);
+    return restricted;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return this.profiles.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return this.profiles.size();
+  }
+
+  @Override
+  public Set<Entry<String, P>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, P>> iterator() {
+        final var names = RestrictedProfiles.this.profiles.keySet().iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return names.hasNext();
+          }
+
+          @Override
+          public Entry<String, P> next() {
+            final var name = names.next();
+            return new SimpleImmutableEntry<>(name, RestrictedProfiles.this.get(name));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return RestrictedProfiles.this.profiles.size();
+      }
+    };
+  }
+}
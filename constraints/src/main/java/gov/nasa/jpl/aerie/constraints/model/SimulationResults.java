@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.constraints.model;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,31 @@ public final class SimulationResults {
     this.discreteProfiles = discreteProfiles;
   }
 
+  /**
+   * Get a view of these results restricted to the given window.
+   *
+   * Profiles are restricted (without copying) the first time they are accessed,
+   * so that evaluating an expression against the restricted results never visits profile pieces outside the window.
+   * Profiles are restricted to the window padded by one tick on either side,
+   * so that change points and transitions on the boundary of the window are still detected.
+   *
+   * All activities are retained, since a violation attributed to an activity instance may lie outside of that activity.
+   */
+  public SimulationResults restrictTo(final Window window) {
+    final var bounds = Window.intersect(this.bounds, window);
+    final var padded = (bounds.isEmpty())
+        ? bounds
+        : Window.between(
+            (bounds.start.isEqualTo(Duration.MIN_VALUE)) ? bounds.start : bounds.start.minus(Duration.EPSILON),
+            (bounds.end.isEqualTo(Duration.MAX_VALUE)) ? bounds.end : bounds.end.plus(Duration.EPSILON));
+
+    return new SimulationResults(
+        bounds,
+        this.activities,
+        new RestrictedProfiles<>(this.realProfiles, p -> p.restrictTo(padded)),
+        new RestrictedProfiles<>(this.discreteProfiles, p -> p.restrictTo(padded)));
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (!(obj instanceof SimulationResults)) return false;
@@ -0,0 +1,219 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.constraints.time.Windows;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * The resources and activity types that differ between two sets of simulation results,
+ * along with the windows over which they differ.
+ *
+ * Changed windows are reported as closed intervals, so that point-wise comparisons against a neighboring
+ * profile piece (such as change points and transitions) are covered by the window of the piece that changed.
+ */
+public final class SimulationResultsDiff {
+  public final boolean boundsChanged;
+  public final Map<String, Windows> changedResources;
+  public final Map<String, Windows> changedActivityTypes;
+
+  public SimulationResultsDiff(
+      final boolean boundsChanged,
+      final Map<String, Windows> changedResources,
+      final Map<String, Windows> changedActivityTypes
+  ) {
+    this.boundsChanged = boundsChanged;
+    this.changedResources = Objects.requireNonNull(changedResources);
+    this.changedActivityTypes = Objects.requireNonNull(changedActivityTypes);
+  }
+
+  public static SimulationResultsDiff between(final SimulationResults previous, final SimulationResults next) {
+    final var changedResources = new HashMap<String, Windows>();
+
+    final var names = union(
+        union(previous.realProfiles.keySet(), next.realProfiles.keySet()),
+        union(previous.discreteProfiles.keySet(), next.discreteProfiles.keySet()));
+    for (final var name : names) {
+      final var changes = changedWindowsOfResource(previous, next, name);
+      if (!changes.isEmpty()) changedResources.put(name, changes);
+    }
+
+    final var changedActivityTypes = new HashMap<String, Windows>();
+
+    final var previousActivities = new HashMap<Long, ActivityInstance>(previous.activities.size());
+    for (final var activity : previous.activities) previousActivities.put(activity.id, activity);
+
+    final var nextActivities = new HashMap<Long, ActivityInstance>(next.activities.size());
+    for (final var activity : next.activities) nextActivities.put(activity.id, activity);
+
+    for (final var id : union(previousActivities.keySet(), nextActivities.keySet())) {
+      final var before = previousActivities.get(id);
+      final var after = nextActivities.get(id);
+      if (Objects.equals(before, after)) continue;
+
+      if (before != null) {
+        changedActivityTypes.computeIfAbsent(before.type, $ -> new Windows()).add(closure(before.window));
+      }
+      if (after != null) {
+        changedActivityTypes.computeIfAbsent(after.type, $ -> new Windows()).add(closure(after.window));
+      }
+    }
+
+    return new SimulationResultsDiff(
+        !Objects.equals(previous.bounds, next.bounds),
+        changedResources,
+        changedActivityTypes);
+  }
+
+  /**
+   * Find the windows over which a single resource differs between two sets of simulation results.
+   *
+   * Only the profiles of the given resource are accessed, so no other profile is converted
+   * when the results are backed by lazily-converted profiles.
+   */
+  public static Windows changedWindowsOfResource(
+      final SimulationResults previous,
+      final SimulationResults next,
+      final String name
+  ) {
+    final var changes = new Windows();
+
+    if (previous.realProfiles.containsKey(name) || next.realProfiles.containsKey(name)) {
+      changes.addAll(diffPieces(
+          pieces(previous.realProfiles.get(name), p -> p.profilePieces),
+          pieces(next.realProfiles.get(name), p -> p.profilePieces),
+          p -> p.window,
+          (p, o) -> {
+            final var start = Window.intersect(p.window, o.window).start;
+            return p.rate == o.rate && p.valueAt(start) == o.valueAt(start);
+          }));
+    }
+
+    if (previous.discreteProfiles.containsKey(name) || next.discreteProfiles.containsKey(name)) {
+      changes.addAll(diffPieces(
+          pieces(previous.discreteProfiles.get(name), p -> p.profilePieces),
+          pieces(next.discreteProfiles.get(name), p -> p.profilePieces),
+          p -> p.window,
+          (p, o) -> p.value.equals(o.value)));
+    }
+
+    return changes;
+  }
+
+  public boolean isEmpty() {
+    return !this.boundsChanged && this.changedResources.isEmpty() && this.changedActivityTypes.isEmpty();
+  }
+
+  /** Get the union of the windows over which any of the given resources changed. */
+  public Windows changedWindowsOfResources(final Set<String> resources) {
+    return collect(this.changedResources, resources);
+  }
+
+  /** Get the union of the windows over which any activity of the given types changed. */
+  public Windows changedWindowsOfActivityTypes(final Set<String> activityTypes) {
+    return collect(this.changedActivityTypes, activityTypes);
+  }
+
+  private static Windows collect(final Map<String, Windows> changes, final Set<String> names) {
+    final var windows = new Windows();
+    for (final var name : names) {
+      final var changed = changes.get(name);
+      if (changed != null) windows.addAll(changed);
+    }
+    return windows;
+  }
+
+  /**
+   * Find the windows over which two ordered, non-overlapping lists of profile pieces differ.
+   *
+   * Windows covered by only one of the lists are considered changed,
+   * as are the intersections of pieces which are not judged to be the same.
+   */
+  private static <Piece> Windows diffPieces(
+      final List<Piece> previous,
+      final List<Piece> next,
+      final Function<Piece, Window> windowOf,
+      final BiPredicate<Piece, Piece> same
+  ) {
+    final var changes = new Windows();
+    if (previous.equals(next)) return changes;
+
+    final var previousCoverage = new Windows();
+    for (final var piece : previous) previousCoverage.add(windowOf.apply(piece));
+    final var nextCoverage = new Windows();
+    for (final var piece : next) nextCoverage.add(windowOf.apply(piece));
+
+    for (final var window : Windows.minus(previousCoverage, nextCoverage)) changes.add(closure(window));
+    for (final var window : Windows.minus(nextCoverage, previousCoverage)) changes.add(closure(window));
+
+    // Step through both lists simultaneously, comparing each pair of intersecting pieces.
+    var i = 0;
+    var j = 0;
+    while (i < previous.size() && j < next.size()) {
+      final var p = previous.get(i);
+      final var o = next.get(j);
+      final var pWindow = windowOf.apply(p);
+      final var oWindow = windowOf.apply(o);
+
+      final var intersection = Window.intersect(pWindow, oWindow);
+      if (!intersection.isEmpty() && !p.equals(o) && !same.test(p, o)) {
+        changes.add(closure(intersection));
+      }
+
+      // Step past whichever piece ends first.
+      if (Window.compareEndToEnd(pWindow, oWindow) <= 0) {
+        i += 1;
+      } else {
+        j += 1;
+      }
+    }
+
+    return changes;
+  }
+
+  private static <P, Piece> List<Piece> pieces(final P profile, final Function<P, List<Piece>> piecesOf) {
+    return (profile == null) ? List.of() : piecesOf.apply(profile);
+  }
+
+  private static Window closure(final Window window) {
+    if (window.isEmpty()) return window;
+    return Window.between(window.start, window.end);
+  }
+
+  private static <T> Set<T> union(final Set<T> left, final Set<T> right) {
+    final var union = new HashSet<T>(left);
+    union.addAll(right);
+    return union;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof SimulationResultsDiff)) return false;
+    final var other = (SimulationResultsDiff)obj;
+
+    return this.boundsChanged == other.boundsChanged &&
+           Objects.equals(this.changedResources, other.changedResources) &&
+           Objects.equals(this.changedActivityTypes, other.changedActivityTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.boundsChanged, this.changedResources, this.changedActivityTypes);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "SimulationResultsDiff{boundsChanged=%s, changedResources=%s, changedActivityTypes=%s}",
+        this.boundsChanged,
+        this.changedResources,
+        this.changedActivityTypes);
+  }
+}
@@ -30,6 +30,9 @@ public final class DiscreteParameter implements Expression<DiscreteProfile> {
   @Override
   public void extractResources(final Set<String> names) { }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) { }
+
   @Override
   public String prettyPrint(final String prefix) {
     return String.format(
@@ -32,6 +32,9 @@ public final class DiscreteResource implements Expression<DiscreteProfile> {
     names.add(this.name);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) { }
+
   @Override
   public String prettyPrint(final String prefix) {
     return String.format(
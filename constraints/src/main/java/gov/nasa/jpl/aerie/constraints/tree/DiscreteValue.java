@@ -26,6 +26,9 @@ public final class DiscreteValue implements Expression<DiscreteProfile> {
   @Override
   public void extractResources(final Set<String> names) { }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) { }
+
   @Override
   public String prettyPrint(final String prefix) {
     return String.format(
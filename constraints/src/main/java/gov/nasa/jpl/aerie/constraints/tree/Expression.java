@@ -2,6 +2,7 @@ package gov.nasa.jpl.aerie.constraints.tree;
 
 import gov.nasa.jpl.aerie.constraints.model.ActivityInstance;
 import gov.nasa.jpl.aerie.constraints.model.SimulationResults;
+import gov.nasa.jpl.aerie.constraints.time.Window;
 
 import java.util.Map;
 import java.util.Set;
@@ -11,10 +12,16 @@ public interface Expression<T> {
   String prettyPrint(final String prefix);
   /** Add the resources referenced by this expression to the given set. **/
   void extractResources(Set<String> names);
+  /** Add the activity types iterated over by this expression to the given set. **/
+  void extractActivityTypes(Set<String> types);
 
   default T evaluate(final SimulationResults results) {
     return this.evaluate(results, Map.of());
   }
+  /** Evaluate this expression over the given window only, without visiting any profile pieces outside of it. **/
+  default T evaluate(final SimulationResults results, final Window window) {
+    return this.evaluate(results.restrictTo(window), Map.of());
+  }
   default String prettyPrint() {
     return this.prettyPrint("");
   }
@@ -53,6 +53,12 @@ public final class ForEachActivity implements Expression<List<Violation>> {
     this.expression.extractResources(names);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) {
+    types.add(this.activityType);
+    this.expression.extractActivityTypes(types);
+  }
+
   @Override
   public String prettyPrint(final String prefix) {
     return String.format(
@@ -48,6 +48,12 @@ public final class ForbiddenActivityOverlap implements Expression<List<Violation
     expansion.extractResources(names);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) {
+    types.add(this.activityType1);
+    types.add(this.activityType2);
+  }
+
   @Override
   public String prettyPrint(final String prefix) {
     return "\n%s(forbidden-activity-overlap %s %s)"
@@ -26,6 +26,11 @@ public final class IfThen implements Expression<Windows> {
     new Or(new Not(this.condition), this.expression).extractResources(names);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) {
+    new Or(new Not(this.condition), this.expression).extractActivityTypes(types);
+  }
+
   @Override
   public String prettyPrint(final String prefix) {
     return "\n%s(if-then %s %s)".formatted(
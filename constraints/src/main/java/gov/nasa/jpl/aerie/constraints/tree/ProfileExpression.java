@@ -25,6 +25,11 @@ public final class ProfileExpression<P extends Profile<P>> implements Expression
     this.expression.extractResources(names);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) {
+    this.expression.extractActivityTypes(types);
+  }
+
   @Override
   public String prettyPrint(final String prefix) {
     return this.expression.prettyPrint(prefix);
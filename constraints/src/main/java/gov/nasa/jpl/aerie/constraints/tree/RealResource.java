@@ -46,6 +46,9 @@ public final class RealResource implements Expression<LinearProfile> {
     names.add(this.name);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) { }
+
   @Override
   public String prettyPrint(final String prefix) {
     return String.format(
@@ -31,6 +31,11 @@ public final class Transition implements Expression<Windows> {
     this.profile.extractResources(names);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) {
+    this.profile.extractActivityTypes(types);
+  }
+
   @Override
   public String prettyPrint(final String prefix) {
     return String.format(
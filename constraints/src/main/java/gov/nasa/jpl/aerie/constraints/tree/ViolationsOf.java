@@ -29,6 +29,11 @@ public final class ViolationsOf implements Expression<List<Violation>> {
     this.expression.extractResources(names);
   }
 
+  @Override
+  public void extractActivityTypes(final Set<String> types) {
+    this.expression.extractActivityTypes(types);
+  }
+
   @Override
   public String prettyPrint(final String prefix) {
     return this.expression.prettyPrint(prefix);
@@ -0,0 +1,145 @@
+package gov.nasa.jpl.aerie.constraints;
+
+import gov.nasa.jpl.aerie.constraints.model.ActivityInstance;
+import gov.nasa.jpl.aerie.constraints.model.DiscreteProfile;
+import gov.nasa.jpl.aerie.constraints.model.DiscreteProfilePiece;
+import gov.nasa.jpl.aerie.constraints.model.LinearProfile;
+import gov.nasa.jpl.aerie.constraints.model.LinearProfilePiece;
+import gov.nasa.jpl.aerie.constraints.model.SimulationResults;
+import gov.nasa.jpl.aerie.constraints.model.SimulationResultsDiff;
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.constraints.tree.And;
+import gov.nasa.jpl.aerie.constraints.tree.During;
+import gov.nasa.jpl.aerie.constraints.tree.ForEachActivity;
+import gov.nasa.jpl.aerie.constraints.tree.GreaterThan;
+import gov.nasa.jpl.aerie.constraints.tree.LessThan;
+import gov.nasa.jpl.aerie.constraints.tree.Not;
+import gov.nasa.jpl.aerie.constraints.tree.RealResource;
+import gov.nasa.jpl.aerie.constraints.tree.RealValue;
+import gov.nasa.jpl.aerie.constraints.tree.ViolationsOf;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Exclusive;
+import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Inclusive;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class IncrementalConstraintEvaluatorTest {
+  private static SimulationResults results(final LinearProfile x, final List<ActivityInstance> activities) {
+    return new SimulationResults(
+        Window.between(0, 20, SECONDS),
+        activities,
+        Map.of("x", x),
+        Map.of("mode", new DiscreteProfile(
+            new DiscreteProfilePiece(Window.between(0, 20, SECONDS), SerializedValue.of("idle")))));
+  }
+
+  private static LinearProfile profile(final double... values) {
+    // One constant piece per five seconds.
+    final var pieces = new LinearProfilePiece[values.length];
+    for (var i = 0; i < values.length; i += 1) {
+      final var end = (i == values.length - 1) ? Inclusive : Exclusive;
+      pieces[i] = new LinearProfilePiece(Window.between(5L * i, Inclusive, 5L * (i + 1), end, SECONDS), values[i], 0);
+    }
+    return new LinearProfile(pieces);
+  }
+
+  @Test
+  public void testExtractActivityTypes() {
+    final var constraint = new ForEachActivity(
+        "A", "a",
+        new ForEachActivity(
+            "B", "b",
+            new ViolationsOf(new Not(new During("a")))));
+
+    final var types = new HashSet<String>();
+    constraint.extractActivityTypes(types);
+
+    assertEquals(Set.of("A", "B"), types);
+  }
+
+  @Test
+  public void testDiffReportsChangedWindows() {
+    final var before = results(profile(1, 2, 3, 4), List.of());
+    final var after = results(profile(1, 7, 3, 4), List.of(
+        new ActivityInstance(1, "A", Map.of(), Window.between(2, 3, SECONDS))));
+
+    final var diff = SimulationResultsDiff.between(before, after);
+
+    assertFalse(diff.boundsChanged);
+    assertEquals(Set.of("x"), diff.changedResources.keySet());
+    assertEquals(new Windows(Window.between(5, 10, SECONDS)), diff.changedResources.get("x"));
+    assertEquals(new Windows(Window.between(2, 3, SECONDS)), diff.changedActivityTypes.get("A"));
+  }
+
+  @Test
+  public void testUnchangedResourcesAreReused() {
+    final var evaluator = new IncrementalConstraintEvaluator<String>();
+    evaluator.put("x", new ViolationsOf(new LessThan(new RealResource("x"), new RealValue(5))));
+
+    evaluator.evaluateAll(results(profile(1, 2, 3, 4), List.of()));
+    evaluator.evaluateAll(results(profile(1, 2, 3, 4), List.of(
+        new ActivityInstance(1, "A", Map.of(), Window.between(2, 3, SECONDS)))));
+
+    assertEquals(1, evaluator.getFullEvaluationCount());
+    assertEquals(1, evaluator.getReusedEvaluationCount());
+  }
+
+  @Test
+  public void testPartialEvaluationMatchesFullEvaluation() {
+    final var constraint = new ViolationsOf(new LessThan(new RealResource("x"), new RealValue(5)));
+
+    final var evaluator = new IncrementalConstraintEvaluator<String>();
+    evaluator.put("x", constraint);
+
+    final var profiles = List.of(
+        profile(1, 2, 3, 4),
+        profile(1, 9, 3, 4),
+        profile(1, 9, 3, 8),
+        profile(1, 2, 3, 8),
+        profile(6, 2, 6, 8));
+
+    for (final var profile : profiles) {
+      final var results = results(profile, List.of());
+      final var incremental = evaluator.evaluateAll(results).get("x");
+      final var full = constraint.evaluate(results);
+
+      assertEquals(full.size(), incremental.size());
+      for (var i = 0; i < full.size(); i += 1) {
+        Assertions.assertEquivalent(full.get(i), incremental.get(i));
+      }
+    }
+
+    assertEquals(1, evaluator.getFullEvaluationCount());
+    assertEquals(profiles.size() - 1, evaluator.getPartialEvaluationCount());
+  }
+
+  @Test
+  public void testChangedActivityTypeForcesFullEvaluation() {
+    final var constraint = new ForEachActivity(
+        "A", "a",
+        new ViolationsOf(new Not(new And(new During("a"), new GreaterThan(new RealResource("x"), new RealValue(2))))));
+
+    final var evaluator = new IncrementalConstraintEvaluator<String>();
+    evaluator.put("a", constraint);
+
+    evaluator.evaluateAll(results(profile(1, 2, 3, 4), List.of(
+        new ActivityInstance(1, "A", Map.of(), Window.between(2, 3, SECONDS)))));
+
+    final var results = results(profile(1, 2, 3, 4), List.of(
+        new ActivityInstance(1, "A", Map.of(), Window.between(12, 13, SECONDS))));
+    final var incremental = evaluator.evaluateAll(results).get("a");
+
+    assertEquals(2, evaluator.getFullEvaluationCount());
+    assertEquals(constraint.evaluate(results), incremental);
+    assertFalse(incremental.isEmpty());
+  }
+}
@@ -0,0 +1,79 @@
+package gov.nasa.jpl.aerie.constraints;
+
+import gov.nasa.jpl.aerie.constraints.model.LinearProfile;
+import gov.nasa.jpl.aerie.constraints.model.LinearProfilePiece;
+import gov.nasa.jpl.aerie.constraints.model.SimulationResults;
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.constraints.tree.GreaterThan;
+import gov.nasa.jpl.aerie.constraints.tree.Plus;
+import gov.nasa.jpl.aerie.constraints.tree.Rate;
+import gov.nasa.jpl.aerie.constraints.tree.RealResource;
+import gov.nasa.jpl.aerie.constraints.tree.RealValue;
+import gov.nasa.jpl.aerie.constraints.tree.Times;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Exclusive;
+import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Inclusive;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTE;
+
+public class WindowedEvaluationBenchmark {
+
+  /**
+   * This benchmark evaluates (> (+ (* x 2) (rate y)) 0) against a month of one-minute profile pieces,
+   * first over the whole horizon and then over query windows of increasing size.
+   * Each printed timing _left _right shows the mean time _right (in ns) it took to evaluate over a window
+   * spanning _left pieces. Evaluation cost should grow with the window, not with the horizon.
+   */
+  public static void main(String[] args) {
+    final int nbPieces = 60 * 24 * 30;
+    final var results = new SimulationResults(
+        Window.between(Duration.ZERO, MINUTE.times(nbPieces)),
+        List.of(),
+        Map.of("x", sawtooth(nbPieces, 1.0), "y", sawtooth(nbPieces, -1.0)),
+        Map.of());
+
+    final var expression = new GreaterThan(
+        new Plus(new Times(new RealResource("x"), 2), new Rate(new RealResource("y"))),
+        new RealValue(0));
+
+    // Warm up, which also builds the time index of each profile.
+    for (var i = 0; i < 5; i++) expression.evaluate(results, Window.between(Duration.ZERO, MINUTE.times(60)));
+
+    var fullSum = 0.;
+    for (var i = 0; i < 3; i++) {
+      final var begin = System.nanoTime();
+      expression.evaluate(results);
+      fullSum += System.nanoTime() - begin;
+    }
+    System.out.println("Full horizon " + (fullSum / 3));
+
+    for (var span = 60; span <= nbPieces; span *= 4) {
+      final var start = MINUTE.times(nbPieces / 2 - span / 2);
+      final var window = Window.between(start, start.plus(MINUTE.times(span)));
+
+      var sum = 0.;
+      for (var i = 0; i < 10; i++) {
+        final var begin = System.nanoTime();
+        expression.evaluate(results, window);
+        sum += System.nanoTime() - begin;
+      }
+      System.out.println(span + " " + (sum / 10));
+    }
+  }
+
+  private static LinearProfile sawtooth(final int nbPieces, final double rate) {
+    final var pieces = new ArrayList<LinearProfilePiece>(nbPieces);
+    for (var i = 0; i < nbPieces; i++) {
+      final var end = (i == nbPieces - 1) ? Inclusive : Exclusive;
+      pieces.add(new LinearProfilePiece(
+          Window.between(MINUTE.times(i), Inclusive, MINUTE.times(i + 1), end),
+          (i % 2 == 0) ? -30.0 : 30.0,
+          rate));
+    }
+    return new LinearProfile(pieces);
+  }
+}
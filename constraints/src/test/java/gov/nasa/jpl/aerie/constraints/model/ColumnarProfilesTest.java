@@ -0,0 +1,82 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ColumnarProfilesTest {
+  @Test
+  public void testConversionMatchesPieces() {
+    final var converter = new ColumnarProfiles();
+    final var real = converter.linear(List.of(
+        Pair.of(SECONDS.times(5), RealDynamics.linear(0, 1)),
+        Pair.of(SECONDS.times(15), RealDynamics.constant(3))));
+    final var discrete = converter.discrete(List.of(
+        Pair.of(SECONDS.times(5), SerializedValue.of("on")),
+        Pair.of(SECONDS.times(15), SerializedValue.of("off"))));
+
+    assertEquals(
+        new LinearProfile(
+            new LinearProfilePiece(Window.between(0, 5, SECONDS), 0, 1),
+            new LinearProfilePiece(Window.between(5, 20, SECONDS), 3, 0)),
+        real);
+    assertEquals(
+        new DiscreteProfile(
+            new DiscreteProfilePiece(Window.between(0, 5, SECONDS), SerializedValue.of("on")),
+            new DiscreteProfilePiece(Window.between(5, 20, SECONDS), SerializedValue.of("off"))),
+        discrete);
+
+    assertEquals(Optional.of(2.0), real.valueAt(SECONDS.times(2)));
+    assertEquals(Optional.of(3.0), real.valueAt(SECONDS.times(5)));
+    assertEquals(Optional.of(SerializedValue.of("off")), discrete.valueAt(SECONDS.times(7)));
+  }
+
+  @Test
+  public void testPiecesAreAllocatedOnce() {
+    final var profile = new ColumnarProfiles().linear(List.of(
+        Pair.of(SECONDS.times(5), RealDynamics.linear(0, 1)),
+        Pair.of(SECONDS.times(15), RealDynamics.constant(3))));
+
+    profile.valueAt(SECONDS.times(7));
+    assertSame(profile.profilePieces.get(1), profile.profilePieces.get(1));
+    assertSame(profile.profilePieces.get(0), profile.slice(Window.between(0, 1, SECONDS)).get(0));
+  }
+
+  @Test
+  public void testDiscreteValuesAreInterned() {
+    final var converter = new ColumnarProfiles();
+    final var first = converter.discrete(List.of(Pair.of(SECONDS, SerializedValue.of("on"))));
+    final var second = converter.discrete(List.of(Pair.of(SECONDS, SerializedValue.of("on"))));
+
+    assertSame(first.profilePieces.get(0).value, second.profilePieces.get(0).value);
+  }
+
+  @Test
+  public void testProfilesAreConvertedOnceOnFirstAccess() {
+    final var profiles = new MemoizedProfiles<>(
+        Map.of(
+            "x", List.of(Pair.of(SECONDS.times(5), RealDynamics.constant(1))),
+            "y", List.of(Pair.of(SECONDS.times(5), RealDynamics.constant(2)))),
+        new ColumnarProfiles()::linear);
+
+    assertEquals(0, profiles.getConversionCount());
+
+    final var first = profiles.get("x");
+    final var second = profiles.get("x");
+
+    assertSame(first, second);
+    assertEquals(null, profiles.get("z"));
+    assertEquals(1, profiles.getConversionCount());
+    assertEquals(1, profiles.getHitCount());
+  }
+}
@@ -2,15 +2,18 @@ package gov.nasa.jpl.aerie.constraints.model;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Optional;
 
 import static gov.nasa.jpl.aerie.constraints.Assertions.assertEquivalent;
 import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Exclusive;
 import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Inclusive;
 import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class DiscreteProfileTest {
 
@@ -99,4 +102,25 @@ public class DiscreteProfileTest {
 
     assertEquivalent(expected, result);
   }
+
+  @Test
+  public void testValueAtAndRestrictTo() {
+    final var profile = new DiscreteProfile(List.of(
+        new DiscreteProfilePiece(Window.between( 0, Inclusive,  5, Exclusive, SECONDS), SerializedValue.of(true)),
+        new DiscreteProfilePiece(Window.between( 5, Inclusive, 10, Exclusive, SECONDS), SerializedValue.of(false)),
+        new DiscreteProfilePiece(Window.between(10, Inclusive, 20, Inclusive, SECONDS), SerializedValue.of(true))
+    ));
+
+    assertEquals(Optional.of(SerializedValue.of(true)), profile.valueAt(Duration.of(4, SECONDS)));
+    assertEquals(Optional.of(SerializedValue.of(false)), profile.valueAt(Duration.of(5, SECONDS)));
+    assertEquals(Optional.of(SerializedValue.of(true)), profile.valueAt(Duration.of(20, SECONDS)));
+    assertEquals(Optional.empty(), profile.valueAt(Duration.of(25, SECONDS)));
+
+    final var expected = new DiscreteProfile(List.of(
+        new DiscreteProfilePiece(Window.between( 7, Inclusive, 10, Exclusive, SECONDS), SerializedValue.of(false)),
+        new DiscreteProfilePiece(Window.between(10, Inclusive, 12, Inclusive, SECONDS), SerializedValue.of(true))
+    ));
+
+    assertEquivalent(expected, profile.restrictTo(Window.between(7, 12, SECONDS)));
+  }
 }
@@ -2,12 +2,16 @@ package gov.nasa.jpl.aerie.constraints.model;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import org.junit.jupiter.api.Test;
 
+import java.util.Optional;
+
 import static gov.nasa.jpl.aerie.constraints.Assertions.assertEquivalent;
 import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Exclusive;
 import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Inclusive;
 import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class LinearProfileTest {
 
@@ -288,4 +292,83 @@ public class LinearProfileTest {
 
     assertEquivalent(expected, result);
   }
+
+  @Test
+  public void testValueAt() {
+    final var profile = new LinearProfile(
+        new LinearProfilePiece(Window.between( 0, Inclusive,  5, Inclusive, SECONDS),  0,  1),
+        new LinearProfilePiece(Window.between( 5, Exclusive, 10, Exclusive, SECONDS), 10, -1),
+        new LinearProfilePiece(Window.between(12, Inclusive, 20, Inclusive, SECONDS),  3,  0)
+    );
+
+    assertEquals(Optional.of(0.0), profile.valueAt(Duration.of(0, SECONDS)));
+    assertEquals(Optional.of(5.0), profile.valueAt(Duration.of(5, SECONDS)));
+    assertEquals(Optional.of(9.0), profile.valueAt(Duration.of(6, SECONDS)));
+    assertEquals(Optional.empty(), profile.valueAt(Duration.of(10, SECONDS)));
+    assertEquals(Optional.empty(), profile.valueAt(Duration.of(11, SECONDS)));
+    assertEquals(Optional.of(3.0), profile.valueAt(Duration.of(20, SECONDS)));
+    assertEquals(Optional.empty(), profile.valueAt(Duration.of(21, SECONDS)));
+    assertEquals(Optional.empty(), profile.valueAt(Duration.of(-1, SECONDS)));
+  }
+
+  @Test
+  public void testRestrictTo() {
+    final var profile = new LinearProfile(
+        new LinearProfilePiece(Window.between( 0, Inclusive,  5, Exclusive, SECONDS),  0,  1),
+        new LinearProfilePiece(Window.between( 5, Inclusive, 10, Exclusive, SECONDS), 10, -1),
+        new LinearProfilePiece(Window.between(10, Inclusive, 15, Exclusive, SECONDS),  5,  0),
+        new LinearProfilePiece(Window.between(15, Inclusive, 20, Inclusive, SECONDS),  5,  2)
+    );
+
+    final var result = profile.restrictTo(Window.between(3, Inclusive, 12, Exclusive, SECONDS));
+
+    final var expected = new LinearProfile(
+        new LinearProfilePiece(Window.between( 3, Inclusive,  5, Exclusive, SECONDS),  3,  1),
+        new LinearProfilePiece(Window.between( 5, Inclusive, 10, Exclusive, SECONDS), 10, -1),
+        new LinearProfilePiece(Window.between(10, Inclusive, 12, Exclusive, SECONDS),  5,  0)
+    );
+
+    assertEquivalent(expected, result);
+    assertEquals(2, profile.slice(Window.between(5, Inclusive, 10, Inclusive, SECONDS)).size());
+    assertEquals(0, profile.slice(Window.between(21, 30, SECONDS)).size());
+  }
+
+  @Test
+  public void testRestrictToKeepsPieceEndingInclusivelyAtWindowStart() {
+    final var profile = new LinearProfile(
+        new LinearProfilePiece(Window.between(0, Inclusive,  5, Inclusive, SECONDS),  0,  1),
+        new LinearProfilePiece(Window.between(5, Exclusive, 10, Exclusive, SECONDS), 10, -1)
+    );
+
+    final var result = profile.restrictTo(Window.between(5, Inclusive, 8, Inclusive, SECONDS));
+
+    assertEquals(Optional.of(5.0), profile.valueAt(Duration.of(5, SECONDS)));
+    assertEquals(Optional.of(5.0), result.valueAt(Duration.of(5, SECONDS)));
+    assertEquals(Optional.of(9.0), result.valueAt(Duration.of(6, SECONDS)));
+    assertEquals(2, profile.slice(Window.between(5, Inclusive, 8, Inclusive, SECONDS)).size());
+  }
+
+  @Test
+  public void testFusedArithmeticComparison() {
+    final var a = new LinearProfile(
+        new LinearProfilePiece(Window.between( 0, Inclusive, 10, Exclusive, SECONDS), 0, 1),
+        new LinearProfilePiece(Window.between(10, Inclusive, 20, Inclusive, SECONDS), 10, 0)
+    );
+    final var b = new LinearProfile(
+        new LinearProfilePiece(Window.between( 0, Inclusive,  5, Exclusive, SECONDS), 0, 2),
+        new LinearProfilePiece(Window.between( 5, Inclusive, 20, Inclusive, SECONDS), 10, 0)
+    );
+    final var c = new LinearProfile(
+        new LinearProfilePiece(Window.between( 0, Inclusive, 20, Inclusive, SECONDS), 10, 0)
+    );
+
+    // (> (+ (* a 2) (rate b)) c)
+    final var result = a.times(2).plus(b.rate()).greaterThan(c, Window.between(0, 20, SECONDS));
+
+    final var expected = new Windows();
+    expected.add(Window.between(4, Exclusive, 5, Exclusive, SECONDS));
+    expected.add(Window.between(5, Exclusive, 20, Inclusive, SECONDS));
+
+    assertEquivalent(expected, result);
+  }
 }
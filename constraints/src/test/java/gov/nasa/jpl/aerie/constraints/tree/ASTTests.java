@@ -442,6 +442,37 @@ public class ASTTests {
     assertEquivalent(expected, result);
   }
 
+  @Test
+  public void testWindowedEvaluation() {
+    final var simResults = new SimulationResults(
+        Window.between(0, 20, SECONDS),
+        List.of(),
+        Map.of(
+            "x", new LinearProfile(List.of(
+                new LinearProfilePiece(Window.between( 0, Inclusive,  5, Exclusive, SECONDS), 0,  1),
+                new LinearProfilePiece(Window.between( 5, Inclusive, 10, Exclusive, SECONDS), 5,  0),
+                new LinearProfilePiece(Window.between(10, Inclusive, 20, Inclusive, SECONDS), 5, -1)))),
+        Map.of(
+            "mode", new DiscreteProfile(List.of(
+                new DiscreteProfilePiece(Window.between( 0, Inclusive, 10, Exclusive, SECONDS), SerializedValue.of("A")),
+                new DiscreteProfilePiece(Window.between(10, Inclusive, 20, Inclusive, SECONDS), SerializedValue.of("B")))))
+    );
+
+    final List<Expression<Windows>> expressions = List.of(
+        new LessThan(new Plus(new RealResource("x"), new Rate(new RealResource("x"))), new RealValue(3)),
+        new Changed<>(new ProfileExpression<>(new DiscreteResource("mode"))),
+        new Transition(new DiscreteResource("mode"), SerializedValue.of("A"), SerializedValue.of("B")),
+        new Not(new Equal<>(new DiscreteResource("mode"), new DiscreteValue(SerializedValue.of("A")))));
+
+    final var window = Window.between(10, Inclusive, 15, Exclusive, SECONDS);
+    for (final var expression : expressions) {
+      final var expected = Windows.intersection(expression.evaluate(simResults), new Windows(window));
+      final var result = expression.evaluate(simResults, window);
+
+      assertEquivalent(expected, result);
+    }
+  }
+
   private static final class Supplier<T> implements Expression<T> {
     private final T value;
 
@@ -458,6 +489,9 @@ public class ASTTests {
     @Override
     public void extractResources(final Set<String> names) { }
 
+    @Override
+    public void extractActivityTypes(final Set<String> types) { }
+
     @Override
     public String prettyPrint(final String prefix) {
       return value.toString();
@@ -0,0 +1,98 @@
+package gov.nasa.jpl.aerie.contrib.serialization.mappers;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.util.function.Supplier;
+
+/**
+ * Static equivalents of the basic value mappers, called directly by generated activity and configuration mappers.
+ *
+ * Each method behaves like the mapper of its type in {@link gov.nasa.jpl.aerie.contrib.serialization.rulesets.BasicValueMappers}
+ * (wrapped in a {@link NullableValueMapper} for reference types), but deserializes straight to the field type,
+ * and reports a failure by throwing the caller's exception rather than by returning a {@code Result}.
+ */
+public final class InlineValueMappers {
+  private InlineValueMappers() {}
+
+  public static SerializedValue serialize(final Boolean value) {
+    return (value == null) ? SerializedValue.NULL : SerializedValue.of(value);
+  }
+
+  public static SerializedValue serialize(final Integer value) {
+    return (value == null) ? SerializedValue.NULL : SerializedValue.of(value);
+  }
+
+  public static SerializedValue serialize(final Long value) {
+    return (value == null) ? SerializedValue.NULL : SerializedValue.of(value);
+  }
+
+  public static SerializedValue serialize(final Double value) {
+    return (value == null) ? SerializedValue.NULL : SerializedValue.of(value);
+  }
+
+  public static SerializedValue serialize(final String value) {
+    return (value == null) ? SerializedValue.NULL : SerializedValue.of(value);
+  }
+
+  public static <E extends Exception> boolean deserializeBoolean(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.asBoolean().orElseThrow(failure);
+  }
+
+  public static <E extends Exception> int deserializeInt(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    final long x = value.asInt().orElseThrow(failure);
+    if (x != (int) x) throw failure.get();
+    return (int) x;
+  }
+
+  public static <E extends Exception> long deserializeLong(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.asInt().orElseThrow(failure);
+  }
+
+  public static <E extends Exception> double deserializeDouble(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.asReal().orElseThrow(failure);
+  }
+
+  public static <E extends Exception> String deserializeString(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.asString().orElseThrow(failure);
+  }
+
+  public static <E extends Exception> Boolean deserializeNullableBoolean(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.isNull() ? null : deserializeBoolean(value, failure);
+  }
+
+  public static <E extends Exception> Integer deserializeNullableInt(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.isNull() ? null : deserializeInt(value, failure);
+  }
+
+  public static <E extends Exception> Long deserializeNullableLong(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.isNull() ? null : deserializeLong(value, failure);
+  }
+
+  public static <E extends Exception> Double deserializeNullableDouble(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.isNull() ? null : deserializeDouble(value, failure);
+  }
+
+  public static <E extends Exception> String deserializeNullableString(final SerializedValue value, final Supplier<E> failure)
+  throws E
+  {
+    return value.isNull() ? null : deserializeString(value, failure);
+  }
+}
@@ -12,6 +12,8 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ParameterTestActivityTest {
   private final ParameterTestActivityMapper mapper;
@@ -160,6 +162,29 @@ public class ParameterTestActivityTest {
     // TODO; Check equality for obnoxious (this is quite complex)
   }
 
+  @Test
+  public void testOutOfRangeIntFails() {
+    final Map<String, SerializedValue> arguments = createSerializedArguments();
+    arguments.put("primitiveInt", SerializedValue.of(Long.MAX_VALUE));
+
+    assertThrows(TaskSpecType.UnconstructableTaskSpecException.class, () -> this.mapper.instantiate(arguments));
+  }
+
+  @Test
+  public void testNullBoxedArguments() throws TaskSpecType.UnconstructableTaskSpecException {
+    final Map<String, SerializedValue> arguments = createSerializedArguments();
+    arguments.put("boxedInt", SerializedValue.NULL);
+    arguments.put("string", SerializedValue.NULL);
+
+    final ParameterTestActivity deserializedActivity = this.mapper.instantiate(arguments);
+    assertNull(deserializedActivity.boxedInt);
+    assertNull(deserializedActivity.string);
+
+    final Map<String, SerializedValue> activityArgs = this.mapper.getArguments(deserializedActivity);
+    assertEquals(SerializedValue.NULL, activityArgs.get("boxedInt"));
+    assertEquals(SerializedValue.NULL, activityArgs.get("string"));
+  }
+
   private Map<String, SerializedValue> createSerializedArguments() {
     final ParameterTestActivity testValues = new ParameterTestActivity();
     final Map<String, SerializedValue> arguments = new HashMap<>();
@@ -0,0 +1,120 @@
+package gov.nasa.jpl.aerie.banananation.activities;
+
+import gov.nasa.jpl.aerie.banananation.generated.activities.BakeBananaBreadActivityMapper;
+import gov.nasa.jpl.aerie.banananation.generated.activities.BiteBananaActivityMapper;
+import gov.nasa.jpl.aerie.banananation.generated.activities.PeelBananaActivityMapper;
+import gov.nasa.jpl.aerie.banananation.generated.activities.PickBananaActivityMapper;
+import gov.nasa.jpl.aerie.banananation.generated.activities.ThrowBananaActivityMapper;
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.NullableValueMapper;
+import gov.nasa.jpl.aerie.contrib.serialization.rulesets.BasicValueMappers;
+import gov.nasa.jpl.aerie.merlin.framework.ValueMapper;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ValueMapperBenchmark {
+  // The mappers the generated mappers called for each parameter before they inlined the basic value mappers.
+  private static final Map<String, ValueMapper<?>> combinatorMappers = Map.of(
+      "biteSize", BasicValueMappers.$double(),
+      "peelDirection", new NullableValueMapper<>(BasicValueMappers.string()),
+      "quantity", BasicValueMappers.$int(),
+      "speed", BasicValueMappers.$double(),
+      "temperature", BasicValueMappers.$double(),
+      "tbSugar", BasicValueMappers.$int(),
+      "glutenFree", BasicValueMappers.$boolean());
+
+  /**
+   * This benchmark deserializes and reserializes the arguments of 1M banananation activities
+   * (BiteBanana, PeelBanana, PickBanana, ThrowBanana and BakeBananaBread),
+   * first through the combinator value mappers, then through the generated activity mappers.
+   * Each printed timing _left _right shows the mean time _right (in ns) it took to map all the arguments with method _left.
+   *
+   * The combinator timing only covers mapping each argument, whereas the generated mappers also
+   * instantiate and validate the presence of arguments of each activity, so the comparison favors the combinators.
+   */
+  public static void main(String[] args) {
+    final var activities = makeActivities(1_000_000);
+
+    // Warm up.
+    for (var i = 0; i < 3; i++) {
+      mapWithCombinators(activities);
+      mapWithGeneratedMappers(activities);
+    }
+
+    var combinatorSum = 0.;
+    var generatedSum = 0.;
+    for (var i = 0; i < 10; i++) {
+      var start = System.nanoTime();
+      mapWithCombinators(activities);
+      combinatorSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      mapWithGeneratedMappers(activities);
+      generatedSum += System.nanoTime() - start;
+    }
+
+    System.out.println("combinator " + (combinatorSum / 10));
+    System.out.println("generated " + (generatedSum / 10));
+  }
+
+  private static List<Map.Entry<String, Map<String, SerializedValue>>> makeActivities(final int nbActivities) {
+    final var activities = new ArrayList<Map.Entry<String, Map<String, SerializedValue>>>(nbActivities);
+    for (var i = 0; i < nbActivities; i++) {
+      activities.add(switch (i % 5) {
+        case 0 -> Map.entry("BiteBanana", Map.of("biteSize", SerializedValue.of(i * 0.5)));
+        case 1 -> Map.entry("PeelBanana", Map.of("peelDirection", SerializedValue.of((i % 2 == 0) ? "fromStem" : "fromTip")));
+        case 2 -> Map.entry("PickBanana", Map.of("quantity", SerializedValue.of(i % 100 + 1)));
+        case 3 -> Map.entry("ThrowBanana", Map.of("speed", SerializedValue.of(i % 10 + 1.0)));
+        default -> Map.entry("BakeBananaBread", Map.of(
+            "temperature", SerializedValue.of(350.0),
+            "tbSugar", SerializedValue.of(i % 4),
+            "glutenFree", SerializedValue.of(i % 2 == 0)));
+      });
+    }
+    return activities;
+  }
+
+  private static Object mapWithCombinators(final List<Map.Entry<String, Map<String, SerializedValue>>> activities) {
+    final var results = new ArrayList<Map<String, SerializedValue>>(activities.size());
+    for (final var activity : activities) {
+      final var arguments = new HashMap<String, SerializedValue>();
+      for (final var argument : activity.getValue().entrySet()) {
+        arguments.put(argument.getKey(), remap(combinatorMappers.get(argument.getKey()), argument.getValue()));
+      }
+      results.add(arguments);
+    }
+    return results;
+  }
+
+  private static <T> SerializedValue remap(final ValueMapper<T> mapper, final SerializedValue value) {
+    return mapper.serializeValue(mapper.deserializeValue(value).getSuccessOrThrow(IllegalArgumentException::new));
+  }
+
+  private static final BiteBananaActivityMapper biteBanana = new BiteBananaActivityMapper();
+  private static final PeelBananaActivityMapper peelBanana = new PeelBananaActivityMapper();
+  private static final PickBananaActivityMapper pickBanana = new PickBananaActivityMapper();
+  private static final ThrowBananaActivityMapper throwBanana = new ThrowBananaActivityMapper();
+  private static final BakeBananaBreadActivityMapper bakeBananaBread = new BakeBananaBreadActivityMapper();
+
+  private static Object mapWithGeneratedMappers(final List<Map.Entry<String, Map<String, SerializedValue>>> activities) {
+    final var results = new ArrayList<Map<String, SerializedValue>>(activities.size());
+    try {
+      for (final var activity : activities) {
+        final var arguments = activity.getValue();
+        results.add(switch (activity.getKey()) {
+          case "BiteBanana" -> biteBanana.getArguments(biteBanana.instantiate(arguments));
+          case "PeelBanana" -> peelBanana.getArguments(peelBanana.instantiate(arguments));
+          case "PickBanana" -> pickBanana.getArguments(pickBanana.instantiate(arguments));
+          case "ThrowBanana" -> throwBanana.getArguments(throwBanana.instantiate(arguments));
+          default -> bakeBananaBread.getArguments(bakeBananaBread.instantiate(arguments));
+        });
+      }
+    } catch (final Exception ex) {
+      throw new RuntimeException(ex);
+    }
+    return results;
+  }
+}
@@ -53,6 +53,15 @@ public final class Resolver {
     }
   }
 
+  /** Find the rule that {@link #instantiateMapperFor} applies first to build a mapper for the given type. */
+  public Optional<TypeRule> findRuleFor(final TypeMirror mirror) {
+    final var goal = createInitialGoal(mirror);
+    for (final var rule : this.typeRules) {
+      if (this.applyRule(rule, goal).isPresent()) return Optional.of(rule);
+    }
+    return Optional.empty();
+  }
+
   private TypePattern createInitialGoal(final TypeMirror mirror) {
     final List<TypePattern> mapperArguments;
     if (mirror.getKind().isPrimitive()) {
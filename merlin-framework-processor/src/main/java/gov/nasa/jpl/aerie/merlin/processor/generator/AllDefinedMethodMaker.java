@@ -11,13 +11,14 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.MissingArgumentsException;
 
 import javax.lang.model.element.Modifier;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /** Method maker for defaults style where all default arguments are provided within @Parameter annotations. */
 /*package-private*/ final class AllDefinedMethodMaker extends MapperMethodMaker {
 
-  public AllDefinedMethodMaker(final ExportTypeRecord exportType) {
-    super(exportType);
+  public AllDefinedMethodMaker(final ExportTypeRecord exportType, final Map<String, InlineMapper> inlineMappers) {
+    super(exportType, inlineMappers);
   }
 
   @Override
@@ -69,11 +70,9 @@ import java.util.Optional;
                     .add("case $S:\n", parameter.name)
                     .indent()
                     .addStatement(
-                        "template.$L = this.mapper_$L.deserializeValue($L.getValue()).getSuccessOrThrow($$ -> new $T())",
+                        "template.$L = $L",
                         parameter.name,
-                        parameter.name,
-                        "entry",
-                        unconstructableInstantiateException)
+                        deserializeArgument(parameter, CodeBlock.of("$L.getValue()", "entry")))
                     .addStatement("break")
                     .unindent())
                 .reduce(CodeBlock.builder(), (x, y) -> x.add(y.build()))
@@ -123,12 +122,10 @@ import java.util.Optional;
                 .map(parameter -> CodeBlock
                     .builder()
                     .addStatement(
-                        "$L.put($S, this.mapper_$L.serializeValue($L.$L))",
+                        "$L.put($S, $L)",
                         "arguments",
                         parameter.name,
-                        parameter.name,
-                        metaName,
-                        parameter.name
+                        serializeArgument(parameter, CodeBlock.of("$L.$L", metaName, parameter.name))
                     ))
                 .reduce(CodeBlock.builder(), (x, y) -> x.add(y.build()))
                 .build())
@@ -13,14 +13,15 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.MissingArgumentsException;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /** Method maker for defaults style where all default arguments are provided within a @Template static method. */
 /*package-private*/ final class AllStaticallyDefinedMethodMaker extends MapperMethodMaker {
 
-  public AllStaticallyDefinedMethodMaker(final ExportTypeRecord exportType) {
-    super(exportType);
+  public AllStaticallyDefinedMethodMaker(final ExportTypeRecord exportType, final Map<String, InlineMapper> inlineMappers) {
+    super(exportType, inlineMappers);
   }
 
   @Override
@@ -75,12 +76,10 @@ import java.util.stream.Collectors;
                         .add("case $S:\n", parameter.name)
                         .indent()
                         .addStatement(
-                            "$L = $L(this.mapper_$L.deserializeValue($L.getValue()).getSuccessOrThrow($$ -> new $T()))",
+                            "$L = $L($L)",
                             parameter.name,
                             "Optional.ofNullable",
-                            parameter.name,
-                            "entry",
-                            unconstructableInstantiateException)
+                            deserializeArgument(parameter, CodeBlock.of("$L.getValue()", "entry")))
                         .addStatement("break")
                         .unindent())
                     .reduce(CodeBlock.builder(), (x, y) -> x.add(y.build()))
@@ -0,0 +1,50 @@
+package gov.nasa.jpl.aerie.merlin.processor.generator;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.InlineValueMappers;
+import gov.nasa.jpl.aerie.contrib.serialization.rulesets.BasicValueMappers;
+import gov.nasa.jpl.aerie.merlin.processor.metamodel.TypeRule;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import javax.lang.model.type.TypeMirror;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A basic value mapper whose behavior generated code reproduces by calling {@link InlineValueMappers} directly,
+ * without instantiating the mapper or wrapping each value in a {@code Result}.
+ *
+ * @param typeName The name of the mapped type, as it appears in the names of the {@link InlineValueMappers} methods.
+ */
+/*package-private*/ record InlineMapper(String typeName) {
+  // The rules of `BasicValueMappers` that can be inlined, by method name.
+  private static final Map<String, String> inlinableRules = Map.of(
+      "$boolean", "Boolean",
+      "$int", "Int",
+      "$long", "Long",
+      "$double", "Double",
+      "string", "String");
+
+  public static Optional<InlineMapper> of(final TypeRule rule) {
+    if (!rule.factory.equals(ClassName.get(BasicValueMappers.class))) return Optional.empty();
+    return Optional.ofNullable(inlinableRules.get(rule.method)).map(InlineMapper::new);
+  }
+
+  public CodeBlock serialize(final TypeMirror type, final CodeBlock value) {
+    // Only reference types may be null, as the generated mappers of reference types are nullable.
+    return (type.getKind().isPrimitive())
+        ? CodeBlock.of("$T.of($L)", SerializedValue.class, value)
+        : CodeBlock.of("$T.serialize($L)", InlineValueMappers.class, value);
+  }
+
+  public CodeBlock deserialize(final TypeMirror type, final CodeBlock serializedValue, final Class<?> failure) {
+    return CodeBlock.of(
+        "$T.deserialize$L$L($L, $T::new)",
+        InlineValueMappers.class,
+        (type.getKind().isPrimitive()) ? "" : "Nullable",
+        this.typeName,
+        serializedValue,
+        failure);
+  }
+}
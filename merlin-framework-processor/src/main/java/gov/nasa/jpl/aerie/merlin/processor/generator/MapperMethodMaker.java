@@ -6,6 +6,7 @@ import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import gov.nasa.jpl.aerie.merlin.processor.metamodel.ActivityTypeRecord;
 import gov.nasa.jpl.aerie.merlin.processor.metamodel.ExportTypeRecord;
+import gov.nasa.jpl.aerie.merlin.processor.metamodel.ParameterRecord;
 import gov.nasa.jpl.aerie.merlin.protocol.model.ConfigurationType;
 import gov.nasa.jpl.aerie.merlin.protocol.model.TaskSpecType;
 import gov.nasa.jpl.aerie.merlin.protocol.types.MissingArgumentsException;
@@ -13,6 +14,7 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Parameter;
 
 import javax.lang.model.element.Modifier;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -28,9 +30,15 @@ public abstract sealed class MapperMethodMaker permits
   /*package-private*/ final ExportTypeRecord exportType;
   /*package-private*/ final String metaName;
   /*package-private*/ final Class<?> unconstructableInstantiateException;
+  /*package-private*/ final Map<String, InlineMapper> inlineMappers;
 
-  public MapperMethodMaker(final ExportTypeRecord exportType) {
+  /**
+   * @param inlineMappers The mappers to inline in generated code instead of calling the mapper fields,
+   *   by name of the parameter they map.
+   */
+  public MapperMethodMaker(final ExportTypeRecord exportType, final Map<String, InlineMapper> inlineMappers) {
     this.exportType = exportType;
+    this.inlineMappers = inlineMappers;
 
     // TODO currently only 2 permitted classes (activity and config. type records),
     //  this should be changed to a switch expression once sealed class pattern-matching switch expressions exist
@@ -107,12 +115,10 @@ public abstract sealed class MapperMethodMaker permits
                 .map(parameter -> CodeBlock
                     .builder()
                     .addStatement(
-                        "$L.put($S, this.mapper_$L.serializeValue($L.$L()))",
+                        "$L.put($S, $L)",
                         "arguments",
                         parameter.name,
-                        parameter.name,
-                        metaName,
-                        parameter.name
+                        serializeArgument(parameter, CodeBlock.of("$L.$L()", metaName, parameter.name))
                     ))
                 .reduce(CodeBlock.builder(), (x, y) -> x.add(y.build()))
                 .build())
@@ -175,9 +181,43 @@ public abstract sealed class MapperMethodMaker permits
         .build();
   }
 
+  /** Build code serializing the value of a parameter, calling its mapper unless the mapper is inlined. */
+  protected final CodeBlock serializeArgument(final ParameterRecord parameter, final CodeBlock value) {
+    final var inlineMapper = this.inlineMappers.get(parameter.name);
+    if (inlineMapper != null) return inlineMapper.serialize(parameter.type, value);
+
+    return CodeBlock.of("this.mapper_$L.serializeValue($L)", parameter.name, value);
+  }
+
+  /**
+   * Build code deserializing the value of a parameter, calling its mapper unless the mapper is inlined.
+   * The code throws an unconstructable exception if the value cannot be deserialized.
+   */
+  protected final CodeBlock deserializeArgument(final ParameterRecord parameter, final CodeBlock serializedValue) {
+    final var inlineMapper = this.inlineMappers.get(parameter.name);
+    if (inlineMapper != null) {
+      return inlineMapper.deserialize(parameter.type, serializedValue, unconstructableInstantiateException);
+    }
+
+    return CodeBlock.of(
+        "this.mapper_$L.deserializeValue($L).getSuccessOrThrow($$ -> new $T())",
+        parameter.name,
+        serializedValue,
+        unconstructableInstantiateException);
+  }
+
   protected final MethodSpec.Builder makeArgumentsPresentCheck(final MethodSpec.Builder methodBuilder) {
-    // Ensure all parameters are non-null
+    if (exportType.parameters().isEmpty()) return methodBuilder;
+
+    // Ensure all parameters are non-null.
+    // The arguments are only re-serialized to report the missing ones, so as not to slow down every instantiation.
     return methodBuilder
+        .beginControlFlow(
+            "if ($L)",
+            exportType.parameters()
+                .stream()
+                .map(parameter -> parameter.name + ".isEmpty()")
+                .collect(Collectors.joining(" || ")))
         .addStatement(
             "final var $L = new $T(\"$L\", \"$L\")",
             "missingArgsExBuilder",
@@ -209,15 +249,16 @@ public abstract sealed class MapperMethodMaker permits
             "if (!$L.$L.isEmpty()) throw $L",
             "missingArgsEx",
             "missingArguments",
-            "missingArgsEx");
+            "missingArgsEx")
+        .endControlFlow();
   }
 
-  static MapperMethodMaker make(final ExportTypeRecord exportType) {
+  static MapperMethodMaker make(final ExportTypeRecord exportType, final Map<String, InlineMapper> inlineMappers) {
     return switch (exportType.defaultsStyle()) {
-      case AllStaticallyDefined -> new AllStaticallyDefinedMethodMaker(exportType);
-      case NoneDefined -> new NoneDefinedMethodMaker(exportType);
-      case AllDefined -> new AllDefinedMethodMaker(exportType);
-      case SomeStaticallyDefined -> new SomeStaticallyDefinedMethodMaker(exportType);
+      case AllStaticallyDefined -> new AllStaticallyDefinedMethodMaker(exportType, inlineMappers);
+      case NoneDefined -> new NoneDefinedMethodMaker(exportType, inlineMappers);
+      case AllDefined -> new AllDefinedMethodMaker(exportType, inlineMappers);
+      case SomeStaticallyDefined -> new SomeStaticallyDefinedMethodMaker(exportType, inlineMappers);
     };
   }
 }
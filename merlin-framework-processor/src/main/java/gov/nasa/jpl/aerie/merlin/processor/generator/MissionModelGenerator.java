@@ -438,7 +438,7 @@ public record MissionModelGenerator(Elements elementUtils, Types typeUtils, Mess
     if (maybeMapperBlocks.isEmpty()) return Optional.empty();
 
     final var mapperBlocks = maybeMapperBlocks.get();
-    final var mapperMethodMaker = MapperMethodMaker.make(exportType);
+    final var mapperMethodMaker = MapperMethodMaker.make(exportType, findInlineMappers(missionModel, exportType));
 
     // TODO currently only 2 permitted classes (activity and config. type records),
     //  this should be changed to a switch expression once sealed class pattern-matching switch expressions exist
@@ -664,6 +664,21 @@ public record MissionModelGenerator(Elements elementUtils, Types typeUtils, Mess
                      .build();
   }
 
+  /** Find the parameters whose mappers can be inlined in the generated mapper, as they are basic value mappers. */
+  private Map<String, InlineMapper> findInlineMappers(final MissionModelRecord missionModel, final ExportTypeRecord exportType) {
+    final var resolver = new Resolver(this.typeUtils, this.elementUtils, missionModel.typeRules);
+    final var inlineMappers = new HashMap<String, InlineMapper>();
+
+    for (final var parameter : exportType.parameters()) {
+      resolver
+          .findRuleFor(parameter.type)
+          .flatMap(InlineMapper::of)
+          .ifPresent(inlineMapper -> inlineMappers.put(parameter.name, inlineMapper));
+    }
+
+    return inlineMappers;
+  }
+
   private Optional<Map<String, CodeBlock>> generateParameterMapperBlocks(final MissionModelRecord missionModel, final ExportTypeRecord exportType)
   {
     final var resolver = new Resolver(this.typeUtils, this.elementUtils, missionModel.typeRules);
@@ -11,14 +11,15 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.MissingArgumentsException;
 
 import javax.lang.model.element.Modifier;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /** Method maker for defaults style where no default arguments are provided (for example, a record class). */
 /*package-private*/ final class NoneDefinedMethodMaker extends MapperMethodMaker {
 
-  public NoneDefinedMethodMaker(final ExportTypeRecord exportType) {
-    super(exportType);
+  public NoneDefinedMethodMaker(final ExportTypeRecord exportType, final Map<String, InlineMapper> inlineMappers) {
+    super(exportType, inlineMappers);
   }
 
   @Override
@@ -65,11 +66,9 @@ import java.util.stream.Collectors;
                     .add("case $S:\n", parameter.name)
                     .indent()
                     .addStatement(
-                        "$L = Optional.ofNullable(this.mapper_$L.deserializeValue($L.getValue()).getSuccessOrThrow($$ -> new $T()))",
+                        "$L = Optional.ofNullable($L)",
                         parameter.name,
-                        parameter.name,
-                        "entry",
-                        unconstructableInstantiateException)
+                        deserializeArgument(parameter, CodeBlock.of("$L.getValue()", "entry")))
                     .addStatement("break")
                     .unindent())
                 .reduce(CodeBlock.builder(), (x, y) -> x.add(y.build()))
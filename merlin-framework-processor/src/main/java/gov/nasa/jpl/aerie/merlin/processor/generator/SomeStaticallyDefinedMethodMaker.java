@@ -15,14 +15,15 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /** Method maker for defaults style where some arguments are provided within an @WithDefaults static class. */
 /*package-private*/ final class SomeStaticallyDefinedMethodMaker extends MapperMethodMaker {
 
-  public SomeStaticallyDefinedMethodMaker(final ExportTypeRecord exportType) {
-    super(exportType);
+  public SomeStaticallyDefinedMethodMaker(final ExportTypeRecord exportType, final Map<String, InlineMapper> inlineMappers) {
+    super(exportType, inlineMappers);
   }
 
   @Override
@@ -81,11 +82,9 @@ import java.util.stream.Collectors;
                     .add("case $S:\n", parameter.name)
                     .indent()
                     .addStatement(
-                        "$L = Optional.ofNullable(this.mapper_$L.deserializeValue($L.getValue()).getSuccessOrThrow($$ -> new $T()))",
+                        "$L = Optional.ofNullable($L)",
                         parameter.name,
-                        parameter.name,
-                        "entry",
-                        unconstructableInstantiateException)
+                        deserializeArgument(parameter, CodeBlock.of("$L.getValue()", "entry")))
                     .addStatement("break")
                     .unindent())
                 .reduce(CodeBlock.builder(), (x, y) -> x.add(y.build()))
@@ -437,4 +437,46 @@ public abstract class SerializedValue {
       }
     });
   }
+
+  @Override
+  public int hashCode() {
+    // Integral values compare equal to the same real value, so both must hash as reals.
+    // Adding zero normalizes negative zero, which compares equal to positive zero.
+    return this.match(new Visitor<>() {
+      @Override
+      public Integer onNull() {
+        return 0;
+      }
+
+      @Override
+      public Integer onReal(final double value) {
+        return Double.hashCode(value + 0.0);
+      }
+
+      @Override
+      public Integer onInt(final long value) {
+        return Double.hashCode((double) value + 0.0);
+      }
+
+      @Override
+      public Integer onBoolean(final boolean value) {
+        return Boolean.hashCode(value);
+      }
+
+      @Override
+      public Integer onString(final String value) {
+        return value.hashCode();
+      }
+
+      @Override
+      public Integer onMap(final Map<String, SerializedValue> value) {
+        return value.hashCode();
+      }
+
+      @Override
+      public Integer onList(final List<SerializedValue> value) {
+        return value.hashCode();
+      }
+    });
+  }
 }
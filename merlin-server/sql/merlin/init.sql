@@ -21,6 +21,7 @@ begin;
   \ir tables/span.sql
   \ir tables/profile.sql
   \ir tables/profile_segment.sql
+  \ir tables/profile_level_of_detail.sql
   \ir tables/topic.sql
   \ir tables/event.sql
 
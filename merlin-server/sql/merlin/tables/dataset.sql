@@ -21,6 +21,9 @@ language plpgsql as $$begin
   execute
     'create table profile_segment_' || new.id
     || ' partition of profile_segment for values in (' || new.id || ')';
+  execute
+    'create table profile_level_of_detail_' || new.id
+    || ' partition of profile_level_of_detail for values in (' || new.id || ')';
   execute
     'create table span_' || new.id
     || ' partition of span for values in (' || new.id || ')';
@@ -35,6 +38,7 @@ returns trigger
 security definer
 language plpgsql as $$begin
   execute 'drop table profile_segment_' || old.id || ' cascade';
+  execute 'drop table profile_level_of_detail_' || old.id || ' cascade';
   execute 'drop table span_' || old.id || ' cascade';
   execute 'drop table event_' || old.id || ' cascade';
 return old;
@@ -3,18 +3,22 @@ create table event
   dataset_id integer not null,
   real_time interval not null,
   transaction_index integer not null,
-  causal_time text,
+  causal_order integer not null,
+  causal_dual_order integer not null,
 
   value jsonb,
+  value_bytes bytea,
   topic_index integer not null,
 
   constraint event_natural_key
-    primary key (dataset_id, real_time, causal_time),
+    primary key (dataset_id, real_time, transaction_index, causal_order),
   constraint event_owned_by_topic
     foreign key (dataset_id, topic_index)
       references topic
       on update cascade
-      on delete cascade
+      on delete cascade,
+  constraint event_has_one_value
+    check ((value is null) <> (value_bytes is null))
 )
 partition by list (dataset_id);
 
@@ -26,9 +30,21 @@ comment on column event.real_time is e''
   'The simulation time at which this event takes place';
 comment on column event.transaction_index is e''
   'When multiple transactions occur at the same real_time, the transaction index will disambiguate them';
-comment on column event.causal_time is e''
-  'A string that allows any two events at the same real time to be compared for causal relationships.';
+comment on column event.causal_order is e''
+  'The position of this event within its transaction when concurrent branches are listed from left to right.'
+'\n'
+  'Together with causal_dual_order, this allows any two events of a transaction to be compared for causal relationships: '
+  'an event causally precedes another iff both its causal_order and its causal_dual_order are smaller, '
+  'and two events are concurrent iff these orders disagree. '
+  'Scanning events by (real_time, transaction_index, causal_order) visits them in an order consistent with causality.';
+comment on column event.causal_dual_order is e''
+  'The position of this event within its transaction when concurrent branches are listed from right to left.';
 comment on column event.value is e''
-  'The value of this event as a json blob';
+  'The value of this event as a json blob, or NULL if it is stored in value_bytes.';
+comment on column event.value_bytes is e''
+  'The value of this event in the compact binary encoding of the merlin server, or NULL if it is stored as json.'
+'\n'
+  'Written instead of the json value when the merlin server is configured with MERLIN_EVENT_ENCODING=binary, '
+  'which makes event datasets smaller and faster to write and read, at the cost of not being queryable as json.';
 comment on column event.topic_index is e''
   'The topic of this event';
@@ -0,0 +1,51 @@
+create table profile_level_of_detail (
+  dataset_id integer not null,
+  profile_id integer not null,
+  level integer not null,
+
+  start_offset interval not null,
+  minimum double precision not null,
+  maximum double precision not null,
+  minimum_first boolean not null,
+
+  constraint profile_level_of_detail_natural_key
+    unique (dataset_id, profile_id, level, start_offset),
+  constraint profile_level_of_detail_owned_by_profile
+    foreign key (profile_id)
+    references profile
+    on update cascade
+    on delete cascade
+)
+partition by list (dataset_id);
+
+-- As for profile_segment, the btree index behind profile_level_of_detail_natural_key serves both to find
+-- the levels stored for a profile and to read the summaries of one level within a time window.
+
+comment on table profile_level_of_detail is e''
+  'A summary of a real profile over a bucket of time, at one of several levels of detail computed when the profile is stored.'
+'\n'
+  'Level N divides time since the start of the plan into buckets of 4^N seconds. Only the buckets in which a segment '
+  'of the profile starts are summarized, so like a profile segment, a summary holds until the next one at the same level '
+  'begins. Levels that would not at least halve the number of rows of the finer level stored before them are omitted.'
+'\n'
+  'Plotting a profile over a window with a budget of N points needs only the summaries of the finest level with '
+  'fewer than N buckets in the window, regardless of the number of segments of the profile.'
+'\n'
+  'The table is partitioned by dataset, like profile_segment.';
+
+comment on column profile_level_of_detail.dataset_id is e''
+  'The dataset this summary''s profile is a part of.'
+'\n'
+  'Denormalized for partitioning. Should always match ''profile.dataset_id''.';
+comment on column profile_level_of_detail.profile_id is e''
+  'The profile this summary is a part of.';
+comment on column profile_level_of_detail.level is e''
+  'The level of detail this summary is a part of. Its buckets are 4^level seconds wide.';
+comment on column profile_level_of_detail.start_offset is e''
+  'The offset from the start of the plan at which the bucket summarized by this row starts.';
+comment on column profile_level_of_detail.minimum is e''
+  'The smallest value taken by the profile between this summary and the next.';
+comment on column profile_level_of_detail.maximum is e''
+  'The largest value taken by the profile between this summary and the next.';
+comment on column profile_level_of_detail.minimum_first is e''
+  'Whether the profile reaches its minimum before its maximum between this summary and the next.';
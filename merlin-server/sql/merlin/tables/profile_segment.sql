@@ -15,7 +15,8 @@ create table profile_segment (
 )
 partition by list (dataset_id);
 
--- TODO: Add a range index for start_offset.
+-- The btree index behind profile_segment_natural_key also serves as the range index on start_offset:
+-- segments of one profile within a time window are read by a range scan of (dataset_id, profile_id, start_offset).
 
 comment on table profile_segment is e''
   'A piece of a profile associated with a dataset, starting at a particular offset from the dataset basis. '
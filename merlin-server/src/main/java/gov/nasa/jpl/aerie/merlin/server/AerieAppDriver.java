@@ -4,6 +4,7 @@ import com.impossibl.postgres.jdbc.PGDataSource;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import gov.nasa.jpl.aerie.merlin.server.config.AppConfiguration;
+import gov.nasa.jpl.aerie.merlin.server.config.EventEncoding;
 import gov.nasa.jpl.aerie.merlin.server.config.InMemoryStore;
 import gov.nasa.jpl.aerie.merlin.server.config.JavalinLoggingState;
 import gov.nasa.jpl.aerie.merlin.server.config.PostgresStore;
@@ -86,7 +87,7 @@ public final class AerieAppDriver {
       return new Stores(
           new PostgresPlanRepository(hikariDataSource),
           new PostgresMissionModelRepository(hikariDataSource),
-          new PostgresResultsCellRepository(hikariDataSource));
+          new PostgresResultsCellRepository(hikariDataSource, c.eventEncoding().isBinary()));
     } else if (store instanceof InMemoryStore c) {
       final var inMemoryPlanRepository = new InMemoryPlanRepository();
       return new Stores(
@@ -113,7 +114,8 @@ public final class AerieAppDriver {
                           getEnv("MERLIN_DB_USER","aerie"),
                           Integer.parseInt(getEnv("MERLIN_DB_PORT","5432")),
                           getEnv("MERLIN_DB_PASSWORD","aerie"),
-                          getEnv("MERLIN_DB","aerie_merlin"))
+                          getEnv("MERLIN_DB","aerie_merlin"),
+                          getEnv("MERLIN_EVENT_ENCODING","json").equalsIgnoreCase("binary") ? EventEncoding.Binary : EventEncoding.Json)
     );
   }
 }
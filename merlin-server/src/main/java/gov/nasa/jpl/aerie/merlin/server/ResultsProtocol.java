@@ -1,6 +1,9 @@
 package gov.nasa.jpl.aerie.merlin.server;
 
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import java.util.Optional;
 
 public final class ResultsProtocol {
   private ResultsProtocol() {}
@@ -19,6 +22,20 @@ public final class ResultsProtocol {
   public interface ReaderRole {
     State get();
 
+    /**
+     * Get the results within the window [start, end) of time since the start of simulation,
+     * reading only the profile segments and events that intersect the window.
+     * As with profile segments, events at the end of the window belong to the next window.
+     *
+     * On success, the results start at the start of the window: their profiles are clipped to the window,
+     * and their events are timed from the start of the window. They contain no activities.
+     *
+     * If a number of points is given, each real profile is instead given at the level of detail needed to plot it
+     * with about that many points (see {@link gov.nasa.jpl.aerie.merlin.server.models.ProfileLevelsOfDetail}),
+     * whenever that level is coarser than the profile itself.
+     */
+    State get(Duration start, Duration end, Optional<Integer> points);
+
     /** After calling cancel, `get` is no longer legal to invoke. */
     void cancel();
   }
@@ -0,0 +1,9 @@
+package gov.nasa.jpl.aerie.merlin.server.config;
+
+public enum EventEncoding {
+  Json, Binary;
+
+  public boolean isBinary() {
+    return (this == Binary);
+  }
+}
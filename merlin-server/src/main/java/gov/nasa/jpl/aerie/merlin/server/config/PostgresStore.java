@@ -7,7 +7,8 @@ public record PostgresStore(
     String user,
     Integer port,
     String password,
-    String database
+    String database,
+    EventEncoding eventEncoding
 ) implements Store {
   public PostgresStore {
     Objects.requireNonNull(server);
@@ -15,5 +16,6 @@ public record PostgresStore(
     Objects.requireNonNull(port);
     Objects.requireNonNull(password);
     Objects.requireNonNull(database);
+    Objects.requireNonNull(eventEncoding);
   }
 }
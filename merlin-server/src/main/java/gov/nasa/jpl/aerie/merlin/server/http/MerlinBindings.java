@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.merlin.server.http;
 
 import gov.nasa.jpl.aerie.json.JsonParser;
+import gov.nasa.jpl.aerie.json.JsonTokens;
 import gov.nasa.jpl.aerie.merlin.driver.SerializedActivity;
 import gov.nasa.jpl.aerie.merlin.protocol.types.MissingArgumentsException;
 import gov.nasa.jpl.aerie.merlin.server.exceptions.NoSuchPlanException;
@@ -13,8 +14,11 @@ import io.javalin.http.Context;
 
 import javax.json.Json;
 import javax.json.stream.JsonParsingException;
+import java.io.IOException;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraActivityActionP;
 import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraExternalDatasetActionP;
@@ -22,6 +26,7 @@ import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraMissionM
 import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraMissionModelArgumentsActionP;
 import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraMissionModelEventTriggerP;
 import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraPlanActionP;
+import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.hasuraPlanWindowActionP;
 import static io.javalin.apibuilder.ApiBuilder.before;
 import static io.javalin.apibuilder.ApiBuilder.path;
 import static io.javalin.apibuilder.ApiBuilder.post;
@@ -65,6 +70,9 @@ public final class MerlinBindings implements Plugin {
       path("getSimulationResults", () -> {
         post(this::getSimulationResults);
       });
+      path("getSimulationResultsWindow", () -> {
+        post(this::getSimulationResultsWindow);
+      });
       path("refreshModelParameters", () -> {
         post(this::postRefreshModelParameters);
       });
@@ -145,7 +153,12 @@ public final class MerlinBindings implements Plugin {
       final var planId = body.input().planId();
 
       final var response = this.simulationAction.run(planId);
-      ctx.result(ResponseSerializers.serializeSimulationResultsResponse(response).toString());
+
+      // Simulation results may be large, so they are written out as they are serialized rather than built in memory.
+      ctx.contentType("application/json");
+      try (final var generator = Json.createGenerator(ctx.res.getOutputStream())) {
+        ResponseSerializers.writeSimulationResultsResponse(generator, response);
+      }
 
     } catch (final InvalidEntityException ex) {
       ctx.status(400).result(ResponseSerializers.serializeInvalidEntityException(ex).toString());
@@ -153,6 +166,39 @@ public final class MerlinBindings implements Plugin {
       ctx.status(400).result(ResponseSerializers.serializeInvalidJsonException(ex).toString());
     } catch (final NoSuchPlanException ex) {
       ctx.status(404).result(ResponseSerializers.serializeNoSuchPlanException(ex).toString());
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void getSimulationResultsWindow(final Context ctx) {
+    try {
+      final var input = parseJson(ctx.body(), hasuraPlanWindowActionP).input();
+      if (input.start().isNegative() || input.end().shorterThan(input.start())) {
+        ctx.status(400)
+           .result(ResponseSerializers.serializeFailures(List.of("Window must not start before the simulation or end before it starts")).toString());
+        return;
+      }
+      if (input.points().isPresent() && input.points().get() <= 0) {
+        ctx.status(400)
+           .result(ResponseSerializers.serializeFailures(List.of("Number of points must be positive")).toString());
+        return;
+      }
+
+      final var response = this.simulationAction.run(input.planId(), input.start(), input.end(), input.points());
+
+      ctx.contentType("application/json");
+      try (final var generator = Json.createGenerator(ctx.res.getOutputStream())) {
+        ResponseSerializers.writeSimulationResultsResponse(generator, response);
+      }
+    } catch (final InvalidEntityException ex) {
+      ctx.status(400).result(ResponseSerializers.serializeInvalidEntityException(ex).toString());
+    } catch(final InvalidJsonException ex) {
+      ctx.status(400).result(ResponseSerializers.serializeInvalidJsonException(ex).toString());
+    } catch (final NoSuchPlanException ex) {
+      ctx.status(404).result(ResponseSerializers.serializeNoSuchPlanException(ex).toString());
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
     }
   }
 
@@ -273,11 +319,12 @@ public final class MerlinBindings implements Plugin {
   private <T> T parseJson(final String subject, final JsonParser<T> parser)
   throws InvalidJsonException, InvalidEntityException
   {
-    try {
-      final var requestJson = Json.createReader(new StringReader(subject)).readValue();
-      final var result = parser.parse(requestJson);
+    // Parse straight from the token stream, as request bodies (eg external datasets) may be large.
+    try (final var tokens = JsonTokens.of(new StringReader(subject))) {
+      final var result = parser.parse(tokens);
+      tokens.expectEnd();
       return result.getSuccessOrThrow($ -> new InvalidEntityException(List.of($)));
-    } catch (JsonParsingException e) {
+    } catch (JsonParsingException | NoSuchElementException e) {
       throw new InvalidJsonException(e);
     }
   }
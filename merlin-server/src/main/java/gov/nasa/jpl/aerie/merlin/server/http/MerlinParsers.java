@@ -20,6 +20,7 @@ import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.Optional;
 
+import static gov.nasa.jpl.aerie.json.BasicParsers.intP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.longP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.mapP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.productP;
@@ -109,6 +110,22 @@ public abstract class MerlinParsers {
           untuple((name, planId, session, requestQuery) -> new HasuraAction<>(name, new HasuraAction.PlanInput(planId), session)),
           $ -> tuple($.name(), $.input().planId(), $.session(), "")));
 
+  private static final JsonParser<HasuraAction.PlanWindowInput> hasuraPlanWindowInputP
+      = productP
+      . field("planId", planIdP)
+      . field("start", durationP)
+      . field("end", durationP)
+      . optionalField("points", intP)
+      . map(Iso.of(
+          untuple(HasuraAction.PlanWindowInput::new),
+          $ -> tuple($.planId(), $.start(), $.end(), $.points())));
+
+  public static final JsonParser<HasuraAction<HasuraAction.PlanWindowInput>> hasuraPlanWindowActionP
+      = hasuraActionP(hasuraPlanWindowInputP)
+      . map(Iso.of(
+          untuple((name, input, session, requestQuery) -> new HasuraAction<>(name, input, session)),
+          $ -> tuple($.name(), $.input(), $.session(), "")));
+
   public static final JsonParser<HasuraMissionModelEvent> hasuraMissionModelEventTriggerP
       = productP
       . field("event", productP
@@ -23,6 +23,7 @@ import org.apache.commons.lang3.tuple.Triple;
 
 import javax.json.Json;
 import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonParsingException;
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -258,6 +259,96 @@ public final class ResponseSerializers {
     }
   }
 
+  /**
+   * Write a simulation results response to a JSON generator, serializing its parts as they are iterated.
+   *
+   * The output is the same as that of {@link #serializeSimulationResultsResponse}, but it is never held in memory as a
+   * whole: only one resource sample, activity, or event is serialized into a {@link JsonValue} at a time.
+   */
+  public static void writeSimulationResultsResponse(
+      final JsonGenerator generator,
+      final GetSimulationResultsAction.Response response)
+  {
+    if (response instanceof GetSimulationResultsAction.Response.Complete r) {
+      generator.writeStartObject();
+      generator.write("status", "complete");
+      generator.writeKey("results");
+      writeSimulationResults(generator, r.results(), r.violations());
+      generator.writeEnd();
+    } else {
+      generator.write(serializeSimulationResultsResponse(response));
+    }
+  }
+
+  private static void writeSimulationResults(
+      final JsonGenerator generator,
+      final SimulationResults results,
+      final Map<String, List<Violation>> violations)
+  {
+    generator.writeStartObject();
+    generator.write("start", serializeTimestamp(results.startTime));
+
+    generator.writeStartObject("resources");
+    for (final var resource : results.resourceSamples.entrySet()) {
+      generator.writeStartArray(resource.getKey());
+      for (final var sample : resource.getValue()) generator.write(serializeSample(sample));
+      generator.writeEnd();
+    }
+    generator.writeEnd();
+
+    generator.write("constraints", serializeMap(v -> serializeIterable(ResponseSerializers::serializeConstraintViolation, v), violations));
+
+    generator.writeStartObject("activities");
+    for (final var activity : results.simulatedActivities.entrySet()) {
+      generator.write(Long.toString(activity.getKey().id()), serializeSimulatedActivity(activity.getValue()));
+    }
+    generator.writeEnd();
+
+    final var topics = topicsById(results.topics);
+    generator.writeStartArray("events");
+    for (final var eventPoint : results.events.entrySet()) {
+      final var time = serializeTimestamp(results.startTime.plus(eventPoint.getKey().in(Duration.MICROSECONDS), ChronoUnit.MICROS));
+      for (final var eventGraph : eventPoint.getValue()) {
+        generator.writeStartObject();
+        generator.write("time", time);
+        generator.writeKey("graph");
+        writeEventGraph(generator, eventGraph, topics);
+        generator.writeEnd();
+      }
+    }
+    generator.writeEnd();
+
+    generator.writeEnd();
+  }
+
+  private static void writeEventGraph(
+      final JsonGenerator generator,
+      final EventGraph<Pair<Integer, SerializedValue>> eventGraph,
+      final Map<Integer, Pair<String, ValueSchema>> topics)
+  {
+    generator.writeStartObject();
+    if (eventGraph instanceof EventGraph.Atom<Pair<Integer, SerializedValue>> atom) {
+      final var event = atom.atom();
+      generator.write("type", "atom");
+      generator.write("value", serializedValueP.unparse(event.getRight()));
+      generator.write("schema", valueSchemaP.unparse(topics.get(event.getLeft()).getRight()));
+      generator.write("topic", stringP.unparse(topics.get(event.getLeft()).getLeft()));
+    } else if (eventGraph instanceof EventGraph.Sequentially<Pair<Integer, SerializedValue>> sequentially) {
+      generator.write("type", "sequentially");
+      generator.writeKey("prefix");
+      writeEventGraph(generator, sequentially.prefix(), topics);
+      generator.writeKey("suffix");
+      writeEventGraph(generator, sequentially.suffix(), topics);
+    } else if (eventGraph instanceof EventGraph.Concurrently<Pair<Integer, SerializedValue>> concurrently) {
+      generator.write("type", "concurrently");
+      generator.writeKey("left");
+      writeEventGraph(generator, concurrently.left(), topics);
+      generator.writeKey("right");
+      writeEventGraph(generator, concurrently.right(), topics);
+    }
+    generator.writeEnd();
+  }
+
   public static JsonValue serializeTimestamp(final TemporalAccessor instant) {
     final var formattedTimestamp = DateTimeFormatter
         .ofPattern("uuuu-DDD'T'HH:mm:ss.SSSSSS")
@@ -1,8 +1,10 @@
 package gov.nasa.jpl.aerie.merlin.server.models;
 
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 
 import java.util.Map;
+import java.util.Optional;
 
 public record HasuraAction<I extends HasuraAction.Input>(String name, I input, Session session)
 {
@@ -12,6 +14,7 @@ public record HasuraAction<I extends HasuraAction.Input>(String name, I input, S
 
   public record MissionModelInput(String missionModelId) implements Input { }
   public record PlanInput(PlanId planId) implements Input { }
+  public record PlanWindowInput(PlanId planId, Duration start, Duration end, Optional<Integer> points) implements Input { }
   public record ActivityInput(String missionModelId,
                               String activityTypeName,
                               Map<String, SerializedValue> arguments) implements Input {}
@@ -0,0 +1,225 @@
+package gov.nasa.jpl.aerie.merlin.server.models;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Coarser versions of a real profile, for plotting profiles with far more segments than there are pixels to draw them.
+ *
+ * Level `n` divides the time since the start of the profile into buckets of width {@link #bucketWidth(int)},
+ * and summarizes each bucket by the smallest and largest values the profile takes in it, so that no peak of the
+ * profile is lost at any level. Only the buckets in which a segment starts are summarized: every other bucket lies
+ * within a single segment of the last summarized bucket before it, so a summary holds until the next one begins,
+ * just like a profile segment. A segment counts toward the bucket it starts in.
+ *
+ * Levels that do not at least halve the number of segments (or summaries) of the finer level kept before them
+ * are not worth storing, and are left out; a sparse profile may have no levels at all.
+ */
+public final class ProfileLevelsOfDetail {
+  private ProfileLevelsOfDetail() {}
+
+  /** The width of the buckets of level 0. */
+  public static final Duration FINEST_BUCKET_WIDTH = Duration.SECOND;
+
+  /** The number of buckets of each level that make up one bucket of the next level. */
+  public static final int BRANCHING_FACTOR = 4;
+
+  /** The coarsest level whose bucket width can be represented as a duration. */
+  public static final int COARSEST_LEVEL = 21;
+
+  /**
+   * The extreme values of a profile within a bucket, and within any following buckets in which no segment starts.
+   *
+   * @param start The start of the bucket, since the start of the profile.
+   * @param minimumFirst Whether the minimum is reached before the maximum.
+   */
+  public record Summary(Duration start, double minimum, double maximum, boolean minimumFirst) {
+    /**
+     * Describe this summary as a profile segment of the given duration, going linearly from the first extreme
+     * reached within the summary to the other, so that both extremes appear in samples of the segment.
+     */
+    public RealDynamics toDynamics(final Duration duration) {
+      final var first = (this.minimumFirst) ? this.minimum : this.maximum;
+      final var last = (this.minimumFirst) ? this.maximum : this.minimum;
+      if (duration.isZero()) return RealDynamics.constant(first);
+      return RealDynamics.linear(first, (last - first) / duration.ratioOver(Duration.SECONDS));
+    }
+  }
+
+  public record Level(int level, List<Summary> summaries) {}
+
+  public static Duration bucketWidth(final int level) {
+    if (level < 0 || level > COARSEST_LEVEL) throw new IllegalArgumentException("No such level of detail: " + level);
+
+    var width = FINEST_BUCKET_WIDTH;
+    for (var i = 0; i < level; i++) width = width.times(BRANCHING_FACTOR);
+    return width;
+  }
+
+  /**
+   * Compute the levels of detail of a real profile worth storing, from the finest to the coarsest.
+   */
+  public static List<Level> of(final List<Pair<Duration, RealDynamics>> segments) {
+    final var levels = new ArrayList<Level>();
+    if (segments.isEmpty()) return levels;
+
+    var level = 0;
+    var buckets = summarizeSegments(segments, bucketWidth(level));
+    var keptSize = segments.size();
+    while (true) {
+      if (2 * buckets.size() <= keptSize) {
+        final var summaries = new ArrayList<Summary>(buckets.size());
+        for (final var bucket : buckets) summaries.add(bucket.toSummary(bucketWidth(level)));
+        levels.add(new Level(level, summaries));
+        keptSize = buckets.size();
+      }
+
+      if (buckets.size() <= 1 || level == COARSEST_LEVEL) break;
+      level += 1;
+      buckets = mergeBuckets(buckets);
+    }
+
+    return levels;
+  }
+
+  /**
+   * Choose the level of detail at which to read a window of a profile, so that about `points` summaries
+   * cover the window.
+   *
+   * @param levels The levels of detail stored for the profile. Only its first and last elements,
+   *   and the smallest level at least as coarse as needed for the window, are used.
+   * @return The level of detail to read, or empty if the segments of the profile should be read instead,
+   *   which happens only when no level as fine as the required one is stored: the levels that were left out
+   *   did not halve the number of segments, so the segments are then about as sparse as the required level.
+   */
+  public static Optional<Integer> chooseLevel(
+      final NavigableSet<Integer> levels,
+      final Duration windowLength,
+      final int points)
+  {
+    final var required = requiredLevel(windowLength, points);
+    if (levels.isEmpty() || required < levels.first()) return Optional.empty();
+
+    final var level = levels.ceiling(required);
+    return Optional.of((level != null) ? level : levels.last());
+  }
+
+  /**
+   * Get the finest level of detail with at most about `points` buckets within a window.
+   * This is level 0 whenever the window spans fewer than `points` of its buckets.
+   */
+  public static int requiredLevel(final Duration windowLength, final int points) {
+    if (points <= 0) throw new IllegalArgumentException("Number of points must be positive, got " + points);
+
+    for (var level = 0; level < COARSEST_LEVEL; level++) {
+      if (windowLength.dividedBy(bucketWidth(level)) < points) return level;
+    }
+    return COARSEST_LEVEL;
+  }
+
+  /**
+   * Describe consecutive summaries of a level of detail as profile segments. See {@link Summary#toDynamics(Duration)}.
+   *
+   * @param profileEnd The end of the profile, since the start of the profile, at which the last summary ends.
+   * @return The segments, starting at the start of the first summary.
+   */
+  public static List<Pair<Duration, RealDynamics>> toSegments(final List<Summary> summaries, final Duration profileEnd) {
+    final var segments = new ArrayList<Pair<Duration, RealDynamics>>(summaries.size());
+    for (var i = 0; i < summaries.size(); i++) {
+      final var summary = summaries.get(i);
+      final var end = (i + 1 < summaries.size()) ? summaries.get(i + 1).start() : profileEnd;
+      final var duration = Duration.max(end.minus(summary.start()), Duration.ZERO);
+      segments.add(Pair.of(duration, summary.toDynamics(duration)));
+    }
+    return segments;
+  }
+
+  /**
+   * Get a real profile within the window [start, end) at the level of detail chosen by {@link #chooseLevel},
+   * computing its levels of detail on the spot. The result starts at `start`, as with {@link ProfileSet#window}.
+   */
+  public static List<Pair<Duration, RealDynamics>> downsample(
+      final List<Pair<Duration, RealDynamics>> segments,
+      final Duration start,
+      final Duration end,
+      final int points)
+  {
+    final var levels = of(segments);
+    final var levelNumbers = new TreeSet<Integer>();
+    for (final var level : levels) levelNumbers.add(level.level());
+
+    final var chosen = chooseLevel(levelNumbers, end.minus(start), points);
+    if (chosen.isEmpty()) return ProfileSet.window(segments, Duration.ZERO, start, end, ProfileSet::advance);
+
+    var profileEnd = Duration.ZERO;
+    for (final var segment : segments) profileEnd = profileEnd.plus(segment.getLeft());
+
+    final var summaries = levels
+        .stream()
+        .filter($ -> $.level() == chosen.get())
+        .findFirst()
+        .orElseThrow()
+        .summaries();
+    return ProfileSet.window(toSegments(summaries, profileEnd), Duration.ZERO, start, end, ProfileSet::advance);
+  }
+
+  private record Bucket(long index, double minimum, Duration minimumTime, double maximum, Duration maximumTime) {
+    Bucket including(final double value, final Duration time) {
+      var bucket = this;
+      if (value < bucket.minimum) bucket = new Bucket(bucket.index, value, time, bucket.maximum, bucket.maximumTime);
+      if (value > bucket.maximum) bucket = new Bucket(bucket.index, bucket.minimum, bucket.minimumTime, value, time);
+      return bucket;
+    }
+
+    Summary toSummary(final Duration width) {
+      return new Summary(width.times(this.index), this.minimum, this.maximum, !this.maximumTime.shorterThan(this.minimumTime));
+    }
+  }
+
+  private static List<Bucket> summarizeSegments(final List<Pair<Duration, RealDynamics>> segments, final Duration width) {
+    final var buckets = new ArrayList<Bucket>();
+
+    var offset = Duration.ZERO;
+    for (final var segment : segments) {
+      final var dynamics = segment.getRight();
+      final var end = offset.plus(segment.getLeft());
+      final var endValue = dynamics.initial + dynamics.rate * segment.getLeft().ratioOver(Duration.SECONDS);
+
+      final var index = offset.dividedBy(width);
+      var bucket = (!buckets.isEmpty() && buckets.get(buckets.size() - 1).index() == index)
+          ? buckets.remove(buckets.size() - 1)
+          : new Bucket(index, dynamics.initial, offset, dynamics.initial, offset);
+      bucket = bucket.including(dynamics.initial, offset).including(endValue, end);
+      buckets.add(bucket);
+
+      offset = end;
+    }
+
+    return buckets;
+  }
+
+  private static List<Bucket> mergeBuckets(final List<Bucket> buckets) {
+    final var merged = new ArrayList<Bucket>();
+
+    for (final var bucket : buckets) {
+      final var index = bucket.index() / BRANCHING_FACTOR;
+      if (!merged.isEmpty() && merged.get(merged.size() - 1).index() == index) {
+        final var last = merged.remove(merged.size() - 1);
+        merged.add(last
+            .including(bucket.minimum(), bucket.minimumTime())
+            .including(bucket.maximum(), bucket.maximumTime()));
+      } else {
+        merged.add(new Bucket(index, bucket.minimum(), bucket.minimumTime(), bucket.maximum(), bucket.maximumTime()));
+      }
+    }
+
+    return merged;
+  }
+}
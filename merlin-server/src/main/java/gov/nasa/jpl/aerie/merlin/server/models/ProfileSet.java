@@ -6,8 +6,11 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 public final record ProfileSet(
     Map<String, List<Pair<Duration, RealDynamics>>> realProfiles,
@@ -19,4 +22,69 @@ public final record ProfileSet(
   ) {
     return new ProfileSet(realProfiles, discreteProfiles);
   }
+
+  /**
+   * Restrict every profile of this set to the window [start, end) of time since the start of the profiles.
+   *
+   * The restricted profiles start at `start`.
+   */
+  public ProfileSet window(final Duration start, final Duration end) {
+    final var realProfiles = new HashMap<String, List<Pair<Duration, RealDynamics>>>();
+    this.realProfiles.forEach((name, segments) -> realProfiles.put(
+        name,
+        window(segments, Duration.ZERO, start, end, ProfileSet::advance)));
+
+    final var discreteProfiles = new HashMap<String, Pair<ValueSchema, List<Pair<Duration, SerializedValue>>>>();
+    this.discreteProfiles.forEach((name, profile) -> discreteProfiles.put(
+        name,
+        Pair.of(profile.getLeft(), window(profile.getRight(), Duration.ZERO, start, end, (value, elapsed) -> value))));
+
+    return new ProfileSet(realProfiles, discreteProfiles);
+  }
+
+  /**
+   * Restrict a profile to the window [start, end).
+   *
+   * A segment that starts before the window is shortened to start with the window,
+   * and its dynamics are advanced to describe the behavior from that point on.
+   *
+   * @param segments The segments of the profile, with their durations.
+   * @param segmentsStart The time at which the first of the segments starts.
+   * @param advance Gives the dynamics of a segment as seen from some time after the segment starts.
+   * @return The segments of the profile that overlap the window, clipped to it.
+   */
+  public static <Dynamics> List<Pair<Duration, Dynamics>> window(
+      final List<Pair<Duration, Dynamics>> segments,
+      final Duration segmentsStart,
+      final Duration start,
+      final Duration end,
+      final BiFunction<Dynamics, Duration, Dynamics> advance)
+  {
+    final var result = new ArrayList<Pair<Duration, Dynamics>>();
+
+    var offset = segmentsStart;
+    for (final var segment : segments) {
+      if (!offset.shorterThan(end)) break;
+
+      final var segmentEnd = offset.plus(segment.getLeft());
+      if (segmentEnd.longerThan(start)) {
+        final var clippedStart = Duration.max(offset, start);
+        final var clippedEnd = Duration.min(segmentEnd, end);
+        final var dynamics = (clippedStart.longerThan(offset))
+            ? advance.apply(segment.getRight(), clippedStart.minus(offset))
+            : segment.getRight();
+        result.add(Pair.of(clippedEnd.minus(clippedStart), dynamics));
+      }
+      offset = segmentEnd;
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the dynamics of a real profile segment as seen from some time after the segment starts.
+   */
+  public static RealDynamics advance(final RealDynamics dynamics, final Duration elapsed) {
+    return RealDynamics.linear(dynamics.initial + dynamics.rate * elapsed.ratioOver(Duration.SECONDS), dynamics.rate);
+  }
 }
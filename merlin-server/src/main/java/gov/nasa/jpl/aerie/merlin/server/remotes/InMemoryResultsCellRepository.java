@@ -1,15 +1,23 @@
 package gov.nasa.jpl.aerie.merlin.server.remotes;
 
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
 import gov.nasa.jpl.aerie.merlin.server.exceptions.NoSuchPlanException;
 import gov.nasa.jpl.aerie.merlin.server.mocks.InMemoryPlanRepository;
 import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileLevelsOfDetail;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileSet;
+import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 
 public final class InMemoryResultsCellRepository implements ResultsCellRepository {
   public record Key(PlanId planId, long planRevision) {}
@@ -89,6 +97,34 @@ public final class InMemoryResultsCellRepository implements ResultsCellRepositor
       return this.state;
     }
 
+    @Override
+    public ResultsProtocol.State get(final Duration start, final Duration end, final Optional<Integer> points) {
+      final var state = this.state;
+      if (!(state instanceof ResultsProtocol.State.Success s)) return state;
+
+      final var results = s.results();
+      final var profiles = ProfileSet.of(results.realProfiles, results.discreteProfiles).window(start, end);
+      if (points.isPresent()) {
+        // Levels of detail are not kept in memory, so they are computed from the full profiles on each request.
+        results.realProfiles.forEach((name, segments) -> profiles.realProfiles().put(
+            name,
+            ProfileLevelsOfDetail.downsample(segments, start, end, points.get())));
+      }
+      final var events = new TreeMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>>();
+      results.events.forEach((time, transactions) -> {
+        if (!time.shorterThan(start) && time.shorterThan(end)) events.put(time.minus(start), transactions);
+      });
+
+      return new ResultsProtocol.State.Success(new SimulationResults(
+          profiles.realProfiles(),
+          profiles.discreteProfiles(),
+          Map.of(),
+          Map.of(),
+          Duration.addToInstant(results.startTime, start),
+          results.topics,
+          events));
+    }
+
     @Override
     public void cancel() {
       this.canceled = true;
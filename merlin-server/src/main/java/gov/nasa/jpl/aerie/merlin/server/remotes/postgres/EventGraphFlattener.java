@@ -4,179 +4,209 @@ import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.Map;
 
 public final class EventGraphFlattener {
 
-  static <T> List<Pair<String, T>> flatten(final EventGraph<T> eventGraph) {
-    return EventGraphFlattener.flattenHelper(eventGraph, BranchType.SEQUENTIALLY, new LexicographicTag.Empty());
-  }
-
-  static <T> EventGraph<T> unflatten(final List<Pair<String, T>> flatGraph) throws InvalidTagException {
-    return EventGraphFlattener.unflattenHelper(
-        flatGraph.stream().map(pair -> Pair.of(LexicographicTag.of(pair.getLeft()), pair.getRight())).toList(),
-        BranchType.SEQUENTIALLY);
-  }
-
-  private enum BranchType {
-    SEQUENTIALLY,
-    CONCURRENTLY;
-    private BranchType opposite() {
-      if (this.equals(SEQUENTIALLY)) {
-        return CONCURRENTLY;
-      } else {
-        return SEQUENTIALLY;
-      }
+  /**
+   * The causal position of an event within its transaction, as a pair of integers.
+   *
+   * The events of an event graph form a series-parallel partial order, which is always the intersection of two
+   * linear orders: one where concurrent branches are listed from left to right, and one where they are listed
+   * from right to left. An event causally precedes another iff it comes first in both of these orders,
+   * and two events are concurrent iff the orders disagree.
+   *
+   * Unlike a path through the graph, this pair has a fixed width, and ordering by {@link #order()}
+   * visits the events of a transaction in an order consistent with their causality.
+   *
+   * @param order The position of the event when concurrent branches are listed from left to right.
+   * @param dualOrder The position of the event when concurrent branches are listed from right to left.
+   */
+  record CausalTime(int order, int dualOrder) {
+    public boolean precedes(final CausalTime other) {
+      return this.order < other.order && this.dualOrder < other.dualOrder;
     }
 
-    private boolean matchesRootNode(final EventGraph<?> eventGraph) {
-      if (eventGraph instanceof EventGraph.Sequentially) {
-        return this.equals(SEQUENTIALLY);
-      }
-      if (eventGraph instanceof EventGraph.Concurrently) {
-        return this.equals(CONCURRENTLY);
-      }
-      return false;
+    public boolean isConcurrentWith(final CausalTime other) {
+      return !this.precedes(other) && !other.precedes(this) && !this.equals(other);
     }
   }
 
-  private sealed interface LexicographicTag {
-    static LexicographicTag empty() {
-      return new LexicographicTag.Empty();
-    }
+  static <T> List<Pair<CausalTime, T>> flatten(final EventGraph<T> eventGraph) {
+    final var atoms = new ArrayList<T>();
+    final var sizes = new IdentityHashMap<EventGraph<T>, Integer>();
+    collectAtoms(eventGraph, atoms, sizes);
 
-    static LexicographicTag of(final String tag) {
-      if (!tag.contains(".")) {
-        return LexicographicTag.empty();
-      }
-      final int periodIndex = tag.indexOf(".", 1);
-      if (periodIndex == -1) {
-        return new Cons(
-            Integer.parseInt(tag.substring(1)),
-            LexicographicTag.empty());
-      } else {
-        return new Cons(
-            Integer.parseInt(tag.substring(1, periodIndex)),
-            LexicographicTag.of(tag.substring(periodIndex))
-        );
-      }
-    }
+    final var dualOrders = new int[atoms.size()];
+    rankDually(eventGraph, 0, 0, sizes, dualOrders);
 
-    static LexicographicTag append(final LexicographicTag tag, final int count) {
-      return new Cons(count, tag);
+    final var result = new ArrayList<Pair<CausalTime, T>>(atoms.size());
+    for (var i = 0; i < atoms.size(); i++) {
+      result.add(Pair.of(new CausalTime(i, dualOrders[i]), atoms.get(i)));
     }
+    return result;
+  }
 
-    String serialize();
+  /**
+   * Reassembles an event graph from any subset of the events of a flattened graph.
+   *
+   * The events are grouped into the maximal sequential or concurrent segments allowed by their causal times,
+   * so unflattening a filtered subset is equivalent to evaluating the original graph with the same filter.
+   */
+  static <T> EventGraph<T> unflatten(final List<Pair<CausalTime, T>> flatGraph) throws InvalidTagException {
+    if (flatGraph.isEmpty()) return EventGraph.empty();
 
-    final record Empty() implements LexicographicTag {
-      @Override
-      public String serialize() {
-        return "";
-      }
-    }
-    final record Cons(int first, LexicographicTag rest) implements LexicographicTag {
-      @Override
-      public String serialize() {
-        return this.rest.serialize() + "." + this.first;
-      }
-    }
+    final var sorted = new ArrayList<>(flatGraph);
+    sorted.sort(Comparator.comparingInt(pair -> pair.getLeft().order()));
+    return EventGraphFlattener.unflattenHelper(sorted, 0, sorted.size());
   }
 
-  private static <T> List<Pair<String, T>> flattenHelper(
+  private enum BranchType {
+    SEQUENTIALLY,
+    CONCURRENTLY
+  }
+
+  /**
+   * Lists the atoms of the graph from left to right, recording the number of atoms under every branch node.
+   */
+  private static <T> int collectAtoms(
       final EventGraph<T> eventGraph,
-      final BranchType branchType,
-      final LexicographicTag tag)
+      final List<T> atoms,
+      final Map<EventGraph<T>, Integer> sizes)
   {
-    final var result = new ArrayList<Pair<String, T>>();
+    final int size;
     if (eventGraph instanceof EventGraph.Empty) {
-      return result;
-    }
-    if (eventGraph instanceof EventGraph.Atom<T> atom) {
-      result.add(Pair.of(tag.serialize(), atom.atom()));
-      return result;
-    }
-
-    final var nextLayer = new ArrayList<EventGraph<T>>();
-    absorbSimilarNeighborsIntoRoot(eventGraph, branchType, nextLayer);
-
-    var count = 0;
-    for (final var child : nextLayer) {
-      count += 1;
-      result.addAll(flattenHelper(
-          child,
-          branchType.opposite(),
-          LexicographicTag.append(tag, count)));
+      return 0;
+    } else if (eventGraph instanceof EventGraph.Atom<T> atom) {
+      atoms.add(atom.atom());
+      return 1;
+    } else if (eventGraph instanceof EventGraph.Sequentially<T> sequentially) {
+      size = collectAtoms(sequentially.prefix(), atoms, sizes) + collectAtoms(sequentially.suffix(), atoms, sizes);
+    } else if (eventGraph instanceof EventGraph.Concurrently<T> concurrently) {
+      size = collectAtoms(concurrently.left(), atoms, sizes) + collectAtoms(concurrently.right(), atoms, sizes);
+    } else {
+      throw new IllegalArgumentException("Unexpected event graph node: " + eventGraph);
     }
-    return result;
+    sizes.put(eventGraph, size);
+    return size;
   }
 
   /**
-   * Given an eventGraph, start from the root, and combine all adjacent nodes that have the same branch type as the root.
-   *
-   * Writes the children of those nodes to the given result ArrayList.
+   * Assigns the position of each atom in the order where concurrent branches are listed from right to left.
    *
-   * An important property is that none of the returned children will match the provided branchType.
-
-   * @param eventGraph the current sub graph (initially the whole graph)
-   * @param branchType the type of the root node of the EventGraph
-   * @param result an ArrayList to which children will be appended
+   * @param order The position of the first atom of the graph when listed from left to right.
+   * @param dualOrder The position of the first atom of the graph when listed from right to left.
+   * @return The number of atoms in the graph.
    */
-  private static <T> void absorbSimilarNeighborsIntoRoot(
+  private static <T> int rankDually(
       final EventGraph<T> eventGraph,
-      final BranchType branchType,
-      final ArrayList<EventGraph<T>> result
-  ) {
-    if (branchType.matchesRootNode(eventGraph)) {
-      final var children = getChildren(eventGraph);
-      absorbSimilarNeighborsIntoRoot(children.getLeft(), branchType, result);
-      absorbSimilarNeighborsIntoRoot(children.getRight(), branchType, result);
+      final int order,
+      final int dualOrder,
+      final Map<EventGraph<T>, Integer> sizes,
+      final int[] dualOrders)
+  {
+    if (eventGraph instanceof EventGraph.Empty) {
+      return 0;
+    } else if (eventGraph instanceof EventGraph.Atom) {
+      dualOrders[order] = dualOrder;
+      return 1;
+    } else if (eventGraph instanceof EventGraph.Sequentially<T> sequentially) {
+      final var prefixSize = rankDually(sequentially.prefix(), order, dualOrder, sizes, dualOrders);
+      final var suffixSize = rankDually(sequentially.suffix(), order + prefixSize, dualOrder + prefixSize, sizes, dualOrders);
+      return prefixSize + suffixSize;
+    } else if (eventGraph instanceof EventGraph.Concurrently<T> concurrently) {
+      // The right branch comes first when listing from right to left.
+      final var leftSize = sizeOf(concurrently.left(), sizes);
+      final var rightSize = rankDually(concurrently.right(), order + leftSize, dualOrder, sizes, dualOrders);
+      rankDually(concurrently.left(), order, dualOrder + rightSize, sizes, dualOrders);
+      return leftSize + rightSize;
     } else {
-      result.add(eventGraph);
+      throw new IllegalArgumentException("Unexpected event graph node: " + eventGraph);
     }
   }
 
-  private static <T> Pair<EventGraph<T>, EventGraph<T>> getChildren(final EventGraph<T> eventGraph) {
-    if (eventGraph instanceof EventGraph.Sequentially<T> sequentially) {
-      return Pair.of(sequentially.prefix(), sequentially.suffix());
-    } else if (eventGraph instanceof EventGraph.Concurrently<T> concurrently) {
-      return Pair.of(concurrently.left(), concurrently.right());
-    }
-    // As of writing, `getChildren` is only valid to call on a graph that passed `matchesBranchType`
-    throw new IllegalArgumentException("getChildren called on an eventGraph that was neither sequential nor concurrent: " + eventGraph);
+  private static <T> int sizeOf(final EventGraph<T> eventGraph, final Map<EventGraph<T>, Integer> sizes) {
+    if (eventGraph instanceof EventGraph.Empty) return 0;
+    if (eventGraph instanceof EventGraph.Atom) return 1;
+    return sizes.get(eventGraph);
   }
 
+  /**
+   * Reassembles the events in the range [start, end) of a list sorted by left-to-right order.
+   */
   private static <T> EventGraph<T> unflattenHelper(
-      final List<Pair<LexicographicTag, T>> flatGraph,
-      final BranchType branchType
+      final List<Pair<CausalTime, T>> flatGraph,
+      final int start,
+      final int end
   ) throws InvalidTagException {
-    if (flatGraph.size() == 1) {
-      return EventGraph.atom(flatGraph.get(0).getRight());
+    if (end - start == 1) {
+      return EventGraph.atom(flatGraph.get(start).getRight());
+    }
+
+    var branchType = BranchType.SEQUENTIALLY;
+    var cuts = findCuts(flatGraph, start, end, branchType);
+    if (cuts.size() == 2) {
+      branchType = BranchType.CONCURRENTLY;
+      cuts = findCuts(flatGraph, start, end, branchType);
+    }
+    if (cuts.size() == 2) {
+      throw new InvalidTagException(
+          "Causal times of the events at positions %d to %d do not form a series-parallel order"
+              .formatted(start, end - 1));
     }
-    final var groupedByPrefix = groupByPrefix(flatGraph);
+
     var graph = EventGraph.<T>empty();
     // Note: we're iterating backwards so that the produced binary tree is right-leaning.
     // This is purely for aesthetics, preferring (a; (b; c)) to the equivalent ((a; b); c)
-    for (final var entry : groupedByPrefix.descendingMap().entrySet()) {
-      graph = makeNode(branchType, unflattenHelper(entry.getValue(), branchType.opposite()), graph);
+    for (var i = cuts.size() - 1; i > 0; i--) {
+      graph = makeNode(branchType, unflattenHelper(flatGraph, cuts.get(i - 1), cuts.get(i)), graph);
     }
     return graph;
   }
 
-  private static <T> TreeMap<Integer, List<Pair<LexicographicTag, T>>>
-  groupByPrefix(final List<Pair<LexicographicTag, T>> flatGraph)
-  throws InvalidTagException {
-    final var pairs = new TreeMap<Integer, List<Pair<LexicographicTag, T>>>();
-    for (final var pair : flatGraph) {
-      final var tag = pair.getLeft();
-      if (!(tag instanceof LexicographicTag.Cons nonEmptyTag)) {
-        throw new InvalidTagException("Empty tag encountered before reaching an atom");
+  /**
+   * Splits the range [start, end) into its maximal segments of the given branch type.
+   *
+   * Every event of a sequential segment precedes every event of the following segments in both orders,
+   * while every event of a concurrent segment comes before the following segments from left to right,
+   * but after them from right to left.
+   *
+   * @return The boundaries of the segments, starting with start and ending with end.
+   */
+  private static <T> List<Integer> findCuts(
+      final List<Pair<CausalTime, T>> flatGraph,
+      final int start,
+      final int end,
+      final BranchType branchType)
+  {
+    // Bound of the dual orders of each suffix of the range: the minimum when sequential, the maximum when concurrent.
+    final var suffixBound = new int[end - start + 1];
+    suffixBound[end - start] = (branchType == BranchType.SEQUENTIALLY) ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+    for (var i = end - 1; i >= start; i--) {
+      final var dualOrder = flatGraph.get(i).getLeft().dualOrder();
+      suffixBound[i - start] = (branchType == BranchType.SEQUENTIALLY)
+          ? Math.min(dualOrder, suffixBound[i - start + 1])
+          : Math.max(dualOrder, suffixBound[i - start + 1]);
+    }
+
+    final var cuts = new ArrayList<Integer>();
+    cuts.add(start);
+    var prefixBound = (branchType == BranchType.SEQUENTIALLY) ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    for (var i = start + 1; i < end; i++) {
+      final var dualOrder = flatGraph.get(i - 1).getLeft().dualOrder();
+      if (branchType == BranchType.SEQUENTIALLY) {
+        prefixBound = Math.max(prefixBound, dualOrder);
+        if (prefixBound < suffixBound[i - start]) cuts.add(i);
+      } else {
+        prefixBound = Math.min(prefixBound, dualOrder);
+        if (prefixBound > suffixBound[i - start]) cuts.add(i);
       }
-      final var key = nonEmptyTag.first();
-      pairs.computeIfAbsent(key, x -> new ArrayList<>())
-           .add(Pair.of(nonEmptyTag.rest(), pair.getRight()));
     }
-    return pairs;
+    cuts.add(end);
+    return cuts;
   }
 
   static class InvalidTagException extends Exception {
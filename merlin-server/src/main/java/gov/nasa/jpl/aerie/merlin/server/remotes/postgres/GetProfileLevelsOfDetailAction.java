@@ -0,0 +1,68 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import org.intellij.lang.annotations.Language;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/*package-local*/ final class GetProfileLevelsOfDetailAction implements AutoCloseable {
+  // Each of these aggregates is answered by a single probe of the (dataset_id, profile_id, level, start_offset)
+  // natural key, instead of listing every distinct level of the profile.
+  private final @Language("SQL") String sql = """
+      select
+        (select min(lod.level)
+          from profile_level_of_detail as lod
+          where lod.dataset_id = ? and lod.profile_id = ?) as finest,
+        (select min(lod.level)
+          from profile_level_of_detail as lod
+          where lod.dataset_id = ? and lod.profile_id = ? and lod.level >= ?) as required,
+        (select max(lod.level)
+          from profile_level_of_detail as lod
+          where lod.dataset_id = ? and lod.profile_id = ?) as coarsest
+    """;
+  private final PreparedStatement statement;
+
+  public GetProfileLevelsOfDetailAction(final Connection connection) throws SQLException {
+    this.statement = connection.prepareStatement(sql);
+  }
+
+  /**
+   * Get the levels of detail stored for a profile that are needed to choose one for a window of the profile:
+   * the finest and coarsest levels, and the finest level at least as coarse as the required level.
+   * See {@link gov.nasa.jpl.aerie.merlin.server.models.ProfileLevelsOfDetail#chooseLevel}.
+   */
+  public NavigableSet<Integer> get(final long datasetId, final long profileId, final int requiredLevel)
+  throws SQLException
+  {
+    this.statement.setLong(1, datasetId);
+    this.statement.setLong(2, profileId);
+    this.statement.setLong(3, datasetId);
+    this.statement.setLong(4, profileId);
+    this.statement.setInt(5, requiredLevel);
+    this.statement.setLong(6, datasetId);
+    this.statement.setLong(7, profileId);
+    final var resultSet = statement.executeQuery();
+
+    final var levels = new TreeSet<Integer>();
+    if (resultSet.next()) {
+      for (var column = 1; column <= 3; column++) addLevel(levels, resultSet, column);
+    }
+    return levels;
+  }
+
+  private static void addLevel(final NavigableSet<Integer> levels, final ResultSet resultSet, final int column)
+  throws SQLException
+  {
+    final var level = resultSet.getInt(column);
+    if (!resultSet.wasNull()) levels.add(level);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    this.statement.close();
+  }
+}
@@ -0,0 +1,110 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.json.JsonParser;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileSet;
+import org.apache.commons.lang3.tuple.Pair;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.GetProfileSegmentsAction.parseDynamics;
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresParsers.parseOffset;
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatements.setTimestamp;
+
+/*package-local*/ final class GetProfileSegmentsInWindowAction implements AutoCloseable {
+  // Selects the segment in effect at the start of the window, followed by the segments starting within the window.
+  // Both are range scans of the (dataset_id, profile_id, start_offset) natural key of profile segments,
+  // so the cost of this query depends on the number of segments in the window, not in the profile.
+  private final @Language("SQL") String sql = """
+      (select
+        seg.start_offset,
+        seg.dynamics
+      from profile_segment as seg
+      where
+        seg.dataset_id = ? and
+        seg.profile_id = ? and
+        seg.start_offset <= ?::timestamptz - ?::timestamptz
+      order by seg.start_offset desc
+      limit 1)
+      union all
+      (select
+        seg.start_offset,
+        seg.dynamics
+      from profile_segment as seg
+      where
+        seg.dataset_id = ? and
+        seg.profile_id = ? and
+        seg.start_offset > ?::timestamptz - ?::timestamptz and
+        seg.start_offset < ?::timestamptz - ?::timestamptz)
+      order by start_offset asc
+    """;
+  private final PreparedStatement statement;
+
+  public GetProfileSegmentsInWindowAction(final Connection connection) throws SQLException {
+    this.statement = connection.prepareStatement(sql);
+  }
+
+  /**
+   * Get the segments of a profile within the window [start, end) of time since the simulation start.
+   *
+   * @param advance Gives the dynamics of a segment as seen from some time after the segment starts,
+   *   for the segment in effect at the start of the window.
+   * @return The segments of the profile clipped to the window, starting at the start of the window.
+   */
+  public <Dynamics> List<Pair<Duration, Dynamics>> get(
+      final long datasetId,
+      final long profileId,
+      final Window simulationWindow,
+      final Duration start,
+      final Duration end,
+      final JsonParser<Dynamics> dynamicsP,
+      final BiFunction<Dynamics, Duration, Dynamics> advance
+  ) throws SQLException {
+    final var simulationStart = simulationWindow.start();
+    final var windowStart = simulationStart.plusMicros(start.in(Duration.MICROSECONDS));
+    final var windowEnd = simulationStart.plusMicros(end.in(Duration.MICROSECONDS));
+    this.statement.setLong(1, datasetId);
+    this.statement.setLong(2, profileId);
+    setTimestamp(this.statement, 3, windowStart);
+    setTimestamp(this.statement, 4, simulationStart);
+    this.statement.setLong(5, datasetId);
+    this.statement.setLong(6, profileId);
+    setTimestamp(this.statement, 7, windowStart);
+    setTimestamp(this.statement, 8, simulationStart);
+    setTimestamp(this.statement, 9, windowEnd);
+    setTimestamp(this.statement, 10, simulationStart);
+    final var resultSet = statement.executeQuery();
+
+    // As in GetProfileSegmentsAction, each segment lasts until the next one begins,
+    // and the last one until the end of the simulation.
+    final var segments = new ArrayList<Pair<Duration, Dynamics>>();
+    var segmentsStart = start;
+    if (resultSet.next()) {
+      var offset = parseOffset(resultSet, 1, simulationStart);
+      var dynamics = parseDynamics(resultSet.getCharacterStream(2), dynamicsP);
+      segmentsStart = offset;
+
+      while (resultSet.next()) {
+        final var nextOffset = parseOffset(resultSet, 1, simulationStart);
+        segments.add(Pair.of(nextOffset.minus(offset), dynamics));
+        offset = nextOffset;
+        dynamics = parseDynamics(resultSet.getCharacterStream(2), dynamicsP);
+      }
+
+      segments.add(Pair.of(simulationWindow.duration().minus(offset), dynamics));
+    }
+
+    return ProfileSet.window(segments, segmentsStart, start, end, advance);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    this.statement.close();
+  }
+}
@@ -0,0 +1,126 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileLevelsOfDetail;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileSet;
+import org.apache.commons.lang3.tuple.Pair;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresParsers.parseOffset;
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatements.setTimestamp;
+
+/*package-local*/ final class GetProfileSummariesInWindowAction implements AutoCloseable {
+  // As in GetProfileSegmentsInWindowAction, selects the summary in effect at the start of the window,
+  // followed by the summaries starting within the window, by range scans of the natural key.
+  // The first summary after the window is selected too, as it marks the end of the last summary in the window.
+  private final @Language("SQL") String sql = """
+      (select
+        lod.start_offset,
+        lod.minimum,
+        lod.maximum,
+        lod.minimum_first
+      from profile_level_of_detail as lod
+      where
+        lod.dataset_id = ? and
+        lod.profile_id = ? and
+        lod.level = ? and
+        lod.start_offset <= ?::timestamptz - ?::timestamptz
+      order by lod.start_offset desc
+      limit 1)
+      union all
+      (select
+        lod.start_offset,
+        lod.minimum,
+        lod.maximum,
+        lod.minimum_first
+      from profile_level_of_detail as lod
+      where
+        lod.dataset_id = ? and
+        lod.profile_id = ? and
+        lod.level = ? and
+        lod.start_offset > ?::timestamptz - ?::timestamptz and
+        lod.start_offset < ?::timestamptz - ?::timestamptz)
+      union all
+      (select
+        lod.start_offset,
+        lod.minimum,
+        lod.maximum,
+        lod.minimum_first
+      from profile_level_of_detail as lod
+      where
+        lod.dataset_id = ? and
+        lod.profile_id = ? and
+        lod.level = ? and
+        lod.start_offset >= ?::timestamptz - ?::timestamptz
+      order by lod.start_offset asc
+      limit 1)
+      order by start_offset asc
+    """;
+  private final PreparedStatement statement;
+
+  public GetProfileSummariesInWindowAction(final Connection connection) throws SQLException {
+    this.statement = connection.prepareStatement(sql);
+  }
+
+  /**
+   * Get a real profile within the window [start, end) of time since the simulation start, at a level of detail.
+   *
+   * @return The summaries of the level within the window, described as segments clipped to the window
+   *   (see {@link ProfileLevelsOfDetail#toSegments}), starting at the start of the window.
+   */
+  public List<Pair<Duration, RealDynamics>> get(
+      final long datasetId,
+      final long profileId,
+      final int level,
+      final Window simulationWindow,
+      final Duration start,
+      final Duration end
+  ) throws SQLException {
+    final var simulationStart = simulationWindow.start();
+    final var windowStart = simulationStart.plusMicros(start.in(Duration.MICROSECONDS));
+    final var windowEnd = simulationStart.plusMicros(end.in(Duration.MICROSECONDS));
+    this.statement.setLong(1, datasetId);
+    this.statement.setLong(2, profileId);
+    this.statement.setInt(3, level);
+    setTimestamp(this.statement, 4, windowStart);
+    setTimestamp(this.statement, 5, simulationStart);
+    this.statement.setLong(6, datasetId);
+    this.statement.setLong(7, profileId);
+    this.statement.setInt(8, level);
+    setTimestamp(this.statement, 9, windowStart);
+    setTimestamp(this.statement, 10, simulationStart);
+    setTimestamp(this.statement, 11, windowEnd);
+    setTimestamp(this.statement, 12, simulationStart);
+    this.statement.setLong(13, datasetId);
+    this.statement.setLong(14, profileId);
+    this.statement.setInt(15, level);
+    setTimestamp(this.statement, 16, windowEnd);
+    setTimestamp(this.statement, 17, simulationStart);
+    final var resultSet = statement.executeQuery();
+
+    final var summaries = new ArrayList<ProfileLevelsOfDetail.Summary>();
+    while (resultSet.next()) {
+      summaries.add(new ProfileLevelsOfDetail.Summary(
+          parseOffset(resultSet, 1, simulationStart),
+          resultSet.getDouble(2),
+          resultSet.getDouble(3),
+          resultSet.getBoolean(4)));
+    }
+    if (summaries.isEmpty()) return List.of();
+
+    final var segments = ProfileLevelsOfDetail.toSegments(summaries, simulationWindow.duration());
+    return ProfileSet.window(segments, summaries.get(0).start(), start, end, ProfileSet::advance);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    this.statement.close();
+  }
+}
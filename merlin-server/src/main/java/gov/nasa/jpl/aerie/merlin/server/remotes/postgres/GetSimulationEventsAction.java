@@ -14,7 +14,6 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
@@ -28,12 +27,15 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresParsers.
         select
           e.real_time,
           e.transaction_index,
-          e.causal_time,
+          e.causal_order,
+          e.causal_dual_order,
           e.topic_index,
-          e.value
+          e.value,
+          e.value_bytes
         from event as e
         where
           e.dataset_id = ?
+        order by e.real_time, e.transaction_index, e.causal_order
       """;
 
   private final PreparedStatement statement;
@@ -49,47 +51,61 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresParsers.
     this.statement.setLong(1, datasetId);
     final var resultSet = this.statement.executeQuery();
 
-    final var transactionsByTimePoint = readResultSet(resultSet, simulationStart);
+    return readEvents(resultSet, simulationStart, Duration.ZERO);
+  }
 
+  /**
+   * Read the events of a result set with the columns of the above query, in the same order.
+   *
+   * @param origin The offset from the simulation start to time the events from.
+   */
+  static SortedMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>> readEvents(
+      final ResultSet resultSet,
+      final Timestamp simulationStart,
+      final Duration origin) throws SQLException
+  {
+    // The rows arrive ordered along the event table's primary key,
+    // so each transaction is read in one run of rows and unflattened as soon as it ends.
     final var eventPoints = new TreeMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>>();
-    transactionsByTimePoint.forEach((time, transactions) -> {
-      transactions.forEach(($, value) -> {
-        try {
-          eventPoints
-              .computeIfAbsent(time, x -> new ArrayList<>())
-              .add(EventGraphFlattener.unflatten(value));
-        } catch (final EventGraphFlattener.InvalidTagException e) {
-          throw new Error("Failed to unflatten EventGraph due to invalid tag at time point " + time, e);
-        }
-      });
-    });
+    var transaction = new ArrayList<Pair<EventGraphFlattener.CausalTime, Pair<Integer, SerializedValue>>>();
+    Duration transactionTime = null;
+    var transactionIndex = 0;
+    while (resultSet.next()) {
+      final var timePoint = parseOffset(resultSet, 1, simulationStart).minus(origin);
+      final var index = resultSet.getInt(2);
+      if (!transaction.isEmpty() && (!timePoint.equals(transactionTime) || index != transactionIndex)) {
+        addTransaction(eventPoints, transactionTime, transaction);
+        transaction = new ArrayList<>();
+      }
+      transactionTime = timePoint;
+      transactionIndex = index;
+
+      final var causalTime = new EventGraphFlattener.CausalTime(resultSet.getInt(3), resultSet.getInt(4));
+      final var topicIndex = resultSet.getInt(5);
+      final var valueBytes = resultSet.getBytes(7);
+      final var serializedValue = (valueBytes != null)
+          ? SerializedValueBinaryCodec.decode(valueBytes)
+          : parseSerializedValue(resultSet.getString(6));
+
+      transaction.add(Pair.of(causalTime, Pair.of(topicIndex, serializedValue)));
+    }
+    if (!transaction.isEmpty()) addTransaction(eventPoints, transactionTime, transaction);
+
     return eventPoints;
   }
 
-  private static Map<Duration, SortedMap<Integer, List<Pair<String, Pair<Integer, SerializedValue>>>>>
-  readResultSet(final ResultSet resultSet, final Timestamp simulationStart)
-  throws SQLException {
-    final var nodesByTimePoint = new HashMap<Duration, SortedMap<Integer, List<Pair<String, Pair<Integer, SerializedValue>>>>>();
-    while (resultSet.next()) {
-      final var timePoint = parseOffset(resultSet, 1, simulationStart);
-      final var transactionIndex = resultSet.getInt(2);
-      final var causalTime = resultSet.getString(3);
-      final var topicIndex = resultSet.getInt(4);
-      final var serializedValue = parseSerializedValue(resultSet.getString(5));
-
-      nodesByTimePoint
-          .computeIfAbsent(timePoint, x -> new TreeMap<>())
-          .computeIfAbsent(transactionIndex, x -> new ArrayList<>())
-          .add(Pair.of(
-              causalTime,
-                   Pair.of(
-                       topicIndex,
-                       serializedValue
-                   )
-               )
-          );
+  private static void addTransaction(
+      final Map<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>> eventPoints,
+      final Duration time,
+      final List<Pair<EventGraphFlattener.CausalTime, Pair<Integer, SerializedValue>>> transaction)
+  {
+    try {
+      eventPoints
+          .computeIfAbsent(time, x -> new ArrayList<>())
+          .add(EventGraphFlattener.unflatten(transaction));
+    } catch (final EventGraphFlattener.InvalidTagException e) {
+      throw new Error("Failed to unflatten EventGraph due to invalid tag at time point " + time, e);
     }
-    return nodesByTimePoint;
   }
 
   private static SerializedValue parseSerializedValue(final String value) {
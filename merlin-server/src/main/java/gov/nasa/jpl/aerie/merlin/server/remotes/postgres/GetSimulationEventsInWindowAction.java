@@ -0,0 +1,67 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.server.models.Timestamp;
+import org.apache.commons.lang3.tuple.Pair;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SortedMap;
+
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatements.setTimestamp;
+
+/*package-local*/ final class GetSimulationEventsInWindowAction implements AutoCloseable {
+  // The range on real_time is a range scan of the event table's primary key,
+  // so the cost of this query depends on the number of events in the window, not in the dataset.
+  @Language("SQL") private final String sql = """
+        select
+          e.real_time,
+          e.transaction_index,
+          e.causal_order,
+          e.causal_dual_order,
+          e.topic_index,
+          e.value,
+          e.value_bytes
+        from event as e
+        where
+          e.dataset_id = ? and
+          e.real_time >= ?::timestamptz - ?::timestamptz and
+          e.real_time < ?::timestamptz - ?::timestamptz
+        order by e.real_time, e.transaction_index, e.causal_order
+      """;
+
+  private final PreparedStatement statement;
+
+  public GetSimulationEventsInWindowAction(final Connection connection) throws SQLException {
+    this.statement = connection.prepareStatement(this.sql);
+  }
+
+  /**
+   * Get the events at times in the window [start, end) since the simulation start, timed from the start of the window.
+   */
+  public SortedMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>> get(
+      final long datasetId,
+      final Timestamp simulationStart,
+      final Duration start,
+      final Duration end) throws SQLException
+  {
+    this.statement.setLong(1, datasetId);
+    setTimestamp(this.statement, 2, simulationStart.plusMicros(start.in(Duration.MICROSECONDS)));
+    setTimestamp(this.statement, 3, simulationStart);
+    setTimestamp(this.statement, 4, simulationStart.plusMicros(end.in(Duration.MICROSECONDS)));
+    setTimestamp(this.statement, 5, simulationStart);
+    final var resultSet = this.statement.executeQuery();
+
+    return GetSimulationEventsAction.readEvents(resultSet, simulationStart, start);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    this.statement.close();
+  }
+}
@@ -10,6 +10,7 @@ import org.intellij.lang.annotations.Language;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.List;
 import java.util.Map;
 
@@ -19,14 +20,20 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatemen
 
 /*package-local*/ final class InsertSimulationEventsAction implements AutoCloseable {
   @Language("SQL") private static final String sql = """
-      insert into event (dataset_id, real_time, transaction_index, causal_time, topic_index, value)
-      values (?, ?::timestamptz - ?::timestamptz, ?, ?, ?, ?)
+      insert into event (dataset_id, real_time, transaction_index, causal_order, causal_dual_order, topic_index, value, value_bytes)
+      values (?, ?::timestamptz - ?::timestamptz, ?, ?, ?, ?, ?::jsonb, ?)
     """;
 
   private final PreparedStatement statement;
+  private final boolean binaryValues;
 
-  public InsertSimulationEventsAction(final Connection connection) throws SQLException {
+  /**
+   * @param binaryValues Whether to store event values in the compact {@link SerializedValueBinaryCodec} encoding,
+   *   rather than as json.
+   */
+  public InsertSimulationEventsAction(final Connection connection, final boolean binaryValues) throws SQLException {
     this.statement = connection.prepareStatement(sql);
+    this.binaryValues = binaryValues;
   }
 
   public void apply(
@@ -40,7 +47,7 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatemen
       for (int transactionIndex = 0; transactionIndex < transactions.size(); transactionIndex++) {
         final var eventGraph = transactions.get(transactionIndex);
         final var flattenedEventGraph = EventGraphFlattener.flatten(eventGraph);
-        batchInsertEventGraph(datasetId, time, transactionIndex, simulationStart, flattenedEventGraph, this.statement);
+        batchInsertEventGraph(datasetId, time, transactionIndex, simulationStart, flattenedEventGraph, this.binaryValues, this.statement);
       }
     }
     this.statement.executeBatch();
@@ -51,10 +58,11 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatemen
       final Duration duration,
       final int transactionIndex,
       final Timestamp simulationStart,
-      final List<Pair<String, Pair<Integer, SerializedValue>>> flattenedEventGraph,
+      final List<Pair<EventGraphFlattener.CausalTime, Pair<Integer, SerializedValue>>> flattenedEventGraph,
+      final boolean binaryValues,
       final PreparedStatement statement
   ) throws SQLException {
-    for (final Pair<String, Pair<Integer, SerializedValue>> entry : flattenedEventGraph) {
+    for (final Pair<EventGraphFlattener.CausalTime, Pair<Integer, SerializedValue>> entry : flattenedEventGraph) {
       final var causalTime = entry.getLeft();
       final Pair<Integer, SerializedValue> event = entry.getRight();
 
@@ -62,9 +70,16 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatemen
       setTimestamp(statement, 2, simulationStart.plusMicros(duration.in(MICROSECONDS)));
       setTimestamp(statement, 3, simulationStart);
       statement.setInt(4, transactionIndex);
-      statement.setString(5, causalTime);
-      statement.setInt(6, event.getLeft());
-      statement.setString(7, serializedValueP.unparse(event.getRight()).toString());
+      statement.setInt(5, causalTime.order());
+      statement.setInt(6, causalTime.dualOrder());
+      statement.setInt(7, event.getLeft());
+      if (binaryValues) {
+        statement.setNull(8, Types.OTHER);
+        statement.setBytes(9, SerializedValueBinaryCodec.encode(event.getRight()));
+      } else {
+        statement.setString(8, serializedValueP.unparse(event.getRight()).toString());
+        statement.setNull(9, Types.BINARY);
+      }
 
       statement.addBatch();
     }
@@ -0,0 +1,60 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileLevelsOfDetail;
+import gov.nasa.jpl.aerie.merlin.server.models.Timestamp;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatements.setTimestamp;
+
+/*package-local*/ final class PostProfileLevelsOfDetailAction implements AutoCloseable {
+  private final @Language("SQL") String sql = """
+      insert into profile_level_of_detail (dataset_id, profile_id, level, start_offset, minimum, maximum, minimum_first)
+      values (?, ?, ?, ?::timestamptz - ?::timestamptz, ?, ?, ?)
+    """;
+  private final PreparedStatement statement;
+
+  public PostProfileLevelsOfDetailAction(final Connection connection) throws SQLException {
+    this.statement = connection.prepareStatement(sql);
+  }
+
+  public void apply(
+      final long datasetId,
+      final ProfileRecord profileRecord,
+      final List<ProfileLevelsOfDetail.Level> levels,
+      final Timestamp simulationStart
+  ) throws SQLException {
+    for (final var level : levels) {
+      for (final var summary : level.summaries()) {
+        final var timestamp = simulationStart.plusMicros(summary.start().dividedBy(Duration.MICROSECOND));
+
+        this.statement.setLong(1, datasetId);
+        this.statement.setLong(2, profileRecord.id());
+        this.statement.setInt(3, level.level());
+        setTimestamp(this.statement, 4, timestamp);
+        setTimestamp(this.statement, 5, simulationStart);
+        this.statement.setDouble(6, summary.minimum());
+        this.statement.setDouble(7, summary.maximum());
+        this.statement.setBoolean(8, summary.minimumFirst());
+
+        this.statement.addBatch();
+      }
+    }
+
+    final var results = this.statement.executeBatch();
+    for (final var result : results) {
+      if (result == Statement.EXECUTE_FAILED) throw new FailedInsertException("profile_level_of_detail");
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    this.statement.close();
+  }
+}
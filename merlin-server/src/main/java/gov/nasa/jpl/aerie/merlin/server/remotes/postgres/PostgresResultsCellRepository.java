@@ -31,9 +31,19 @@ import java.util.stream.Collectors;
 
 public final class PostgresResultsCellRepository implements ResultsCellRepository {
   private final DataSource dataSource;
+  private final boolean binaryEventValues;
 
   public PostgresResultsCellRepository(final DataSource dataSource) {
+    this(dataSource, false);
+  }
+
+  /**
+   * @param binaryEventValues Whether to store the values of simulation events in the compact
+   *   {@link SerializedValueBinaryCodec} encoding, rather than as json. Stored events are read back in either encoding.
+   */
+  public PostgresResultsCellRepository(final DataSource dataSource, final boolean binaryEventValues) {
     this.dataSource = dataSource;
+    this.binaryEventValues = binaryEventValues;
   }
 
   @Override
@@ -62,7 +72,8 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
           this.dataSource,
           simulation,
           dataset.datasetId(),
-          planStart);
+          planStart,
+          this.binaryEventValues);
     } catch (final SQLException ex) {
       throw new DatabaseException("Failed to allocation simulation cell", ex);
     } catch (final NoSuchPlanException ex) {
@@ -91,7 +102,8 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       return Optional.of(new PostgresResultsCell(this.dataSource,
                                                  simulation,
                                                  datasetId,
-                                                 planStart));
+                                                 planStart,
+                                                 this.binaryEventValues));
     } catch (final SQLException ex) {
       throw new DatabaseException("Failed to get simulation", ex);
     } catch (final NoSuchPlanException ex) {
@@ -202,6 +214,21 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       final long datasetId,
       final PlanId planId,
       final Timestamp planStart
+  ) throws SQLException {
+    return getSimulationState(connection, datasetId, planId, planStart, Optional.empty(), Optional.empty());
+  }
+
+  /**
+   * @param window If present, the window [start, end) of time since the simulation start to get the results within.
+   * @param points If present along with a window, the number of points to plot the real profiles in the window with.
+   */
+  private static Optional<State> getSimulationState(
+      final Connection connection,
+      final long datasetId,
+      final PlanId planId,
+      final Timestamp planStart,
+      final Optional<Pair<Duration, Duration>> window,
+      final Optional<Integer> points
   ) throws SQLException {
     final var record$ = getSimulationDatasetRecord(
         connection,
@@ -214,7 +241,9 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
         switch (record.state().state()) {
           case "incomplete" -> new ResultsProtocol.State.Incomplete();
           case "failed" -> new ResultsProtocol.State.Failed(record.state().reason());
-          case "success" -> new ResultsProtocol.State.Success(getSimulationResults(connection, record, planId));
+          case "success" -> new ResultsProtocol.State.Success((window.isPresent())
+              ? getSimulationResultsInWindow(connection, record, planId, window.get().getLeft(), window.get().getRight(), points)
+              : getSimulationResults(connection, record, planId));
           default -> throw new Error(String.format("Unexpected simulation state %s", record.state()));
         });
   }
@@ -248,6 +277,37 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
     );
   }
 
+  private static SimulationResults getSimulationResultsInWindow(
+      final Connection connection,
+      final SimulationDatasetRecord simulationDatasetRecord,
+      final PlanId planId,
+      final Duration start,
+      final Duration end,
+      final Optional<Integer> points
+  ) throws SQLException {
+    final var simulationWindow = getSimulationWindow(connection, simulationDatasetRecord, planId);
+    final var startTimestamp = simulationWindow.start();
+    final var windowEnd = Duration.min(end, simulationWindow.duration());
+    final var datasetId = simulationDatasetRecord.datasetId();
+
+    final var profiles = ProfileRepository.getProfilesInWindow(connection, datasetId, simulationWindow, start, windowEnd, points);
+    final var topics = getSimulationTopics(connection, datasetId);
+    final SortedMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>> events;
+    try (final var getSimulationEventsAction = new GetSimulationEventsInWindowAction(connection)) {
+      events = getSimulationEventsAction.get(datasetId, startTimestamp, start, end);
+    }
+
+    return new SimulationResults(
+        profiles.realProfiles(),
+        profiles.discreteProfiles(),
+        Map.of(),
+        Map.of(),
+        Duration.addToInstant(startTimestamp.toInstant(), start),
+        topics,
+        events
+    );
+  }
+
   private static List<Triple<Integer, String, ValueSchema>> getSimulationTopics(Connection connection, long datasetId)
   throws SQLException
   {
@@ -356,7 +416,8 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
   private static void postSimulationResults(
       final Connection connection,
       final long datasetId,
-      final SimulationResults results
+      final SimulationResults results,
+      final boolean binaryEventValues
   ) throws SQLException, NoSuchSimulationDatasetException
   {
     final var simulationStart = new Timestamp(results.startTime);
@@ -364,7 +425,7 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
     ProfileRepository.postResourceProfiles(connection, datasetId, profileSet, simulationStart);
     postSimulatedActivities(connection, datasetId, results.simulatedActivities, simulationStart);
     insertSimulationTopics(connection, datasetId, results.topics);
-    insertSimulationEvents(connection, datasetId, results.events, simulationStart);
+    insertSimulationEvents(connection, datasetId, results.events, simulationStart, binaryEventValues);
 
     try (final var setSimulationStateAction = new SetSimulationStateAction(connection)) {
       setSimulationStateAction.apply(datasetId, new State.Success(results));
@@ -387,10 +448,11 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       Connection connection,
       long datasetId,
       Map<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>> events,
-      Timestamp simulationStart) throws SQLException
+      Timestamp simulationStart,
+      boolean binaryEventValues) throws SQLException
   {
     try (
-        final var insertSimulationEventsAction = new InsertSimulationEventsAction(connection);
+        final var insertSimulationEventsAction = new InsertSimulationEventsAction(connection, binaryEventValues);
     ) {
         insertSimulationEventsAction.apply(datasetId, events, simulationStart);
     }
@@ -422,17 +484,20 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
     private final SimulationRecord simulation;
     private final long datasetId;
     private final Timestamp planStart;
+    private final boolean binaryEventValues;
 
     public PostgresResultsCell(
         final DataSource dataSource,
         final SimulationRecord simulation,
         final long datasetId,
-        final Timestamp planStart
+        final Timestamp planStart,
+        final boolean binaryEventValues
     ) {
       this.dataSource = dataSource;
       this.simulation = simulation;
       this.datasetId = datasetId;
       this.planStart = planStart;
+      this.binaryEventValues = binaryEventValues;
     }
 
     @Override
@@ -449,6 +514,22 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       }
     }
 
+    @Override
+    public State get(final Duration start, final Duration end, final Optional<Integer> points) {
+      try (final var connection = dataSource.getConnection()) {
+        return getSimulationState(
+            connection,
+            datasetId,
+            simulation.planId(),
+            planStart,
+            Optional.of(Pair.of(start, end)),
+            points)
+            .orElseThrow(() -> new Error("Dataset corrupted"));
+      } catch (final SQLException ex) {
+        throw new DatabaseException("Failed to get dataset", ex);
+      }
+    }
+
     @Override
     public void cancel() {
       try (final var connection = dataSource.getConnection()) {
@@ -479,7 +560,7 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
     @Override
     public void succeedWith(final SimulationResults results) {
       try (final var connection = dataSource.getConnection()) {
-        postSimulationResults(connection, datasetId, results);
+        postSimulationResults(connection, datasetId, results, binaryEventValues);
       } catch (final SQLException ex) {
         throw new DatabaseException("Failed to store simulation results", ex);
       } catch (final NoSuchSimulationDatasetException ex) {
@@ -4,6 +4,7 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.merlin.server.models.ProfileLevelsOfDetail;
 import gov.nasa.jpl.aerie.merlin.server.models.ProfileSet;
 import gov.nasa.jpl.aerie.merlin.server.models.Timestamp;
 import org.apache.commons.lang3.tuple.Pair;
@@ -13,6 +14,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static gov.nasa.jpl.aerie.merlin.server.http.SerializedValueJsonParser.serializedValueP;
 import static gov.nasa.jpl.aerie.merlin.server.http.ProfileParsers.realDynamicsP;
@@ -41,6 +43,59 @@ import static gov.nasa.jpl.aerie.merlin.server.http.ProfileParsers.realDynamicsP
     return new ProfileSet(realProfiles, discreteProfiles);
   }
 
+  /**
+   * Get the profiles of a dataset within the window [start, end) of time since the simulation start,
+   * reading only the segments of each profile that intersect the window.
+   *
+   * @param points If present, the number of points the real profiles are to be plotted with. Each real profile
+   *   is then read from the level of detail chosen by {@link ProfileLevelsOfDetail#chooseLevel} when it has one,
+   *   so that the amount of data read depends on the number of points rather than on the density of the profile.
+   */
+  static ProfileSet getProfilesInWindow(
+      final Connection connection,
+      final long datasetId,
+      final Window simulationWindow,
+      final Duration start,
+      final Duration end,
+      final Optional<Integer> points
+  ) throws SQLException {
+    final var realProfiles = new HashMap<String, List<Pair<Duration, RealDynamics>>>();
+    final var discreteProfiles = new HashMap<String, Pair<ValueSchema, List<Pair<Duration, SerializedValue>>>>();
+    final var requiredLevel = points.map($ -> ProfileLevelsOfDetail.requiredLevel(end.minus(start), $));
+
+    try (final var getProfileSegmentsAction = new GetProfileSegmentsInWindowAction(connection);
+         final var getProfileLevelsAction = new GetProfileLevelsOfDetailAction(connection);
+         final var getProfileSummariesAction = new GetProfileSummariesInWindowAction(connection)) {
+      for (final var record : getProfileRecords(connection, datasetId)) {
+        switch (record.type().getLeft()) {
+          case "real" -> {
+            final var level = (requiredLevel.isPresent())
+                ? ProfileLevelsOfDetail.chooseLevel(
+                    getProfileLevelsAction.get(record.datasetId(), record.id(), requiredLevel.get()),
+                    end.minus(start),
+                    points.get())
+                : Optional.<Integer>empty();
+            realProfiles.put(
+                record.name(),
+                (level.isPresent())
+                    ? getProfileSummariesAction.get(record.datasetId(), record.id(), level.get(), simulationWindow, start, end)
+                    : getProfileSegmentsAction.get(
+                        record.datasetId(), record.id(), simulationWindow, start, end, realDynamicsP, ProfileSet::advance));
+          }
+          case "discrete" -> discreteProfiles.put(
+              record.name(),
+              Pair.of(
+                  record.type().getRight(),
+                  getProfileSegmentsAction.get(
+                      record.datasetId(), record.id(), simulationWindow, start, end, serializedValueP, (value, elapsed) -> value)));
+          default -> throw new Error("Unrecognized profile type");
+        }
+      }
+    }
+
+    return new ProfileSet(realProfiles, discreteProfiles);
+  }
+
   static List<ProfileRecord> getProfileRecords(
       final Connection connection,
       final long datasetId
@@ -132,6 +187,22 @@ import static gov.nasa.jpl.aerie.merlin.server.http.ProfileParsers.realDynamicsP
     try (final var postProfileSegmentsAction = new PostProfileSegmentsAction(connection)) {
       postProfileSegmentsAction.apply(datasetId, profileRecord, segments, simulationStart, realDynamicsP);
     }
+    postRealProfileLevelsOfDetail(connection, datasetId, profileRecord, segments, simulationStart);
+  }
+
+  private static void postRealProfileLevelsOfDetail(
+      final Connection connection,
+      final long datasetId,
+      final ProfileRecord profileRecord,
+      final List<Pair<Duration, RealDynamics>> segments,
+      final Timestamp simulationStart
+  ) throws SQLException {
+    final var levels = ProfileLevelsOfDetail.of(segments);
+    if (levels.isEmpty()) return;
+
+    try (final var postProfileLevelsOfDetailAction = new PostProfileLevelsOfDetailAction(connection)) {
+      postProfileLevelsOfDetailAction.apply(datasetId, profileRecord, levels, simulationStart);
+    }
   }
 
   private static void postDiscreteProfileSegments(
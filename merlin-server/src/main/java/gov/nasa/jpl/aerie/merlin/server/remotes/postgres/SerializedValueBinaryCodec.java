@@ -0,0 +1,246 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of {@link SerializedValue}s, for storing values without going through JSON.
+ *
+ * An encoded value starts with a format version byte, followed by the value itself, as a tag byte and a payload:
+ * <ul>
+ *   <li>null, false and true have no payload;</li>
+ *   <li>integers are zigzag-encoded varints, so small magnitudes of either sign take few bytes;</li>
+ *   <li>reals are the 8 bytes of their IEEE 754 representation, so every real round-trips exactly;</li>
+ *   <li>strings are a varint byte length followed by UTF-8 bytes;</li>
+ *   <li>lists are a varint length followed by their elements;</li>
+ *   <li>maps are a varint size followed by their entries, each a key then a value.</li>
+ * </ul>
+ *
+ * Map keys are interned: the first occurrence of a key is written as a zero followed by the key as a string,
+ * which assigns it the next index in a table of keys; later occurrences are written as their index plus one.
+ * Values such as lists of records, which repeat the same keys many times, only pay for each key once.
+ */
+public final class SerializedValueBinaryCodec {
+  private SerializedValueBinaryCodec() {}
+
+  private static final byte VERSION = 1;
+
+  private static final byte NULL = 0;
+  private static final byte FALSE = 1;
+  private static final byte TRUE = 2;
+  private static final byte INT = 3;
+  private static final byte REAL = 4;
+  private static final byte STRING = 5;
+  private static final byte LIST = 6;
+  private static final byte MAP = 7;
+
+  public static final class InvalidEncodingException extends RuntimeException {
+    public InvalidEncodingException(final String message) {
+      super(message);
+    }
+  }
+
+  public static byte[] encode(final SerializedValue value) {
+    final var encoder = new Encoder();
+    encoder.out.write(VERSION);
+    encoder.write(value);
+    return encoder.out.toByteArray();
+  }
+
+  /**
+   * @throws InvalidEncodingException if the bytes are not a value encoded by {@link #encode(SerializedValue)}.
+   */
+  public static SerializedValue decode(final byte[] bytes) {
+    final var decoder = new Decoder(bytes);
+    final var version = decoder.readByte();
+    if (version != VERSION) throw new InvalidEncodingException("Unknown encoding version " + version);
+
+    final var value = decoder.read();
+    if (decoder.position != bytes.length) {
+      throw new InvalidEncodingException("Unexpected trailing bytes at offset " + decoder.position);
+    }
+    return value;
+  }
+
+  private static final class Encoder implements SerializedValue.Visitor<Void> {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Map<String, Integer> keys = new HashMap<>();
+
+    private void write(final SerializedValue value) {
+      value.match(this);
+    }
+
+    @Override
+    public Void onNull() {
+      this.out.write(NULL);
+      return null;
+    }
+
+    @Override
+    public Void onReal(final double value) {
+      this.out.write(REAL);
+      final var bits = Double.doubleToRawLongBits(value);
+      for (var shift = 56; shift >= 0; shift -= 8) this.out.write((int) (bits >>> shift));
+      return null;
+    }
+
+    @Override
+    public Void onInt(final long value) {
+      this.out.write(INT);
+      this.writeVarint((value << 1) ^ (value >> 63));
+      return null;
+    }
+
+    @Override
+    public Void onBoolean(final boolean value) {
+      this.out.write(value ? TRUE : FALSE);
+      return null;
+    }
+
+    @Override
+    public Void onString(final String value) {
+      this.out.write(STRING);
+      this.writeString(value);
+      return null;
+    }
+
+    @Override
+    public Void onMap(final Map<String, SerializedValue> value) {
+      this.out.write(MAP);
+      this.writeVarint(value.size());
+      for (final var entry : value.entrySet()) {
+        this.writeKey(entry.getKey());
+        this.write(entry.getValue());
+      }
+      return null;
+    }
+
+    @Override
+    public Void onList(final List<SerializedValue> value) {
+      this.out.write(LIST);
+      this.writeVarint(value.size());
+      for (final var element : value) this.write(element);
+      return null;
+    }
+
+    private void writeKey(final String key) {
+      final var index = this.keys.get(key);
+      if (index != null) {
+        this.writeVarint(index + 1);
+      } else {
+        this.keys.put(key, this.keys.size());
+        this.writeVarint(0);
+        this.writeString(key);
+      }
+    }
+
+    private void writeString(final String value) {
+      final var bytes = value.getBytes(StandardCharsets.UTF_8);
+      this.writeVarint(bytes.length);
+      this.out.writeBytes(bytes);
+    }
+
+    private void writeVarint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        this.out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      this.out.write((int) value);
+    }
+  }
+
+  private static final class Decoder {
+    private final byte[] bytes;
+    private int position = 0;
+    private final List<String> keys = new ArrayList<>();
+
+    private Decoder(final byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private SerializedValue read() {
+      final var tag = this.readByte();
+      return switch (tag) {
+        case NULL -> SerializedValue.NULL;
+        case FALSE -> SerializedValue.of(false);
+        case TRUE -> SerializedValue.of(true);
+        case INT -> {
+          final var zigzag = this.readVarint();
+          yield SerializedValue.of((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        case REAL -> {
+          var bits = 0L;
+          for (var i = 0; i < 8; i += 1) bits = (bits << 8) | (this.readByte() & 0xFF);
+          yield SerializedValue.of(Double.longBitsToDouble(bits));
+        }
+        case STRING -> SerializedValue.of(this.readString());
+        case LIST -> {
+          final var size = this.readLength();
+          final var elements = new ArrayList<SerializedValue>(size);
+          for (var i = 0; i < size; i += 1) elements.add(this.read());
+          yield SerializedValue.of(elements);
+        }
+        case MAP -> {
+          final var size = this.readLength();
+          final var entries = new HashMap<String, SerializedValue>(size * 4 / 3 + 1);
+          for (var i = 0; i < size; i += 1) {
+            final var key = this.readKey();
+            entries.put(key, this.read());
+          }
+          yield SerializedValue.of(entries);
+        }
+        default -> throw new InvalidEncodingException("Unknown tag " + tag + " at offset " + (this.position - 1));
+      };
+    }
+
+    private String readKey() {
+      final var reference = this.readVarint();
+      if (reference == 0) {
+        final var key = this.readString();
+        this.keys.add(key);
+        return key;
+      } else if (reference <= this.keys.size()) {
+        return this.keys.get((int) (reference - 1));
+      } else {
+        throw new InvalidEncodingException("Unknown key reference " + reference + " at offset " + this.position);
+      }
+    }
+
+    private String readString() {
+      final var length = this.readLength();
+      final var value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+      this.position += length;
+      return value;
+    }
+
+    /** Read a length, which must fit in the remaining bytes since every element takes at least one byte. */
+    private int readLength() {
+      final var length = this.readVarint();
+      if (length < 0 || length > this.bytes.length - this.position) {
+        throw new InvalidEncodingException("Invalid length " + length + " at offset " + this.position);
+      }
+      return (int) length;
+    }
+
+    private long readVarint() {
+      var value = 0L;
+      for (var shift = 0; shift < 64; shift += 7) {
+        final var b = this.readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) return value;
+      }
+      throw new InvalidEncodingException("Overlong varint at offset " + this.position);
+    }
+
+    private byte readByte() {
+      if (this.position >= this.bytes.length) throw new InvalidEncodingException("Unexpected end of encoding");
+      return this.bytes[this.position++];
+    }
+  }
+}
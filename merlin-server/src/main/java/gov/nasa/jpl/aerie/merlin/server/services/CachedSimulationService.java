@@ -1,18 +1,41 @@
 package gov.nasa.jpl.aerie.merlin.server.services;
 
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
 import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
 import gov.nasa.jpl.aerie.merlin.server.remotes.ResultsCellRepository;
 
+import java.util.Optional;
+import java.util.function.Function;
+
 public record CachedSimulationService (
     ResultsCellRepository store,
     SimulationAgent agent
 ) implements SimulationService {
   @Override
   public ResultsProtocol.State getSimulationResults(final PlanId planId, final RevisionData revisionData) {
+    return this.getSimulationResults(planId, revisionData, ResultsProtocol.ReaderRole::get);
+  }
+
+  @Override
+  public ResultsProtocol.State getSimulationResults(
+      final PlanId planId,
+      final RevisionData revisionData,
+      final Duration start,
+      final Duration end,
+      final Optional<Integer> points)
+  {
+    return this.getSimulationResults(planId, revisionData, reader -> reader.get(start, end, points));
+  }
+
+  private ResultsProtocol.State getSimulationResults(
+      final PlanId planId,
+      final RevisionData revisionData,
+      final Function<ResultsProtocol.ReaderRole, ResultsProtocol.State> read)
+  {
     final var cell$ = this.store.lookup(planId);
     if (cell$.isPresent()) {
-      return cell$.get().get();
+      return read.apply(cell$.get());
     } else {
       // Allocate a fresh cell.
       final var cell = this.store.allocate(planId);
@@ -31,7 +54,7 @@ public record CachedSimulationService (
       }
 
       // Return the current value of the reader; if it's incomplete, the caller can check it again later.
-      return reader.get();
+      return read.apply(reader);
     }
   }
 }
@@ -1,14 +1,14 @@
 package gov.nasa.jpl.aerie.merlin.server.services;
 
+import gov.nasa.jpl.aerie.constraints.IncrementalConstraintEvaluator;
 import gov.nasa.jpl.aerie.constraints.InputMismatchException;
 import gov.nasa.jpl.aerie.constraints.json.ConstraintParsers;
 import gov.nasa.jpl.aerie.constraints.model.ActivityInstance;
-import gov.nasa.jpl.aerie.constraints.model.DiscreteProfile;
-import gov.nasa.jpl.aerie.constraints.model.DiscreteProfilePiece;
-import gov.nasa.jpl.aerie.constraints.model.LinearProfile;
-import gov.nasa.jpl.aerie.constraints.model.LinearProfilePiece;
+import gov.nasa.jpl.aerie.constraints.model.ColumnarProfiles;
+import gov.nasa.jpl.aerie.constraints.model.MemoizedProfiles;
 import gov.nasa.jpl.aerie.constraints.model.Violation;
 import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.constraints.tree.Expression;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
@@ -22,9 +22,11 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 public final class GetSimulationResultsAction {
   public /*sealed*/ interface Response {
@@ -33,10 +35,23 @@ public final class GetSimulationResultsAction {
     record Complete(SimulationResults results, Map<String, List<Violation>> violations) implements Response {}
   }
 
+  /** The maximum number of plans whose constraint violations are kept, to be re-evaluated incrementally. */
+  public static final int MAX_CACHED_PLANS = 16;
+
   private final PlanService planService;
   private final MissionModelService missionModelService;
   private final SimulationService simulationService;
 
+  // The constraints of the most recently requested plans, along with their violations against the last results
+  // they were evaluated against. An access-ordered map evicts the least recently requested plan first.
+  private final Map<PlanId, IncrementalConstraintEvaluator<String>> evaluators =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<PlanId, IncrementalConstraintEvaluator<String>> eldest) {
+          return this.size() > MAX_CACHED_PLANS;
+        }
+      };
+
   public GetSimulationResultsAction(
       final PlanService planService,
       final MissionModelService missionModelService,
@@ -66,6 +81,40 @@ public final class GetSimulationResultsAction {
     }
   }
 
+  /**
+   * Get the simulation results of a plan within the window [start, end) of time since the start of simulation.
+   *
+   * Only the profiles and events within the window are returned, so the cost of the request does not grow with the
+   * length of the simulation. Constraint violations are evaluated against complete simulation results,
+   * so they are not included.
+   *
+   * @param points If present, the number of points the real profiles are to be plotted with,
+   *   so that dense profiles are given at a level of detail that does not grow with the length of the simulation either.
+   */
+  public Response run(final PlanId planId, final Duration start, final Duration end, final Optional<Integer> points)
+  throws NoSuchPlanException
+  {
+    final var revisionData = this.planService.getPlanRevisionData(planId);
+
+    final var response = this.simulationService.getSimulationResults(planId, revisionData, start, end, points);
+
+    if (response instanceof ResultsProtocol.State.Incomplete) {
+      return new Response.Incomplete();
+    } else if (response instanceof ResultsProtocol.State.Failed r) {
+      return new Response.Failed(r.reason());
+    } else if (response instanceof ResultsProtocol.State.Success r) {
+      return new Response.Complete(r.results(), Map.of());
+    } else {
+      throw new UnexpectedSubtypeError(ResultsProtocol.State.class, response);
+    }
+  }
+
+  /**
+   * Evaluate the constraints of a plan against its simulation results.
+   *
+   * The violations of each plan are kept between requests, so that when the plan is re-simulated, only the constraints
+   * depending on resources or activity types that changed are re-evaluated, and only over the windows that changed.
+   */
   public Map<String, List<Violation>> getViolations(final PlanId planId, final SimulationResults results)
   throws NoSuchPlanException
   {
@@ -101,56 +150,19 @@ public final class GetSimulationResultsAction {
           Window.between(activityOffset, activityOffset.plus(activity.duration))));
     }
 
-    final var discreteProfiles = new HashMap<String, DiscreteProfile>(results.discreteProfiles.size());
-    for (final var entry : results.discreteProfiles.entrySet()) {
-      final var pieces = new ArrayList<DiscreteProfilePiece>(entry.getValue().getRight().size());
-
-      var elapsed = Duration.ZERO;
-      for (final var piece : entry.getValue().getRight()) {
-        final var extent = piece.getLeft();
-        final var value = piece.getRight();
-
-        pieces.add(new DiscreteProfilePiece(
-            Window.between(elapsed, elapsed.plus(extent)),
-            value));
-
-        elapsed = elapsed.plus(extent);
-      }
-
-      discreteProfiles.put(entry.getKey(), new DiscreteProfile(pieces));
-    }
-
-    final var realProfiles = new HashMap<String, LinearProfile>();
-    for (final var entry : results.realProfiles.entrySet()) {
-      final var pieces = new ArrayList<LinearProfilePiece>(entry.getValue().size());
-
-      var elapsed = Duration.ZERO;
-      for (final var piece : entry.getValue()) {
-        final var extent = piece.getLeft();
-        final var value = piece.getRight();
-
-        pieces.add(new LinearProfilePiece(
-            Window.between(elapsed, elapsed.plus(extent)),
-            value.initial,
-            value.rate));
-
-        elapsed = elapsed.plus(extent);
-      }
-
-      realProfiles.put(entry.getKey(), new LinearProfile(pieces));
-    }
-
     final var planDuration = Duration.of(
         plan.startTimestamp.toInstant().until(plan.endTimestamp.toInstant(), ChronoUnit.MICROS),
         Duration.MICROSECONDS);
 
+    // Only the profiles referenced by the constraints are converted, once each.
+    final var converter = new ColumnarProfiles();
     final var preparedResults = new gov.nasa.jpl.aerie.constraints.model.SimulationResults(
         Window.between(Duration.ZERO, planDuration),
         activities,
-        realProfiles,
-        discreteProfiles);
+        new MemoizedProfiles<>(results.realProfiles, converter::linear),
+        new MemoizedProfiles<>(results.discreteProfiles, profile -> converter.discrete(profile.getRight())));
 
-    final var violations = new HashMap<String, List<Violation>>();
+    final var expressions = new HashMap<String, Expression<List<Violation>>>();
     for (final var entry : constraintJsons.entrySet()) {
       final var subject = Json.createReader(new StringReader(entry.getValue().definition())).readValue();
       final var constraint = ConstraintParsers.constraintP.parse(subject);
@@ -159,33 +171,47 @@ public final class GetSimulationResultsAction {
         throw new Error(entry.getValue().definition());
       }
 
-      final var violationEvents = new ArrayList<Violation>();
-      final var expression = constraint.getSuccessOrThrow();
-      try {
-        violationEvents.addAll(expression.evaluate(preparedResults));
-      } catch (final InputMismatchException ex) {
-        // @TODO Need a better way to catch and propagate the exception to the
-        // front end and to log the evaluation failure. This is captured in AERIE-1285.
-      }
-
-
-      if (violationEvents.isEmpty()) continue;
-
-      /* TODO: constraint.evaluate returns an List<Violations> with a single empty unpopulated Violation
-          which prevents the above condition being sufficient in all cases. A ticket AERIE-1230 has been
-          created to account for refactoring and removing the need for this condition. */
-      if (violationEvents.size() == 1 && violationEvents.get(0).violationWindows.isEmpty()) continue;
+      expressions.put(entry.getKey(), constraint.getSuccessOrThrow());
+    }
 
-      final var names = new HashSet<String>();
-      expression.extractResources(names);
-      final var resourceNames = new ArrayList<>(names);
-      final var violationEventsWithNames = new ArrayList<Violation>();
-      violationEvents.forEach(violation -> violationEventsWithNames.add(new Violation(
-          violation.activityInstanceIds,
-          resourceNames,
-          violation.violationWindows)));
+    final IncrementalConstraintEvaluator<String> evaluator;
+    synchronized (this.evaluators) {
+      evaluator = this.evaluators.computeIfAbsent(planId, $ -> new IncrementalConstraintEvaluator<>());
+    }
 
-      violations.put(entry.getKey(), violationEventsWithNames);
+    final var violations = new HashMap<String, List<Violation>>();
+    synchronized (evaluator) {
+      evaluator.putAll(expressions);
+      evaluator.update(preparedResults);
+      for (final var entry : expressions.entrySet()) {
+        final var violationEvents = new ArrayList<Violation>();
+        final var expression = entry.getValue();
+        try {
+          violationEvents.addAll(evaluator.evaluate(entry.getKey()));
+        } catch (final InputMismatchException ex) {
+          // @TODO Need a better way to catch and propagate the exception to the
+          // front end and to log the evaluation failure. This is captured in AERIE-1285.
+        }
+
+
+        if (violationEvents.isEmpty()) continue;
+
+        /* TODO: constraint.evaluate returns an List<Violations> with a single empty unpopulated Violation
+            which prevents the above condition being sufficient in all cases. A ticket AERIE-1230 has been
+            created to account for refactoring and removing the need for this condition. */
+        if (violationEvents.size() == 1 && violationEvents.get(0).violationWindows.isEmpty()) continue;
+
+        final var names = new HashSet<String>();
+        expression.extractResources(names);
+        final var resourceNames = new ArrayList<>(names);
+        final var violationEventsWithNames = new ArrayList<Violation>();
+        violationEvents.forEach(violation -> violationEventsWithNames.add(new Violation(
+            violation.activityInstanceIds,
+            resourceNames,
+            violation.violationWindows)));
+
+        violations.put(entry.getKey(), violationEventsWithNames);
+      }
     }
 
     return violations;
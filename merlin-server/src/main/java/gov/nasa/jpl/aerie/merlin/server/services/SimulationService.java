@@ -1,8 +1,19 @@
 package gov.nasa.jpl.aerie.merlin.server.services;
 
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
 import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
 
+import java.util.Optional;
+
 public interface SimulationService {
   ResultsProtocol.State getSimulationResults(PlanId planId, RevisionData revisionData);
+
+  /** Get the simulation results within the window [start, end). See {@link ResultsProtocol.ReaderRole#get(Duration, Duration, Optional)}. */
+  ResultsProtocol.State getSimulationResults(
+      PlanId planId,
+      RevisionData revisionData,
+      Duration start,
+      Duration end,
+      Optional<Integer> points);
 }
@@ -1,13 +1,36 @@
 package gov.nasa.jpl.aerie.merlin.server.services;
 
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
 import gov.nasa.jpl.aerie.merlin.server.mocks.InMemoryRevisionData;
 import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
 import gov.nasa.jpl.aerie.merlin.server.remotes.InMemoryResultsCellRepository.InMemoryCell;
 
+import java.util.Optional;
+import java.util.function.Function;
+
 public record UncachedSimulationService (SimulationAgent action) implements SimulationService {
   @Override
   public ResultsProtocol.State getSimulationResults(final PlanId planId, final RevisionData revisionData) {
+    return this.getSimulationResults(planId, revisionData, ResultsProtocol.ReaderRole::get);
+  }
+
+  @Override
+  public ResultsProtocol.State getSimulationResults(
+      final PlanId planId,
+      final RevisionData revisionData,
+      final Duration start,
+      final Duration end,
+      final Optional<Integer> points)
+  {
+    return this.getSimulationResults(planId, revisionData, reader -> reader.get(start, end, points));
+  }
+
+  private ResultsProtocol.State getSimulationResults(
+      final PlanId planId,
+      final RevisionData revisionData,
+      final Function<ResultsProtocol.ReaderRole, ResultsProtocol.State> read)
+  {
     if (!(revisionData instanceof InMemoryRevisionData inMemoryRevisionData)) {
       throw new Error("UncachedSimulationService only accepts InMemoryRevisionData");
     }
@@ -24,7 +47,7 @@ public record UncachedSimulationService (SimulationAgent action) implements Simu
       //   so the interaction between the two is now in an undefined state.
     }
 
-    final var result = cell.get();
+    final var result = read.apply(cell);
     cell.cancel();
 
     return result;
@@ -0,0 +1,90 @@
+package gov.nasa.jpl.aerie.merlin.server.http;
+
+import gov.nasa.jpl.aerie.constraints.model.Violation;
+import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.merlin.driver.SimulatedActivity;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.merlin.server.services.GetSimulationResultsAction;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ResponseSerializersTest {
+  @Test
+  public void shouldWriteSameSimulationResultsAsSerialized() {
+    // GIVEN
+    final var start = Instant.parse("2022-01-01T00:00:00Z");
+    final var events = new TreeMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>>();
+    events.put(Duration.ZERO, List.of(
+        EventGraph.sequentially(
+            EventGraph.atom(Pair.of(0, SerializedValue.of(1))),
+            EventGraph.concurrently(
+                EventGraph.atom(Pair.of(0, SerializedValue.of(2))),
+                EventGraph.atom(Pair.of(1, SerializedValue.of("on")))))));
+    events.put(Duration.of(5, Duration.SECONDS), List.of(
+        EventGraph.atom(Pair.of(1, SerializedValue.of("off"))),
+        EventGraph.empty()));
+
+    final var results = new SimulationResults(
+        Map.of("/level", List.of(
+            Pair.of(Duration.of(10, Duration.SECONDS), RealDynamics.linear(0.0, 1.0)),
+            Pair.of(Duration.of(10, Duration.SECONDS), RealDynamics.constant(10.0)))),
+        Map.of("/mode", Pair.of(ValueSchema.STRING, List.of(
+            Pair.of(Duration.of(5, Duration.SECONDS), SerializedValue.of("on")),
+            Pair.of(Duration.of(15, Duration.SECONDS), SerializedValue.of("off"))))),
+        Map.of(
+            new ActivityInstanceId(1), new SimulatedActivity(
+                "Parent", Map.of("x", SerializedValue.of(1)), start, Duration.of(20, Duration.SECONDS),
+                null, List.of(new ActivityInstanceId(2)), Optional.of(new ActivityInstanceId(1)), SerializedValue.NULL),
+            new ActivityInstanceId(2), new SimulatedActivity(
+                "Child", Map.of(), start, Duration.of(1, Duration.SECONDS),
+                new ActivityInstanceId(1), List.of(), Optional.empty(), SerializedValue.of(Map.of("y", SerializedValue.of(true))))),
+        Map.of(),
+        start,
+        List.of(Triple.of(0, "/counter", ValueSchema.INT), Triple.of(1, "/mode", ValueSchema.STRING)),
+        events);
+    final var response = new GetSimulationResultsAction.Response.Complete(results, Map.<String, List<Violation>>of());
+
+    // WHEN
+    final var written = new StringWriter();
+    try (final var generator = Json.createGenerator(written)) {
+      ResponseSerializers.writeSimulationResultsResponse(generator, response);
+    }
+
+    // THEN
+    final var parsed = Json.createReader(new StringReader(written.toString())).readValue();
+    assertThat(parsed).isEqualTo(ResponseSerializers.serializeSimulationResultsResponse(response));
+  }
+
+  @Test
+  public void shouldWriteIncompleteSimulationResultsAsSerialized() {
+    // GIVEN
+    final var response = new GetSimulationResultsAction.Response.Incomplete();
+
+    // WHEN
+    final var written = new StringWriter();
+    try (final var generator = Json.createGenerator(written)) {
+      ResponseSerializers.writeSimulationResultsResponse(generator, response);
+    }
+
+    // THEN
+    final var parsed = Json.createReader(new StringReader(written.toString())).readValue();
+    assertThat(parsed).isEqualTo(ResponseSerializers.serializeSimulationResultsResponse(response));
+  }
+}
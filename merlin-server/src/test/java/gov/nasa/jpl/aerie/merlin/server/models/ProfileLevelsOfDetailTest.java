@@ -0,0 +1,115 @@
+package gov.nasa.jpl.aerie.merlin.server.models;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MILLISECONDS;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ProfileLevelsOfDetailTest {
+  private static Duration seconds(final long quantity) {
+    return Duration.of(quantity, SECONDS);
+  }
+
+  /** A square wave between 0 and 1 changing every 100ms, with a single spike to 50 after 1234.5 seconds. */
+  private static List<Pair<Duration, RealDynamics>> denseProfile(final int nbSegments) {
+    final var segments = new ArrayList<Pair<Duration, RealDynamics>>(nbSegments);
+    for (var i = 0; i < nbSegments; i++) {
+      segments.add(Pair.of(Duration.of(100, MILLISECONDS), RealDynamics.constant((i == 12345) ? 50 : i % 2)));
+    }
+    return segments;
+  }
+
+  @Test
+  public void testSummariesPreserveExtremes() {
+    final var levels = ProfileLevelsOfDetail.of(denseProfile(100_000));
+
+    assertTrue(!levels.isEmpty());
+    for (final var level : levels) {
+      final var summaries = level.summaries();
+      assertEquals(50, summaries.stream().mapToDouble(ProfileLevelsOfDetail.Summary::maximum).max().orElseThrow());
+      assertEquals(0, summaries.stream().mapToDouble(ProfileLevelsOfDetail.Summary::minimum).min().orElseThrow());
+
+      // 100,000 segments of 100ms last 10,000 seconds.
+      final var width = ProfileLevelsOfDetail.bucketWidth(level.level());
+      assertEquals((long) Math.ceil(seconds(10_000).ratioOver(width)), summaries.size());
+      assertEquals(Duration.ZERO, summaries.get(0).start());
+    }
+  }
+
+  @Test
+  public void testSummaryFollowsProfileTrend() {
+    final var levels = ProfileLevelsOfDetail.of(List.of(
+        Pair.of(seconds(1), RealDynamics.constant(0)),
+        Pair.of(seconds(1), RealDynamics.linear(10, -5)),
+        Pair.of(seconds(1), RealDynamics.constant(3)),
+        Pair.of(seconds(1), RealDynamics.constant(-2))));
+
+    // Level 1 summarizes all four segments in a single 4s bucket, where the maximum comes first.
+    final var level = levels.get(levels.size() - 1);
+    assertEquals(List.of(new ProfileLevelsOfDetail.Summary(Duration.ZERO, -2, 10, false)), level.summaries());
+    assertEquals(
+        List.of(Pair.of(seconds(4), RealDynamics.linear(10, -3))),
+        ProfileLevelsOfDetail.toSegments(level.summaries(), seconds(4)));
+  }
+
+  @Test
+  public void testSparseProfileHasNoLevels() {
+    final var levels = ProfileLevelsOfDetail.of(List.of(
+        Pair.of(seconds(1000), RealDynamics.constant(0)),
+        Pair.of(seconds(1000), RealDynamics.constant(1))));
+
+    // Only the level summarizing both segments at once is worth storing.
+    assertEquals(1, levels.size());
+    assertEquals(1, levels.get(0).summaries().size());
+    assertEquals(List.of(), ProfileLevelsOfDetail.of(List.of(Pair.of(seconds(1000), RealDynamics.constant(0)))));
+  }
+
+  @Test
+  public void testChooseLevel() {
+    final var levels = new TreeSet<>(List.of(2, 3, 6));
+
+    // 4^3 = 64 seconds per bucket are needed to fit 4000 seconds in 100 points.
+    assertEquals(Optional.of(3), ProfileLevelsOfDetail.chooseLevel(levels, seconds(4000), 100));
+    assertEquals(Optional.of(6), ProfileLevelsOfDetail.chooseLevel(levels, seconds(40_000), 100));
+    assertEquals(Optional.of(6), ProfileLevelsOfDetail.chooseLevel(levels, seconds(40_000_000), 100));
+    // Finer than the finest level stored, the segments themselves are read.
+    assertEquals(Optional.empty(), ProfileLevelsOfDetail.chooseLevel(levels, seconds(200), 100));
+    assertEquals(Optional.empty(), ProfileLevelsOfDetail.chooseLevel(levels, seconds(50), 100));
+    // Level 0 is read whenever it is stored and the window spans fewer buckets than points.
+    assertEquals(Optional.of(0), ProfileLevelsOfDetail.chooseLevel(new TreeSet<>(List.of(0, 2)), seconds(50), 100));
+    assertEquals(0, ProfileLevelsOfDetail.requiredLevel(seconds(50), 100));
+    assertEquals(Optional.empty(), ProfileLevelsOfDetail.chooseLevel(new TreeSet<>(), seconds(4000), 100));
+  }
+
+  @Test
+  public void testDownsampleIsBoundedByBudget() {
+    final var segments = denseProfile(1_000_000);
+
+    final var downsampled = ProfileLevelsOfDetail.downsample(segments, seconds(1000), seconds(90_000), 500);
+    assertTrue(downsampled.size() <= 501, "Got " + downsampled.size() + " segments");
+    assertEquals(seconds(89_000), downsampled.stream().map(Pair::getLeft).reduce(Duration.ZERO, Duration::plus));
+
+    // A window spanning fewer seconds than points is read at level 0, rather than from its 4000 segments.
+    final var shortWindow = ProfileLevelsOfDetail.downsample(segments, seconds(1000), seconds(1400), 500);
+    assertTrue(shortWindow.size() <= 400, "Got " + shortWindow.size() + " segments");
+    assertEquals(seconds(400), shortWindow.stream().map(Pair::getLeft).reduce(Duration.ZERO, Duration::plus));
+
+    // A sparse profile, with no level as fine as required, is read at full resolution.
+    final var sparse = List.of(
+        Pair.of(seconds(1000), RealDynamics.constant(0)),
+        Pair.of(seconds(1000), RealDynamics.constant(1)));
+    assertEquals(
+        ProfileSet.window(sparse, Duration.ZERO, seconds(500), seconds(1500), ProfileSet::advance),
+        ProfileLevelsOfDetail.downsample(sparse, seconds(500), seconds(1500), 500));
+  }
+}
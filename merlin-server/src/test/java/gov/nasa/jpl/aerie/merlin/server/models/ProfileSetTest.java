@@ -0,0 +1,70 @@
+package gov.nasa.jpl.aerie.merlin.server.models;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class ProfileSetTest {
+  private static Duration seconds(final long quantity) {
+    return Duration.of(quantity, SECONDS);
+  }
+
+  @Test
+  public void testWindowClipsSegments() {
+    final var profileSet = ProfileSet.of(
+        Map.of(),
+        Map.of("mode", Pair.of(ValueSchema.STRING, List.of(
+            Pair.of(seconds(10), SerializedValue.of("OFF")),
+            Pair.of(seconds(10), SerializedValue.of("ON")),
+            Pair.of(seconds(10), SerializedValue.of("OFF"))))));
+
+    final var windowed = profileSet.window(seconds(5), seconds(15));
+
+    assertEquals(
+        List.of(
+            Pair.of(seconds(5), SerializedValue.of("OFF")),
+            Pair.of(seconds(5), SerializedValue.of("ON"))),
+        windowed.discreteProfiles().get("mode").getRight());
+  }
+
+  @Test
+  public void testWindowAdvancesRealDynamics() {
+    final var profileSet = ProfileSet.of(
+        Map.of("fuel", List.of(
+            Pair.of(seconds(10), RealDynamics.linear(100, -1)),
+            Pair.of(seconds(10), RealDynamics.constant(90)))),
+        Map.of());
+
+    final var windowed = profileSet.window(seconds(4), seconds(30));
+
+    assertEquals(
+        List.of(
+            Pair.of(seconds(6), RealDynamics.linear(96, -1)),
+            Pair.of(seconds(10), RealDynamics.constant(90))),
+        windowed.realProfiles().get("fuel"));
+  }
+
+  @Test
+  public void testWindowBetweenSegmentBoundaries() {
+    final var segments = List.of(
+        Pair.of(seconds(10), SerializedValue.of(1)),
+        Pair.of(seconds(10), SerializedValue.of(2)));
+
+    // The segments start 100s into the simulation, as when read from the segment in effect at the window start.
+    final var windowed = ProfileSet.window(segments, seconds(100), seconds(110), seconds(110), (value, elapsed) -> value);
+
+    assertEquals(List.of(), windowed);
+    assertEquals(
+        List.of(Pair.of(seconds(10), SerializedValue.of(2))),
+        ProfileSet.window(segments, seconds(100), seconds(110), seconds(125), (value, elapsed) -> value));
+  }
+}
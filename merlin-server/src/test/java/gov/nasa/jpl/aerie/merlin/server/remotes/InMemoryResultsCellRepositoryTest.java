@@ -0,0 +1,63 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes;
+
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
+import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class InMemoryResultsCellRepositoryTest {
+  private static Duration seconds(final long quantity) {
+    return Duration.of(quantity, SECONDS);
+  }
+
+  private static List<EventGraph<Pair<Integer, SerializedValue>>> eventAt(final long quantity) {
+    return List.of(EventGraph.atom(Pair.of(0, SerializedValue.of(quantity))));
+  }
+
+  @Test
+  public void testGetWindowRetimesEventsAndShiftsStartTime() {
+    final var events = new TreeMap<Duration, List<EventGraph<Pair<Integer, SerializedValue>>>>();
+    for (final var time : List.of(0L, 5L, 10L, 15L, 20L)) events.put(seconds(time), eventAt(time));
+
+    final var startTime = Instant.parse("2022-01-01T00:00:00Z");
+    final var cell = new InMemoryResultsCellRepository.InMemoryCell(new PlanId(1), 0);
+    cell.succeedWith(new SimulationResults(
+        Map.of("x", List.of(Pair.of(seconds(30), RealDynamics.linear(0, 1)))),
+        Map.of("mode", Pair.of(ValueSchema.STRING, List.of(Pair.of(seconds(30), SerializedValue.of("ON"))))),
+        Map.of(),
+        Map.of(),
+        startTime,
+        List.of(Triple.of(0, "topic", ValueSchema.INT)),
+        events));
+
+    final var state = cell.get(seconds(5), seconds(15), Optional.empty());
+    assertTrue(state instanceof ResultsProtocol.State.Success);
+    final var results = ((ResultsProtocol.State.Success) state).results();
+
+    assertEquals(startTime.plusSeconds(5), results.startTime);
+    // Events are timed from the start of the window, and those at its end belong to the next window.
+    assertEquals(
+        new TreeMap<>(Map.of(seconds(0), eventAt(5), seconds(5), eventAt(10))),
+        results.events);
+    assertEquals(List.of(Pair.of(seconds(10), RealDynamics.linear(5, 1))), results.realProfiles.get("x"));
+    assertEquals(List.of(Pair.of(seconds(10), SerializedValue.of("ON"))), results.discreteProfiles.get("mode").getRight());
+    assertEquals(Map.of(), results.simulatedActivities);
+  }
+}
@@ -0,0 +1,96 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CausalTimeBenchmark {
+  /**
+   * This benchmark flattens the transactions of a simulation of 2 million events into the causal times stored
+   * with each event, then unflattens them back into event graphs, as done when writing and reading event datasets.
+   * Each printed line _step _time _throughput shows the mean time _time (in ns) that step _step took
+   * over all the transactions, and the corresponding number of events per second _throughput.
+   *
+   * The database is not available to a benchmark, so only the work done by the merlin server is timed;
+   * the database itself stores and indexes two integers per event.
+   */
+  public static void main(String[] args) throws EventGraphFlattener.InvalidTagException {
+    final var transactions = makeTransactions(200_000);
+    final var nbEvents = transactions.stream().mapToInt(CausalTimeBenchmark::size).sum();
+
+    final var flattened = new ArrayList<List<Pair<EventGraphFlattener.CausalTime, Integer>>>(transactions.size());
+    for (final var transaction : transactions) flattened.add(EventGraphFlattener.flatten(transaction));
+
+    // Check that the transactions are reassembled before timing them.
+    for (var i = 0; i < transactions.size(); i++) {
+      final var unflattened = EventGraphFlattener.unflatten(flattened.get(i));
+      if (!transactions.get(i).toString().equals(unflattened.toString())) throw new AssertionError(transactions.get(i));
+    }
+
+    // Warm up.
+    for (var i = 0; i < 3; i++) {
+      flattenAll(transactions);
+      unflattenAll(flattened);
+    }
+
+    var flattenSum = 0.;
+    var unflattenSum = 0.;
+    for (var i = 0; i < 10; i++) {
+      var start = System.nanoTime();
+      flattenAll(transactions);
+      flattenSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      unflattenAll(flattened);
+      unflattenSum += System.nanoTime() - start;
+    }
+    final var flattenTime = flattenSum / 10;
+    final var unflattenTime = unflattenSum / 10;
+    System.out.println("flatten " + flattenTime + " " + nbEvents / (flattenTime / 1e9));
+    System.out.println("unflatten " + unflattenTime + " " + nbEvents / (unflattenTime / 1e9));
+  }
+
+  private static List<EventGraph<Integer>> makeTransactions(final int nbTransactions) {
+    // A mix of the shapes emitted by mission models: sequences of effects from a single task,
+    // tasks spawning a few children, and many tasks resuming at the same time.
+    final var transactions = new ArrayList<EventGraph<Integer>>(nbTransactions);
+    var event = 0;
+    for (var i = 0; i < nbTransactions; i++) {
+      final var branches = new ArrayList<EventGraph<Integer>>();
+      final var nbBranches = (i % 10 == 0) ? 12 : 1 + i % 4;
+      for (var j = 0; j < nbBranches; j++) {
+        branches.add((j % 2 == 0)
+            ? EventGraph.sequentially(EventGraph.atom(event++), EventGraph.atom(event++))
+            : EventGraph.sequentially(
+                EventGraph.atom(event++),
+                EventGraph.concurrently(EventGraph.atom(event++), EventGraph.atom(event++))));
+      }
+      transactions.add(EventGraph.sequentially(
+          EventGraph.atom(event++),
+          EventGraph.concurrently(branches),
+          EventGraph.atom(event++)));
+    }
+    return transactions;
+  }
+
+  private static int size(final EventGraph<?> graph) {
+    if (graph instanceof EventGraph.Atom) return 1;
+    if (graph instanceof EventGraph.Sequentially<?> g) return size(g.prefix()) + size(g.suffix());
+    if (graph instanceof EventGraph.Concurrently<?> g) return size(g.left()) + size(g.right());
+    return 0;
+  }
+
+  private static void flattenAll(final List<EventGraph<Integer>> transactions) {
+    transactions.forEach(EventGraphFlattener::flatten);
+  }
+
+  private static void unflattenAll(final List<List<Pair<EventGraphFlattener.CausalTime, Integer>>> flattened) {
+    try {
+      for (final var transaction : flattened) EventGraphFlattener.unflatten(transaction);
+    } catch (final EventGraphFlattener.InvalidTagException e) {
+      throw new Error(e);
+    }
+  }
+}
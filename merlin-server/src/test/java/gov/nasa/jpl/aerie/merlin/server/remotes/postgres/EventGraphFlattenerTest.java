@@ -17,9 +17,12 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EventGraphFlattenerTest {
 
@@ -45,6 +48,45 @@ class EventGraphFlattenerTest {
     assertEquals("a | (x; (y | z); w)", unFlattenedLex.toString());
   }
 
+  @Test
+  void testCausalTimesEncodeCausality() {
+    final var eventGraph = EventGraph.concurrently(EventGraph.atom("a"), EventGraph.sequentially(
+        EventGraph.atom("x"),
+        EventGraph.sequentially(
+            EventGraph.concurrently(
+                EventGraph.atom("y"),
+                EventGraph.atom("z")
+            ),
+            EventGraph.atom("w")
+        )
+    ));
+    final var causalTimes = new HashMap<String, EventGraphFlattener.CausalTime>();
+    EventGraphFlattener.flatten(eventGraph).forEach(pair -> causalTimes.put(pair.getRight(), pair.getLeft()));
+
+    assertTrue(causalTimes.get("x").precedes(causalTimes.get("y")));
+    assertTrue(causalTimes.get("x").precedes(causalTimes.get("w")));
+    assertTrue(causalTimes.get("z").precedes(causalTimes.get("w")));
+    assertTrue(causalTimes.get("y").isConcurrentWith(causalTimes.get("z")));
+    assertTrue(causalTimes.get("a").isConcurrentWith(causalTimes.get("x")));
+    assertTrue(causalTimes.get("a").isConcurrentWith(causalTimes.get("w")));
+    assertFalse(causalTimes.get("w").precedes(causalTimes.get("x")));
+  }
+
+  @Test
+  void testManyBranches() throws EventGraphFlattener.InvalidTagException {
+    // Textual tags like ".10" and ".9" sort out of causal order once a node has more than 9 children.
+    final var branches = new ArrayList<EventGraph<Integer>>();
+    for (var i = 0; i < 12; i++) branches.add(EventGraph.sequentially(EventGraph.atom(i), EventGraph.atom(100 + i)));
+    final var eventGraph = EventGraph.sequentially(EventGraph.concurrently(branches), EventGraph.atom(-1));
+
+    final var flattened = EventGraphFlattener.flatten(eventGraph);
+
+    assertEquals(eventGraph.toString(), EventGraphFlattener.unflatten(flattened).toString());
+    for (var i = 1; i < flattened.size(); i++) {
+      assertFalse(flattened.get(i).getLeft().precedes(flattened.get(i - 1).getLeft()));
+    }
+  }
+
   @Test
   void testSubgraph() throws EventGraphFlattener.InvalidTagException {
     final var topic1 = new Topic<String>();
@@ -69,7 +111,7 @@ class EventGraphFlattenerTest {
         eventGraph).get();
     assertEquals("a | (y; w)", evaluated.toString());
 
-    final List<Pair<String, Event>> flattened = EventGraphFlattener.flatten(eventGraph);
+    final List<Pair<EventGraphFlattener.CausalTime, Event>> flattened = EventGraphFlattener.flatten(eventGraph);
     final var pairs = flattened.stream()
                                .flatMap(pair -> pair.getRight().extract(topic1).stream().map(s -> Pair.of(pair.getLeft(), s)))
                                .toList();
@@ -87,15 +129,15 @@ class EventGraphFlattenerTest {
         makeSelector(topics),
         graph).orElse(EventGraph.empty());
 
-    final List<Pair<String, Event>> flattened = EventGraphFlattener.flatten(graph);
+    final List<Pair<EventGraphFlattener.CausalTime, Event>> flattened = EventGraphFlattener.flatten(graph);
     final var flattenedAndFiltered = filterPairsByTopics(flattened, topics);
     final var unflattened = EventGraphFlattener.unflatten(flattenedAndFiltered);
 
     assertEquals(filtered.toString(), unflattened.toString());
   }
 
-  private static List<Pair<String, Integer>> filterPairsByTopics(
-      final List<Pair<String, Event>> flattened,
+  private static List<Pair<EventGraphFlattener.CausalTime, Integer>> filterPairsByTopics(
+      final List<Pair<EventGraphFlattener.CausalTime, Event>> flattened,
       final List<Topic<Integer>> topics) {
     return flattened
         .stream()
@@ -0,0 +1,129 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.merlin.server.http.SerializedValueJsonParser.serializedValueP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerializedValueBinaryCodecTest {
+  @Property
+  @Label("Decoding an encoded value should give back the same value")
+  public void roundTrips(@ForAll("values") final SerializedValue value) {
+    assertEquals(value, SerializedValueBinaryCodec.decode(SerializedValueBinaryCodec.encode(value)));
+  }
+
+  @Test
+  void testRoundTripExtremes() {
+    final var value = SerializedValue.of(List.of(
+        SerializedValue.of(Long.MIN_VALUE),
+        SerializedValue.of(Long.MAX_VALUE),
+        SerializedValue.of(-1),
+        SerializedValue.of(Double.MIN_VALUE),
+        SerializedValue.of(Double.POSITIVE_INFINITY),
+        SerializedValue.of(""),
+        SerializedValue.of("\u00e9\ud83d\ude80"),
+        SerializedValue.of(Map.of()),
+        SerializedValue.of(List.of())));
+
+    assertEquals(value, SerializedValueBinaryCodec.decode(SerializedValueBinaryCodec.encode(value)));
+  }
+
+  @Test
+  void testRealsKeepTheirBits() {
+    for (final var real : new double[] {-0.0, Double.NaN, 0.1, Math.PI}) {
+      final var decoded = SerializedValueBinaryCodec.decode(SerializedValueBinaryCodec.encode(SerializedValue.of(real)));
+      assertEquals(Double.doubleToRawLongBits(real), Double.doubleToRawLongBits(decoded.asReal().orElseThrow()));
+    }
+  }
+
+  @Test
+  void testIntsStayInts() {
+    final var decoded = SerializedValueBinaryCodec.decode(SerializedValueBinaryCodec.encode(SerializedValue.of(3)));
+    assertTrue(decoded.match(new SerializedValue.DefaultVisitor<Boolean>() {
+      @Override
+      protected Boolean onDefault() {
+        return false;
+      }
+
+      @Override
+      public Boolean onInt(final long value) {
+        return value == 3;
+      }
+    }));
+  }
+
+  @Test
+  void testRepeatedKeysAreInterned() {
+    final var record = SerializedValue.of(Map.of(
+        "instrumentTemperature", SerializedValue.of(20),
+        "instrumentMode", SerializedValue.of("idle")));
+    final var one = SerializedValueBinaryCodec.encode(SerializedValue.of(List.of(record)));
+    final var many = SerializedValueBinaryCodec.encode(SerializedValue.of(List.of(record, record, record)));
+
+    // Each repeated record pays for its values and one-byte key references, but not for its key strings again.
+    final var perRecord = (many.length - one.length) / 2;
+    assertTrue(perRecord < "instrumentTemperature".length(), "Repeated record took " + perRecord + " bytes");
+  }
+
+  @Test
+  void testSmallerThanJson() {
+    final var value = SerializedValue.of(Map.of(
+        "count", SerializedValue.of(12),
+        "rate", SerializedValue.of(0.25),
+        "enabled", SerializedValue.of(true),
+        "samples", SerializedValue.of(List.of(SerializedValue.of(1), SerializedValue.of(-2), SerializedValue.of(300)))));
+
+    final var binary = SerializedValueBinaryCodec.encode(value);
+    final var json = serializedValueP.unparse(value).toString();
+    assertTrue(binary.length < json.length(), binary.length + " bytes in binary vs " + json.length() + " in json");
+  }
+
+  @Test
+  void testRejectsInvalidEncodings() {
+    final var encoded = SerializedValueBinaryCodec.encode(SerializedValue.of("abc"));
+
+    assertThrows(
+        SerializedValueBinaryCodec.InvalidEncodingException.class,
+        () -> SerializedValueBinaryCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+    assertThrows(
+        SerializedValueBinaryCodec.InvalidEncodingException.class,
+        () -> SerializedValueBinaryCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+    assertThrows(
+        SerializedValueBinaryCodec.InvalidEncodingException.class,
+        () -> SerializedValueBinaryCodec.decode(new byte[] {1, 42}));
+    assertThrows(
+        SerializedValueBinaryCodec.InvalidEncodingException.class,
+        () -> SerializedValueBinaryCodec.decode(new byte[] {0, 0}));
+  }
+
+  @Provide("values")
+  public static Arbitrary<SerializedValue> values() {
+    // NaN is left out, since it is never equal to itself; its bits are checked separately.
+    return Arbitraries.lazyOf(
+        () -> Arbitraries.just(SerializedValue.NULL),
+        () -> Arbitraries.of(true, false).map(SerializedValue::of),
+        () -> Arbitraries.longs().map(SerializedValue::of),
+        () -> Arbitraries.doubles().map(SerializedValue::of),
+        () -> Arbitraries.strings().withCharRange('\u0000', '\u07ff').ofMaxLength(8).map(SerializedValue::of),
+        () -> values().list().ofMaxSize(4).map(SerializedValue::of),
+        () -> Arbitraries.maps(keys(), values()).ofMaxSize(4).map(SerializedValue::of));
+  }
+
+  private static Arbitrary<String> keys() {
+    // Few distinct keys, so that nested maps repeat them.
+    return Arbitraries.of("", "type", "value", "children", "\u00e9t\u00e9");
+  }
+}
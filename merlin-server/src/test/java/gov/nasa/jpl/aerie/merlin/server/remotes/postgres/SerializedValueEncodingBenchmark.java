@@ -0,0 +1,105 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import javax.json.Json;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.merlin.server.http.SerializedValueJsonParser.serializedValueP;
+
+public class SerializedValueEncodingBenchmark {
+  /**
+   * This benchmark encodes and decodes the values of 100k simulation events, as json and in the binary encoding
+   * of {@link SerializedValueBinaryCodec}.
+   * Each printed line _encoding _size _encode _decode shows the total size _size (in bytes) of the values
+   * encoded with _encoding, then the mean time it took to encode _encode and to decode _decode them all (in ns).
+   */
+  public static void main(String[] args) {
+    final var values = makeEventValues(100_000);
+
+    final var json = new ArrayList<String>(values.size());
+    final var binary = new ArrayList<byte[]>(values.size());
+    for (final var value : values) {
+      json.add(encodeJson(value));
+      binary.add(SerializedValueBinaryCodec.encode(value));
+    }
+
+    // Check that both encodings give back the values before timing them.
+    for (var i = 0; i < values.size(); i++) {
+      if (!values.get(i).equals(decodeJson(json.get(i)))) throw new AssertionError("json: " + values.get(i));
+      if (!values.get(i).equals(SerializedValueBinaryCodec.decode(binary.get(i)))) throw new AssertionError("binary: " + values.get(i));
+    }
+
+    // Warm up.
+    for (var i = 0; i < 3; i++) {
+      values.forEach(SerializedValueEncodingBenchmark::encodeJson);
+      json.forEach(SerializedValueEncodingBenchmark::decodeJson);
+      values.forEach(SerializedValueBinaryCodec::encode);
+      binary.forEach(SerializedValueBinaryCodec::decode);
+    }
+
+    var jsonEncodeSum = 0.;
+    var jsonDecodeSum = 0.;
+    var binaryEncodeSum = 0.;
+    var binaryDecodeSum = 0.;
+    for (var i = 0; i < 10; i++) {
+      var start = System.nanoTime();
+      values.forEach(SerializedValueEncodingBenchmark::encodeJson);
+      jsonEncodeSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      json.forEach(SerializedValueEncodingBenchmark::decodeJson);
+      jsonDecodeSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      values.forEach(SerializedValueBinaryCodec::encode);
+      binaryEncodeSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      binary.forEach(SerializedValueBinaryCodec::decode);
+      binaryDecodeSum += System.nanoTime() - start;
+    }
+
+    System.out.println("json "
+                       + json.stream().mapToLong(x -> x.getBytes(StandardCharsets.UTF_8).length).sum() + " "
+                       + (jsonEncodeSum / 10) + " "
+                       + (jsonDecodeSum / 10));
+    System.out.println("binary "
+                       + binary.stream().mapToLong(x -> x.length).sum() + " "
+                       + (binaryEncodeSum / 10) + " "
+                       + (binaryDecodeSum / 10));
+  }
+
+  private static List<SerializedValue> makeEventValues(final int nbEvents) {
+    // A mix of the shapes emitted by mission models: bare numbers and enums, and records of several fields.
+    final var values = new ArrayList<SerializedValue>(nbEvents);
+    for (var i = 0; i < nbEvents; i++) {
+      values.add(switch (i % 4) {
+        case 0 -> SerializedValue.of(i % 1000);
+        case 1 -> SerializedValue.of(i * 0.001);
+        case 2 -> SerializedValue.of((i % 3 == 0) ? "ON" : "OFF");
+        default -> SerializedValue.of(Map.of(
+            "instrumentMode", SerializedValue.of("SCIENCE"),
+            "dataRate", SerializedValue.of(i * 0.5),
+            "packets", SerializedValue.of(List.of(
+                SerializedValue.of(Map.of("id", SerializedValue.of(i), "size", SerializedValue.of(1024))),
+                SerializedValue.of(Map.of("id", SerializedValue.of(i + 1), "size", SerializedValue.of(2048)))))));
+      });
+    }
+    return values;
+  }
+
+  private static String encodeJson(final SerializedValue value) {
+    return serializedValueP.unparse(value).toString();
+  }
+
+  private static SerializedValue decodeJson(final String json) {
+    try (final var reader = Json.createReader(new StringReader(json))) {
+      return serializedValueP.parse(reader.readValue()).getSuccessOrThrow();
+    }
+  }
+}
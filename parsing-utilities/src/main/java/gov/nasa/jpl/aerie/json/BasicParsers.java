@@ -8,6 +8,7 @@ import javax.json.JsonNumber;
 import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.json.JsonValue;
+import javax.json.stream.JsonParser.Event;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -381,6 +382,30 @@ public abstract class BasicParsers {
         return JsonParseResult.success(list);
       }
 
+      @Override
+      public JsonParseResult<List<T>> parse(final JsonTokens tokens) {
+        final var event = tokens.next();
+        if (event != Event.START_ARRAY) {
+          tokens.skip(event);
+          return JsonParseResult.failure("expected list");
+        }
+
+        final var list = new ArrayList<T>();
+        for (int index = 0; tokens.peek() != Event.END_ARRAY; index++) {
+          final var result = elementParser.parse(tokens).prependBreadcrumb(Breadcrumb.ofInteger(index));
+
+          if (result instanceof JsonParseResult.Failure<?> f) {
+            tokens.skipRest();
+            return f.cast();
+          }
+
+          list.add(result.getSuccessOrThrow());
+        }
+        tokens.next();
+
+        return JsonParseResult.success(list);
+      }
+
       @Override
       public JsonValue unparse(final List<T> values) {
         final var builder = Json.createArrayBuilder();
@@ -419,6 +444,30 @@ public abstract class BasicParsers {
         return JsonParseResult.success(map);
       }
 
+      @Override
+      public JsonParseResult<Map<String, S>> parse(final JsonTokens tokens) {
+        final var event = tokens.next();
+        if (event != Event.START_OBJECT) {
+          tokens.skip(event);
+          return JsonParseResult.failure("expected object");
+        }
+
+        final var map = new HashMap<String, S>();
+        while (tokens.next() != Event.END_OBJECT) {
+          final var key = tokens.getString();
+          final var result = fieldParser.parse(tokens).prependBreadcrumb(Breadcrumb.ofString(key));
+
+          if (result instanceof JsonParseResult.Failure<?> f) {
+            tokens.skipRest();
+            return f.cast();
+          }
+
+          map.put(key, result.getSuccessOrThrow());
+        }
+
+        return JsonParseResult.success(map);
+      }
+
       @Override
       public JsonValue unparse(final Map<String, S> values) {
         final var builder = Json.createObjectBuilder();
@@ -442,6 +491,11 @@ public abstract class BasicParsers {
         return this.target.parse(json);
       }
 
+      @Override
+      public JsonParseResult<S> parse(final JsonTokens tokens) {
+        return this.target.parse(tokens);
+      }
+
       @Override
       public JsonValue unparse(final S value) {
         return this.target.unparse(value);
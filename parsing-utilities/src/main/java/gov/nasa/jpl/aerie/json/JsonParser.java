@@ -12,6 +12,17 @@ public interface JsonParser<T> {
   JsonParseResult<T> parse(JsonValue json);
   JsonValue unparse(T value);
 
+  /**
+   * Parse the next value of a stream of JSON tokens.
+   *
+   * Exactly one value is consumed from the stream, whether parsing succeeds or fails, so that the enclosing
+   * structure can carry on. By default, the value is read in full and parsed as a tree; parsers of arrays and
+   * objects override this to parse their elements from the stream as they are read.
+   */
+  default JsonParseResult<T> parse(final JsonTokens tokens) {
+    return this.parse(tokens.readValue());
+  }
+
   default JsonObject getSchema() {
     return Json
         .createObjectBuilder()
@@ -36,6 +47,11 @@ public interface JsonParser<T> {
         return self.parse(json).mapSuccess(transform::from);
       }
 
+      @Override
+      public JsonParseResult<S> parse(final JsonTokens tokens) {
+        return self.parse(tokens).mapSuccess(transform::from);
+      }
+
       @Override
       public JsonValue unparse(final S value) {
         return self.unparse(transform.to(value));
@@ -0,0 +1,121 @@
+package gov.nasa.jpl.aerie.json;
+
+import javax.json.Json;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParsingException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.NoSuchElementException;
+
+/**
+ * A pull-based stream of JSON tokens, from which a {@link JsonParser} can parse a document in one pass,
+ * without first building it in memory as a {@link JsonValue} tree.
+ *
+ * The stream holds at most one token of lookahead, taken by {@link #peek()} and given back by the following
+ * {@link #next()}.
+ */
+public final class JsonTokens implements AutoCloseable {
+  private final javax.json.stream.JsonParser parser;
+  private Event lookahead = null;
+
+  public JsonTokens(final javax.json.stream.JsonParser parser) {
+    this.parser = parser;
+  }
+
+  public static JsonTokens of(final Reader reader) {
+    return new JsonTokens(Json.createParser(reader));
+  }
+
+  public static JsonTokens of(final InputStream stream) {
+    return new JsonTokens(Json.createParser(stream));
+  }
+
+  /**
+   * Advance to the next token.
+   *
+   * @throws JsonParsingException if the document is malformed.
+   * @throws NoSuchElementException if the document has no more tokens.
+   */
+  public Event next() {
+    if (this.lookahead != null) {
+      final var event = this.lookahead;
+      this.lookahead = null;
+      return event;
+    }
+    return this.parser.next();
+  }
+
+  /** Get the next token without advancing past it. */
+  public Event peek() {
+    if (this.lookahead == null) this.lookahead = this.parser.next();
+    return this.lookahead;
+  }
+
+  /** Determine whether the document has more tokens. */
+  public boolean hasNext() {
+    return (this.lookahead != null) || this.parser.hasNext();
+  }
+
+  /** Get the string of the current token, which must be a key name, a string, or a number. */
+  public String getString() {
+    return this.parser.getString();
+  }
+
+  /**
+   * Get the value starting at the current token.
+   *
+   * If the current token starts an array or an object, the whole structure is read.
+   */
+  public JsonValue getValue() {
+    return this.parser.getValue();
+  }
+
+  /** Read the next value in full. */
+  public JsonValue readValue() {
+    this.next();
+    return this.getValue();
+  }
+
+  /** Skip the next value, without building it. */
+  public void skipValue() {
+    this.skip(this.next());
+  }
+
+  /**
+   * Skip the rest of the value starting at the given token, which must be the current one.
+   *
+   * Nothing is left to skip unless the token starts an array or an object.
+   */
+  public void skip(final Event current) {
+    if (current == Event.START_ARRAY || current == Event.START_OBJECT) this.skipRest();
+  }
+
+  /** Skip the rest of the innermost array or object being read, up to and including its end. */
+  public void skipRest() {
+    var depth = 1;
+    while (depth > 0) {
+      switch (this.next()) {
+        case START_ARRAY, START_OBJECT -> depth += 1;
+        case END_ARRAY, END_OBJECT -> depth -= 1;
+        default -> {}
+      }
+    }
+  }
+
+  /**
+   * Check that the whole document has been read.
+   *
+   * @throws JsonParsingException if some tokens are left.
+   */
+  public void expectEnd() {
+    if (this.hasNext()) {
+      throw new JsonParsingException("Expected the end of the document", this.parser.getLocation());
+    }
+  }
+
+  @Override
+  public void close() {
+    this.parser.close();
+  }
+}
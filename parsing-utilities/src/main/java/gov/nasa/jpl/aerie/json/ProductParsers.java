@@ -6,6 +6,7 @@ import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonValue;
+import javax.json.stream.JsonParser.Event;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
 import java.util.ArrayList;
@@ -40,6 +41,11 @@ public abstract class ProductParsers {
           return self.parse(json).mapSuccess(transform::from);
         }
 
+        @Override
+        public JsonParseResult<S> parse(final JsonTokens tokens) {
+          return self.parse(tokens).mapSuccess(transform::from);
+        }
+
         @Override
         public JsonObject unparse(final S value) {
           return self.unparse(transform.to(value));
@@ -69,6 +75,21 @@ public abstract class ProductParsers {
       return JsonParseResult.success(Unit.UNIT);
     }
 
+    @Override
+    public JsonParseResult<Unit> parse(final JsonTokens tokens) {
+      final var event = tokens.next();
+      if (event != Event.START_OBJECT) {
+        tokens.skip(event);
+        return JsonParseResult.failure("expected object");
+      }
+      if (tokens.next() != Event.END_OBJECT) {
+        tokens.skipRest();
+        return JsonParseResult.failure("expected empty object");
+      }
+
+      return JsonParseResult.success(Unit.UNIT);
+    }
+
     @Override
     public JsonObject unparse(final Unit value) {
       return Json.createObjectBuilder().build();
@@ -98,6 +119,14 @@ public abstract class ProductParsers {
           return JsonParseResult.success(Unit.UNIT);
         }
 
+        @Override
+        public JsonParseResult<Unit> parse(final JsonTokens tokens) {
+          final var event = tokens.next();
+          tokens.skip(event);
+          if (event != Event.START_OBJECT) return JsonParseResult.failure("expected object");
+          return JsonParseResult.success(Unit.UNIT);
+        }
+
         @Override
         public JsonObject unparse(final Unit value) {
           return Json.createObjectBuilder().build();
@@ -162,6 +191,51 @@ public abstract class ProductParsers {
       });
     }
 
+    @Override
+    public JsonParseResult<T> parse(final JsonTokens tokens) {
+      final var event = tokens.next();
+      if (event != Event.START_OBJECT) {
+        tokens.skip(event);
+        return JsonParseResult.failure("expected object");
+      }
+
+      // Parse the fields in the order they are read, then combine them in the order they are specified,
+      // so that failures are reported as they would be when parsing a tree.
+      final var values = new JsonParseResult<?>[this.fields.size()];
+      String unexpectedField = null;
+      while (tokens.next() != Event.END_OBJECT) {
+        final var name = tokens.getString();
+        final var index = getFieldIndex(name);
+
+        if (index < 0) {
+          if (!this.acceptUnspecified && unexpectedField == null) unexpectedField = name;
+          tokens.skipValue();
+        } else {
+          // As in a tree, the last occurrence of a duplicated field wins.
+          values[index] = this.fields.get(index).valueParser.parse(tokens);
+        }
+      }
+
+      if (unexpectedField != null) {
+        return JsonParseResult
+            .<T>failure("Unexpected field present")
+            .prependBreadcrumb(Breadcrumb.ofString(unexpectedField));
+      }
+
+      // INVARIANT: as in `parse(JsonValue)`.
+      var accumulator = combineField(this.fields.get(0), values[0]);
+      for (int i = 1; i < this.fields.size(); i++) {
+        accumulator = accumulator.parWith(combineField(this.fields.get(i), values[i])).mapSuccess(x -> x);
+      }
+
+      return accumulator.mapSuccess(result -> {
+        // SAFETY: established by loop invariant.
+        @SuppressWarnings("unchecked")
+        final var tmp = (T) result;
+        return tmp;
+      });
+    }
+
     @Override
     public JsonObject unparse(final T value) {
       final var builder = Json.createObjectBuilder();
@@ -213,6 +287,13 @@ public abstract class ProductParsers {
           .build();
     }
 
+    private int getFieldIndex(final String name) {
+      for (int i = 0; i < this.fields.size(); i++) {
+        if (this.fields.get(i).name.equals(name)) return i;
+      }
+      return -1;
+    }
+
     private Optional<FieldSpec<?>> getFieldSpec(final String name) {
       for (final var field : this.fields) {
         if (field.name.equals(name)) return Optional.of(field);
@@ -239,6 +320,26 @@ public abstract class ProductParsers {
       return result.prependBreadcrumb(Breadcrumb.ofString(field.name));
     }
 
+    /** @param value the result of parsing the field, or null if the field was not present. */
+    private static JsonParseResult<?> combineField(final FieldSpec<?> field, final JsonParseResult<?> value) {
+      final JsonParseResult<?> result;
+      if (field.isOptional) {
+        if (value == null) {
+          result = JsonParseResult.success(Optional.empty());
+        } else {
+          result = value.mapSuccess(Optional::of);
+        }
+      } else {
+        if (value == null) {
+          result = JsonParseResult.failure("required field not present");
+        } else {
+          result = value;
+        }
+      }
+
+      return result.prependBreadcrumb(Breadcrumb.ofString(field.name));
+    }
+
     // PRECONDITION: `value` is of type `Ti` or `Optional<Ti>` (depending on `field.isOptional`).
     private static <Ti>
     JsonObjectBuilder unparseField(final JsonObjectBuilder builder, final FieldSpec<Ti> field, final Object value) {
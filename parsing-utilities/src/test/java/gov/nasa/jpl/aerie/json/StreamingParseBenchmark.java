@@ -0,0 +1,94 @@
+package gov.nasa.jpl.aerie.json;
+
+import javax.json.Json;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static gov.nasa.jpl.aerie.json.BasicParsers.listP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.longP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.mapP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.productP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.stringP;
+import static gov.nasa.jpl.aerie.json.Uncurry.tuple;
+import static gov.nasa.jpl.aerie.json.Uncurry.untuple;
+
+public class StreamingParseBenchmark {
+  private record Activity(String type, long startOffset, Map<String, Long> arguments) {}
+
+  private static final JsonParser<List<Activity>> planP = productP
+      .field("activities", listP(productP
+          .field("type", stringP)
+          .field("startOffset", longP)
+          .field("arguments", mapP(longP))
+          .map(Iso.of(
+              untuple(Activity::new),
+              $ -> tuple($.type(), $.startOffset(), $.arguments())))));
+
+  /**
+   * This benchmark parses a plan of 100k activities, first by building the JSON tree and parsing it,
+   * then straight from the token stream.
+   * Each printed timing _left _right shows the mean time _right (in ns) it took to parse the plan with method _left,
+   * followed by the heap in use (in bytes) after parsing, which includes the tree while it is still reachable.
+   */
+  public static void main(String[] args) {
+    final var json = makePlan(100_000);
+
+    // Warm up.
+    for (var i = 0; i < 3; i++) {
+      parseTree(json);
+      parseStream(json);
+    }
+
+    var treeSum = 0.;
+    var streamSum = 0.;
+    for (var i = 0; i < 10; i++) {
+      var start = System.nanoTime();
+      parseTree(json);
+      treeSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      parseStream(json);
+      streamSum += System.nanoTime() - start;
+    }
+
+    System.out.println("tree " + (treeSum / 10) + " " + usedHeapWhile(() -> parseTree(json)));
+    System.out.println("stream " + (streamSum / 10) + " " + usedHeapWhile(() -> parseStream(json)));
+  }
+
+  private static String makePlan(final int nbActivities) {
+    final var builder = new StringBuilder("{\"activities\": [");
+    for (var i = 0; i < nbActivities; i++) {
+      if (i > 0) builder.append(',');
+      builder
+          .append("{\"type\": \"Activity").append(i % 10)
+          .append("\", \"startOffset\": ").append(i * 60_000_000L)
+          .append(", \"arguments\": {\"duration\": ").append(i % 3600)
+          .append(", \"priority\": ").append(i % 5)
+          .append("}}");
+    }
+    return builder.append("]}").toString();
+  }
+
+  private static Object parseTree(final String json) {
+    final var tree = Json.createReader(new StringReader(json)).readValue();
+    return List.of(tree, planP.parse(tree).getSuccessOrThrow());
+  }
+
+  private static Object parseStream(final String json) {
+    try (final var tokens = JsonTokens.of(new StringReader(json))) {
+      return planP.parse(tokens).getSuccessOrThrow();
+    }
+  }
+
+  private static long usedHeapWhile(final Supplier<Object> task) {
+    final var runtime = Runtime.getRuntime();
+    runtime.gc();
+    final var result = task.get();
+    runtime.gc();
+    final var used = runtime.totalMemory() - runtime.freeMemory();
+    if (result == null) throw new AssertionError();
+    return used;
+  }
+}
@@ -0,0 +1,122 @@
+package gov.nasa.jpl.aerie.json;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static gov.nasa.jpl.aerie.json.BasicParsers.boolP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.listP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.longP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.mapP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.productP;
+import static gov.nasa.jpl.aerie.json.BasicParsers.stringP;
+import static gov.nasa.jpl.aerie.json.Uncurry.tuple;
+import static gov.nasa.jpl.aerie.json.Uncurry.untuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class StreamingParseTest {
+  private record Activity(String type, long startOffset, Map<String, Long> arguments, Optional<Boolean> anchored) {}
+
+  private static final JsonParser<List<Activity>> planP = productP
+      .field("activities", listP(productP
+          .field("type", stringP)
+          .field("startOffset", longP)
+          .field("arguments", mapP(longP))
+          .optionalField("anchored", boolP)
+          .map(Iso.of(
+              untuple(Activity::new),
+              $ -> tuple($.type(), $.startOffset(), $.arguments(), $.anchored())))))
+      .field("ignored", productP.rest())
+      .map(Iso.of(
+          untuple((activities, ignored) -> activities),
+          activities -> tuple(activities, Unit.UNIT)));
+
+  @Test
+  public void streamedPlanIsParsedAsTree() {
+    final var json = """
+        {
+          "ignored": {"anything": [1, {"goes": null}]},
+          "activities": [
+            {"type": "A", "startOffset": 0, "arguments": {}},
+            {"startOffset": 10, "arguments": {"x": 1, "y": 2}, "type": "B", "anchored": true}
+          ]
+        }
+        """;
+
+    final var streamed = parseStream(planP, json);
+
+    assertEquals(parseTree(planP, json), streamed);
+    assertEquals(
+        JsonParseResult.success(List.of(
+            new Activity("A", 0, Map.of(), Optional.empty()),
+            new Activity("B", 10, Map.of("x", 1L, "y", 2L), Optional.of(true)))),
+        streamed);
+  }
+
+  @Test
+  public void streamedFailuresMatchTreeFailures() {
+    final var invalidPlans = List.of(
+        "[]",
+        "{\"ignored\": {}}",
+        "{\"activities\": [], \"ignored\": {}, \"extra\": [1, 2]}",
+        "{\"activities\": [{\"type\": \"A\", \"startOffset\": 0}], \"ignored\": {}}",
+        "{\"activities\": [{\"type\": \"A\", \"startOffset\": 0, \"arguments\": {\"x\": \"one\"}}], \"ignored\": {}}",
+        "{\"activities\": [{\"type\": \"A\", \"startOffset\": 1.5, \"arguments\": {}}, {\"type\": 1}], \"ignored\": {}}",
+        "{\"activities\": [{\"type\": [\"A\"], \"startOffset\": 0, \"arguments\": {}, \"anchored\": 1}], \"ignored\": 2}");
+
+    for (final var json : invalidPlans) {
+      final var streamed = parseStream(planP, json);
+      assertTrue(streamed.isFailure(), json);
+      assertEquals(describe(parseTree(planP, json)), describe(streamed), json);
+    }
+  }
+
+  @Test
+  public void fieldsAreParsedInAnyOrder() {
+    final var parser = productP
+        .field("x", longP)
+        .field("y", listP(stringP));
+    final var json = "{\"y\": [\"a\", \"b\"], \"x\": 3}";
+
+    assertEquals(JsonParseResult.success(Pair.of(3L, List.of("a", "b"))), parseStream(parser, json));
+  }
+
+  private static <T> JsonParseResult<T> parseTree(final JsonParser<T> parser, final String json) {
+    return parser.parse(Json.createReader(new StringReader(json)).readValue());
+  }
+
+  private static <T> JsonParseResult<T> parseStream(final JsonParser<T> parser, final String json) {
+    try (final var tokens = JsonTokens.of(new StringReader(json))) {
+      final var result = parser.parse(tokens);
+      tokens.expectEnd();
+      return result;
+    }
+  }
+
+  private static String describe(final JsonParseResult<?> result) {
+    if (!(result instanceof JsonParseResult.Failure<?> f)) return result.toString();
+
+    final var path = new ArrayList<String>();
+    for (final var breadcrumb : f.reason().breadcrumbs()) {
+      path.add(breadcrumb.visit(new Breadcrumb.BreadcrumbVisitor<>() {
+        @Override
+        public String onString(final String s) {
+          return s;
+        }
+
+        @Override
+        public String onInteger(final Integer i) {
+          return i.toString();
+        }
+      }));
+    }
+    return String.join("/", path) + ": " + f.reason().reason();
+  }
+}
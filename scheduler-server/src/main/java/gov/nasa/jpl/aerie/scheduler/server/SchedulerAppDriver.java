@@ -18,7 +18,9 @@ import gov.nasa.jpl.aerie.scheduler.server.remotes.postgres.PostgresSpecificatio
 import gov.nasa.jpl.aerie.scheduler.server.remotes.postgres.PostgresResultsCellRepository;
 import gov.nasa.jpl.aerie.scheduler.server.services.CachedSchedulerService;
 import gov.nasa.jpl.aerie.scheduler.server.services.GraphQLMerlinService;
+import gov.nasa.jpl.aerie.scheduler.server.services.GraphQLTransport;
 import gov.nasa.jpl.aerie.scheduler.server.services.LocalSpecificationService;
+import gov.nasa.jpl.aerie.scheduler.server.services.MissionModelCache;
 import gov.nasa.jpl.aerie.scheduler.server.services.ScheduleAction;
 import gov.nasa.jpl.aerie.scheduler.server.services.SynchronousSchedulerAgent;
 import gov.nasa.jpl.aerie.scheduler.server.services.UncachedSchedulerService;
@@ -50,10 +52,16 @@ public final class SchedulerAppDriver {
     final var stores = loadStores(config);
 
     //create objects in each service abstraction layer (mirroring MerlinApp)
-    final var merlinService = new GraphQLMerlinService(config.merlinGraphqlURI());
+    final var merlinTransport = new GraphQLTransport(
+        config.merlinGraphqlURI(),
+        config.merlinGraphqlMaxConcurrentRequests(),
+        config.merlinGraphqlCompressionThreshold(),
+        GraphQLTransport.DEFAULT_TIMEOUT);
+    final var merlinService = new GraphQLMerlinService(merlinTransport);
     final var specificationService = new LocalSpecificationService(stores.specifications());
     final var scheduleAgent = new SynchronousSchedulerAgent(specificationService, merlinService,
-        config.merlinFileStore(), config.missionRuleJarPath(), config.outputMode());
+        config.merlinFileStore(), config.missionRuleJarPath(), config.outputMode(),
+        new MissionModelCache(config.maxCachedModels()), config.simulateInBatches());
     final var schedulerService = new CachedSchedulerService(stores.results(), scheduleAgent);
     final var scheduleAction = new ScheduleAction(specificationService, schedulerService);
 
@@ -138,9 +146,15 @@ public final class SchedulerAppDriver {
                           getEnv("SCHEDULER_DB_PASSWORD", "aerie"),
                           getEnv("SCHEDULER_DB", "aerie_scheduler")),
         URI.create(getEnv("MERLIN_GRAPHQL_URL", "http://localhost:8080/v1/graphql")),
+        Integer.parseInt(getEnv("MERLIN_GRAPHQL_MAX_CONCURRENT_REQUESTS",
+                                String.valueOf(GraphQLTransport.DEFAULT_MAX_CONCURRENT_REQUESTS))),
+        Integer.parseInt(getEnv("MERLIN_GRAPHQL_COMPRESSION_THRESHOLD",
+                                String.valueOf(GraphQLTransport.NEVER_COMPRESS))),
         Path.of(getEnv("MERLIN_LOCAL_STORE", "/usr/src/app/merlin_file_store")),
         Path.of(getEnv("SCHEDULER_RULES_JAR", "/usr/src/app/merlin_file_store/scheduler_rules.jar")),
-        PlanOutputMode.valueOf((getEnv("SCHEDULER_OUTPUT_MODE", "CreateNewOutputPlan")))
+        PlanOutputMode.valueOf((getEnv("SCHEDULER_OUTPUT_MODE", "CreateNewOutputPlan"))),
+        Integer.parseInt(getEnv("SCHEDULER_MODEL_CACHE_SIZE", String.valueOf(MissionModelCache.DEFAULT_MAX_ENTRIES))),
+        Boolean.parseBoolean(getEnv("SCHEDULER_SIMULATE_IN_BATCHES", "false"))
     );
   }
 }
@@ -8,11 +8,16 @@ import java.util.Objects;
  * @param httpPort the network port on which the scheduler should listen for http requests
  * @param javalinLogging controls the level of http access logging from javalin endpoints
  * @param merlinGraphqlURI endpoint of the merlin graphql service that should be used to fetch/store plan data
+ * @param merlinGraphqlMaxConcurrentRequests the maximum number of graphql requests in flight to merlin at once
+ * @param merlinGraphqlCompressionThreshold the size in bytes from which graphql request bodies are gzip compressed
  * @param merlinFileStore mounted filesystem path to the merlin file store (used as a backdoor to access mission
  *     model jars). should be the entry path, not the jar-specific subdirectory. note this path is distinct from any
  *     scheduler specific file store.
  * @param missionRuleJarPath path to specific jar file to search for scheduling rules to load (as an interim
  *     solution for allowing scheduling rule configurability by users)
+ * @param outputMode how the scheduling output should be returned to aerie (eg overwrite or new container)
+ * @param maxCachedModels the maximum number of loaded mission models (and their goals) kept between scheduling requests
+ * @param simulateInBatches whether the activities created for a goal are simulated in batches rather than one at a time
  */
 //TODO: remove backdoor access to directly mounted merlinFileStore (eg via merlin endpoint for downloading mission jars)
 public record AppConfiguration(
@@ -21,9 +26,13 @@ public record AppConfiguration(
     Path schedFileStore,
     Store store,
     URI merlinGraphqlURI,
+    int merlinGraphqlMaxConcurrentRequests,
+    int merlinGraphqlCompressionThreshold,
     Path merlinFileStore,
     Path missionRuleJarPath,
-    PlanOutputMode outputMode
+    PlanOutputMode outputMode,
+    int maxCachedModels,
+    boolean simulateInBatches
 )
 {
   public AppConfiguration {
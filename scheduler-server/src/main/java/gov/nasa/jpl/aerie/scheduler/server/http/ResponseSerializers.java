@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.scheduler.server.http;
 
 import gov.nasa.jpl.aerie.json.JsonParseResult;
+import gov.nasa.jpl.aerie.scheduler.SchedulerMetrics;
 import gov.nasa.jpl.aerie.scheduler.server.services.UnexpectedSubtypeError;
 import gov.nasa.jpl.aerie.scheduler.server.services.ScheduleAction;
 import gov.nasa.jpl.aerie.scheduler.server.services.ScheduleResults;
@@ -56,6 +57,8 @@ public class ResponseSerializers {
           .createObjectBuilder()
           .add("status", "complete")
           .add("results", serializeScheduleResults(r.results()))
+          .add("complete", r.results().complete())
+          .add("metrics", serializeScheduleMetrics(r.results().metrics()))
           .build();
     } else {
       throw new UnexpectedSubtypeError(ScheduleAction.Response.class, response);
@@ -79,6 +82,40 @@ public class ResponseSerializers {
                 Collectors.toMap(e -> Long.toString(e.getKey().id()), Map.Entry::getValue)));
   }
 
+  /**
+   * serialize the metrics of a scheduling run to json
+   *
+   * @param metrics the scheduling run metrics to serialize
+   * @return a json serialization of the given metrics
+   */
+  public static JsonValue serializeScheduleMetrics(final ScheduleResults.Metrics metrics) {
+    if (metrics == null) return JsonValue.NULL;
+
+    return Json
+        .createObjectBuilder()
+        .add("goals", serializeMap(
+            ResponseSerializers::serializeGoalMetrics,
+            metrics.goalMetrics()
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(e -> Long.toString(e.getKey().id()), Map.Entry::getValue))))
+        .add("simulationCount", metrics.simulationCount())
+        .add("simulationNanos", metrics.simulationNanos())
+        .add("resourceQueryCounts", serializeMap(count -> Json.createValue((long) count), metrics.resourceQueryCounts()))
+        .build();
+  }
+
+  private static JsonValue serializeGoalMetrics(final SchedulerMetrics.GoalMetrics goalMetrics) {
+    return Json
+        .createObjectBuilder()
+        .add("name", goalMetrics.goalName())
+        .add("wallTimeNanos", goalMetrics.wallTimeNanos())
+        .add("conflicts", goalMetrics.conflicts())
+        .add("activitiesCreated", goalMetrics.activitiesCreated())
+        .add("simulations", goalMetrics.simulations())
+        .build();
+  }
+
   private static JsonValue serializeGoalResult(final ScheduleResults.GoalResult goalResult) {
     return Json
         .createObjectBuilder()
@@ -66,8 +66,9 @@ public record SchedulerBindings(SchedulerService schedulerService, ScheduleActio
       //TODO: is plan enough to locate goal set to use, or need more args in body?
       final var body = parseJson(ctx.body(), hasuraSpecificationActionP);
       final var specificationId = body.input().specificationId();
+      final var budget = body.input().budget();
 
-      final var response = this.scheduleAction.run(specificationId);
+      final var response = this.scheduleAction.run(specificationId, budget);
       ctx.result(serializeScheduleResultsResponse(response).toString());
     } catch (final IOException e) {
       log.log(Level.SEVERE, "low level input/output problem during scheduling", e);
@@ -78,6 +79,9 @@ public record SchedulerBindings(SchedulerService schedulerService, ScheduleActio
       ctx.status(400).result(serializeInvalidJsonException(ex).toString());
     } catch (final NoSuchSpecificationException ex) {
       ctx.status(404).result(serializeException(ex).toString());
+    } catch (final IllegalArgumentException ex) {
+      //eg a non-positive scheduling budget
+      ctx.status(400).result(serializeException(ex).toString());
     }
   }
 
@@ -3,11 +3,14 @@ package gov.nasa.jpl.aerie.scheduler.server.http;
 import gov.nasa.jpl.aerie.json.Iso;
 import gov.nasa.jpl.aerie.json.JsonParser;
 import gov.nasa.jpl.aerie.scheduler.server.models.HasuraAction;
+import gov.nasa.jpl.aerie.scheduler.server.models.ScheduleBudget;
 import gov.nasa.jpl.aerie.scheduler.server.models.SpecificationId;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.time.Duration;
 import java.util.Optional;
 
+import static gov.nasa.jpl.aerie.json.BasicParsers.intP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.longP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.productP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.stringP;
@@ -58,11 +61,28 @@ public class SchedulerParsers {
   }
 
   /**
-   * parser for a hasura action that accepts a plan id as its sole input, along with normal hasura session details
+   * parser for a specification id, along with the optional budget of the scheduling run (unlimited if absent)
+   */
+  private static final JsonParser<HasuraAction.SpecificationInput> specificationInputP
+      = productP
+      .field("specificationId", specificationIdP)
+      .optionalField("timeBudgetMillis", longP)
+      .optionalField("goalBudget", intP)
+      .map(Iso.of(
+          untuple((specificationId, timeBudgetMillis, goalBudget) -> new HasuraAction.SpecificationInput(
+              specificationId,
+              new ScheduleBudget(timeBudgetMillis.map(Duration::ofMillis), goalBudget))),
+          input -> tuple(
+              input.specificationId(),
+              input.budget().time().map(Duration::toMillis),
+              input.budget().goals())));
+
+  /**
+   * parser for a hasura action that accepts a plan id as its input, along with normal hasura session details
    */
   public static final JsonParser<HasuraAction<HasuraAction.SpecificationInput>> hasuraSpecificationActionP
-      = hasuraActionP(productP.field("specificationId", specificationIdP))
+      = hasuraActionP(specificationInputP)
       .map(Iso.of(
-          untuple((name, specificationId, session, requestQuery) -> new HasuraAction<>(name, new HasuraAction.SpecificationInput(specificationId), session)),
-          action -> tuple(action.name(), action.input().specificationId(), action.session(), "")));
+          untuple((name, input, session, requestQuery) -> new HasuraAction<>(name, input, session)),
+          action -> tuple(action.name(), action.input(), action.session(), "")));
 }
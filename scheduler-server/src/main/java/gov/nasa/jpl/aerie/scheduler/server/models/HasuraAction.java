@@ -6,5 +6,5 @@ public record HasuraAction<I extends HasuraAction.Input>(String name, I input, S
 
   public sealed interface Input permits SpecificationInput { }
 
-  public record SpecificationInput(SpecificationId specificationId) implements Input { }
+  public record SpecificationInput(SpecificationId specificationId, ScheduleBudget budget) implements Input { }
 }
@@ -0,0 +1,31 @@
+package gov.nasa.jpl.aerie.scheduler.server.models;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * limits on the work of a scheduling run, after which the run returns the best plan found so far
+ *
+ * @param time the maximum wall time of the run, if limited
+ * @param goals the maximum number of goals processed by the run, if limited
+ */
+public record ScheduleBudget(Optional<Duration> time, Optional<Integer> goals) {
+  public ScheduleBudget {
+    Objects.requireNonNull(time, "time must not be null");
+    Objects.requireNonNull(goals, "goals must not be null");
+    if (time.isPresent() && (time.get().isNegative() || time.get().isZero())) {
+      throw new IllegalArgumentException("time budget must be positive, got " + time.get());
+    }
+    if (goals.isPresent() && goals.get() <= 0) {
+      throw new IllegalArgumentException("goal budget must be positive, got " + goals.get());
+    }
+  }
+
+  /**
+   * @return a budget placing no limit on the scheduling run
+   */
+  public static ScheduleBudget unlimited() {
+    return new ScheduleBudget(Optional.empty(), Optional.empty());
+  }
+}
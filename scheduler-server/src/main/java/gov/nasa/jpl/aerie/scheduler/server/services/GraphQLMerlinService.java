@@ -20,13 +20,9 @@ import gov.nasa.jpl.aerie.scheduler.server.models.Timestamp;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.json.Json;
-import javax.json.JsonException;
 import javax.json.JsonObject;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -36,7 +32,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
-import java.util.zip.GZIPInputStream;
 
 import static gov.nasa.jpl.aerie.scheduler.server.graphql.GraphQLParsers.parseGraphQLInterval;
 import static gov.nasa.jpl.aerie.scheduler.server.graphql.GraphQLParsers.parseGraphQLTimestamp;
@@ -44,14 +39,19 @@ import static gov.nasa.jpl.aerie.scheduler.server.graphql.GraphQLParsers.parseGr
 /**
  * {@inheritDoc}
  *
- * @param merlinGraphqlURI endpoint of the merlin graphql service that should be used to access all plan data
+ * @param transport the http transport, shared by all requests, over which graphql requests are sent to the endpoint
+ *     of the merlin graphql service that should be used to access all plan data
  */
-public record GraphQLMerlinService(URI merlinGraphqlURI) implements MerlinService {
+public record GraphQLMerlinService(GraphQLTransport transport) implements MerlinService {
 
   /**
-   * timeout for http graphql requests issued to aerie
+   * creates a service that sends its requests to the given endpoint with the default transport settings
+   *
+   * @param merlinGraphqlURI endpoint of the merlin graphql service that should be used to access all plan data
    */
-  private static final java.time.Duration httpTimeout = java.time.Duration.ofSeconds(60);
+  public GraphQLMerlinService(final URI merlinGraphqlURI) {
+    this(new GraphQLTransport(merlinGraphqlURI));
+  }
 
   /**
    * dispatch the given graphql request to aerie and collect the results
@@ -66,28 +66,11 @@ public record GraphQLMerlinService(URI merlinGraphqlURI) implements MerlinServic
     try {
       //TODO: (mem optimization) use streams here to avoid several copies of strings
       final var reqBody = Json.createObjectBuilder().add("query", gqlStr).build();
-      final var httpReq = HttpRequest
-          .newBuilder().uri(merlinGraphqlURI).timeout(httpTimeout)
-          .header("Content-Type", "application/json")
-          .header("Accept-Encoding", "gzip, deflate, br")
-          .header("Accept", "application/json")
-          .header("Origin", merlinGraphqlURI.toString())
-          .POST(HttpRequest.BodyPublishers.ofString(reqBody.toString()))
-          .build();
-      //TODO: (net optimization) gzip compress the request body if large enough (eg for createAllActs)
-      final var httpResp = HttpClient
-          .newHttpClient().send(httpReq, HttpResponse.BodyHandlers.ofInputStream());
-      if (httpResp.statusCode() != 200) {
-        //TODO: how severely to error out if aerie cannot be reached or has a 500 error or json is garbled etc etc?
-        return Optional.empty();
-      }
-      final var respBody = Json.createReader(new GZIPInputStream(httpResp.body())).readObject();
-      return Optional.of(respBody);
+      //TODO: how severely to error out if aerie cannot be reached or has a 500 error or json is garbled etc etc?
+      return transport.post(reqBody);
     } catch (final InterruptedException e) {
       //TODO: maybe retry if interrupted? but depends on semantics (eg don't duplicate mutation if not idempotent)
       return Optional.empty();
-    } catch (final JsonException e) { // or also JsonParsingException
-      throw new IOException("json parse error on graphql response:" + e.getMessage(), e);
     }
   }
 
@@ -181,13 +164,20 @@ public record GraphQLMerlinService(URI merlinGraphqlURI) implements MerlinServic
    * {@inheritDoc}
    */
   @Override
-  public Plan getPlanActivities(final PlanMetadata planMetadata, final Problem problem)
+  public Pair<Plan, Map<ActivityInstance, ActivityInstanceId>> getPlanActivities(
+      final PlanMetadata planMetadata,
+      final Problem problem)
   throws IOException, NoSuchPlanException
   {
     //thanks to AMaillard for already having these handy!
     final var controller = new AerieController(
-        this.merlinGraphqlURI.toString(), (int) planMetadata.modelId(), planMetadata.horizon(), problem.getActivityTypes());
-    return controller.fetchPlan(planMetadata.planId().id());
+        this.transport.endpoint().toString(), (int) planMetadata.modelId(), planMetadata.horizon(), problem.getActivityTypes());
+    final var plan = controller.fetchPlan(planMetadata.planId().id());
+    final var instanceToInstanceId = new HashMap<ActivityInstance, ActivityInstanceId>();
+    for (final var act : plan.getActivities()) {
+      instanceToInstanceId.put(act, new ActivityInstanceId(controller.getActivityInstanceId(act)));
+    }
+    return Pair.of(plan, instanceToInstanceId);
   }
 
   /**
@@ -271,16 +261,94 @@ public record GraphQLMerlinService(URI merlinGraphqlURI) implements MerlinServic
 
   /**
    * {@inheritDoc}
-   * @return
+   *
+   * writes back only the activity instances that the scheduler inserted, updated or deleted, all in one graphql request
+   * whose mutations aerie applies in a single transaction, so that other clients never see a partially updated plan
    */
   @Override
-  public Map<ActivityInstance, ActivityInstanceId> updatePlanActivities(final PlanId planId, final Plan plan) throws IOException, NoSuchPlanException
+  public Map<ActivityInstance, ActivityInstanceId> updatePlanActivities(
+      final PlanId planId,
+      final PlanSnapshot initialPlan,
+      final Plan plan)
+  throws IOException, NoSuchPlanException
   {
-    //TODO: (api violation) currently clearing and repopulating plan; but loses existing activity instance ids!
-    //TODO: (perf improvement) calculate or cache plan diffs during sched and then upload to aerie in batch here
-    //TODO: (defensive) should combine all mutations into one graphql transaction to avoid intermediate mods
-    clearPlanActivities(planId);
-    return createAllPlanActivities(planId, plan);
+    ensurePlanExists(planId);
+    final var diff = initialPlan.diff(plan);
+    final var instanceToInstanceId = new HashMap<>(diff.unchanged());
+    diff.updated().forEach((id, act) -> instanceToInstanceId.put(act, id));
+    if (diff.isEmpty()) {
+      return instanceToInstanceId;
+    }
+
+    final var updates = List.copyOf(diff.updated().entrySet());
+    final var request = getUpdatePlanActivitiesRequest(planId, diff.inserted(), updates, diff.deleted());
+    final var response = postRequest(request).orElseThrow(() -> new NoSuchPlanException(planId));
+    try {
+      final var data = response.getJsonObject("data");
+      if (data == null) {
+        //NB: aerie reports errors without data, in which case none of the mutations were applied
+        throw new NoSuchPlanException(planId);
+      }
+      if (!diff.deleted().isEmpty()) {
+        final var numDeleted = data.getJsonObject("delete_activity").getJsonNumber("affected_rows").longValueExact();
+        if (numDeleted != diff.deleted().size()) {
+          throw new NoSuchPlanException(planId);
+        }
+      }
+      for (int i = 0; i < updates.size(); i++) {
+        final var numUpdated = data.getJsonObject("update_" + i).getJsonNumber("affected_rows").longValueExact();
+        if (numUpdated != 1) {
+          throw new NoSuchPlanException(planId);
+        }
+      }
+      if (!diff.inserted().isEmpty()) {
+        instanceToInstanceId.putAll(getInsertedActivityIds(planId, diff.inserted(), data));
+      }
+    } catch (ClassCastException | ArithmeticException | NullPointerException e) {
+      throw new NoSuchPlanException(planId);
+    }
+    return instanceToInstanceId;
+  }
+
+  /**
+   * assemble the graphql request that applies the given changes to the activity instances of the target plan
+   *
+   * the deletion, each update, and the insertion are separate mutations of the same request, so that aerie applies them
+   * in a single transaction. the updates are aliased update_0, update_1, etc in order
+   *
+   * @param planId the database id of the plan container to update
+   * @param inserted the activity instances to insert in the plan
+   * @param updated the activity instances to update in the plan, with their database id
+   * @param deleted the database ids of the activity instances to delete from the plan
+   * @return the graphql mutation request
+   */
+  /*package-private*/ String getUpdatePlanActivitiesRequest(
+      final PlanId planId,
+      final List<ActivityInstance> inserted,
+      final List<Map.Entry<ActivityInstanceId, ActivityInstance>> updated,
+      final List<ActivityInstanceId> deleted)
+  {
+    final var requestSB = new StringBuilder().append("mutation updatePlanActivities {");
+    if (!deleted.isEmpty()) {
+      requestSB.append(" delete_activity(where: { plan_id: { _eq: %d } id: { _in: [".formatted(planId.id()));
+      for (final var id : deleted) {
+        requestSB.append(id.id()).append(' ');
+      }
+      requestSB.append("] } }) { affected_rows }");
+    }
+    for (int i = 0; i < updated.size(); i++) {
+      final var update = updated.get(i);
+      final var act = update.getValue();
+      requestSB.append(" update_%d: update_activity(where: { plan_id: { _eq: %d } id: { _eq: %d } } _set: { "
+                           .formatted(i, planId.id(), update.getKey().id()));
+      requestSB.append("start_offset: \"%s\" ".formatted(act.getStartTime().toString()));
+      appendArguments(requestSB, act);
+      requestSB.append(" }) { affected_rows }");
+    }
+    if (!inserted.isEmpty()) {
+      appendInsertActivities(requestSB, planId, inserted);
+    }
+    return requestSB.append(" }").toString();
   }
 
   /**
@@ -338,51 +406,100 @@ public record GraphQLMerlinService(URI merlinGraphqlURI) implements MerlinServic
   @Override
   public Map<ActivityInstance, ActivityInstanceId> createAllPlanActivities(final PlanId planId, final Plan plan) throws IOException, NoSuchPlanException {
     ensurePlanExists(planId);
-    final var requestPre = "mutation createAllPlanActivities { insert_activity( objects: [";
-    final var requestPost = "] ) { returning { id } affected_rows } }";
-    final var actPre = "{ plan_id: %d type: \"%s\" start_offset: \"%s\" arguments: {";
-    final var actPost = "} }";
-    final var argFormat = "%s: %s ";
+    final var orderedActivities = plan.getActivities().stream().toList();
+    final var request = getCreateAllPlanActivitiesRequest(planId, orderedActivities);
+
+    final var response = postRequest(request).orElseThrow(() -> new NoSuchPlanException(planId));
+    try {
+      return getInsertedActivityIds(planId, orderedActivities, response.getJsonObject("data"));
+    } catch (ClassCastException | ArithmeticException e) {
+      throw new NoSuchPlanException(planId);
+    }
+  }
 
+  /**
+   * assemble the graphql request that creates the given activity instances in the target plan
+   *
+   * @param planId the database id of the plan container to populate with new activity instances
+   * @param activities the activity instances to create, in the order their ids are returned by aerie
+   * @return the graphql mutation request
+   */
+  /*package-private*/ String getCreateAllPlanActivitiesRequest(final PlanId planId, final List<ActivityInstance> activities) {
     //assemble the entire mutation request body
     //TODO: (optimization) could use a lazy evaluating stream of strings to avoid large set of strings in memory
-    //TODO: (defensive) should sanitize all strings uses as keys/values to avoid injection attacks
-    final var requestSB = new StringBuilder().append(requestPre);
+    final var requestSB = new StringBuilder().append("mutation createAllPlanActivities {");
+    appendInsertActivities(requestSB, planId, activities);
+    return requestSB.append(" }").toString();
+  }
 
-    Map<ActivityInstance, ActivityInstanceId> instanceToInstanceId = new HashMap<>();
-    var orderedActivities = plan.getActivities().stream().toList();
+  /**
+   * append an insert_activity mutation of the given activity instances to the request under construction
+   *
+   * @param requestSB the request under construction
+   * @param planId the database id of the plan container to insert the activity instances into
+   * @param activities the activity instances to insert
+   */
+  private void appendInsertActivities(
+      final StringBuilder requestSB,
+      final PlanId planId,
+      final List<ActivityInstance> activities)
+  {
+    //TODO: (defensive) should sanitize all strings uses as keys/values to avoid injection attacks
+    requestSB.append(" insert_activity( objects: [");
+    for (final var act : activities) {
+      requestSB.append("{ plan_id: %d type: \"%s\" start_offset: \"%s\" ".formatted(
+          planId.id(), act.getType().getName(), act.getStartTime().toString()));
+      appendArguments(requestSB, act);
+      requestSB.append(" }");
+    }
+    requestSB.append("] ) { returning { id } affected_rows }");
+  }
 
-    for (final var act : orderedActivities) {
-      requestSB.append(actPre.formatted(planId, act.getType().getName(), act.getStartTime().toString()));
-      if (act.getDuration() != null) {
-        requestSB.append(argFormat.formatted("duration", getGraphQLValueString(act.getDuration())));
-      }
-      for (final var arg : act.getArguments().entrySet()) {
-        final var name = arg.getKey();
-        var value = getGraphQLValueString(arg.getValue());
-        requestSB.append(argFormat.formatted(name, value));
-      }
-      requestSB.append(actPost);
+  /**
+   * append the arguments (including duration) of the given activity instance to the request under construction
+   *
+   * @param requestSB the request under construction
+   * @param act the activity instance whose arguments to append
+   */
+  private void appendArguments(final StringBuilder requestSB, final ActivityInstance act) {
+    final var argFormat = "%s: %s ";
+    requestSB.append("arguments: {");
+    if (act.getDuration() != null) {
+      requestSB.append(argFormat.formatted("duration", getGraphQLValueString(act.getDuration())));
+    }
+    for (final var arg : act.getArguments().entrySet()) {
+      requestSB.append(argFormat.formatted(arg.getKey(), getGraphQLValueString(arg.getValue())));
     }
-    requestSB.append(requestPost);
-    final var request = requestSB.toString();
+    requestSB.append("}");
+  }
 
-    final var response = postRequest(request).orElseThrow(() -> new NoSuchPlanException(planId));
-    try {
-      final var numCreated = response
-          .getJsonObject("data").getJsonObject("insert_activity").getJsonNumber("affected_rows").longValueExact();
-      if (numCreated != plan.getActivities().size()) {
-        throw new NoSuchPlanException(planId);
-      }
-      var ids = response
-          .getJsonObject("data").getJsonObject("insert_activity").getJsonArray("returning");
-      //make sure we associate the right id with the right activity
-      for(int i = 0; i < ids.size(); i++) {
-        instanceToInstanceId.put(orderedActivities.get(i), new ActivityInstanceId(ids.getInt(i)));
-      }
-    } catch (ClassCastException | ArithmeticException e) {
+  /**
+   * collect the database ids that aerie assigned to newly inserted activity instances
+   *
+   * @param planId the database id of the plan container the activity instances were inserted into
+   * @param inserted the inserted activity instances, in the order they were inserted
+   * @param data the data of the response to the request that inserted the activity instances
+   * @return the database id of each inserted activity instance
+   * @throws NoSuchPlanException when aerie did not insert all the activity instances
+   */
+  private static Map<ActivityInstance, ActivityInstanceId> getInsertedActivityIds(
+      final PlanId planId,
+      final List<ActivityInstance> inserted,
+      final JsonObject data)
+  throws NoSuchPlanException
+  {
+    final var insertion = data.getJsonObject("insert_activity");
+    final var numCreated = insertion.getJsonNumber("affected_rows").longValueExact();
+    final var ids = insertion.getJsonArray("returning");
+    if (numCreated != inserted.size() || ids.size() != inserted.size()) {
       throw new NoSuchPlanException(planId);
     }
+    //make sure we associate the right id with the right activity
+    final var instanceToInstanceId = new HashMap<ActivityInstance, ActivityInstanceId>();
+    for (int i = 0; i < ids.size(); i++) {
+      final var id = ids.getJsonObject(i).getJsonNumber("id").longValueExact();
+      instanceToInstanceId.put(inserted.get(i), new ActivityInstanceId(id));
+    }
     return instanceToInstanceId;
   }
 
@@ -0,0 +1,169 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * http transport of graphql requests to aerie, shared by all the requests of a service
+ *
+ * keeps one long-lived http client, whose connections are pooled and reused across requests, instead of opening new
+ * connections for each request. bounds the number of requests in flight at once, so that concurrent scheduling runs
+ * cannot flood aerie. request bodies at least as large as the compression threshold are sent gzip compressed, and
+ * compressed response bodies are decompressed as a stream while they are parsed
+ */
+public final class GraphQLTransport {
+
+  /**
+   * default maximum number of requests in flight at once
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+
+  /**
+   * compression threshold that disables the compression of request bodies
+   */
+  public static final int NEVER_COMPRESS = Integer.MAX_VALUE;
+
+  /**
+   * default timeout for http graphql requests issued to aerie
+   */
+  public static final java.time.Duration DEFAULT_TIMEOUT = java.time.Duration.ofSeconds(60);
+
+  private final URI endpoint;
+  private final int compressionThreshold;
+  private final java.time.Duration timeout;
+  private final HttpClient client;
+  private final Semaphore inFlight;
+
+  /**
+   * creates a transport to the given endpoint
+   *
+   * @param endpoint the graphql endpoint to which requests are sent
+   * @param maxConcurrentRequests the maximum number of requests in flight at once; further requests wait their turn
+   * @param compressionThreshold the size in bytes from which request bodies are gzip compressed, or NEVER_COMPRESS
+   *     if the endpoint does not accept compressed requests
+   * @param timeout the timeout of each request, once it is sent
+   */
+  public GraphQLTransport(
+      final URI endpoint,
+      final int maxConcurrentRequests,
+      final int compressionThreshold,
+      final java.time.Duration timeout)
+  {
+    if (maxConcurrentRequests <= 0) {
+      throw new IllegalArgumentException("maximum number of concurrent requests must be positive, got " + maxConcurrentRequests);
+    }
+    if (compressionThreshold < 0) {
+      throw new IllegalArgumentException("compression threshold must not be negative, got " + compressionThreshold);
+    }
+    this.endpoint = Objects.requireNonNull(endpoint);
+    this.compressionThreshold = compressionThreshold;
+    this.timeout = Objects.requireNonNull(timeout);
+    //NB: http/1.1 keep-alive connections are pooled by the client; plain-text http/2 upgrades are not worth the
+    //    extra round trip on each new connection
+    this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    this.inFlight = new Semaphore(maxConcurrentRequests, true);
+  }
+
+  /**
+   * creates a transport to the given endpoint with the default settings, which do not compress requests
+   *
+   * @param endpoint the graphql endpoint to which requests are sent
+   */
+  public GraphQLTransport(final URI endpoint) {
+    this(endpoint, DEFAULT_MAX_CONCURRENT_REQUESTS, NEVER_COMPRESS, DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * @return the graphql endpoint to which requests are sent
+   */
+  public URI endpoint() {
+    return endpoint;
+  }
+
+  /**
+   * sends the given json body to the endpoint, waiting for a turn if the maximum of requests are already in flight
+   *
+   * @param body the json body of the request
+   * @return the json body of the response, or an empty optional if the response status is not 200 (OK)
+   * @throws IOException if the request cannot be sent, or the response cannot be read or parsed
+   * @throws InterruptedException if interrupted while waiting for a turn or for the response
+   */
+  public Optional<JsonObject> post(final JsonObject body) throws IOException, InterruptedException {
+    final var request = buildRequest(body.toString().getBytes(StandardCharsets.UTF_8));
+
+    inFlight.acquire();
+    try {
+      final var response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+      try (final var responseBody = decode(response)) {
+        final var result = (response.statusCode() == 200)
+            ? Optional.of(Json.createReader(responseBody).readObject())
+            : Optional.<JsonObject>empty();
+        //NB: the body must be read to its end, otherwise closing it closes the connection rather than returning it
+        //    to the pool
+        responseBody.transferTo(OutputStream.nullOutputStream());
+        return result;
+      }
+    } catch (final JsonException e) { // or also JsonParsingException
+      throw new IOException("json parse error on graphql response:" + e.getMessage(), e);
+    } finally {
+      inFlight.release();
+    }
+  }
+
+  private HttpRequest buildRequest(final byte[] body) throws IOException {
+    final var builder = HttpRequest
+        .newBuilder().uri(endpoint).timeout(timeout)
+        .header("Content-Type", "application/json")
+        .header("Accept-Encoding", "gzip, deflate")
+        .header("Accept", "application/json")
+        .header("Origin", endpoint.toString());
+    if (body.length >= compressionThreshold) {
+      builder
+          .header("Content-Encoding", "gzip")
+          .POST(HttpRequest.BodyPublishers.ofByteArray(gzip(body)));
+    } else {
+      builder.POST(HttpRequest.BodyPublishers.ofByteArray(body));
+    }
+    return builder.build();
+  }
+
+  private static byte[] gzip(final byte[] bytes) throws IOException {
+    final var compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (final var out = new GZIPOutputStream(compressed)) {
+      out.write(bytes);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * wraps the response body in a decompressing stream according to its content encoding
+   */
+  private static InputStream decode(final HttpResponse<InputStream> response) throws IOException {
+    final var encoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+    return switch (encoding.trim().toLowerCase()) {
+      case "gzip", "x-gzip" -> new GZIPInputStream(response.body());
+      case "deflate" -> new InflaterInputStream(response.body());
+      case "identity", "" -> response.body();
+      default -> {
+        response.body().close();
+        throw new IOException("unsupported content encoding of graphql response: " + encoding);
+      }
+    };
+  }
+}
@@ -42,10 +42,10 @@ public interface MerlinService {
    *
    * @param planMetadata identifying details of the plan to fetch content for
    * @param mission the mission model that the plan adheres to
-   * @return a newly allocated snapshot of the plan contents
+   * @return a newly allocated snapshot of the plan contents, with the aerie database id of each activity instance
    * @throws NoSuchPlanException when the plan container does not exist in aerie
    */
-  Plan getPlanActivities(final PlanMetadata planMetadata, final Problem mission)
+  Pair<Plan, Map<ActivityInstance, ActivityInstanceId>> getPlanActivities(final PlanMetadata planMetadata, final Problem mission)
   throws IOException, NoSuchPlanException;
 
   /**
@@ -88,14 +88,18 @@ public interface MerlinService {
   /**
    * synchronize the in-memory plan back over to aerie data stores via update operations
    *
+   * only the activity instances that changed since the initial plan was loaded are inserted, updated or deleted
+   *
    * the plan revision will change!
    *
    * @param planId aerie database identifier of the target plan to synchronize into
+   * @param initialPlan snapshot of the activity instances loaded from the target plan before they were modified
    * @param plan plan with all activity instances that should be stored to target merlin plan container
    * @throws NoSuchPlanException when the plan container does not exist in aerie
-   * @return
+   * @return the aerie database id of each activity instance of the plan
    */
-  Map<ActivityInstance, ActivityInstanceId> updatePlanActivities(final PlanId planId, final Plan plan) throws IOException, NoSuchPlanException;
+  Map<ActivityInstance, ActivityInstanceId> updatePlanActivities(final PlanId planId, final PlanSnapshot initialPlan, final Plan plan)
+  throws IOException, NoSuchPlanException;
 
   /**
    * confirms that the specified plan exists in the aerie database, throwing exception if not
@@ -0,0 +1,127 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.driver.MissionModel;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.scheduler.Goal;
+import gov.nasa.jpl.aerie.scheduler.server.models.PlanMetadata;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * bounded cache of the mission models and scheduling goals loaded from jar files, shared by scheduling requests
+ *
+ * loading a mission model or the goals jar requires new class loaders and instantiating the model, so back-to-back
+ * scheduling requests against the same plan reuse the objects loaded by the first request instead. an entry is
+ * reloaded when either of its jar files changes on disk, and the least recently used entries are evicted once the
+ * cache holds its maximum number of entries
+ */
+public final class MissionModelCache {
+
+  /**
+   * default maximum number of loaded mission models kept in the cache
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 4;
+
+  /**
+   * a mission model and the scheduling goals loaded against it
+   *
+   * @param missionModel the loaded mission model, configured for the plan
+   * @param goals the scheduling goals loaded from the goals jar, which refer to the mission model
+   */
+  public record LoadedModel(MissionModel<?> missionModel, List<Goal> goals) { }
+
+  /**
+   * identifies the mission model and goals to load for a plan
+   */
+  private record Key(
+      long modelId,
+      Path modelJar,
+      String modelName,
+      String modelVersion,
+      Map<String, SerializedValue> modelConfiguration,
+      Path goalsJar)
+  { }
+
+  /**
+   * identifies a version of a jar file on disk, without reading the (possibly large) jar contents on each request
+   */
+  private record JarFingerprint(long size, FileTime lastModified) {
+    static JarFingerprint of(final Path jar) throws IOException {
+      return new JarFingerprint(Files.size(jar), Files.getLastModifiedTime(jar));
+    }
+  }
+
+  private record Entry(JarFingerprint modelJar, JarFingerprint goalsJar, LoadedModel loaded) { }
+
+  private final Map<Key, Entry> entries;
+
+  /**
+   * creates an empty cache
+   *
+   * @param maxEntries the maximum number of loaded mission models to keep in the cache
+   */
+  public MissionModelCache(final int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maximum number of cached mission models must be positive, got " + maxEntries);
+    }
+    //NB: an access-ordered map evicts the least recently used entry first
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * fetches the mission model and goals for the given plan, loading them only if they are not cached yet or if either
+   * jar file changed since they were cached
+   *
+   * concurrent requests for the same uncached model may each load it; the last one loaded is kept
+   *
+   * @param plan metadata of the plan whose mission model and configuration should be loaded
+   * @param modelJar path to the mission model jar of the plan
+   * @param goalsJar path to the jar to load scheduling goals from
+   * @param loader loads the mission model and goals when they are not in the cache
+   * @return the mission model and goals for the given plan
+   * @throws IOException when either jar file cannot be read
+   */
+  public LoadedModel get(final PlanMetadata plan, final Path modelJar, final Path goalsJar, final Supplier<LoadedModel> loader)
+  throws IOException
+  {
+    final var key = new Key(
+        plan.modelId(), modelJar, plan.modelName(), plan.modelVersion(), plan.modelConfiguration(), goalsJar);
+    final var modelJarFingerprint = JarFingerprint.of(modelJar);
+    final var goalsJarFingerprint = JarFingerprint.of(goalsJar);
+
+    synchronized (this.entries) {
+      final var entry = this.entries.get(key);
+      if (entry != null && entry.modelJar().equals(modelJarFingerprint) && entry.goalsJar().equals(goalsJarFingerprint)) {
+        return entry.loaded();
+      }
+    }
+
+    //load outside of the lock so that requests for other, already cached models are not held up
+    final var loaded = loader.get();
+    synchronized (this.entries) {
+      this.entries.put(key, new Entry(modelJarFingerprint, goalsJarFingerprint, loaded));
+    }
+    return loaded;
+  }
+
+  /**
+   * @return the number of loaded mission models currently in the cache
+   */
+  public int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.scheduler.ActivityInstance;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the changes that a scheduling run made to a plan loaded from aerie, as computed by PlanSnapshot::diff
+ *
+ * @param inserted activity instances added by the scheduler, which have no aerie database id yet
+ * @param updated loaded activity instances whose start time, duration or arguments changed, by aerie database id
+ * @param deleted aerie database ids of the loaded activity instances that are no longer in the plan
+ * @param unchanged loaded activity instances that did not change, with their aerie database id
+ */
+public record PlanDiff(
+    List<ActivityInstance> inserted,
+    Map<ActivityInstanceId, ActivityInstance> updated,
+    List<ActivityInstanceId> deleted,
+    Map<ActivityInstance, ActivityInstanceId> unchanged)
+{
+  /**
+   * @return true iff the plan is unchanged, ie there is nothing to write back to aerie
+   */
+  public boolean isEmpty() {
+    return inserted.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+  }
+}
@@ -0,0 +1,106 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.scheduler.ActivityInstance;
+import gov.nasa.jpl.aerie.scheduler.Plan;
+import gov.nasa.jpl.aerie.scheduler.SchedulingActivityInstanceId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * copy of the activity instances of a plan as loaded from aerie, kept to find what a scheduling run changed
+ *
+ * the scheduler may modify the loaded activity instances in place (eg instantiating their variable arguments), so
+ * their properties are copied when the snapshot is taken
+ */
+public final class PlanSnapshot {
+
+  /**
+   * properties of a loaded activity instance that can be written back to aerie
+   */
+  private record ActivityProperties(
+      ActivityInstanceId id,
+      Duration startTime,
+      Duration duration,
+      Map<String, SerializedValue> arguments)
+  {
+    static ActivityProperties of(final ActivityInstance act, final ActivityInstanceId id) {
+      return new ActivityProperties(id, act.getStartTime(), act.getDuration(), new HashMap<>(act.getArguments()));
+    }
+
+    boolean matches(final ActivityInstance act) {
+      return Objects.equals(startTime, act.getStartTime())
+             && Objects.equals(duration, act.getDuration())
+             && arguments.equals(act.getArguments());
+    }
+  }
+
+  /**
+   * the properties of each loaded activity instance, keyed by its scheduler id, which is stable under modification
+   */
+  private final Map<SchedulingActivityInstanceId, ActivityProperties> activities;
+
+  private PlanSnapshot(final Map<SchedulingActivityInstanceId, ActivityProperties> activities) {
+    this.activities = activities;
+  }
+
+  /**
+   * takes a snapshot of the given activity instances loaded from aerie
+   *
+   * must be taken before the activity instances are handed to the scheduler
+   *
+   * @param loadedActivities the activity instances loaded from aerie, with their aerie database ids
+   * @return a snapshot of the current properties of the activity instances
+   */
+  public static PlanSnapshot of(final Map<ActivityInstance, ActivityInstanceId> loadedActivities) {
+    final var activities = new HashMap<SchedulingActivityInstanceId, ActivityProperties>(loadedActivities.size());
+    for (final var entry : loadedActivities.entrySet()) {
+      activities.put(entry.getKey().getId(), ActivityProperties.of(entry.getKey(), entry.getValue()));
+    }
+    return new PlanSnapshot(activities);
+  }
+
+  /**
+   * @return the number of activity instances in the snapshot
+   */
+  public int size() {
+    return activities.size();
+  }
+
+  /**
+   * computes the changes between this snapshot and the given plan
+   *
+   * activity instances of the plan that are not in the snapshot are inserted, activity instances of the snapshot that
+   * are not in the plan anymore are deleted, and the rest are updated if any of their properties changed
+   *
+   * @param plan the plan after scheduling
+   * @return the changes to apply to the plan stored in aerie for it to match the given plan
+   */
+  public PlanDiff diff(final Plan plan) {
+    final var inserted = new ArrayList<ActivityInstance>();
+    final var updated = new HashMap<ActivityInstanceId, ActivityInstance>();
+    final var unchanged = new HashMap<ActivityInstance, ActivityInstanceId>();
+    final var deleted = new ArrayList<ActivityInstanceId>();
+
+    final var remaining = new HashMap<>(activities);
+    for (final var act : plan.getActivities()) {
+      final var original = remaining.remove(act.getId());
+      if (original == null) {
+        inserted.add(act);
+      } else if (original.matches(act)) {
+        unchanged.put(act, original.id());
+      } else {
+        updated.put(original.id(), act);
+      }
+    }
+    for (final var original : remaining.values()) {
+      deleted.add(original.id());
+    }
+    return new PlanDiff(inserted, updated, deleted, unchanged);
+  }
+}
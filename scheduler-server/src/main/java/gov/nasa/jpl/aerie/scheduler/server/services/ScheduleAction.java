@@ -2,6 +2,7 @@ package gov.nasa.jpl.aerie.scheduler.server.services;
 
 import gov.nasa.jpl.aerie.scheduler.server.ResultsProtocol;
 import gov.nasa.jpl.aerie.scheduler.server.exceptions.NoSuchSpecificationException;
+import gov.nasa.jpl.aerie.scheduler.server.models.ScheduleBudget;
 import gov.nasa.jpl.aerie.scheduler.server.models.SpecificationId;
 
 import java.io.IOException;
@@ -49,16 +50,17 @@ public record ScheduleAction(SpecificationService specificationService, Schedule
    * execute the scheduling operation on the target plan (or retrieve existing scheduling results)
    *
    * @param specificationId identifier of the plan to start scheduling from and to store scheduled output into
+   * @param budget limits on the work of the scheduling run, after which it returns the best plan found so far
    * @return a response object wrapping summary results of the run (either successful or not)
    * @throws NoSuchSpecificationException if the target specification could not be found
    */
-  public Response run(final SpecificationId specificationId) throws NoSuchSpecificationException, IOException {
+  public Response run(final SpecificationId specificationId, final ScheduleBudget budget) throws NoSuchSpecificationException, IOException {
     //record the plan revision as of the scheduling request time (in case work commences much later eg in worker thread)
     //TODO may also need to verify the model revision / other volatile metadata matches one from request
     final var specificationRev = this.specificationService.getSpecificationRevisionData(specificationId);
 
     //submit request to run scheduler (possibly asynchronously or even cached depending on service)
-    final var response = this.schedulerService.scheduleActivities(new ScheduleRequest(specificationId, specificationRev));
+    final var response = this.schedulerService.scheduleActivities(new ScheduleRequest(specificationId, specificationRev, budget));
 
     return repackResponse(response);
   }
@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.scheduler.server.services;
 
 import gov.nasa.jpl.aerie.scheduler.server.models.PlanId;
+import gov.nasa.jpl.aerie.scheduler.server.models.ScheduleBudget;
 import gov.nasa.jpl.aerie.scheduler.server.models.SpecificationId;
 
 import java.util.Objects;
@@ -10,10 +11,12 @@ import java.util.Objects;
  *
  * @param specificationId target schedule specification to read as schedule configuration
  * @param specificationRev the revision of the schedule specification when the schedule request was placed (to determine if stale)
+ * @param budget the limits on the work of the scheduling run, after which it returns the best plan found so far
  */
-public record ScheduleRequest(SpecificationId specificationId, RevisionData specificationRev) {
+public record ScheduleRequest(SpecificationId specificationId, RevisionData specificationRev, ScheduleBudget budget) {
   public ScheduleRequest {
     Objects.requireNonNull(specificationId, "specificationId must not be null");
     Objects.requireNonNull(specificationRev, "specificationRev must not be null");
+    Objects.requireNonNull(budget, "budget must not be null");
   }
 }
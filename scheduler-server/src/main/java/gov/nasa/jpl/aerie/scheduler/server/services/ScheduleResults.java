@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.scheduler.server.services;
 
 import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.scheduler.SchedulerMetrics;
 import gov.nasa.jpl.aerie.scheduler.server.models.GoalId;
 
 import java.util.Collection;
@@ -9,8 +10,11 @@ import java.util.Map;
 /**
  * summary of results from running the scheduler, including goal satisfaction metrics and changes made
  * TODO: @param javadocs (Adrien)
+ *
+ * @param complete false if the run exhausted its budget before processing every goal; the goals left unprocessed are
+ *     reported unsatisfied
  */
-public record ScheduleResults(Map<GoalId, GoalResult> goalResults) {
+public record ScheduleResults(Map<GoalId, GoalResult> goalResults, boolean complete, Metrics metrics) {
 
   public record GoalResult(
       Collection<ActivityInstanceId> createdActivities,
@@ -18,4 +22,20 @@ public record ScheduleResults(Map<GoalId, GoalResult> goalResults) {
       boolean satisfied
   )
   { }
+
+  /**
+   * measures of the scheduling run, to find which goals, simulations and state queries consume scheduling time
+   *
+   * @param goalMetrics the wall time, conflicts, created activities and simulations of each goal
+   * @param simulationCount the number of simulations run
+   * @param simulationNanos the cumulative wall time spent simulating, in nanoseconds
+   * @param resourceQueryCounts the number of queries to each simulated resource, by resource name
+   */
+  public record Metrics(
+      Map<GoalId, SchedulerMetrics.GoalMetrics> goalMetrics,
+      long simulationCount,
+      long simulationNanos,
+      Map<String, Long> resourceQueryCounts
+  )
+  { }
 }
@@ -13,6 +13,7 @@ import gov.nasa.jpl.aerie.scheduler.Plan;
 import gov.nasa.jpl.aerie.scheduler.PlanningHorizon;
 import gov.nasa.jpl.aerie.scheduler.PrioritySolver;
 import gov.nasa.jpl.aerie.scheduler.Problem;
+import gov.nasa.jpl.aerie.scheduler.SchedulerMetrics;
 import gov.nasa.jpl.aerie.scheduler.Solver;
 import gov.nasa.jpl.aerie.scheduler.Time;
 import gov.nasa.jpl.aerie.scheduler.server.ResultsProtocol;
@@ -24,9 +25,12 @@ import gov.nasa.jpl.aerie.scheduler.server.models.GoalId;
 import gov.nasa.jpl.aerie.scheduler.server.models.GoalRecord;
 import gov.nasa.jpl.aerie.scheduler.server.models.PlanId;
 import gov.nasa.jpl.aerie.scheduler.server.models.PlanMetadata;
+import gov.nasa.jpl.aerie.scheduler.server.models.ScheduleBudget;
 import gov.nasa.jpl.aerie.scheduler.server.models.Specification;
+import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -35,6 +39,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
@@ -44,6 +50,8 @@ import java.util.stream.Collectors;
  * @param modelJarsDir path to parent directory for mission model jars (interim backdoor jar file access)
  * @param goalsJarPath path to jar file to load scheduling goals from (interim solution for user input goals)
  * @param outputMode how the scheduling output should be returned to aerie (eg overwrite or new container)
+ * @param modelCache cache of the mission models and goals loaded by previous scheduling requests
+ * @param simulateInBatches whether the activities created for a goal are simulated in batches rather than one at a time
  */
 //TODO: will eventually need scheduling goal service arg to pull goals from scheduler's own data store
 public record SynchronousSchedulerAgent(
@@ -51,14 +59,20 @@ public record SynchronousSchedulerAgent(
     GraphQLMerlinService merlinService,
     Path modelJarsDir,
     Path goalsJarPath,
-    PlanOutputMode outputMode
+    PlanOutputMode outputMode,
+    MissionModelCache modelCache,
+    boolean simulateInBatches
 )
     implements SchedulerAgent
 {
+  /** logger receiving the machine-readable trace of each scheduling run */
+  private static final Logger traceLog = Logger.getLogger("gov.nasa.jpl.aerie.scheduler.trace");
+
   public SynchronousSchedulerAgent {
     Objects.requireNonNull(merlinService);
     Objects.requireNonNull(modelJarsDir);
     Objects.requireNonNull(goalsJarPath);
+    Objects.requireNonNull(modelCache);
   }
 
   /**
@@ -79,15 +93,19 @@ public record SynchronousSchedulerAgent(
       // TODO: Remove workaround function wrapper once goals are read from database
       final var specificationWithoutGoals = specificationService.getSpecification(request.specificationId());
       final var planMetadata = merlinService.getPlanMetadata(specificationWithoutGoals.planId());
-      final var specificationWithGoals = loadSpecificationGoalsFromJAR(specificationWithoutGoals, planMetadata);
+      final var loadedModel = loadMissionModelAndGoals(planMetadata);
+      final var specificationWithGoals = loadSpecificationGoalsFromJAR(specificationWithoutGoals, loadedModel.goals());
       ensureRequestIsCurrent(request);
       ensurePlanRevisionMatch(specificationWithGoals,planMetadata.planRev());
       //create scheduler problem seeded with initial plan
-      final var mission = loadMissionModel(planMetadata);
+      final var mission = loadedModel.missionModel();
       var planningHorizon = new PlanningHorizon(Time.fromInstant(specificationWithGoals.horizonStartTimestamp().toInstant()),Time.fromInstant(specificationWithGoals.horizonEndTimestamp().toInstant())) ;
       final var problem = new Problem(mission, planningHorizon);
       //seed the problem with the initial plan contents
-      problem.setInitialPlan(loadInitialPlan(planMetadata, problem));
+      final var initialPlan = loadInitialPlan(planMetadata, problem);
+      //remember the initial plan contents before the scheduler modifies them, to write back only the changes
+      final var initialPlanSnapshot = PlanSnapshot.of(initialPlan.getValue());
+      problem.setInitialPlan(initialPlan.getKey());
 
       //apply constraints/goals to the problem
       loadConstraints(planMetadata, mission).forEach(problem::add);
@@ -95,7 +113,7 @@ public record SynchronousSchedulerAgent(
       problem.setGoals(orderedGoals);
       var goals = specificationWithGoals.goalsByPriority().stream().collect(Collectors.toMap(GoalRecord::definition, GoalRecord::id));
 
-      final var scheduler = createScheduler(planMetadata,problem);
+      final var scheduler = createScheduler(planMetadata, problem, request.budget());
       //run the scheduler to find a solution to the posed problem, if any
       final var solutionPlan = scheduler.getNextSolution().orElseThrow(
           () -> new ResultsProtocolFailure("scheduler returned no solution"));
@@ -103,10 +121,11 @@ public record SynchronousSchedulerAgent(
       //store the solution plan back into merlin (and reconfirm no intervening mods!)
       //TODO: make revision confirmation atomic part of plan mutation (plan might have been modified during scheduling!)
       ensurePlanRevisionMatch(specificationWithGoals, getMerlinPlanRev(specificationWithGoals.planId()));
-      var instancesToIds = storeFinalPlan(planMetadata, solutionPlan);
+      var instancesToIds = storeFinalPlan(planMetadata, initialPlanSnapshot, solutionPlan);
 
       //collect results and notify subscribers of success
-      final var results = collectResults(solutionPlan,instancesToIds, goals);
+      final var results = collectResults(solutionPlan,instancesToIds, goals, scheduler.getMetrics());
+      emitTrace(scheduler.getMetrics());
       writer.succeedWith(results);
     } catch (final ResultsProtocolFailure | NoSuchSpecificationException e) {
       //unwrap failure message from any anticipated exceptions and forward to subscribers
@@ -131,12 +150,11 @@ public record SynchronousSchedulerAgent(
    * instead of the database. When we are able to read goals from the database, this function
    * should be replaced by a simple call to the specification service's getSpecification function
    * @param dbLoadedSpec - The specification as loaded from the database with empty goal definitions
+   * @param jarGoals - The goals loaded from the JAR
    * @return An identical specification with goal definitions added (loaded from a JAR)
    */
-  private Specification loadSpecificationGoalsFromJAR(final Specification dbLoadedSpec, final PlanMetadata planMetadata)
-  throws NoSuchPlanException, IOException, NoSuchGoalDefinitionException {
-    final var missionModel = loadMissionModel(planMetadata);
-    final var jarGoals = loadGoals(missionModel);
+  private Specification loadSpecificationGoalsFromJAR(final Specification dbLoadedSpec, final List<Goal> jarGoals)
+  throws NoSuchGoalDefinitionException {
 
     final var loadedGoals = new ArrayList<GoalRecord>(dbLoadedSpec.goalsByPriority().size());
     for (final var dbGoal : dbLoadedSpec.goalsByPriority()) {
@@ -239,9 +257,10 @@ public record SynchronousSchedulerAgent(
    *
    * @param planMetadata details of the plan container that scheduling is occurring from/into
    * @param problem specification of the scheduling problem that needs to be solved
+   * @param budget limits on the work of the scheduler, after which it provides the best solution found so far
    * @return a new scheduler that is set up to begin providing solutions to the problem
    */
-  private Solver createScheduler(final PlanMetadata planMetadata, final Problem problem) {
+  private Solver createScheduler(final PlanMetadata planMetadata, final Problem problem, final ScheduleBudget budget) {
     final var config = new HuginnConfiguration();
     //TODO: move temporal focus from sched config into Problem object
     //TODO: allow for separate control of windows for constraint analysis vs ability to schedule activities
@@ -249,6 +268,11 @@ public record SynchronousSchedulerAgent(
     config.setHorizon(planMetadata.horizon());
     final var solver = new PrioritySolver(config, problem);
     solver.checkSimBeforeInsertingActInPlan();
+    if (simulateInBatches) {
+      solver.checkSimOfActivitiesInBatches();
+    }
+    solver.setTimeBudget(budget.time().orElse(null));
+    solver.setGoalBudget(budget.goals().orElse(null));
     return solver;
   }
 
@@ -257,11 +281,14 @@ public record SynchronousSchedulerAgent(
    *
    * @param planMetadata metadata of plan container to load from
    * @param problem the problem that the plan adheres to
-   * @return a plan with all activity instances loaded from the target merlin plan container
+   * @return a plan with all activity instances loaded from the target merlin plan container, with their aerie database ids
    * @throws ResultsProtocolFailure when the requested plan cannot be loaded, or the target plan revision has
    *     changed, or aerie could not be reached
    */
-  private Plan loadInitialPlan(final PlanMetadata planMetadata, final Problem problem) {
+  private Pair<Plan, Map<ActivityInstance, ActivityInstanceId>> loadInitialPlan(
+      final PlanMetadata planMetadata,
+      final Problem problem)
+  {
     //TODO: maybe paranoid check if plan rev has changed since original metadata?
     try {
       return merlinService.getPlanActivities(planMetadata, problem);
@@ -270,6 +297,27 @@ public record SynchronousSchedulerAgent(
     }
   }
 
+  /**
+   * fetches the mission model referenced by the specified plan and the goals loaded against it, from the cache of
+   * previously loaded models if neither the model jar nor the goals jar changed since
+   *
+   * @param plan metadata of the target plan indicating which mission model to load and how to configure the mission
+   *     model for that plan context
+   * @return the mission model to extract any activity types, constraints, and simulations from, and its goals
+   * @throws ResultsProtocolFailure when the mission model or goals could not be loaded: eg jar file not found,
+   *     declared version/name in jar does not match, or aerie filesystem could not be mounted
+   */
+  private MissionModelCache.LoadedModel loadMissionModelAndGoals(final PlanMetadata plan) {
+    try {
+      return modelCache.get(plan, modelJarsDir.resolve(plan.modelPath()), goalsJarPath, () -> {
+        final var missionModel = loadMissionModel(plan);
+        return new MissionModelCache.LoadedModel(missionModel, loadGoals(missionModel));
+      });
+    } catch (IOException e) {
+      throw new ResultsProtocolFailure(e);
+    }
+  }
+
   /**
    * creates an instance of the mission model referenced by the specified plan
    *
@@ -298,18 +346,23 @@ public record SynchronousSchedulerAgent(
    * this will obsolete the locally cached planMetadata since the plan revision will change!
    *
    * @param planMetadata metadata of plan container to store into; outdated after return
+   * @param initialPlan snapshot of the activity instances loaded from the plan container before scheduling
    * @param newPlan plan with all activity instances that should be stored to target merlin plan container
    * @throws ResultsProtocolFailure when the plan could not be stored to aerie, the target plan revision has
    *     changed, or aerie could not be reached
    */
-  private Map<ActivityInstance, ActivityInstanceId> storeFinalPlan(final PlanMetadata planMetadata, final Plan newPlan) {
+  private Map<ActivityInstance, ActivityInstanceId> storeFinalPlan(
+      final PlanMetadata planMetadata,
+      final PlanSnapshot initialPlan,
+      final Plan newPlan)
+  {
     try {
       switch (this.outputMode) {
         case CreateNewOutputPlan -> {
           return merlinService.createNewPlanWithActivities(planMetadata, newPlan).getValue();
         }
         case UpdateInputPlanWithNewActivities -> {
-          return merlinService.updatePlanActivities(planMetadata.planId(), newPlan);
+          return merlinService.updatePlanActivities(planMetadata.planId(), initialPlan, newPlan);
         }
         default -> throw new IllegalArgumentException("unsupported scheduler output mode " + this.outputMode);
       }
@@ -328,16 +381,47 @@ public record SynchronousSchedulerAgent(
    * @param plan the target plan after the scheduling run has completed
    * @return summary of the state of the plan after scheduling ran; eg goal success metrics, associated instances, etc
    */
-  private ScheduleResults collectResults(final Plan plan, final Map<ActivityInstance, ActivityInstanceId> instancesToIds, Map<Goal, GoalId> goalsToIds) {
+  private ScheduleResults collectResults(
+      final Plan plan,
+      final Map<ActivityInstance, ActivityInstanceId> instancesToIds,
+      final Map<Goal, GoalId> goalsToIds,
+      final SchedulerMetrics metrics)
+  {
     Map<GoalId, ScheduleResults.GoalResult> goalResults = new HashMap<>();
       for (var goalEval : plan.getEvaluation().getGoalEvaluations().entrySet()) {
         var goalId = goalsToIds.get(goalEval.getKey());
         var goalResult = new ScheduleResults.GoalResult(goalEval.getValue().getInsertedActivities().stream().map(instancesToIds::get).collect(Collectors.toList()),
                                                         goalEval.getValue().getAssociatedActivities().stream().map(instancesToIds::get).collect(Collectors.toList()),
-                                                        goalEval.getValue().getScore() >=0);
+                                                        goalEval.getValue().getScore() >=0 && goalEval.getValue().isComplete());
         goalResults.put(goalId, goalResult);
       }
-    return new ScheduleResults(goalResults);
+    //only goals of the specification are reported, as the subgoals of composite goals have no identifier
+    final var goalMetrics = new HashMap<GoalId, SchedulerMetrics.GoalMetrics>();
+    for (final var entry : metrics.getGoalMetrics().entrySet()) {
+      final var goalId = goalsToIds.get(entry.getKey());
+      if (goalId != null) goalMetrics.put(goalId, entry.getValue());
+    }
+    return new ScheduleResults(goalResults, !plan.getEvaluation().isPartial(), new ScheduleResults.Metrics(
+        goalMetrics,
+        metrics.getSimulationCount(),
+        metrics.getSimulationNanos(),
+        metrics.getResourceQueryCounts()));
+  }
+
+  /**
+   * emit the trace of the scheduling run as json lines on the trace logger, for offline analysis of scheduling time
+   *
+   * @param metrics the metrics of the scheduling run
+   */
+  private static void emitTrace(final SchedulerMetrics metrics) {
+    if (!traceLog.isLoggable(Level.INFO)) return;
+    final var trace = new StringBuilder();
+    try {
+      metrics.writeTrace(trace);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    traceLog.info(trace.toString());
   }
 
 }
@@ -0,0 +1,68 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.scheduler.ActivityInstance;
+import gov.nasa.jpl.aerie.scheduler.ActivityType;
+import gov.nasa.jpl.aerie.scheduler.PlanInMemory;
+import gov.nasa.jpl.aerie.scheduler.server.models.PlanId;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GraphQLMerlinServiceTest {
+  private static final ActivityType biteBanana = new ActivityType("BiteBanana");
+
+  // No request is sent: only the assembly of requests is tested.
+  private final GraphQLMerlinService service = new GraphQLMerlinService(URI.create("http://localhost:8080/v1/graphql"));
+
+  private static ActivityInstance biteBanana(final long startSeconds, final double biteSize) {
+    final var act = new ActivityInstance(biteBanana, Duration.of(startSeconds, Duration.SECONDS), Duration.ZERO);
+    act.addArgument("biteSize", SerializedValue.of(biteSize));
+    return act;
+  }
+
+  @Test
+  void testUpdateRequestDeletesThenUpdatesThenInserts() {
+    final var kept = biteBanana(0, 1.0);
+    final var moved = biteBanana(10, 1.0);
+    final var resized = biteBanana(20, 1.0);
+    final var removed = biteBanana(30, 1.0);
+    final var plan = new PlanInMemory();
+    plan.add(List.of(kept, moved, resized, removed));
+    final var snapshot = PlanSnapshot.of(Map.of(
+        kept, new ActivityInstanceId(10),
+        moved, new ActivityInstanceId(11),
+        resized, new ActivityInstanceId(12),
+        removed, new ActivityInstanceId(13)));
+
+    moved.setStartTime(Duration.of(15, Duration.SECONDS));
+    resized.addArgument("biteSize", SerializedValue.of(2.0));
+    plan.remove(removed);
+    plan.add(biteBanana(40, 1.0));
+
+    final var diff = snapshot.diff(plan);
+    final var updates = diff.updated().entrySet().stream()
+        .sorted(Comparator.comparingLong(entry -> entry.getKey().id()))
+        .toList();
+    final var request = service.getUpdatePlanActivitiesRequest(new PlanId(1), diff.inserted(), updates, diff.deleted());
+
+    assertEquals(
+        "mutation updatePlanActivities {"
+        + " delete_activity(where: { plan_id: { _eq: 1 } id: { _in: [13 ] } }) { affected_rows }"
+        + " update_0: update_activity(where: { plan_id: { _eq: 1 } id: { _eq: 11 } } _set: {"
+        + " start_offset: \"+00:00:15.000000\" arguments: {duration: 0 biteSize: 1.0 } }) { affected_rows }"
+        + " update_1: update_activity(where: { plan_id: { _eq: 1 } id: { _eq: 12 } } _set: {"
+        + " start_offset: \"+00:00:20.000000\" arguments: {duration: 0 biteSize: 2.0 } }) { affected_rows }"
+        + " insert_activity( objects: [{ plan_id: 1 type: \"BiteBanana\" start_offset: \"+00:00:40.000000\""
+        + " arguments: {duration: 0 biteSize: 1.0 } }] ) { returning { id } affected_rows }"
+        + " }",
+        request);
+  }
+}
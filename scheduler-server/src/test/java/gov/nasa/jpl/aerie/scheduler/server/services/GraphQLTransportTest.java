@@ -0,0 +1,213 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphQLTransportTest {
+  /** A local stub of the graphql endpoint, which echoes the query of each request and counts its traffic. */
+  private static final class StubServer {
+    final HttpServer server;
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    final AtomicLong bytesReceived = new AtomicLong();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    volatile boolean gzipResponses = false;
+    volatile int status = 200;
+    volatile long delayMillis = 0;
+    volatile String lastContentEncoding = null;
+
+    StubServer() throws IOException {
+      this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      this.server.createContext("/v1/graphql", this::handle);
+      this.server.setExecutor(this.executor);
+      this.server.start();
+    }
+
+    URI uri() {
+      return URI.create("http://localhost:" + this.server.getAddress().getPort() + "/v1/graphql");
+    }
+
+    void stop() {
+      this.server.stop(0);
+      this.executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+      final var current = this.inFlight.incrementAndGet();
+      this.maxInFlight.accumulateAndGet(current, Math::max);
+      try {
+        this.clientPorts.add(exchange.getRemoteAddress().getPort());
+        this.lastContentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+
+        final var rawBody = exchange.getRequestBody().readAllBytes();
+        this.bytesReceived.addAndGet(rawBody.length);
+        final var body = ("gzip".equals(this.lastContentEncoding))
+            ? new GZIPInputStream(new ByteArrayInputStream(rawBody)).readAllBytes()
+            : rawBody;
+        final var query = Json
+            .createReader(new ByteArrayInputStream(body))
+            .readObject()
+            .getString("query");
+
+        if (this.delayMillis > 0) Thread.sleep(this.delayMillis);
+
+        var response = Json.createObjectBuilder()
+            .add("data", Json.createObjectBuilder().add("query", query))
+            .build()
+            .toString()
+            .getBytes(StandardCharsets.UTF_8);
+        if (this.gzipResponses) {
+          exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+          response = gzip(response);
+        }
+        exchange.sendResponseHeaders(this.status, response.length);
+        try (final var out = exchange.getResponseBody()) {
+          out.write(response);
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        this.inFlight.decrementAndGet();
+      }
+    }
+  }
+
+  private StubServer stub;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.stub = new StubServer();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.stub.stop();
+  }
+
+  @Test
+  void testSequentialRequestsReuseOneConnection() throws Exception {
+    final var transport = new GraphQLTransport(this.stub.uri());
+
+    for (var i = 0; i < 20; i++) {
+      final var response = transport.post(query("query q" + i + " { plan { id } }"));
+      assertEquals("query q" + i + " { plan { id } }", queryOf(response));
+    }
+
+    assertEquals(1, this.stub.clientPorts.size());
+  }
+
+  @Test
+  void testLargeRequestsAreCompressed() throws Exception {
+    final var transport = new GraphQLTransport(this.stub.uri(), 1, 1024, GraphQLTransport.DEFAULT_TIMEOUT);
+    final var mutation = "mutation { insert_activity(objects: [%s]) { affected_rows } }"
+        .formatted("{ plan_id: 1, type: \"BiteBanana\", start_offset: \"01:00:00\" },".repeat(1000));
+    final var body = query(mutation);
+
+    assertEquals(mutation, queryOf(transport.post(body)));
+    assertEquals("gzip", this.stub.lastContentEncoding);
+    final var uncompressedSize = body.toString().getBytes(StandardCharsets.UTF_8).length;
+    assertTrue(
+        this.stub.bytesReceived.get() * 10 < uncompressedSize,
+        this.stub.bytesReceived.get() + " bytes received for a " + uncompressedSize + " byte body");
+  }
+
+  @Test
+  void testSmallRequestsAreNotCompressed() throws Exception {
+    final var transport = new GraphQLTransport(this.stub.uri(), 1, 1024, GraphQLTransport.DEFAULT_TIMEOUT);
+    final var body = query("query { plan { id } }");
+
+    assertEquals("query { plan { id } }", queryOf(transport.post(body)));
+    assertNull(this.stub.lastContentEncoding);
+    assertEquals(body.toString().getBytes(StandardCharsets.UTF_8).length, this.stub.bytesReceived.get());
+  }
+
+  @Test
+  void testParsesCompressedAndPlainResponses() throws Exception {
+    final var transport = new GraphQLTransport(this.stub.uri());
+
+    this.stub.gzipResponses = true;
+    assertEquals("query { a }", queryOf(transport.post(query("query { a }"))));
+    this.stub.gzipResponses = false;
+    assertEquals("query { b }", queryOf(transport.post(query("query { b }"))));
+  }
+
+  @Test
+  void testFailedRequestsGiveNoResponse() throws Exception {
+    final var transport = new GraphQLTransport(this.stub.uri());
+
+    this.stub.status = 500;
+    assertEquals(Optional.empty(), transport.post(query("query { a }")));
+    // The connection is still usable after a failed request.
+    this.stub.status = 200;
+    assertEquals("query { b }", queryOf(transport.post(query("query { b }"))));
+    assertEquals(1, this.stub.clientPorts.size());
+  }
+
+  @Test
+  void testBoundsRequestsInFlight() throws Exception {
+    final var transport = new GraphQLTransport(this.stub.uri(), 2, GraphQLTransport.NEVER_COMPRESS, GraphQLTransport.DEFAULT_TIMEOUT);
+    this.stub.delayMillis = 50;
+
+    final var callers = Executors.newFixedThreadPool(8);
+    try {
+      final var futures = new ArrayList<Future<Optional<JsonObject>>>();
+      for (var i = 0; i < 16; i++) {
+        final var gql = "query q" + i + " { plan { id } }";
+        futures.add(callers.submit(() -> transport.post(query(gql))));
+      }
+      for (var i = 0; i < futures.size(); i++) {
+        assertEquals("query q" + i + " { plan { id } }", queryOf(futures.get(i).get()));
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    assertEquals(2, this.stub.maxInFlight.get());
+    assertTrue(this.stub.clientPorts.size() <= 2, this.stub.clientPorts.size() + " connections opened");
+  }
+
+  private static JsonObject query(final String gql) {
+    return Json.createObjectBuilder().add("query", gql).build();
+  }
+
+  private static String queryOf(final Optional<JsonObject> response) {
+    return response.orElseThrow().getJsonObject("data").getString("query");
+  }
+
+  private static byte[] gzip(final byte[] bytes) throws IOException {
+    final var compressed = new ByteArrayOutputStream();
+    try (final var out = new GZIPOutputStream(compressed)) {
+      out.write(bytes);
+    }
+    return compressed.toByteArray();
+  }
+}
@@ -0,0 +1,101 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.scheduler.server.models.PlanId;
+import gov.nasa.jpl.aerie.scheduler.server.models.PlanMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MissionModelCacheTest {
+  @TempDir
+  Path dir;
+
+  private Path modelJar;
+  private Path goalsJar;
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Supplier<MissionModelCache.LoadedModel> loader = () -> {
+    this.loads.incrementAndGet();
+    // The cache never looks into the loaded objects, so no actual mission model is needed.
+    return new MissionModelCache.LoadedModel(null, List.of());
+  };
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.modelJar = Files.write(this.dir.resolve("banananation.jar"), new byte[] {1, 2, 3});
+    this.goalsJar = Files.write(this.dir.resolve("scheduler_rules.jar"), new byte[] {4, 5, 6});
+  }
+
+  private static PlanMetadata plan(final long modelId, final Map<String, SerializedValue> configuration) {
+    return new PlanMetadata(
+        new PlanId(1), 1, null, modelId, Path.of("banananation.jar"), "banananation", "0.0.1", configuration);
+  }
+
+  @Test
+  void testReusesLoadedModel() throws IOException {
+    final var cache = new MissionModelCache(2);
+
+    final var first = cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    final var second = cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+
+    assertSame(first, second);
+    assertEquals(1, this.loads.get());
+  }
+
+  @Test
+  void testReloadsWhenAJarChanges() throws IOException {
+    final var cache = new MissionModelCache(2);
+    final var first = cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+
+    Files.setLastModifiedTime(this.goalsJar, FileTime.fromMillis(0));
+    final var second = cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    Files.write(this.modelJar, new byte[] {1, 2, 3, 4});
+    final var third = cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+
+    assertNotSame(first, second);
+    assertNotSame(second, third);
+    assertEquals(3, this.loads.get());
+    // The stale entries are replaced rather than kept alongside the new ones.
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void testLoadsEachConfigurationSeparately() throws IOException {
+    final var cache = new MissionModelCache(2);
+
+    cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    cache.get(plan(1, Map.of("initialPlantCount", SerializedValue.of(7))), this.modelJar, this.goalsJar, this.loader);
+
+    assertEquals(2, this.loads.get());
+  }
+
+  @Test
+  void testEvictsLeastRecentlyUsedModel() throws IOException {
+    final var cache = new MissionModelCache(2);
+
+    cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    cache.get(plan(2, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    cache.get(plan(3, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    assertEquals(3, this.loads.get());
+    assertEquals(2, cache.size());
+
+    // Model 2 was the least recently used, so only it must be loaded again.
+    cache.get(plan(1, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    cache.get(plan(2, Map.of()), this.modelJar, this.goalsJar, this.loader);
+    assertEquals(4, this.loads.get());
+  }
+}
@@ -0,0 +1,67 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.scheduler.ActivityInstance;
+import gov.nasa.jpl.aerie.scheduler.ActivityType;
+import gov.nasa.jpl.aerie.scheduler.PlanInMemory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanSnapshotTest {
+  private static final ActivityType biteBanana = new ActivityType("BiteBanana");
+
+  private static ActivityInstance biteBanana(final long startSeconds, final double biteSize) {
+    final var act = new ActivityInstance(biteBanana, Duration.of(startSeconds, Duration.SECONDS), Duration.ZERO);
+    act.addArgument("biteSize", SerializedValue.of(biteSize));
+    return act;
+  }
+
+  @Test
+  void testUnchangedPlanHasNoChanges() {
+    final var kept = biteBanana(0, 1.0);
+    final var plan = new PlanInMemory();
+    plan.add(kept);
+    final var snapshot = PlanSnapshot.of(Map.of(kept, new ActivityInstanceId(10)));
+
+    final var diff = snapshot.diff(plan);
+
+    assertTrue(diff.isEmpty());
+    assertEquals(Map.of(kept, new ActivityInstanceId(10)), diff.unchanged());
+  }
+
+  @Test
+  void testFindsInsertedUpdatedAndDeletedActivities() {
+    final var kept = biteBanana(0, 1.0);
+    final var moved = biteBanana(10, 1.0);
+    final var resized = biteBanana(20, 1.0);
+    final var removed = biteBanana(30, 1.0);
+    final var plan = new PlanInMemory();
+    plan.add(List.of(kept, moved, resized, removed));
+    final var snapshot = PlanSnapshot.of(Map.of(
+        kept, new ActivityInstanceId(10),
+        moved, new ActivityInstanceId(11),
+        resized, new ActivityInstanceId(12),
+        removed, new ActivityInstanceId(13)));
+
+    // The scheduler modifies the loaded activity instances in place, after the snapshot is taken.
+    moved.setStartTime(Duration.of(15, Duration.SECONDS));
+    resized.addArgument("biteSize", SerializedValue.of(2.0));
+    plan.remove(removed);
+    final var added = biteBanana(40, 1.0);
+    plan.add(added);
+
+    final var diff = snapshot.diff(plan);
+
+    assertEquals(List.of(added), diff.inserted());
+    assertEquals(Map.of(new ActivityInstanceId(11), moved, new ActivityInstanceId(12), resized), diff.updated());
+    assertEquals(List.of(new ActivityInstanceId(13)), diff.deleted());
+    assertEquals(Map.of(kept, new ActivityInstanceId(10)), diff.unchanged());
+  }
+}
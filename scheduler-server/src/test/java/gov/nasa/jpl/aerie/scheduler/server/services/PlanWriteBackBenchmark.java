@@ -0,0 +1,114 @@
+package gov.nasa.jpl.aerie.scheduler.server.services;
+
+import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.scheduler.ActivityInstance;
+import gov.nasa.jpl.aerie.scheduler.ActivityType;
+import gov.nasa.jpl.aerie.scheduler.Plan;
+import gov.nasa.jpl.aerie.scheduler.PlanInMemory;
+import gov.nasa.jpl.aerie.scheduler.server.models.PlanId;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PlanWriteBackBenchmark {
+  private static final ActivityType biteBanana = new ActivityType("BiteBanana");
+  private static final PlanId planId = new PlanId(1);
+  // No request is sent: the benchmark only assembles the requests the service would send.
+  private static final GraphQLMerlinService service = new GraphQLMerlinService(URI.create("http://localhost:8080/v1/graphql"));
+
+  /**
+   * This benchmark writes back a 10k-activity plan after a scheduling run changed 1% of its activities
+   * (40 moved, 30 with new arguments, 15 deleted and 15 inserted),
+   * first by recreating all the activities of the plan, then by applying only the changes.
+   * Each printed line _left _right _bytes shows the mean time _right (in ns) it took to assemble the write-back requests
+   * with method _left, and the number of bytes _bytes that those requests send to aerie.
+   *
+   * Only the assembly of the requests is timed, as aerie is not available to a benchmark,
+   * but aerie's own work on the requests scales in the same way as their size.
+   */
+  public static void main(String[] args) {
+    final var loaded = makePlan(10_000);
+    final var snapshot = PlanSnapshot.of(loaded);
+    final var plan = reschedule(loaded);
+
+    // Warm up.
+    for (var i = 0; i < 5; i++) {
+      recreateAll(plan);
+      applyChanges(snapshot, plan);
+    }
+
+    var recreateSum = 0.;
+    var deltaSum = 0.;
+    for (var i = 0; i < 20; i++) {
+      var start = System.nanoTime();
+      recreateAll(plan);
+      recreateSum += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      applyChanges(snapshot, plan);
+      deltaSum += System.nanoTime() - start;
+    }
+
+    System.out.println("recreate " + (recreateSum / 20) + " " + recreateAll(plan));
+    System.out.println("delta " + (deltaSum / 20) + " " + applyChanges(snapshot, plan));
+  }
+
+  private static Map<ActivityInstance, ActivityInstanceId> makePlan(final int nbActivities) {
+    final var loaded = new HashMap<ActivityInstance, ActivityInstanceId>(nbActivities);
+    for (var i = 0; i < nbActivities; i++) {
+      loaded.put(makeActivity(i), new ActivityInstanceId(i + 1));
+    }
+    return loaded;
+  }
+
+  private static ActivityInstance makeActivity(final int i) {
+    final var act = new ActivityInstance(biteBanana, Duration.of(i * 60L, Duration.SECONDS), Duration.ZERO);
+    act.addArgument("biteSize", SerializedValue.of(i % 7 + 0.5));
+    return act;
+  }
+
+  private static Plan reschedule(final Map<ActivityInstance, ActivityInstanceId> loaded) {
+    final var activities = new ArrayList<>(loaded.keySet());
+    final var plan = new PlanInMemory();
+    for (var i = 0; i < activities.size(); i++) {
+      final var act = activities.get(i);
+      switch (i % 1000) {
+        case 0, 1, 2, 3 -> act.setStartTime(act.getStartTime().plus(Duration.of(30, Duration.SECONDS)));
+        case 4, 5, 6 -> act.addArgument("biteSize", SerializedValue.of(9.5));
+      }
+      // The scheduler modifies the loaded instances in place, and leaves out those it removes from the plan.
+      if (i % 2000 < 7 || i % 2000 > 9) plan.add(act);
+    }
+    for (var i = 0; i < activities.size() * 15 / 10_000; i++) {
+      plan.add(makeActivity(activities.size() + i));
+    }
+    return plan;
+  }
+
+  private static int recreateAll(final Plan plan) {
+    final var clear = "mutation clearPlanActivities {"
+                      + "  delete_activity(where: { plan_id: { _eq: %d } }) {"
+                      + "    affected_rows"
+                      + "  }"
+                      + "}";
+    final var create = service.getCreateAllPlanActivitiesRequest(planId, plan.getActivities().stream().toList());
+    return bytes(clear.formatted(planId.id())) + bytes(create);
+  }
+
+  private static int applyChanges(final PlanSnapshot snapshot, final Plan plan) {
+    final var diff = snapshot.diff(plan);
+    final var update = service.getUpdatePlanActivitiesRequest(
+        planId, diff.inserted(), List.copyOf(diff.updated().entrySet()), diff.deleted());
+    return bytes(update);
+  }
+
+  private static int bytes(final String request) {
+    return request.getBytes(StandardCharsets.UTF_8).length;
+  }
+}
@@ -185,9 +185,12 @@ public class ActivityCreationTemplate extends ActivityExpression {
   ActivityInstance createActivity(String name, Windows windows, boolean instantiateVariableArguments) {
     //REVIEW: how to properly export any flexibility to instance?
 
+    //the constraints of the template are the same for all windows, so they are propagated once and each window only
+    //adds its envelope to a copy of the resulting network
+    final var templateNetwork = createTaskNetwork(name);
     for (var window : windows) {
       //success = STNProcess(window);
-      var act = createInstanceForReal(name, window, instantiateVariableArguments);
+      var act = createInstanceForReal(name, templateNetwork, window, instantiateVariableArguments);
       if (act!=null) {
         return act;
       }
@@ -196,16 +199,13 @@ public class ActivityCreationTemplate extends ActivityExpression {
 
   }
 
-  private ActivityInstance createInstanceForReal(String name, Window window, boolean instantiateVariableArguments) {
-    final ActivityInstance act = new ActivityInstance(type);
-    act.setArguments(arguments);
-    act.setVariableArguments(variableArguments);
+  /**
+   * builds the task network constraining an activity created by this template, regardless of any window
+   */
+  private TaskNetworkAdapter createTaskNetwork(String name) {
     TaskNetwork tw = new TaskNetwork();
     TaskNetworkAdapter tnw = new TaskNetworkAdapter(tw);
     tnw.addAct(name);
-    if(window != null){
-      tnw.addEnveloppe(name,"window", window.start, window.end);
-    }
     if (startRange != null){
       tnw.addStartInterval(name, startRange.start, startRange.end);
     }
@@ -215,6 +215,23 @@ public class ActivityCreationTemplate extends ActivityExpression {
     if(durationRange!=null){
       tnw.addDurationInterval(name, durationRange.start, durationRange.end);
     }
+    return tnw;
+  }
+
+  private ActivityInstance createInstanceForReal(
+      String name,
+      TaskNetworkAdapter templateNetwork,
+      Window window,
+      boolean instantiateVariableArguments)
+  {
+    final ActivityInstance act = new ActivityInstance(type);
+    act.setArguments(arguments);
+    act.setVariableArguments(variableArguments);
+    TaskNetworkAdapter tnw = templateNetwork;
+    if(window != null){
+      tnw = templateNetwork.copy();
+      tnw.addEnveloppe(name,"window", window.start, window.end);
+    }
     var success = tnw.solveConstraints();
     if(!success){
       System.out.println("Inconsistent temporal constraints, returning empty activity");
@@ -261,7 +278,7 @@ public class ActivityCreationTemplate extends ActivityExpression {
    */
   public @NotNull
   ActivityInstance createActivity(String name) {
-    return createInstanceForReal(name,null, true);
+    return createInstanceForReal(name, createTaskNetwork(name), null, true);
   }
 
 
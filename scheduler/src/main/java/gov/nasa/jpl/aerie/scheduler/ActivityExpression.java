@@ -403,6 +403,15 @@ public class ActivityExpression {
   public @Nullable
   Window getStartRange() { return startRange; }
 
+  /**
+   * fetch the range of allowed ending times matched by this template
+   *
+   * @return the allowed range of end times for matching activities, or null
+   *     if no limit on end time
+   */
+  public @Nullable
+  Window getEndRange() { return endRange; }
+
   /**
    * fetch the range of allowed simulation durations matched by this template
    *
@@ -421,6 +430,18 @@ public class ActivityExpression {
   public @Nullable
   ActivityType getType() { return type; }
 
+  /**
+   * determines if the type, start range and end range of this template must all
+   * be met by matching activities
+   *
+   * plans use this to narrow down the activities to evaluate against the template
+   * using their indices, before calling matches on each of them
+   *
+   * @return true iff every activity matched by this template has its type and
+   *     lies within its start and end ranges
+   */
+  public boolean isConjunctive() { return true; }
+
   /**
    * creates a template matching a given activity type (or its subtypes)
    *
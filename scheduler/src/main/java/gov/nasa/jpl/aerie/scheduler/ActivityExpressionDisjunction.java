@@ -18,6 +18,16 @@ public class ActivityExpressionDisjunction extends ActivityExpression {
     return (AbstractBuilder<B, AT>) new OrBuilder();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * the criteria of a disjunction are those of its operands, so none of them is necessary
+   */
+  @Override
+  public boolean isConjunctive() {
+    return false;
+  }
+
   /**
    * @param act IN the activity to evaluate against the template criteria.
    *     not null.
@@ -2,6 +2,9 @@ package gov.nasa.jpl.aerie.scheduler;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * describes the desired existence of an activity matching a given template/preset
  */
@@ -63,6 +66,19 @@ public class ActivityTemplateGoal extends ActivityExistentialGoal {
     return desiredActTemplate;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * the goal only queries activities matching its template, which must be of a single known type
+   */
+  @Override
+  public Optional<Set<String>> getActivityTypeNames() {
+    if (desiredActTemplate == null || !desiredActTemplate.isConjunctive() || desiredActTemplate.getType() == null) {
+      return Optional.empty();
+    }
+    return Optional.of(Set.of(desiredActTemplate.getType().getName()));
+  }
+
   /**
    * returns the set of constraints required by the created activity type
    *
@@ -115,7 +115,13 @@ public class AerieController {
     return Time.fromString(aerieTime.substring(0, aerieTime.length() - 3), planningHorizon);
   }
 
-  private Long getActivityInstanceId(ActivityInstance act) {
+  /**
+   * fetches the aerie database id of an activity instance fetched or sent by this controller
+   *
+   * @param act IN the activity instance
+   * @return the aerie database id of the activity instance, or null if this controller never fetched or sent it
+   */
+  public Long getActivityInstanceId(ActivityInstance act) {
     return activityInstancesIds.get(act);
   }
 
@@ -7,10 +7,13 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -454,6 +457,23 @@ public class CardinalityGoal extends ActivityTemplateGoal {
   }
 
 
+  /**
+   * {@inheritDoc}
+   *
+   * the goal also queries the activities matched by its period expression
+   */
+  @Override
+  public Optional<Set<String>> getActivityTypeNames() {
+    final var names = super.getActivityTypeNames();
+    final var exprNames = expr.getActivityTypeNames();
+    if (names.isEmpty() || exprNames.isEmpty()) {
+      return Optional.empty();
+    }
+    final var allNames = new HashSet<>(names.get());
+    allNames.addAll(exprNames.get());
+    return Optional.of(allNames);
+  }
+
   /**
    * /**
    * ctor creates an empty goal without details
@@ -4,6 +4,9 @@ import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * describes the desired coexistence of an activity with another
@@ -236,6 +239,23 @@ public class CoexistenceGoal extends ActivityTemplateGoal {
     return conflicts;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * the goal also queries the activities matched by its anchor expression
+   */
+  @Override
+  public Optional<Set<String>> getActivityTypeNames() {
+    final var names = super.getActivityTypeNames();
+    final var exprNames = expr.getActivityTypeNames();
+    if (names.isEmpty() || exprNames.isEmpty()) {
+      return Optional.empty();
+    }
+    final var allNames = new HashSet<>(names.get());
+    allNames.addAll(exprNames.get());
+    return Optional.of(allNames);
+  }
+
   /**
    * ctor creates an empty goal without details
    *
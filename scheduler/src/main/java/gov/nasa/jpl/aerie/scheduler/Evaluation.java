@@ -40,6 +40,11 @@ public class Evaluation {
      */
     protected Integer nbConflictsDetected = null;
 
+    /**
+     * false if the solver ran out of budget before it finished processing the goal
+     */
+    protected boolean complete = true;
+
     /**
      * sets the numeric score for the evaluation of the goal
      *
@@ -69,6 +74,22 @@ public class Evaluation {
       return Optional.of(nbConflictsDetected);
     }
 
+    /**
+     * sets whether the solver finished processing the goal
+     *
+     * the score of a goal left incomplete only reflects the work done before the solver ran out of budget
+     *
+     * @param complete IN false if the goal is yet to be (fully) processed
+     */
+    public void setComplete(boolean complete) { this.complete = complete; }
+
+    /**
+     * fetches whether the solver finished processing the goal
+     *
+     * @return true if the solver finished processing the goal, false if it ran out of budget before
+     */
+    public boolean isComplete() { return complete; }
+
     /**
      * flags given activity as contributing to the goal's (dis)satisfaction
      *
@@ -143,6 +164,15 @@ public class Evaluation {
    */
   public java.util.Map<Goal,GoalEvaluation> getGoalEvaluations() { return Collections.unmodifiableMap(goalEvals); }
 
+  /**
+   * determines whether the solver ran out of budget before processing every goal evaluated
+   *
+   * @return true if the evaluation of some goal is incomplete
+   */
+  public boolean isPartial() {
+    return goalEvals.values().stream().anyMatch(goalEval -> !goalEval.isComplete());
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) return true;
@@ -5,6 +5,8 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * describes some criteria that is desired in the solution plans
@@ -234,6 +236,18 @@ public class Goal {
     return stateConstraints;
   }
 
+  /**
+   * fetches the names of the activity types whose instances this goal queries in the plan
+   *
+   * the conflicts of the goal must only depend on the plan through activities of these types (and
+   * through the simulated states), so that goals with disjoint types can be evaluated independently
+   *
+   * @return the names of the activity types queried by this goal, or empty if they cannot be determined
+   */
+  public Optional<Set<String>> getActivityTypeNames() {
+    return Optional.empty();
+  }
+
   /**
    * ctor creates a new empty goal without identification
    *
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -26,6 +27,8 @@ public class IncrementalSimulationDriver {
   private LiveCells cells;
   private TemporalEventSource timeline = new TemporalEventSource();
   private final MissionModel<?> missionModel;
+  //simulation never proceeds past this time
+  private final Duration simulationEnd;
 
   //mapping each activity name to its task id (in String form) in the simulation engine
   private final Map<ActivityInstanceId, TaskId> plannedDirectiveToTask;
@@ -40,10 +43,18 @@ public class IncrementalSimulationDriver {
   //List of activities simulated since the last reset
   private final List<SimulatedActivity> activitiesInserted = new ArrayList<>();
 
+  //number of times the simulation was started over to insert activities before the current simulation time
+  private int restartCount = 0;
+
   record SimulatedActivity(Duration start, SerializedActivity activity, ActivityInstanceId id) {}
 
   public IncrementalSimulationDriver(MissionModel<?> missionModel){
+    this(missionModel, Duration.MAX_VALUE);
+  }
+
+  public IncrementalSimulationDriver(MissionModel<?> missionModel, Duration simulationEnd){
     this.missionModel = missionModel;
+    this.simulationEnd = simulationEnd;
     plannedDirectiveToTask = new HashMap<>();
     taskToPlannedDirective = new HashMap<>();
     initSimulation();
@@ -74,30 +85,87 @@ public class IncrementalSimulationDriver {
     {
       final var daemon = engine.initiateTaskFromSource(missionModel::getDaemon);
       final var commit = engine.performJobs(Set.of(SimulationEngine.JobId.forTask(daemon)),
-                                            cells, curTime, Duration.MAX_VALUE, missionModel);
+                                            cells, curTime, simulationEnd, missionModel);
       timeline.add(commit);
     }
   }
 
   public void simulateActivity(SerializedActivity activity, Duration startTime, ActivityInstanceId activityId){
-    final var activityToSimulate = new SimulatedActivity(startTime, activity, activityId);
-    if(startTime.noLongerThan(curTime)){
+    simulateActivities(Map.of(activityId, Pair.of(startTime, activity)));
+  }
+
+  /**
+   * Simulates a set of activities in addition to those already simulated.
+   * If all of them start after the current simulation time, the current simulation is extended.
+   * Otherwise, the simulation is restarted once with all activities simulated so far, as the state of the engine
+   * cannot be checkpointed. The current simulation time is the end of the last activity to terminate, or the time
+   * given to {@link #simulateUntil(Duration)} if later.
+   * In both cases, simulation proceeds until all activities have terminated.
+   *
+   * @param schedule the activities to simulate, with their start times
+   */
+  public void simulateActivities(Map<ActivityInstanceId, Pair<Duration, SerializedActivity>> schedule){
+    final var activitiesToSimulate = schedule
+        .entrySet()
+        .stream()
+        .map(e -> new SimulatedActivity(e.getValue().getLeft(), e.getValue().getRight(), e.getKey()))
+        .toList();
+    if(activitiesToSimulate.stream().anyMatch(act -> act.start.noLongerThan(curTime))){
+      if(curTime.longerThan(Duration.ZERO) || !activitiesInserted.isEmpty()) restartCount++;
       final var toBeInserted = new ArrayList<>(activitiesInserted);
-      toBeInserted.add(activityToSimulate);
+      toBeInserted.addAll(activitiesToSimulate);
       initSimulation();
-      final var schedule = toBeInserted
+      final var fullSchedule = toBeInserted
           .stream()
           .collect(Collectors.toMap( e -> e.id, e->Pair.of(e.start, e.activity)));
-      simulateSchedule(schedule);
+      simulateSchedule(fullSchedule);
       activitiesInserted.addAll(toBeInserted);
     } else {
-      final var schedule = Map.of(activityToSimulate.id,
-                                  Pair.of(activityToSimulate.start, activityToSimulate.activity));
       simulateSchedule(schedule);
-      activitiesInserted.add(activityToSimulate);
+      activitiesInserted.addAll(activitiesToSimulate);
+    }
+  }
+
+  /**
+   * Advances the simulation up to a given time, even if all activities have already terminated.
+   * Activities subsequently inserted before this time will trigger a restart of the simulation.
+   *
+   * @param endTime the time up to which to simulate, capped by the end of simulation
+   */
+  public void simulateUntil(Duration endTime){
+    final var until = Duration.min(endTime, simulationEnd);
+    if(!until.longerThan(curTime)) return;
+
+    while (true) {
+      final var batch = engine.extractNextJobs(until);
+      final var delta = batch.offsetFromStart().minus(curTime);
+      curTime = batch.offsetFromStart();
+      timeline.add(delta);
+
+      if (batch.jobs().isEmpty() && batch.offsetFromStart().isEqualTo(until)) {
+        break;
+      }
+
+      final var commit = engine.performJobs(batch.jobs(), cells, curTime, simulationEnd, missionModel);
+      timeline.add(commit);
     }
+    lastSimResults = null;
+  }
+
+
+  /**
+   * Returns the current simulation time, before which inserting an activity restarts the simulation
+   */
+  public Duration getCurrentTime(){
+    return curTime;
   }
 
+  /**
+   * Returns the number of times the simulation was started over to insert activities before the current simulation time
+   */
+  public int getRestartCount(){
+    return restartCount;
+  }
 
   /**
    * Get the simulation results from the Duration.ZERO to the current simulation time point
@@ -145,7 +213,7 @@ public class IncrementalSimulationDriver {
     }
 
     while (true) {
-      final var batch = engine.extractNextJobs(Duration.MAX_VALUE);
+      final var batch = engine.extractNextJobs(simulationEnd);
       // Increment real time, if necessary.
       final var delta = batch.offsetFromStart().minus(curTime);
       curTime = batch.offsetFromStart();
@@ -153,8 +221,13 @@ public class IncrementalSimulationDriver {
       // TODO: Advance a dense time counter so that future tasks are strictly ordered relative to these,
       //   even if they occur at the same real time.
 
+      // Activities still running at the end of simulation will never terminate
+      if (batch.jobs().isEmpty() && batch.offsetFromStart().isEqualTo(simulationEnd)) {
+        break;
+      }
+
       // Run the jobs in this batch.
-      final var commit = engine.performJobs(batch.jobs(), cells, curTime, Duration.MAX_VALUE, missionModel);
+      final var commit = engine.performJobs(batch.jobs(), cells, curTime, simulationEnd, missionModel);
       timeline.add(commit);
 
       // Exit IFF all tasks are complete
@@ -175,4 +248,15 @@ public class IncrementalSimulationDriver {
     return engine.getTaskDuration(plannedDirectiveToTask.get(activityInstanceId));
   }
 
+  /**
+   * Returns the duration of a simulated activity if it has terminated
+   * @param activityInstanceId the activity id
+   * @return its duration if the activity has been simulated and has finished simulating, empty otherwise
+   */
+  public Optional<Duration> getActivityDurationIfFinished(ActivityInstanceId activityInstanceId){
+    final var taskId = plannedDirectiveToTask.get(activityInstanceId);
+    if (taskId == null || !engine.isTaskComplete(taskId)) return Optional.empty();
+    return Optional.of(engine.getTaskDuration(taskId));
+  }
+
 }
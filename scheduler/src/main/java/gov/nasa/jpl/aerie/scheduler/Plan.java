@@ -76,6 +76,17 @@ public interface Plan {
   java.util.Collection<ActivityInstance> find(
       ActivityExpression template);
 
+  /**
+   * lazily finds activity instances in the plan that meet the given criteria
+   *
+   * the plan must not be modified while the returned stream is consumed
+   *
+   * @param template IN the matching criteria to use on activity instances
+   * @return stream of instances that match the given template, ordered by start time
+   */
+  java.util.stream.Stream<ActivityInstance> findStream(
+      ActivityExpression template);
+
   /**
    * adds a new evaluation to the plan
    *
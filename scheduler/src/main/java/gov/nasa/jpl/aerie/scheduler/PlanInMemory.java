@@ -1,8 +1,11 @@
 package gov.nasa.jpl.aerie.scheduler;
 
+import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
 import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * an in-memory solution to a planning problem including a schedule of activities
@@ -154,17 +157,75 @@ public class PlanInMemory implements Plan {
   public Collection<ActivityInstance> find(
       ActivityExpression template)
   {
-    //REVIEW: could do something clever with returning streams to prevent wasted work
-    //REVIEW: something more clever for time-based queries using time index
-    java.util.LinkedList<ActivityInstance> matched = new java.util.LinkedList<>();
-    for (final var actsAtTime : actsByTime.values()) {
-      for (final var act : actsAtTime) {
-        if (template.matches(act)) {
-          matched.add(act);
+    return findStream(template).collect(Collectors.toCollection(java.util.ArrayList::new));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Stream<ActivityInstance> findStream(
+      ActivityExpression template)
+  {
+    return candidates(template).filter(template::matches);
+  }
+
+  /**
+   * narrows down the activities that may match the given template using the
+   * plan indices, in order of start time
+   *
+   * when the template bounds start or end times, only the activities starting
+   * in the corresponding range of the time index are considered; otherwise, if
+   * it requires a type, only the activities of that type are considered
+   *
+   * @param template IN the matching criteria to narrow down activities for
+   * @return stream of activities that may match the template, containing at
+   *     least all of those that do
+   */
+  private Stream<ActivityInstance> candidates(ActivityExpression template) {
+    if (!template.isConjunctive()) {
+      return flatten(actsByTime);
+    }
+
+    final var startRange = template.getStartRange();
+    final var endRange = template.getEndRange();
+    if (startRange != null || endRange != null) {
+      if ((startRange != null && startRange.isEmpty()) || (endRange != null && endRange.isEmpty())) {
+        return Stream.empty();
+      }
+      //activities never end before they start, so the end range also bounds their start from above
+      final var lower = startRange;
+      var upper = startRange;
+      if (endRange != null && (upper == null || Window.compareEndToEnd(endRange, upper) < 0)) {
+        upper = endRange;
+      }
+
+      java.util.NavigableMap<Duration, java.util.List<ActivityInstance>> range = actsByTime;
+      if (lower != null && upper != null) {
+        if (Window.between(lower.start, lower.startInclusivity, upper.end, upper.endInclusivity).isEmpty()) {
+          return Stream.empty();
         }
+        range = range.subMap(lower.start, lower.includesStart(), upper.end, upper.includesEnd());
+      } else if (upper != null) {
+        range = range.headMap(upper.end, upper.includesEnd());
       }
+      return flatten(range);
     }
-    return matched;
+
+    final var type = template.getType();
+    if (type != null) {
+      final var acts = actsByType.get(type.getName());
+      if (acts == null) {
+        return Stream.empty();
+      }
+      return acts.stream().sorted(java.util.Comparator.comparing(ActivityInstance::getStartTime));
+    }
+
+    return flatten(actsByTime);
+  }
+
+  private static Stream<ActivityInstance> flatten(java.util.Map<Duration, java.util.List<ActivityInstance>> acts) {
+    return acts.values().stream().flatMap(Collection::stream);
   }
 
   /**
@@ -2,13 +2,20 @@ package gov.nasa.jpl.aerie.scheduler;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -21,6 +28,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class PrioritySolver implements Solver {
 
+  /**
+   * the number of threads of the pool each solver owns to detect the conflicts of independent goals concurrently,
+   * unless it is given another pool
+   */
+  public static final int DEFAULT_CONFLICT_DETECTION_PARALLELISM =
+      Math.min(4, Runtime.getRuntime().availableProcessors());
+
   /**
    * create a new greedy solver for the specified input planning problem
    *
@@ -39,6 +53,10 @@ public class PrioritySolver implements Solver {
     this.config = config;
     this.problem = problem;
     this.simulationFacade = problem.getSimulationFacade();
+    this.metrics = new SchedulerMetrics();
+    if (this.simulationFacade != null) {
+      this.simulationFacade.setMetrics(this.metrics);
+    }
   }
 
   //TODO: should probably be part of sched configuration; maybe even per rule
@@ -46,24 +64,117 @@ public class PrioritySolver implements Solver {
     this.checkSimBeforeInsertingActivities = true;
   }
 
+  /**
+   * checks the activities created for the conflicts of a goal by simulating them in batches
+   *
+   * all the activities created in one pass over the conflicts of a goal are inserted in the plan together
+   * and simulated once, instead of once per activity. the batch is only bisected (and re-simulated) if some
+   * of its activities fail their checks. only has an effect if activities are checked by simulation before
+   * being inserted in the plan
+   *
+   * off by default: unlike the activities checked one at a time, the activities kept from a batch are also checked
+   * against the state constraints of their goal once the whole batch is simulated, so the two modes may not
+   * produce the same plan
+   */
+  public void checkSimOfActivitiesInBatches(){
+    this.checkSimInBatches = true;
+  }
+
+  /**
+   * sets the pool used to detect the initial conflicts of independent goals concurrently
+   *
+   * by default, each solution request that detects conflicts concurrently creates a pool of its own with
+   * {@link #DEFAULT_CONFLICT_DETECTION_PARALLELISM} threads, and shuts it down before returning, even if it fails
+   *
+   * @param pool IN the pool to run conflict detection on, or null to detect
+   *     the conflicts of each goal sequentially when it is processed. the pool is not shut down by the solver
+   */
+  public void setConflictDetectionPool(ForkJoinPool pool){
+    this.conflictDetectionPool = pool;
+    this.concurrentConflictDetection = (pool != null);
+  }
+
+  /**
+   * limits the wall time spent by each solution request
+   *
+   * once the budget is exhausted, the request stops at the end of the current goal (or at the end of the current
+   * pass over the conflicts of a partially satisfiable goal, including a subgoal of a composite goal) and returns the
+   * plan built so far. the goals left to process are marked incomplete in the evaluation, and are processed by the
+   * next solution request of this solver; an interrupted composite goal resumes from its interrupted subgoal. each
+   * request processes at least one goal, so that repeated requests always progress
+   *
+   * the state of an interrupted goal is only kept by this solver: a new solver for the same problem starts over from
+   * the goals of the problem, albeit with the activities of the partial plan if it is given as its initial plan
+   *
+   * @param timeBudget IN the maximum wall time of a solution request, or null for no limit
+   */
+  public void setTimeBudget(java.time.Duration timeBudget){
+    if (timeBudget != null && (timeBudget.isNegative() || timeBudget.isZero())) {
+      throw new IllegalArgumentException("time budget must be positive, got " + timeBudget);
+    }
+    this.timeBudget = timeBudget;
+  }
+
+  /**
+   * limits the number of goals processed by each solution request
+   *
+   * once the budget is exhausted, the request returns the plan built so far. the goals left to process are marked
+   * incomplete in the evaluation, and are processed by the next solution request
+   *
+   * @param goalBudget IN the maximum number of (top-level) goals processed by a solution request, or null for no limit
+   */
+  public void setGoalBudget(Integer goalBudget){
+    if (goalBudget != null && goalBudget <= 0) {
+      throw new IllegalArgumentException("goal budget must be positive, got " + goalBudget);
+    }
+    this.goalBudget = goalBudget;
+  }
+
+  /**
+   * determines whether every goal has been processed
+   *
+   * @return true if the solver processed every goal, false if it is yet to be asked for a solution or if some goals
+   *     are left to process after a solution request ran out of budget
+   */
+  public boolean isComplete() {
+    return remainingGoals != null && remainingGoals.isEmpty();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SchedulerMetrics getMetrics() {
+    return metrics;
+  }
+
   /**
    * {@inheritDoc}
    *
    * calculates the single-shot greedy solution to the input problem
    *
-   * this solver is expended after one solution request; all subsequent
-   * requests will return no solution
+   * if the solver has a budget, a request may return the best plan found before running out of budget, in which case
+   * the next request resumes from that plan with the goals left to process. once every goal has been processed, this
+   * solver is expended; all subsequent requests will return no solution
    */
   public Optional<Plan> getNextSolution() {
     if (plan == null) {
       //on first call to solver; setup fresh solution workspace for problem
       initializePlan();
+      remainingGoals = getGoalQueue();
 
       //attempt to satisfy the goals in the problem
       solve();
 
       return Optional.of(plan);
 
+    } else if (remainingGoals != null && !remainingGoals.isEmpty()) {
+
+      //previous call ran out of budget, so carry on with the goals left
+      solve();
+
+      return Optional.of(plan);
+
     } else { //plan!=null
 
       //subsequent call after initial solution, so return null
@@ -86,12 +197,7 @@ public class PrioritySolver implements Solver {
     boolean allGood = true;
 
     for(var act: acts){
-      //if some parameters are left uninstantiated, this is the last moment to do it
-      act.instantiateVariableArguments();
-      var duration = act.getDuration();
-      if(duration != null && duration.longerThan(this.config.getHorizon().getEndAerie())){
-        System.out.println("Activity " + act
-                           + " is planned to finish after the end of the planning horizon, not simulating. Extend the planning horizon.");
+      if(!prepareForInsertion(act)){
         allGood = false;
         break;
       }
@@ -121,6 +227,94 @@ public class PrioritySolver implements Solver {
     return allGood;
   }
 
+  /**
+   * Instantiates the remaining parameters of an activity instance about to be inserted in the plan, and checks that it
+   * finishes within the planning horizon.
+   * @param act the activity to insert in the plan
+   * @return false if the activity is planned to finish after the end of the planning horizon, true otherwise
+   */
+  private boolean prepareForInsertion(ActivityInstance act){
+    //if some parameters are left uninstantiated, this is the last moment to do it
+    act.instantiateVariableArguments();
+    var duration = act.getDuration();
+    if(duration != null && duration.longerThan(this.config.getHorizon().getEndAerie())){
+      System.out.println("Activity " + act
+                         + " is planned to finish after the end of the planning horizon, not simulating. Extend the planning horizon.");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks a batch of candidate activities already inserted in the plan by simulating them all at once. Each candidate
+   * passes if its activities have a simulated duration equal to their expected duration, and still satisfy its state
+   * constraints at their start time (the constraints were only evaluated against the simulation preceding the batch).
+   * If some candidate fails, the batch is removed from the plan and bisected: each half is inserted again and checked on
+   * its own, after the candidates kept from the first half. Candidates failing on their own are left out of the plan.
+   * As the candidates kept from the first half were checked before the second half was inserted, the candidates kept
+   * from both halves are then checked again together; if some of them fail, those of the second half are left out of
+   * the plan, and their conflicts are left for the next pass over the conflicts of the goal.
+   * @param batch the candidates to check, already inserted in the plan
+   * @return the candidates which passed their checks and have been kept in the plan, in batch order
+   */
+  private List<Candidate> checkBatch(List<Candidate> batch){
+    simulationFacade.simulatePlan(plan);
+    if(batch.stream().allMatch(this::passesSimulationChecks)){
+      for(var candidate: batch){
+        for(var act: candidate.acts()){
+          if(act.getDuration() == null){
+            act.setDuration(simulationFacade.getActivityDuration(act));
+          }
+        }
+      }
+      return batch;
+    }
+
+    batch.forEach(candidate -> plan.remove(candidate.acts()));
+    if(batch.size() == 1){
+      System.out.println("When simulated, activities " + batch.get(0).acts()
+                         + " do not have their expected duration or violate their state constraints");
+      return List.of();
+    }
+
+    final var middle = batch.size() / 2;
+    final var firstHalf = batch.subList(0, middle);
+    final var secondHalf = batch.subList(middle, batch.size());
+    firstHalf.forEach(candidate -> candidate.acts().forEach(plan::add));
+    final var kept = new ArrayList<>(checkBatch(firstHalf));
+    secondHalf.forEach(candidate -> candidate.acts().forEach(plan::add));
+    final var keptFromSecondHalf = checkBatch(secondHalf);
+
+    if(!kept.isEmpty() && !keptFromSecondHalf.isEmpty()){
+      final var merged = new ArrayList<>(kept);
+      merged.addAll(keptFromSecondHalf);
+      simulationFacade.simulatePlan(plan);
+      if(!merged.stream().allMatch(this::passesSimulationChecks)){
+        keptFromSecondHalf.forEach(candidate -> plan.remove(candidate.acts()));
+        System.out.println("When simulated together with earlier activities, activities "
+                           + keptFromSecondHalf.stream().map(Candidate::acts).collect(Collectors.toList())
+                           + " break the expected durations or state constraints of some of them");
+        return kept;
+      }
+    }
+    kept.addAll(keptFromSecondHalf);
+    return kept;
+  }
+
+  private boolean passesSimulationChecks(Candidate candidate){
+    for(var act: candidate.acts()){
+      var simDur = simulationFacade.getActivityDuration(act);
+      if(simDur == null || (act.getDuration() != null && simDur.compareTo(act.getDuration()) != 0)){
+        return false;
+      }
+      var start = new Windows(Window.at(act.getStartTime()));
+      if(!narrowByStateConstraints(start, candidate.stateConstraints()).includes(start)){
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * creates internal storage space to build up partial solutions in
    **/
@@ -161,21 +355,66 @@ public class PrioritySolver implements Solver {
    * the configuration, problem, and plan members must exist and be valid
    *
    * the output plan member is updated directly with the devised solution
+   *
+   * processes the goals left in the queue until it is empty or the budget of the request is exhausted, in which case
+   * the goals left are marked incomplete in the evaluation
    */
   private void solve() {
-    //construct a priority sorted goal container
-    final var goalQ = getGoalQueue();
+    final var goalQ = remainingGoals;
     assert goalQ != null;
 
-    //process each goal independently in that order
-    while (!goalQ.isEmpty()) {
-      var goal = goalQ.remove();
-      assert goal != null;
+    deadline = (timeBudget == null) ? null : System.nanoTime() + timeBudget.toNanos();
+    outOfTime = false;
+    int goalsProcessed = 0;
 
-      //update the output solution plan directly to satisfy goal
-      satisfyGoal(goal);
+    try {
+      //process each goal independently in that order
+      while (!goalQ.isEmpty()) {
+        //always process at least one goal, so that resuming makes progress
+        if (goalsProcessed > 0 && ((goalBudget != null && goalsProcessed >= goalBudget) || isOutOfTime())) {
+          break;
+        }
+
+        //detect the conflicts of the upcoming independent goals all at once
+        if (concurrentConflictDetection && !prefetchedConflicts.containsKey(goalQ.getFirst())) {
+          prefetchConflicts(getIndependentGoals(goalQ));
+        }
+
+        var goal = goalQ.remove();
+        assert goal != null;
+
+        //update the output solution plan directly to satisfy goal
+        satisfyGoal(goal);
+        goalsProcessed++;
+
+        if (outOfTime) {
+          //the goal was interrupted, so it is resumed first by the next request
+          goalQ.addFirst(goal);
+          break;
+        }
+        evaluation.forGoal(goal).setComplete(true);
+      }
+    } finally {
+      //the pool created for this request is not kept across requests, so that no thread outlives an abandoned solver
+      if (ownedConflictDetectionPool != null) {
+        ownedConflictDetectionPool.shutdown();
+        ownedConflictDetectionPool = null;
+      }
     }
 
+    for (final var goal : goalQ) {
+      evaluation.forGoal(goal).setComplete(false);
+    }
+    deadline = null;
+  }
+
+  /**
+   * determines whether the current solution request has exhausted its time budget
+   *
+   * @return true if the request has a time budget and has exhausted it
+   */
+  private boolean isOutOfTime() {
+    return deadline != null && System.nanoTime() - deadline >= 0;
   }
 
   /**
@@ -208,14 +447,136 @@ public class PrioritySolver implements Solver {
     return goalQ;
   }
 
+  /**
+   * collects the longest run of goals at the head of the queue that are independent of each other
+   *
+   * goals are independent if they query disjoint activity types in the plan: satisfying one of them only
+   * inserts or associates activities of its own types, so it cannot change the conflicts of the others.
+   * the states queried by goals are not considered: they are read from the simulation results, which satisfying
+   * a goal only changes by re-simulating the plan, in which case the conflicts detected beforehand are discarded
+   * when the goal is processed
+   *
+   * composite goals are never included, since they satisfy and roll back their subgoals in turn
+   *
+   * @param goalQ IN the queue of goals left to process, in order
+   * @return the independent goals at the head of the queue, in queue order
+   */
+  private List<Goal> getIndependentGoals(LinkedList<Goal> goalQ) {
+    final var goals = new ArrayList<Goal>();
+    final var typeNames = new HashSet<String>();
+    for (final var goal : goalQ) {
+      if (goal instanceof CompositeAndGoal || goal instanceof OptionGoal) break;
+      final var goalTypeNames = goal.getActivityTypeNames();
+      if (goalTypeNames.isEmpty() || !Collections.disjoint(typeNames, goalTypeNames.get())) break;
+      typeNames.addAll(goalTypeNames.get());
+      goals.add(goal);
+    }
+    return goals;
+  }
+
+  /**
+   * detects the current conflicts of the given goals concurrently on the conflict detection pool
+   *
+   * the plan and simulation results are only read while the conflicts are detected. the conflicts of
+   * each goal are recorded along with the simulation they were detected against, and are used in place
+   * of a fresh detection when that goal is processed, if the plan has not been re-simulated since.
+   *
+   * @param goals IN the independent goals to detect conflicts for
+   */
+  private void prefetchConflicts(List<Goal> goals) {
+    //nothing to gain from a single goal; its conflicts are detected when it is processed
+    if (goals.size() < 2) return;
+
+    final var prefetched = detectConflictsConcurrently(goals);
+    for (int i = 0; i < goals.size(); i++) {
+      prefetchedConflicts.put(goals.get(i), prefetched.get(i));
+    }
+  }
+
+  /**
+   * detects the current conflicts of the given goals concurrently on the conflict detection pool
+   *
+   * the shared state the goals query lazily (goal evaluations, resource feeders) is brought up to date beforehand, so
+   * that the concurrent queries only read it, except for the caches of the resource feeders which are thread-safe.
+   * the simulation is only advanced up to the end of the latest temporal context of the goals, which bounds the
+   * times their conflicts are detected over, so that activities inserted later may still extend it
+   *
+   * @param goals IN the goals to detect conflicts for
+   * @return the conflicts of each goal, or the failure to detect them, in goal order
+   */
+  List<PrefetchedConflicts> detectConflictsConcurrently(List<Goal> goals) {
+    var queriedUntil = Duration.ZERO;
+    for (final var goal : goals) {
+      evaluation.forGoal(goal);
+      queriedUntil = Duration.max(queriedUntil, goal.getTemporalContext().end);
+    }
+    if (simulationFacade != null) {
+      simulationFacade.updateResourcesUntil(queriedUntil);
+    }
+    final var pool = (conflictDetectionPool != null) ? conflictDetectionPool : getOwnedConflictDetectionPool();
+
+    //failures are only reported when the failing goal is processed, as they would be without prefetching
+    final var simulationCount = getSimulationCount();
+    final var start = System.nanoTime();
+    final var prefetched = pool.submit(() -> IntStream
+        .range(0, goals.size())
+        .parallel()
+        .mapToObj(i -> {
+          try {
+            return new PrefetchedConflicts(goals.get(i).getConflicts(plan), null, simulationCount);
+          } catch (RuntimeException e) {
+            return new PrefetchedConflicts(null, e, simulationCount);
+          }
+        })
+        .collect(Collectors.toList())
+    ).join();
+    metrics.recordConflictDetection(goals.size(), start, System.nanoTime());
+
+    //the results are collected in goal order, so they do not depend on the scheduling of the tasks
+    return prefetched;
+  }
+
+  /**
+   * gets the pool this solver creates to detect conflicts concurrently, creating it on first use
+   *
+   * a pool of its own, so that conflict detection neither competes with nor waits on unrelated tasks of the common
+   * pool. it is shut down at the end of the solution request that created it
+   */
+  private ForkJoinPool getOwnedConflictDetectionPool() {
+    if (ownedConflictDetectionPool == null) {
+      ownedConflictDetectionPool = new ForkJoinPool(DEFAULT_CONFLICT_DETECTION_PARALLELISM);
+    }
+    return ownedConflictDetectionPool;
+  }
+
+  private long getSimulationCount() {
+    return (simulationFacade == null) ? 0 : simulationFacade.getSimulationCount();
+  }
+
   private void satisfyGoal(Goal goal) {
+    final var start = System.nanoTime();
+    final var simulationsBefore = getSimulationCount();
+
     if (goal instanceof CompositeAndGoal) {
       satisfyCompositeGoal((CompositeAndGoal) goal);
     } else if (goal instanceof OptionGoal) {
+      final var wasInterruptible = interruptible;
+      interruptible = false;
       satisfyOptionGoal((OptionGoal) goal);
+      interruptible = wasInterruptible;
     } else {
       satisfyGoalGeneral(goal);
     }
+
+    //read without creating an evaluation for goals which did not get one
+    final var goalEval = evaluation.getGoalEvaluations().get(goal);
+    metrics.recordGoal(
+        goal,
+        start,
+        System.nanoTime(),
+        goalEval == null ? 0 : goalEval.getNbConflictsDetected().orElse(0),
+        goalEval == null ? 0 : goalEval.getInsertedActivities().size(),
+        getSimulationCount() - simulationsBefore);
   }
 
 
@@ -301,8 +662,20 @@ private void satisfyOptionGoal(OptionGoal goal) {
 
     boolean failed = false;
 
-    for (var subgoal : goal.getSubgoals()) {
+    //resume from the subgoal interrupted by the previous request, if any
+    final var subgoals = goal.getSubgoals();
+    final var first = interruptedComposites.getOrDefault(goal, 0);
+    interruptedComposites.remove(goal);
+    for (int i = first; i < subgoals.size(); i++) {
+      final var subgoal = subgoals.get(i);
       satisfyGoal(subgoal);
+      if (outOfTime) {
+        //the subgoal keeps its activities (and its first conflict count) until it is resumed by the next request
+        evaluation.forGoal(subgoal).setComplete(false);
+        interruptedComposites.put(goal, i);
+        return;
+      }
+      evaluation.forGoal(subgoal).setComplete(true);
       if (evaluation.forGoal(subgoal).getScore() != 0 && !subgoal.isPartiallySatisfiable()) {
         failed = true;
         break;
@@ -355,12 +728,27 @@ private void satisfyOptionGoal(OptionGoal goal) {
     //continue creating activities as long as goal wants more and we can do so
     var missingConflicts = getMissingConflicts(goal);
     //setting the number of conflicts detected at first evaluation, will be used at backtracking
-    evaluation.forGoal(goal).setNbConflictsDetected(missingConflicts.size());
+    //(a goal resumed after running out of time keeps the count of its first evaluation)
+    final var goalEval = evaluation.forGoal(goal);
+    if (goalEval.isComplete() || goalEval.getNbConflictsDetected().isEmpty()) {
+      goalEval.setNbConflictsDetected(missingConflicts.size());
+    }
     assert missingConflicts != null;
     boolean madeProgress = true;
+    boolean firstPass = true;
     while (!missingConflicts.isEmpty() && madeProgress) {
+      //the activities of a partially satisfiable goal are kept, so it can be interrupted between passes and resumed
+      //later; other goals would be rolled back and lose their progress
+      if (!firstPass && interruptible && goal.isPartiallySatisfiable() && isOutOfTime()) {
+        outOfTime = true;
+        break;
+      }
+      firstPass = false;
       madeProgress = false;
 
+      //activities created in this pass, to be checked by simulation all at once if simulating in batches
+      final var batch = new ArrayList<Candidate>();
+
       //create new activity instances for each missing conflict
       for (final var missing : missingConflicts) {
         assert missing != null;
@@ -370,7 +758,12 @@ private void satisfyOptionGoal(OptionGoal goal) {
           final var acts = getBestNewActivities((MissingActivityConflict) missing);
           assert acts != null;
           //add the activities to the output plan
-          if (!acts.isEmpty()) {
+          if (!acts.isEmpty() && checkSimBeforeInsertingActivities && checkSimInBatches) {
+            if (acts.stream().allMatch(this::prepareForInsertion)) {
+              acts.forEach(plan::add);
+              batch.add(new Candidate(acts, getStateConstraints((MissingActivityConflict) missing)));
+            }
+          } else if (!acts.isEmpty()) {
             var actsCanBeInserted = checkAndInsertActs(acts);
             if(actsCanBeInserted){
               madeProgress = true;
@@ -405,6 +798,13 @@ private void satisfyOptionGoal(OptionGoal goal) {
         }
       }//for(missing)
 
+      if (!batch.isEmpty()) {
+        for (final var candidate : checkBatch(batch)) {
+          madeProgress = true;
+          evaluation.forGoal(goal).associate(candidate.acts(), true);
+        }
+      }
+
       if (madeProgress) {
         missingConflicts = getMissingConflicts(goal);
       }
@@ -432,9 +832,16 @@ private void satisfyOptionGoal(OptionGoal goal) {
     assert goal != null;
     assert plan != null;
 
-    //find all the reasons this goal is crying
+    //find all the reasons this goal is crying, unless they have just been found concurrently with other goals
     //REVIEW: maybe should have way to request only certain kinds of conflicts
-    final var rawConflicts = goal.getConflicts(plan);
+    final var prefetched = prefetchedConflicts.remove(goal);
+    final Collection<Conflict> rawConflicts;
+    if (prefetched != null && prefetched.simulationCount() == getSimulationCount()) {
+      if (prefetched.failure() != null) throw prefetched.failure();
+      rawConflicts = prefetched.conflicts();
+    } else {
+      rawConflicts = goal.getConflicts(plan);
+    }
     assert rawConflicts != null;
 
     //filter out any issues that this simple algorithm can't deal with (ie
@@ -502,29 +909,7 @@ private void satisfyOptionGoal(OptionGoal goal) {
 
     //prune based on constraints on goal and activity type (mutex, state,
     //event, etc)
-    //TODO: move this into polymorphic method. don't want to be demuxing types
-    Collection<StateConstraintExpression> stateConstraints = new LinkedList<>();
-
-    //add all goal constraints
-    StateConstraintExpression goalConstraints = goal.getStateConstraints();
-    ActivityType actType;
-
-    if (goalConstraints != null) {
-      stateConstraints.add(goalConstraints);
-    }
-    if (missing instanceof final MissingActivityInstanceConflict missingInstance) {
-      final var act = missingInstance.getInstance();
-      actType = act.getType();
-      StateConstraintExpression c = act.getType().getStateConstraints();
-      if (c != null) stateConstraints.add(c);
-    } else if (goal instanceof ActivityTemplateGoal) {
-      StateConstraintExpression c = ((ActivityTemplateGoal) goal).getActivityStateConstraints();
-      if (c != null) stateConstraints.add(c);
-    } else {
-      //TODO: placeholder for now to avoid mutex fall through
-      throw new IllegalArgumentException("request to create activities for conflict of unrecognized type");
-    }
-    possibleWindows = narrowByStateConstraints(possibleWindows, stateConstraints);
+    possibleWindows = narrowByStateConstraints(possibleWindows, getStateConstraints(missing));
 
     possibleWindows = narrowGlobalConstraints(plan, missing, possibleWindows, this.problem.getGlobalConstraints());
 
@@ -569,6 +954,43 @@ private void satisfyOptionGoal(OptionGoal goal) {
     return newActs;
   }
 
+  /**
+   * collects the state constraints that activities created to satisfy a conflict must meet
+   *
+   * these are the constraints of the goal and of the created activity type
+   *
+   * @param missing IN the conflict describing the missing activity
+   * @return the state constraints applying to the activities created for the
+   *     conflict, possibly empty
+   */
+  private Collection<StateConstraintExpression>
+  getStateConstraints(MissingActivityConflict missing)
+  {
+    final var goal = missing.getGoal();
+
+    //TODO: move this into polymorphic method. don't want to be demuxing types
+    Collection<StateConstraintExpression> stateConstraints = new LinkedList<>();
+
+    //add all goal constraints
+    StateConstraintExpression goalConstraints = goal.getStateConstraints();
+
+    if (goalConstraints != null) {
+      stateConstraints.add(goalConstraints);
+    }
+    if (missing instanceof final MissingActivityInstanceConflict missingInstance) {
+      final var act = missingInstance.getInstance();
+      StateConstraintExpression c = act.getType().getStateConstraints();
+      if (c != null) stateConstraints.add(c);
+    } else if (goal instanceof ActivityTemplateGoal) {
+      StateConstraintExpression c = ((ActivityTemplateGoal) goal).getActivityStateConstraints();
+      if (c != null) stateConstraints.add(c);
+    } else {
+      //TODO: placeholder for now to avoid mutex fall through
+      throw new IllegalArgumentException("request to create activities for conflict of unrecognized type");
+    }
+    return stateConstraints;
+  }
+
   /**
    * contracts the given windows according to the provided constraints
    *
@@ -638,6 +1060,75 @@ private void satisfyOptionGoal(OptionGoal goal) {
 
   boolean checkSimBeforeInsertingActivities;
 
+  boolean checkSimInBatches;
+
+  /**
+   * the maximum wall time of a solution request, or null for no limit
+   */
+  private java.time.Duration timeBudget;
+
+  /**
+   * the maximum number of top-level goals processed by a solution request, or null for no limit
+   */
+  private Integer goalBudget;
+
+  /**
+   * the goals left to process, in processing order
+   *
+   * this object is null until first call to getNextSolution()
+   */
+  private LinkedList<Goal> remainingGoals;
+
+  /**
+   * the System.nanoTime() at which the current solution request exhausts its time budget, or null if it has none
+   */
+  private Long deadline;
+
+  /**
+   * true if the goal being processed was interrupted because the time budget was exhausted
+   */
+  private boolean outOfTime;
+
+  /**
+   * false while satisfying the subgoals of an option goal, which are tried and rolled back in turn, so they cannot be
+   * interrupted and resumed
+   */
+  private boolean interruptible = true;
+
+  /**
+   * the index of the subgoal to resume each interrupted composite goal from
+   */
+  private final Map<CompositeAndGoal, Integer> interruptedComposites = new HashMap<>();
+
+  /**
+   * activities inserted together in the plan for a conflict, along with the state constraints they must meet
+   */
+  private record Candidate(Collection<ActivityInstance> acts, Collection<StateConstraintExpression> stateConstraints) {}
+
+  /**
+   * true if the conflicts of independent goals are detected concurrently, false to detect them sequentially
+   */
+  private boolean concurrentConflictDetection = true;
+
+  /**
+   * the pool given to detect the conflicts of independent goals concurrently, or null to use a pool of this solver
+   */
+  private ForkJoinPool conflictDetectionPool;
+
+  /**
+   * the pool created by the current solution request to detect conflicts concurrently, if any, which the request
+   * shuts down before returning
+   */
+  private ForkJoinPool ownedConflictDetectionPool;
+
+  /**
+   * conflicts detected ahead of time for goals not processed yet, along with the simulation count they were
+   * detected at
+   */
+  private final Map<Goal, PrefetchedConflicts> prefetchedConflicts = new HashMap<>();
+
+  record PrefetchedConflicts(Collection<Conflict> conflicts, RuntimeException failure, long simulationCount) {}
+
   /**
    * the controlling configuration for the solver
    *
@@ -668,4 +1159,9 @@ private void satisfyOptionGoal(OptionGoal goal) {
 
   private final SimulationFacade simulationFacade;
 
+  /**
+   * metrics of the solving process, shared with the simulation facade
+   */
+  private final SchedulerMetrics metrics;
+
 }
@@ -1,11 +1,12 @@
 package gov.nasa.jpl.aerie.scheduler;
 
 import org.apache.commons.lang3.tuple.Pair;
-import org.jgrapht.Graph;
-import org.jgrapht.alg.shortestpath.BellmanFordShortestPath;
-import org.jgrapht.alg.shortestpath.NegativeCycleDetectedException;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.graph.builder.GraphTypeBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Representation of a simple temporal network (Dechter, Meiri, and Pearl, 1991).
@@ -14,30 +15,79 @@ import org.jgrapht.graph.builder.GraphTypeBuilder;
  * - Each variable has a domain
  * - We want to propagate the constraints to find a solution to the problem or ensure there is not one
  *
- * To solve the constraints, we use bellman-ford algorithm.
+ * Timepoints are indexed by integers, and the distance graph is kept as a dense matrix along with the matrix of
+ * all-pairs shortest distances. Tightening a constraint updates the distances incrementally in O(n^2) (incremental
+ * Floyd-Warshall), while loosening one requires a full O(n^3) recomputation at the next update.
  * if a negative cycle is detected during propagation, the network is infeasible
  * otherwise, the new variable domains are updated and can be queried. Domains here represent the flexibility associated
  * with each timepoint.
  *
+ * Networks are meant to be small (a few activities), and can be copied cheaply to try alternative constraints on top
+ * of a common set of constraints.
  */
 public class STN {
 
-  public void print(){
-    for(var edge :graph.edgeSet()){
-      System.out.println(edge.toString() + " "+graph.getEdgeWeight(edge));
-    }  }
-  private final Graph<String, DefaultWeightedEdge> graph;
+  /** weight of the absence of edge between two timepoints */
+  private static final double NO_EDGE = Double.POSITIVE_INFINITY;
+
+  /** index of each timepoint, by name */
+  private final Map<String, Integer> timepoints;
+
+  /** name of each timepoint, by index */
+  private final List<String> names;
+
+  /** allocated number of rows (and columns) of the matrices */
+  private int capacity;
+
+  /** edge weights of the distance graph, row-major: edges[i * capacity + j] is the weight of i --> j */
+  private double[] edges;
+
+  /** shortest distances between timepoints, with the same layout as edges */
+  private double[] dist;
+
+  /** false if a negative cycle has been found in the distance graph */
+  private boolean consistent = true;
 
-  private BellmanFordShortestPath<String, DefaultWeightedEdge> latestComputation;
+  /** true if an edge has been loosened, so that the distances must be recomputed from scratch */
+  private boolean needsRecompute = false;
+
+  /** true if the last update found the network consistent, so that results can be queried */
+  private boolean solved = false;
 
   public STN() {
-    graph = GraphTypeBuilder
-        .<String, DefaultWeightedEdge>directed()
-        .allowingMultipleEdges(false)
-        .allowingSelfLoops(false)
-        .edgeClass(DefaultWeightedEdge.class)
-        .weighted(true)
-        .buildGraph();
+    timepoints = new HashMap<>();
+    names = new ArrayList<>();
+    capacity = 8;
+    edges = new double[capacity * capacity];
+    dist = new double[capacity * capacity];
+    Arrays.fill(edges, NO_EDGE);
+    Arrays.fill(dist, NO_EDGE);
+  }
+
+  /**
+   * copies a network, so that constraints can be added to the copy without affecting the original
+   *
+   * @param other IN the network to copy
+   */
+  public STN(STN other) {
+    timepoints = new HashMap<>(other.timepoints);
+    names = new ArrayList<>(other.names);
+    capacity = other.capacity;
+    edges = other.edges.clone();
+    dist = other.dist.clone();
+    consistent = other.consistent;
+    needsRecompute = other.needsRecompute;
+    solved = other.solved;
+  }
+
+  public void print(){
+    for (int i = 0; i < names.size(); i++) {
+      for (int j = 0; j < names.size(); j++) {
+        if (edge(i, j) != NO_EDGE) {
+          System.out.println("(" + names.get(i) + " : " + names.get(j) + ") " + edge(i, j));
+        }
+      }
+    }
   }
 
   /**
@@ -51,8 +101,11 @@ public class STN {
    we can remove the first one and keep only the second one
    */
   public void addBeforeCst(String tp1, String tp2){
-    var e1 = getOrCreateEdge(tp2, tp1);
-    graph.setEdgeWeight(e1, -0);
+    addBeforeCst(getTimepoint(tp1), getTimepoint(tp2));
+  }
+
+  public void addBeforeCst(int tp1, int tp2){
+    setEdge(tp2, tp1, -0.);
   }
 
   /*
@@ -62,70 +115,198 @@ public class STN {
   i --- b ---> j
   i <--- -a --- j */
   public void addDurCst(String tp1, String tp2, double min, double max) {
-    var e1 = getOrCreateEdge(tp2, tp1);
-    var e2 = getOrCreateEdge(tp1, tp2);
-
-    graph.setEdgeWeight(e1, -min);
-    graph.setEdgeWeight(e2, max);
+    addDurCst(getTimepoint(tp1), getTimepoint(tp2), min, max);
+  }
 
+  public void addDurCst(int tp1, int tp2, double min, double max) {
+    setEdge(tp2, tp1, -min);
+    setEdge(tp1, tp2, max);
   }
 
   public Pair<Double, Double> getDurCst(String a, String b){
+    return getDurCst(getTimepoint(a), getTimepoint(b));
+  }
+
+  public Pair<Double, Double> getDurCst(int a, int b){
     failIfUpdateNotLaunched();
-    failIfTimepointAbsent(a);
-    failIfTimepointAbsent(b);
     return Pair.of(-getDist(b, a), getDist(a, b));
   }
 
-  public void addTimepoint(String tp){
-    graph.addVertex(tp);
+  /**
+   * adds a timepoint to the network, unconstrained with respect to the others
+   *
+   * @param tp IN the name of the timepoint
+   * @return the index of the timepoint, which is the existing one if a timepoint of the same name was already added
+   */
+  public int addTimepoint(String tp){
+    final var existing = timepoints.get(tp);
+    if (existing != null) {
+      return existing;
+    }
+    final int index = names.size();
+    if (index == capacity) {
+      grow();
+    }
+    dist[index * capacity + index] = 0;
+    timepoints.put(tp, index);
+    names.add(tp);
+    return index;
+  }
+
+  /**
+   * fetches the index of a timepoint
+   *
+   * @param tp IN the name of the timepoint
+   * @return the index of the timepoint
+   */
+  public int getTimepoint(String tp){
+    final var index = timepoints.get(tp);
+    if (index == null) {
+      throw new IllegalArgumentException("Timepoint is not present in temporal network, insert it before use");
+    }
+    return index;
   }
 
+  /**
+   * propagates the constraints of the network
+   *
+   * @return true if the network is consistent, false otherwise (or if it has no timepoints)
+   */
   public boolean update() {
-    boolean ret = false;
-    BellmanFordShortestPath<String, DefaultWeightedEdge> algo = null;
-    if(graph.vertexSet().isEmpty()){
-      return ret;
+    if (names.isEmpty()) {
+      solved = false;
+      return false;
     }
-    try {
-      algo = new BellmanFordShortestPath<>(graph);
-      var a = algo.getPaths(graph.vertexSet().iterator().next());
-      ret = true;
-    } catch (NegativeCycleDetectedException e) {
-      System.out.println("Negative cycle ");
-      e.printStackTrace();
+    if (needsRecompute) {
+      recompute();
     }
-    latestComputation = algo;
-    return ret;
+    solved = consistent;
+    return solved;
   }
 
   /**
    * gets the weight on link a-->b
    */
   public double getDist(String a, String b){
+    return getDist(getTimepoint(a), getTimepoint(b));
+  }
+
+  public double getDist(int a, int b){
     failIfUpdateNotLaunched();
-    return latestComputation.getPathWeight(a, b);
+    if (needsRecompute) {
+      recompute();
+    }
+    return dist[a * capacity + b];
   }
 
-  private DefaultWeightedEdge getOrCreateEdge(String a, String b) {
-    failIfTimepointAbsent(a);
-    failIfTimepointAbsent(b);
+  private double edge(int from, int to) {
+    return edges[from * capacity + to];
+  }
 
-    var edge = graph.getEdge(a, b);
-    if (edge == null) {
-      edge = graph.addEdge(a, b);
+  /**
+   * sets the weight of edge from --> to, replacing any previous weight
+   *
+   * tightened edges are propagated right away, while loosened edges defer to a full recomputation
+   */
+  private void setEdge(int from, int to, double weight) {
+    if (from == to) {
+      throw new IllegalArgumentException("Temporal constraints between a timepoint and itself are not supported");
+    }
+    final var previous = edge(from, to);
+    edges[from * capacity + to] = weight;
+    if (weight < previous) {
+      tighten(from, to, weight);
+    } else if (weight > previous) {
+      needsRecompute = true;
     }
-    return edge;
   }
 
-  private void failIfTimepointAbsent(String tp){
-    if(!graph.vertexSet().contains(tp)){
-      throw new IllegalArgumentException("Timepoint is not present in temporal network, insert it before use");
+  /**
+   * updates the shortest distances for a new edge from --> to shorter than the previous one
+   *
+   * any shortened path goes through the new edge, so that d(i, j) = min(d(i, j), d(i, from) + weight + d(to, j))
+   */
+  private void tighten(int from, int to, double weight) {
+    //a pending recomputation accounts for the edge, and tightening cannot make an inconsistent network consistent
+    if (needsRecompute || !consistent) {
+      return;
+    }
+    if (dist[to * capacity + from] + weight < 0) {
+      consistent = false;
+      return;
+    }
+    if (dist[from * capacity + to] <= weight) {
+      return;
+    }
+    final int n = names.size();
+    for (int i = 0; i < n; i++) {
+      final var toFrom = dist[i * capacity + from];
+      if (toFrom == NO_EDGE) {
+        continue;
+      }
+      final var viaEdge = toFrom + weight;
+      for (int j = 0; j < n; j++) {
+        final var candidate = viaEdge + dist[to * capacity + j];
+        if (candidate < dist[i * capacity + j]) {
+          dist[i * capacity + j] = candidate;
+        }
+      }
+    }
+  }
+
+  /**
+   * recomputes all shortest distances from the edges (Floyd-Warshall)
+   */
+  private void recompute() {
+    final int n = names.size();
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(edges, i * capacity, dist, i * capacity, n);
+      dist[i * capacity + i] = 0;
+    }
+    for (int k = 0; k < n; k++) {
+      for (int i = 0; i < n; i++) {
+        final var toK = dist[i * capacity + k];
+        if (toK == NO_EDGE) {
+          continue;
+        }
+        for (int j = 0; j < n; j++) {
+          final var candidate = toK + dist[k * capacity + j];
+          if (candidate < dist[i * capacity + j]) {
+            dist[i * capacity + j] = candidate;
+          }
+        }
+      }
+    }
+    consistent = true;
+    for (int i = 0; i < n; i++) {
+      if (dist[i * capacity + i] < 0) {
+        consistent = false;
+        break;
+      }
+    }
+    needsRecompute = false;
+  }
+
+  /**
+   * doubles the capacity of the matrices
+   */
+  private void grow() {
+    final int newCapacity = capacity * 2;
+    final var newEdges = new double[newCapacity * newCapacity];
+    final var newDist = new double[newCapacity * newCapacity];
+    Arrays.fill(newEdges, NO_EDGE);
+    Arrays.fill(newDist, NO_EDGE);
+    for (int i = 0; i < capacity; i++) {
+      System.arraycopy(edges, i * capacity, newEdges, i * newCapacity, capacity);
+      System.arraycopy(dist, i * capacity, newDist, i * newCapacity, capacity);
     }
+    capacity = newCapacity;
+    edges = newEdges;
+    dist = newDist;
   }
 
   private void failIfUpdateNotLaunched(){
-    if(latestComputation == null){
+    if(!solved){
       throw new IllegalArgumentException("Must call update() before getting results");
     }
   }
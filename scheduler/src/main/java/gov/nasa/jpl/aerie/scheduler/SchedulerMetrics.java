@@ -0,0 +1,198 @@
+package gov.nasa.jpl.aerie.scheduler;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * metrics collected while solving a scheduling problem, to find which goals, simulations and state queries consume
+ * scheduling time
+ *
+ * covers the wall time, conflicts, created activities and simulations of each goal, the cumulative time spent
+ * simulating, and the number of queries to each simulated resource. each timed measure is also recorded as an event
+ * of a trace, which can be written as json lines for offline analysis
+ *
+ * metrics may be recorded concurrently, eg resource queries during concurrent conflict detection
+ */
+public class SchedulerMetrics {
+
+  /**
+   * metrics of a goal, accumulated over every time it was processed (eg as the subgoal of several goals)
+   *
+   * @param goalName the name of the goal
+   * @param wallTimeNanos the wall time spent satisfying the goal, including any subgoals, in nanoseconds
+   * @param conflicts the number of conflicts detected at the first evaluation of the goal
+   * @param activitiesCreated the number of activities created and kept for the goal
+   * @param simulations the number of simulations triggered while satisfying the goal
+   */
+  public record GoalMetrics(String goalName, long wallTimeNanos, long conflicts, long activitiesCreated, long simulations)
+  {
+    /**
+     * combines the metrics of successive processings of the same goal, eg when it is resumed after running out of time
+     *
+     * the conflicts are those detected at the first evaluation of the goal, and the activities created are the
+     * activities kept after the last processing, so neither is summed
+     */
+    private GoalMetrics plus(GoalMetrics other) {
+      return new GoalMetrics(
+          goalName,
+          wallTimeNanos + other.wallTimeNanos,
+          conflicts,
+          other.activitiesCreated,
+          simulations + other.simulations);
+    }
+  }
+
+  /**
+   * a timed event of the trace
+   *
+   * @param kind the kind of event: "goal", "simulation" or "conflictDetection"
+   * @param name the name of the subject of the event (eg the goal name), or null if there is none
+   * @param startNanos the start of the event, in nanoseconds since the metrics were created
+   * @param durationNanos the duration of the event, in nanoseconds
+   * @param counts the quantities measured during the event, by name
+   */
+  public record TraceEvent(String kind, String name, long startNanos, long durationNanos, Map<String, Long> counts) {}
+
+  /** time origin of the trace, as given by System.nanoTime() */
+  private final long origin = System.nanoTime();
+
+  private final Map<Goal, GoalMetrics> goalMetrics = new LinkedHashMap<>();
+
+  private final List<TraceEvent> trace = new ArrayList<>();
+
+  private long simulationCount = 0;
+
+  private long simulationNanos = 0;
+
+  private final Map<String, LongAdder> resourceQueries = new ConcurrentHashMap<>();
+
+  /**
+   * records the processing of a goal
+   *
+   * @param goal IN the goal processed
+   * @param startNanos IN the start of the processing, as given by System.nanoTime()
+   * @param endNanos IN the end of the processing, as given by System.nanoTime()
+   * @param conflicts IN the number of conflicts detected at the first evaluation of the goal
+   * @param activitiesCreated IN the number of activities created and kept for the goal
+   * @param simulations IN the number of simulations triggered while processing the goal
+   */
+  public synchronized void recordGoal(
+      Goal goal,
+      long startNanos,
+      long endNanos,
+      long conflicts,
+      long activitiesCreated,
+      long simulations)
+  {
+    final var metrics = new GoalMetrics(goal.getName(), endNanos - startNanos, conflicts, activitiesCreated, simulations);
+    goalMetrics.merge(goal, metrics, GoalMetrics::plus);
+    trace.add(new TraceEvent("goal", goal.getName(), startNanos - origin, endNanos - startNanos, Map.of(
+        "conflicts", conflicts,
+        "activitiesCreated", activitiesCreated,
+        "simulations", simulations)));
+  }
+
+  /**
+   * records a simulation
+   *
+   * @param startNanos IN the start of the simulation, as given by System.nanoTime()
+   * @param endNanos IN the end of the simulation, as given by System.nanoTime()
+   */
+  public synchronized void recordSimulation(long startNanos, long endNanos) {
+    simulationCount++;
+    simulationNanos += endNanos - startNanos;
+    trace.add(new TraceEvent("simulation", null, startNanos - origin, endNanos - startNanos, Map.of()));
+  }
+
+  /**
+   * records the concurrent detection of the conflicts of several goals
+   *
+   * @param goals IN the number of goals whose conflicts were detected
+   * @param startNanos IN the start of the detection, as given by System.nanoTime()
+   * @param endNanos IN the end of the detection, as given by System.nanoTime()
+   */
+  public synchronized void recordConflictDetection(long goals, long startNanos, long endNanos) {
+    trace.add(new TraceEvent("conflictDetection", null, startNanos - origin, endNanos - startNanos, Map.of(
+        "goals", goals)));
+  }
+
+  /**
+   * records a query to a simulated resource
+   *
+   * @param resourceName IN the name of the resource queried
+   */
+  public void recordResourceQuery(String resourceName) {
+    resourceQueries.computeIfAbsent(resourceName, k -> new LongAdder()).increment();
+  }
+
+  /**
+   * @return the metrics of each goal processed so far, in the order they were first processed
+   */
+  public synchronized Map<Goal, GoalMetrics> getGoalMetrics() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(goalMetrics));
+  }
+
+  /**
+   * @return the number of simulations run so far
+   */
+  public synchronized long getSimulationCount() {
+    return simulationCount;
+  }
+
+  /**
+   * @return the cumulative wall time spent simulating so far, in nanoseconds
+   */
+  public synchronized long getSimulationNanos() {
+    return simulationNanos;
+  }
+
+  /**
+   * @return the number of queries to each simulated resource so far, by resource name
+   */
+  public Map<String, Long> getResourceQueryCounts() {
+    final var counts = new TreeMap<String, Long>();
+    resourceQueries.forEach((name, count) -> counts.put(name, count.sum()));
+    return Collections.unmodifiableMap(counts);
+  }
+
+  /**
+   * @return the events recorded so far, in the order they ended
+   */
+  public synchronized List<TraceEvent> getTrace() {
+    return List.copyOf(trace);
+  }
+
+  /**
+   * writes the trace as json lines: one json object per event, followed by one holding the resource query counts
+   *
+   * @param out IN/OUT the destination of the trace
+   * @throws IOException if the trace cannot be written
+   */
+  public void writeTrace(Appendable out) throws IOException {
+    for (final var event : getTrace()) {
+      final var json = new JSONObject()
+          .put("kind", event.kind())
+          .put("startNanos", event.startNanos())
+          .put("durationNanos", event.durationNanos());
+      if (event.name() != null) {
+        json.put("name", event.name());
+      }
+      event.counts().forEach(json::put);
+      out.append(json.toString()).append('\n');
+    }
+    out.append(new JSONObject()
+                   .put("kind", "resourceQueries")
+                   .put("counts", new JSONObject(getResourceQueryCounts()))
+                   .toString()).append('\n');
+  }
+
+}
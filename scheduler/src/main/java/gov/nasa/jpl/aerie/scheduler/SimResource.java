@@ -1,9 +1,7 @@
 package gov.nasa.jpl.aerie.scheduler;
 
-import com.google.common.collect.Lists;
-import gov.nasa.jpl.aerie.constraints.model.DiscreteProfilePiece;
-import gov.nasa.jpl.aerie.constraints.model.LinearProfilePiece;
 import gov.nasa.jpl.aerie.constraints.model.SimulationResults;
+import gov.nasa.jpl.aerie.constraints.model.SimulationResultsDiff;
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
 import gov.nasa.jpl.aerie.constraints.tree.And;
@@ -22,10 +20,15 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.function.Predicate;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -41,13 +44,74 @@ public class SimResource implements
   /** reference to simulation results that contextualize queries to this resource */
   private SimulationResults simResults;
 
-  TreeMap<Window, SerializedValue> values;
+  /** samples of the resource from the last simulation, offset from the start of the planning horizon */
+  private List<Pair<Duration, SerializedValue>> samples;
+
+  /** the start of the planning horizon, from which sample times are offset */
+  private Duration planningHorizonStart;
+
+  /** the timeline of the resource built from its samples, or null if it has not been queried since the last simulation */
+  private Timeline values;
+
+  /**
+   * cache of the satisfaction of the constraints queried on this resource, shared by all the state constraints on it
+   *
+   * the cache is keyed by the constraint expression, and holds for the simulation results in cachedResults only
+   */
+  private final ValidityCache validityCache = new ValidityCache();
+
+  /** the simulation results that the validity cache is up to date with, or null if it has never been used */
+  private SimulationResults cachedResults;
+
+  /**
+   * brings the simulation results up to date before each query, as they may be computed lazily. it is given the
+   * latest time the query depends on, so that the simulation does not need to be advanced any further
+   */
+  private final Consumer<Duration> update;
+
+  /** notified of each query to this resource, eg to count them in the scheduler metrics */
+  private final Runnable onQuery;
+
+  public SimResource() {
+    this(() -> {});
+  }
+
+  public SimResource(Runnable update) {
+    this(update, () -> {});
+  }
+
+  public SimResource(Runnable update, Runnable onQuery) {
+    this(until -> update.run(), onQuery);
+  }
+
+  public SimResource(Consumer<Duration> update, Runnable onQuery) {
+    this.update = update;
+    this.onQuery = onQuery;
+  }
 
   public boolean isEmpty() {
+    update.accept(Duration.MAX_VALUE);
+    return hasNoResults();
+  }
+
+  private boolean hasNoResults() {
     return simResults == null
            || (!simResults.realProfiles.containsKey(name) && !simResults.discreteProfiles.containsKey(name));
   }
 
+  /** bring the simulation results up to date up to the given time, and fail if they do not include this resource */
+  private void updateUntil(Duration until) {
+    update.accept(until);
+    if (hasNoResults()) {
+      throw new IllegalArgumentException("Trying to use uninitialized resource (have you simulated before?)");
+    }
+  }
+
+  /** the latest time a query over the given windows depends on */
+  private static Duration lastTimeOf(Windows windows) {
+    return windows.maxTimePoint().orElse(Duration.ZERO);
+  }
+
   public void failIfEmpty() {
     if (isEmpty()) {
       throw new IllegalArgumentException("Trying to use uninitialized resource (have you simulated before?)");
@@ -66,12 +130,28 @@ public class SimResource implements
     this.name = name;
     this.simResults = simResults;
 
-    values = new TreeMap<>();
+    //the timeline is only built if queried, as most resources are not queried by any goal
+    this.samples = fileValues;
+    this.planningHorizonStart = planningHorizonStart;
+    this.values = null;
+  }
+
+  /** build the timeline of the resource from its samples, merging consecutive samples of equal value */
+  private Timeline buildTimeline() {
+    final var capacity = (samples == null) ? 0 : samples.size();
+    final var starts = new long[capacity];
+    final var ends = new long[capacity];
+    final var timelineValues = new SerializedValue[capacity];
+    int size = 0;
+    if (samples == null) {
+      return new Timeline(starts, ends, timelineValues, size);
+    }
+
     Duration start = null;
     SerializedValue val;
     SerializedValue lastVal = null;
     int i = 0;
-    for (Pair<Duration, SerializedValue> entry : fileValues) {
+    for (Pair<Duration, SerializedValue> entry : samples) {
       i++;
       val = entry.getValue();
 
@@ -80,12 +160,137 @@ public class SimResource implements
         start = time;
         lastVal = val;
       }
-      if (!val.equals(lastVal) || i == fileValues.size()) {
-        values.put(Window.betweenClosedOpen(start, time), lastVal);
+      if (!val.equals(lastVal) || i == samples.size()) {
+        final var startMicros = start.in(Duration.MICROSECONDS);
+        if (size > 0 && starts[size - 1] == startMicros) {
+          //windows are keyed by their start, so a window starting with the previous one only replaces its value
+          timelineValues[size - 1] = lastVal;
+        } else {
+          starts[size] = startMicros;
+          ends[size] = time.in(Duration.MICROSECONDS);
+          timelineValues[size] = lastVal;
+          size++;
+        }
         start = time;
       }
       lastVal = val;
     }
+    return new Timeline(starts, ends, timelineValues, size);
+  }
+
+  /**
+   * read-only timeline of a resource, stored in parallel arrays sorted by window start
+   *
+   * windows are closed-open, and are only allocated when iterated over. as in a map sorted by window, windows are
+   * looked up by their start only
+   */
+  private static final class Timeline extends AbstractMap<Window, SerializedValue> {
+    //in microseconds
+    private final long[] starts;
+    private final long[] ends;
+    private final SerializedValue[] values;
+    private final int size;
+
+    Timeline(long[] starts, long[] ends, SerializedValue[] values, int size) {
+      this.starts = starts;
+      this.ends = ends;
+      this.values = values;
+      this.size = size;
+    }
+
+    /** the index of the window with the same start as the given key, or a negative value if there is none */
+    private int indexOf(Object key) {
+      if (!(key instanceof Window window)) {
+        return -1;
+      }
+      return Arrays.binarySearch(starts, 0, size, window.start.in(Duration.MICROSECONDS));
+    }
+
+    @Override
+    public SerializedValue get(Object key) {
+      final var index = indexOf(key);
+      return (index >= 0) ? values[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Entry<Window, SerializedValue>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Window, SerializedValue>> iterator() {
+          return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+              return index < size;
+            }
+
+            @Override
+            public Entry<Window, SerializedValue> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              final var window = Window.betweenClosedOpen(
+                  Duration.of(starts[index], Duration.MICROSECONDS),
+                  Duration.of(ends[index], Duration.MICROSECONDS));
+              return new SimpleImmutableEntry<>(window, values[index++]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+  }
+
+  /**
+   * evaluate a constraint on this resource over the given windows only
+   *
+   * each window is extended by one tick, so that the closing of windows ending at its end is the same as in a full
+   * evaluation. the constraint is only evaluated over the parts of the windows whose satisfaction is not already cached
+   */
+  private Windows evaluateOver(Expression<Windows> constraint, Windows windows) {
+    final var query = new Windows();
+    for (final var window : windows) {
+      if (window.isEmpty()) continue;
+      final var end = window.end.isEqualTo(Duration.MAX_VALUE) ? window.end : window.end.plus(Duration.EPSILON);
+      query.add(window);
+      query.add(Window.between(window.end, end));
+    }
+    final var results = this.simResults;
+    final var satisfied = getValidityCache(results).findWindows(constraint, query, w -> constraint.evaluate(results, w));
+    return convertToSchedulerWindows(satisfied, windows);
+  }
+
+  /**
+   * bring the validity cache up to date with the given simulation results
+   *
+   * only the time ranges over which this resource changed since the results the cache was last used with are
+   * invalidated (or the whole cache if the simulation bounds changed)
+   */
+  private synchronized ValidityCache getValidityCache(SimulationResults results) {
+    if (cachedResults != results) {
+      if (cachedResults == null || !cachedResults.bounds.equals(results.bounds)) {
+        validityCache.clear();
+      } else {
+        validityCache.invalidate(SimulationResultsDiff.changedWindowsOfResource(cachedResults, results, name));
+      }
+      cachedResults = results;
+    }
+    return validityCache;
   }
 
   /** convert constraint engine windows into scheduler windows, within specified bounding windows */
@@ -101,66 +306,53 @@ public class SimResource implements
   }
 
   public SerializedValue getValueAtTime(Duration t) {
-    failIfEmpty();
+    onQuery.run();
+    updateUntil(t);
     final var queryT = t;
 
     //TODO: unify necessary generic profile operations in Profile interface to avoid special casing
     if (this.simResults.realProfiles.containsKey(this.name)) {
-      //TODO: improve the profile data structure to allow fast time-keyed query
-      //TODO: improve Window to allow querying containment in interval directly
-      //for now we look for the last matching profile segment, if any (last to get latest if any overlaps)
       final var profile = this.simResults.realProfiles.get(this.name);
-      final Predicate<LinearProfilePiece> containsQueryTimeP = (piece)
-          -> !Window.intersect(piece.window, Window.at(queryT)).isEmpty();
-      final var matchPiece = Lists.reverse(profile.profilePieces).stream()
-                                  .filter(containsQueryTimeP).findFirst();
-      final var dblVal = matchPiece.map(piece -> piece.valueAt(queryT)).orElse(null);
-      return SerializedValue.of(dblVal);
+      return profile.valueAt(queryT).map(SerializedValue::of).orElse(null);
     } else if (this.simResults.discreteProfiles.containsKey(this.name)) {
-      //TODO: improve the profile data structure to allow fast time-keyed query
-      //TODO: improve Window to allow querying containment in interval directly
-      //for now we look for the last matching profile segment, if any (last to get latest if any overlaps)
       final var profile = this.simResults.discreteProfiles.get(this.name);
-      final Predicate<DiscreteProfilePiece> containsQueryTimeP = (piece)
-          -> !Window.intersect(piece.window, Window.at(queryT)).isEmpty();
-      final var matchPiece = Lists.reverse(profile.profilePieces).stream()
-                                  .filter(containsQueryTimeP).findFirst();
-      return matchPiece.map(piece -> piece.value).orElse(null);
+      return profile.valueAt(queryT).orElse(null);
     } else {
       return null;
     }
   }
 
   public Windows whenValueBetween(SerializedValue inf, SerializedValue sup, Windows windows) {
-    failIfEmpty();
+    onQuery.run();
+    updateUntil(lastTimeOf(windows));
 
     //special case doubles are the only aerie types that can be compared with inequality constraints
       final var gteConstraint = new GreaterThanOrEqual(new RealResource(this.name), new RealValue(inf.asReal().orElseThrow(exceptionType)));
       final var lteConstraint = new LessThanOrEqual(new RealResource(this.name), new RealValue(sup.asReal().orElseThrow(exceptionType)));
       final var constraint = new And(gteConstraint, lteConstraint);
-      final var satisfied = constraint.evaluate(this.simResults);
-      return convertToSchedulerWindows(satisfied, windows);
+      return evaluateOver(constraint, windows);
 
   }
 
   public Windows whenValueBelow(SerializedValue val, Windows windows) {
-    failIfEmpty();
+    onQuery.run();
+    updateUntil(lastTimeOf(windows));
     //special case doubles are the only aerie types that can be compared with inequality constraints
       final var constraint = new LessThan(new RealResource(this.name), new RealValue(val.asReal().orElseThrow(exceptionType)));
-      final var satisfied = constraint.evaluate(this.simResults);
-      return convertToSchedulerWindows(satisfied, windows);
+      return evaluateOver(constraint, windows);
   }
 
   public Windows whenValueAbove(SerializedValue val, Windows windows) {
-    failIfEmpty();
+    onQuery.run();
+    updateUntil(lastTimeOf(windows));
     //special case doubles are the only aerie types that can be compared with inequality constraints
     final var constraint = new GreaterThan(new RealResource(this.name), new RealValue(val.asReal().orElseThrow(exceptionType)));
-    final var satisfied = constraint.evaluate(this.simResults);
-    return convertToSchedulerWindows(satisfied, windows);
+    return evaluateOver(constraint, windows);
   }
 
   public Windows whenValueEqual(SerializedValue val, Windows windows) {
-    failIfEmpty();
+    onQuery.run();
+    updateUntil(lastTimeOf(windows));
     var asReal = val.asReal();
     Expression<Windows> constraint;
     if (asReal.isPresent()) {
@@ -171,17 +363,27 @@ public class SimResource implements
       //everything else is handled as a discrete resource
         constraint = new Equal<>(new DiscreteResource(this.name), new DiscreteValue(val));
     }
-    final var satisfied = constraint.evaluate(this.simResults);
-    return convertToSchedulerWindows(satisfied, windows);
+    return evaluateOver(constraint, windows);
   }
 
   @Override
   public Map<Window, SerializedValue> getTimeline(Windows timeDomain) {
-    return values;
+    onQuery.run();
+    //the timeline is built over the whole simulation, whatever the time domain
+    update.accept(Duration.MAX_VALUE);
+    //the timeline may be first requested by goals detecting their conflicts concurrently
+    synchronized (this) {
+      if (values == null) {
+        values = buildTimeline();
+      }
+      return values;
+    }
   }
 
   @Override
   public Windows whenValueNotEqual(SerializedValue val, Windows windows) {
+    onQuery.run();
+    updateUntil(lastTimeOf(windows));
 
     Expression<Windows> constraint;
     var asReal = val.asReal();
@@ -192,8 +394,7 @@ public class SimResource implements
       //everything else is handled as a discrete resource
         constraint = new NotEqual<>(new DiscreteResource(this.name), new DiscreteValue(val));
     }
-    final var satisfied = constraint.evaluate(this.simResults);
-    return convertToSchedulerWindows(satisfied, windows);
+    return evaluateOver(constraint, windows);
   }
 
 }
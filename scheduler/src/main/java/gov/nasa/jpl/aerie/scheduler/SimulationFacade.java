@@ -1,10 +1,7 @@
 package gov.nasa.jpl.aerie.scheduler;
 
-import com.google.common.collect.Maps;
-import gov.nasa.jpl.aerie.constraints.model.DiscreteProfile;
-import gov.nasa.jpl.aerie.constraints.model.DiscreteProfilePiece;
-import gov.nasa.jpl.aerie.constraints.model.LinearProfile;
-import gov.nasa.jpl.aerie.constraints.model.LinearProfilePiece;
+import gov.nasa.jpl.aerie.constraints.model.ColumnarProfiles;
+import gov.nasa.jpl.aerie.constraints.model.MemoizedProfiles;
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.contrib.serialization.mappers.DurationValueMapper;
 import gov.nasa.jpl.aerie.merlin.driver.ActivityInstanceId;
@@ -15,7 +12,6 @@ import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
 import gov.nasa.jpl.aerie.merlin.framework.ValueMapper;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
-import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 import org.apache.commons.lang3.tuple.Pair;
@@ -26,6 +22,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECONDS;
@@ -51,15 +48,49 @@ public class SimulationFacade {
 
   private final Map<SchedulingActivityInstanceId, ActivityInstanceId> planActInstanceIdToSimulationActInstanceId = new HashMap<>();
 
+  //whether plans are simulated incrementally, extending the previous simulation whenever possible
+  private boolean incremental = true;
+
+  //simulation of the activities simulated so far, null if the next simulation must start from scratch
+  private IncrementalSimulationDriver driver;
+
+  //activities simulated by the incremental driver, along with the start time and arguments they were simulated with
+  private final Map<SchedulingActivityInstanceId, Pair<Duration, SerializedActivity>> simulatedActivities = new HashMap<>();
+
+  private long nextSimulationActInstanceId = 0;
+
+  //end of the simulation that resource feeders reflect, null if they do not reflect the last simulated plan yet; they
+  //are only updated when queried, up to the time the query depends on
+  private Duration resourcesUntil = null;
+
+  //number of times the incremental simulation started over from the start of the planning horizon
+  private long restartCount = 0;
+
+  //number of simulations which may have changed the simulated activities or resources
+  private long simulationCount = 0;
+
+  //profiles of the last simulation results, converted for the constraint evaluation engine on first access
+  private MemoizedProfiles<?, ?> realProfiles;
+  private MemoizedProfiles<?, ?> discreteProfiles;
+
+  //profile conversions and cache hits over the results of previous simulations
+  private long previousProfileConversions = 0;
+  private long previousProfileHits = 0;
+
+  //metrics recording the simulations run and the queries to the resource feeders
+  private SchedulerMetrics metrics = new SchedulerMetrics();
+
   /**
    * Accessor for integer resource feeders
    *
    * @param resourceName the name of the resource
    * @return the resource feeder if it exists, null otherwise
    */
-  public SimResource getResource(String resourceName) {
+  public synchronized SimResource getResource(String resourceName) {
     if (!resources.containsKey(resourceName)) {
-      resources.put(resourceName, new SimResource());
+      resources.put(resourceName, new SimResource(
+          this::updateResourcesUntil,
+          () -> metrics.recordResourceQuery(resourceName)));
     }
     return resources.get(resourceName);
   }
@@ -74,6 +105,31 @@ public class SimulationFacade {
     return this.planningHorizon;
   }
 
+  /**
+   * Sets the metrics recording the simulations run and the queries to the resource feeders, eg those of a solver
+   *
+   * @param metrics the metrics to record into
+   */
+  public void setMetrics(SchedulerMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public SchedulerMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets whether plans are simulated incrementally. If so, simulating a plan which only adds activities to the
+   * previously simulated plan extends the previous simulation instead of simulating the whole horizon again.
+   *
+   * @param incremental true to simulate incrementally, false to simulate the whole plan each time
+   */
+  public void setIncremental(boolean incremental) {
+    this.incremental = incremental;
+    this.driver = null;
+    this.simulatedActivities.clear();
+  }
+
   /**
    * Fetches activity instance durations from last simulation
    *
@@ -81,6 +137,22 @@ public class SimulationFacade {
    * @return the duration if found in the last simulation, null otherwise
    */
   public Duration getActivityDuration(ActivityInstance activityInstance) {
+    if (incremental) {
+      final var activityIdSim = planActInstanceIdToSimulationActInstanceId.get(activityInstance.getId());
+      if (driver == null || activityIdSim == null) {
+        System.out.println("Simulation has been launched but activity with name= "
+                           + activityInstance
+                           + " has not been found");
+        return null;
+      }
+      final var duration = driver.getActivityDurationIfFinished(activityIdSim);
+      if (duration.isEmpty()) {
+        System.out.println("Activity "
+                           + activityInstance
+                           + " has not finished, check planning horizon ?");
+      }
+      return duration.orElse(null);
+    }
     if (lastSimDriverResults == null) {
       System.out.println("You need to simulate before requesting activity duration");
     }
@@ -109,37 +181,196 @@ public class SimulationFacade {
    * @param plan the plan to simulate
    */
   public void simulatePlan(Plan plan) {
+    if (incremental) {
+      simulatePlanIncrementally(plan);
+      return;
+    }
+
     planActInstanceIdToSimulationActInstanceId.clear();
     final var actsInPlan = plan.getActivitiesByTime();
     final var schedule = new HashMap<ActivityInstanceId, Pair<Duration, SerializedActivity>>();
     long counter = 0;
 
     for (final var act : actsInPlan) {
-
-      Map<String, SerializedValue> params = new HashMap<>();
-      params.putAll(act.getArguments());
-      if(act.getDuration()!= null) {
-        params.put("duration", new DurationValueMapper().serializeValue(act.getDuration()));
-      } else{
-        System.out.println("Warning : activity has no duration parameter");
-      }
       var activityIdSim = new ActivityInstanceId(counter++);
       planActInstanceIdToSimulationActInstanceId.put(act.getId(), activityIdSim);
-      schedule.put(activityIdSim, Pair.of(
-          act.getStartTime(),
-          new SerializedActivity(act.getType().getName(), params)));
+      schedule.put(activityIdSim, Pair.of(act.getStartTime(), serializeActivity(act)));
     }
 
     final var simulationDuration = planningHorizon.getAerieHorizonDuration();
 
+    final var start = System.nanoTime();
     final var results = SimulationDriver.simulate(
         this.missionModel,
         schedule,
         Instant.now(),
         simulationDuration);
+    metrics.recordSimulation(start, System.nanoTime());
 
     handleSimulationResults(results);
+    simulationCount++;
+  }
+
+  /**
+   * Fetches the number of simulations run so far which may have changed the simulated activities or resources. Results
+   * derived from the simulation are still valid as long as this count has not changed.
+   *
+   * @return the number of simulations run so far
+   */
+  public long getSimulationCount() {
+    return simulationCount;
+  }
 
+  /**
+   * Fetches the number of times the incremental simulation started over from the start of the planning horizon instead
+   * of extending the previous simulation. See {@link #simulatePlanIncrementally(Plan)} for when that happens.
+   *
+   * @return the number of restarts so far
+   */
+  public long getRestartCount() {
+    return restartCount;
+  }
+
+  /**
+   * Fetches the number of resource profiles converted for the constraint evaluation engine so far. Each profile of a
+   * simulation is converted at most once, the first time it is queried.
+   *
+   * @return the number of profile conversions over all simulations
+   */
+  public synchronized long getProfileConversionCount() {
+    var count = previousProfileConversions;
+    if (realProfiles != null) count += realProfiles.getConversionCount() + discreteProfiles.getConversionCount();
+    return count;
+  }
+
+  /**
+   * Fetches the number of resource profile queries answered by an already converted profile so far.
+   *
+   * @return the number of profile cache hits over all simulations
+   */
+  public synchronized long getProfileHitCount() {
+    var count = previousProfileHits;
+    if (realProfiles != null) count += realProfiles.getHitCount() + discreteProfiles.getHitCount();
+    return count;
+  }
+
+  /**
+   * Simulates the activities of the plan which have not been simulated yet, extending the previous simulation.
+   * The simulation is advanced until the activities simulated so far have terminated, and by resource queries up to
+   * the latest time they depend on (see {@link #updateResourcesUntil(Duration)}). Activities starting after the time
+   * the simulation has been advanced to only extend it.
+   * The state of the simulation engine cannot be checkpointed, so the start of the planning horizon is the only safe
+   * point to resume from. The simulation restarts from there, once for all the new activities, if:
+   * <ul>
+   *   <li>a new activity starts at or before the time the simulation has been advanced to</li>
+   *   <li>an activity has been removed or modified since it was simulated, as its effects cannot be retracted. This
+   *   includes the activities removed from the plan after failing their simulation checks</li>
+   * </ul>
+   *
+   * @param plan the plan to simulate
+   */
+  private void simulatePlanIncrementally(Plan plan) {
+    final var schedule = new HashMap<SchedulingActivityInstanceId, Pair<Duration, SerializedActivity>>();
+    for (final var act : plan.getActivitiesByTime()) {
+      schedule.put(act.getId(), Pair.of(act.getStartTime(), serializeActivity(act)));
+    }
+
+    final var unchanged = driver != null && simulatedActivities.entrySet().stream().allMatch(
+        entry -> isUnchangedSinceSimulated(entry.getKey(), entry.getValue(), schedule.get(entry.getKey())));
+    if (!unchanged) {
+      if (driver != null) restartCount++;
+      driver = new IncrementalSimulationDriver(this.missionModel, planningHorizon.getAerieHorizonDuration());
+      simulatedActivities.clear();
+      planActInstanceIdToSimulationActInstanceId.clear();
+    }
+
+    final var toSimulate = new HashMap<ActivityInstanceId, Pair<Duration, SerializedActivity>>();
+    for (final var entry : schedule.entrySet()) {
+      if (simulatedActivities.containsKey(entry.getKey())) continue;
+      final var activityIdSim = new ActivityInstanceId(nextSimulationActInstanceId++);
+      planActInstanceIdToSimulationActInstanceId.put(entry.getKey(), activityIdSim);
+      toSimulate.put(activityIdSim, entry.getValue());
+    }
+    simulatedActivities.putAll(schedule);
+
+    if (!toSimulate.isEmpty()) {
+      final var start = System.nanoTime();
+      final var driverRestarts = driver.getRestartCount();
+      driver.simulateActivities(toSimulate);
+      restartCount += driver.getRestartCount() - driverRestarts;
+      metrics.recordSimulation(start, System.nanoTime());
+    }
+    if (!unchanged || !toSimulate.isEmpty()) {
+      resourcesUntil = null;
+      simulationCount++;
+    }
+  }
+
+  /**
+   * Checks whether an activity is unchanged since it was simulated. An activity simulated without a duration is
+   * considered unchanged if it has since been given the duration it was simulated with.
+   */
+  private boolean isUnchangedSinceSimulated(
+      SchedulingActivityInstanceId id,
+      Pair<Duration, SerializedActivity> simulated,
+      Pair<Duration, SerializedActivity> current)
+  {
+    if (current == null) return false;
+    if (current.equals(simulated)) return true;
+    if (!Objects.equals(current.getLeft(), simulated.getLeft())) return false;
+
+    final var simulatedArguments = simulated.getRight().getArguments();
+    final var currentArguments = new HashMap<>(current.getRight().getArguments());
+    final var duration = currentArguments.remove("duration");
+    if (simulatedArguments.containsKey("duration") || duration == null) return false;
+    if (!current.getRight().getTypeName().equals(simulated.getRight().getTypeName())) return false;
+    if (!currentArguments.equals(simulatedArguments)) return false;
+
+    final var simulatedDuration = driver.getActivityDurationIfFinished(planActInstanceIdToSimulationActInstanceId.get(id));
+    return simulatedDuration.isPresent()
+           && new DurationValueMapper().serializeValue(simulatedDuration.get()).equals(duration);
+  }
+
+  /**
+   * Brings resource feeders up to date with the last simulated plan, simulating up to the end of the planning horizon.
+   * Resource feeders are not modified afterwards until the next simulation, so they may then be queried concurrently.
+   */
+  public void updateResources() {
+    updateResourcesUntil(planningHorizon.getAerieHorizonDuration());
+  }
+
+  /**
+   * Brings resource feeders up to date with the last simulated plan, up to a given time. The simulation is only
+   * advanced up to that time (or up to the end of the activities simulated so far, if later), so that activities
+   * inserted after it still extend the simulation instead of restarting it.
+   *
+   * @param time the latest time the queries to the resource feeders depend on
+   */
+  public synchronized void updateResourcesUntil(Duration time) {
+    if (driver == null) return;
+
+    //simulate just past the queried time, so that the results include the effects of the activities starting then
+    final var horizonDuration = planningHorizon.getAerieHorizonDuration();
+    var until = time.shorterThan(horizonDuration) ? time.plus(Duration.EPSILON) : horizonDuration;
+    until = Duration.max(until, driver.getCurrentTime());
+    if (resourcesUntil != null && !until.longerThan(resourcesUntil)) return;
+    resourcesUntil = until;
+
+    final var start = System.nanoTime();
+    driver.simulateUntil(until);
+    metrics.recordSimulation(start, System.nanoTime());
+    handleSimulationResults(driver.getSimulationResultsUntil(until));
+  }
+
+  private SerializedActivity serializeActivity(ActivityInstance act) {
+    Map<String, SerializedValue> params = new HashMap<>();
+    params.putAll(act.getArguments());
+    if(act.getDuration()!= null) {
+      params.put("duration", new DurationValueMapper().serializeValue(act.getDuration()));
+    } else{
+      System.out.println("Warning : activity has no duration parameter");
+    }
+    return new SerializedActivity(act.getType().getName(), params);
   }
 
   /**
@@ -173,10 +404,9 @@ public class SimulationFacade {
     final var sc = getResourceSchemas();
     // maps resource names to their local type
 
-    for (final var schema : sc.entrySet()) {
-      if (!resources.containsKey(schema.getKey())) {
-        resources.put(schema.getKey(), new SimResource());
-      }
+    //register the feeders of every resource, with the same query accounting as those requested by the goals
+    for (final var name : sc.keySet()) {
+      getResource(name);
     }
 
     for (final var entry : results.resourceSamples.entrySet()) {
@@ -200,13 +430,29 @@ public class SimulationFacade {
   {
     final var planDuration = planningHorizon.getAerieHorizonDuration();
 
+    //profiles are converted at most once per simulation, on first access, and discarded with the next results
+    final var converter = new ColumnarProfiles();
+    final var realProfiles = new MemoizedProfiles<>(driverResults.realProfiles, converter::linear);
+    final var discreteProfiles = new MemoizedProfiles<>(
+        driverResults.discreteProfiles,
+        profile -> converter.discrete(profile.getRight()));
+
+    synchronized (this) {
+      if (this.realProfiles != null) {
+        previousProfileConversions += this.realProfiles.getConversionCount() + this.discreteProfiles.getConversionCount();
+        previousProfileHits += this.realProfiles.getHitCount() + this.discreteProfiles.getHitCount();
+      }
+      this.realProfiles = realProfiles;
+      this.discreteProfiles = discreteProfiles;
+    }
+
     return new gov.nasa.jpl.aerie.constraints.model.SimulationResults(
         Window.between(Duration.ZERO, planDuration),
         driverResults.simulatedActivities.entrySet().stream()
                                          .map(e -> convertToConstraintModelActivityInstance(e.getKey().id(), e.getValue()))
                                          .collect(Collectors.toList()),
-        Maps.transformValues(driverResults.realProfiles, this::convertToConstraintModelLinearProfile),
-        Maps.transformValues(driverResults.discreteProfiles, this::convertToConstraintModelDiscreteProfile)
+        realProfiles,
+        discreteProfiles
     );
   }
 
@@ -228,46 +474,6 @@ public class SimulationFacade {
         Window.betweenClosedOpen(startT, endT));
   }
 
-  /**
-   * convert a linear profile output from the simulation driver to one suitable for the constraint evaluation engine
-   *
-   * @param driverProfile the as-simulated real profile from a driver SimulationResult
-   * @return a real profile suitable for a constraint model SimulationResult, starting from the zero duration
-   */
-  private LinearProfile convertToConstraintModelLinearProfile(
-      List<Pair<Duration, RealDynamics>> driverProfile)
-  {
-    final var pieces = new ArrayList<LinearProfilePiece>(driverProfile.size());
-    var elapsed = Duration.ZERO;
-    for (final var piece : driverProfile) {
-      final var extent = piece.getLeft();
-      final var value = piece.getRight();
-      pieces.add(new LinearProfilePiece(Window.between(elapsed, elapsed.plus(extent)), value.initial, value.rate));
-      elapsed = elapsed.plus(extent);
-    }
-    return new LinearProfile(pieces);
-  }
-
-  /**
-   * convert a discrete profile output from the simulation driver to one suitable for the constraint evaluation engine
-   *
-   * @param driverProfile the as-simulated discrete profile from a driver SimulationResult
-   * @return a discrete profile suitable for a constraint model SimulationResult, starting from the zero duration
-   */
-  private DiscreteProfile convertToConstraintModelDiscreteProfile(
-      Pair<ValueSchema, List<Pair<Duration, SerializedValue>>> driverProfile)
-  {
-    final var pieces = new ArrayList<DiscreteProfilePiece>(driverProfile.getRight().size());
-    var elapsed = Duration.ZERO;
-    for (final var piece : driverProfile.getRight()) {
-      final var extent = piece.getLeft();
-      final var value = piece.getRight();
-      pieces.add(new DiscreteProfilePiece(Window.between(elapsed, elapsed.plus(extent)), value));
-      elapsed = elapsed.plus(extent);
-    }
-    return new DiscreteProfile(pieces);
-  }
-
   private <T> List<Pair<Duration, T>> deserialize(List<Pair<Duration, SerializedValue>> values, ValueMapper<T> mapper) {
     final var deserialized = new ArrayList<Pair<Duration, T>>();
     for (final var el : values) {
@@ -44,4 +44,14 @@ public interface Solver {
    */
   Optional<Plan> getNextSolution();
 
+  /**
+   * fetches the metrics collected while calculating solutions so far
+   *
+   * the metrics cover the time, conflicts, activities and simulations of each goal processed, along with the
+   * simulations run and the queries to simulated resources
+   *
+   * @return the metrics of the solver, which keep being updated by later solution requests
+   */
+  SchedulerMetrics getMetrics();
+
 }
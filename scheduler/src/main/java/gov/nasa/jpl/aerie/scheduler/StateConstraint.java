@@ -16,27 +16,24 @@ public abstract class StateConstraint {
    */
   ExternalState state;
 
-  /**
-   * Value cache for the constraint preventing from querying distant state if value has already been queried
-   */
-  ValidityCache cache;
-
   protected StateConstraint() {
 
   }
 
-  /**
-   * Static boolean allowing to enable caching or not
-   */
-  public static final boolean ACTIVATE_CACHE = false;
-
   protected Windows timeDomain;
 
+  /**
+   * finds the time ranges in which the constraint is satisfied
+   *
+   * simulated states cache the satisfaction of the constraints queried on them (see SimResource), so repeated
+   * queries over the same time ranges are not re-evaluated until the state changes there
+   *
+   * @param plan IN current plan
+   * @param windows IN set of time ranges in which search is performed
+   * @return a set of time ranges in which the constraint is satisfied
+   */
   public Windows findWindows(Plan plan, Windows windows) {
     restrictToTimeDomain(windows);
-    if (ACTIVATE_CACHE) {
-      return new Windows(cache.findWindowsCache(plan, windows));
-    }
     return findWindowsPart(plan, windows);
   }
 
@@ -9,12 +9,6 @@ import gov.nasa.jpl.aerie.constraints.time.Windows;
 public class StateConstraintAbove extends StateConstraint {
 
   protected StateConstraintAbove() {
-    cache = new ValidityCache() {
-      @Override
-      public Windows fetchValue(Plan plan, Windows intervals) {
-        return findWindowsPart(plan, intervals);
-      }
-    };
   }
 
   /**
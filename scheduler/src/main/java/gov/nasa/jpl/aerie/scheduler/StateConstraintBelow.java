@@ -8,12 +8,6 @@ import gov.nasa.jpl.aerie.constraints.time.Windows;
 public class StateConstraintBelow extends StateConstraint {
 
   protected StateConstraintBelow() {
-    cache = new ValidityCache() {
-      @Override
-      public Windows fetchValue(Plan plan, Windows intervals) {
-        return findWindowsPart(plan, intervals);
-      }
-    };
   }
 
   /**
@@ -14,18 +14,8 @@ public class StateConstraintExpressionConjunction extends StateConstraintExpress
   protected StateConstraintExpressionConjunction(List<StateConstraintExpression> constraints, String name) {
     super(null, name);
     conjonction = new LinkedList<>(constraints);
-    cache = new ValidityCache() {
-      @Override
-      public Windows fetchValue(Plan plan, Windows intervals) {
-        return findWindowsStates(plan, intervals);
-      }
-    };
   }
 
-  private final ValidityCache cache;
-
-  public static final boolean ACTIVATE_CACHE = false;
-
   private final List<StateConstraintExpression> conjonction;
 
   /**
@@ -38,9 +28,6 @@ public class StateConstraintExpressionConjunction extends StateConstraintExpress
    */
   @Override
   public Windows findWindows(Plan plan, Windows windows) {
-    if (ACTIVATE_CACHE) {
-      return cache.findWindowsCache(plan, windows);
-    }
     return findWindowsStates(plan, windows);
 
   }
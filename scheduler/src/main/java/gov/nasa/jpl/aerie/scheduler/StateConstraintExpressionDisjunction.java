@@ -18,21 +18,11 @@ public class StateConstraintExpressionDisjunction extends StateConstraintExpress
     super(null, name);
 
     disjunction = new LinkedList<>(constraints);
-    cache = new ValidityCache() {
-      @Override
-      public Windows fetchValue(Plan plan, Windows intervals) {
-        return findWindowsStates(plan, intervals);
-      }
-    };
   }
 
 
-  public final static boolean ACTIVATE_CACHE = false;
-
   private final List<StateConstraintExpression> disjunction;
 
-  private final ValidityCache cache;
-
   public Windows findWindowsStates(Plan plan, Windows windows) {
     Windows disjunctionTimeWindows = new Windows();
     for (StateConstraintExpression c : disjunction) {
@@ -53,9 +43,6 @@ public class StateConstraintExpressionDisjunction extends StateConstraintExpress
    */
   @Override
   public Windows findWindows(Plan plan, Windows windows) {
-    if (ACTIVATE_CACHE) {
-      return cache.findWindowsCache(plan, windows);
-    }
     return findWindowsStates(plan, windows);
   }
 
@@ -9,12 +9,6 @@ import gov.nasa.jpl.aerie.constraints.time.Windows;
 public class StateConstraintNotEqual extends StateConstraint {
 
   protected StateConstraintNotEqual() {
-    cache = new ValidityCache() {
-      @Override
-      public Windows fetchValue(Plan plan, Windows intervals) {
-        return findWindowsPart(plan, intervals);
-      }
-    };
   }
 
   /**
@@ -13,10 +13,10 @@ import java.util.Map;
  */
 public class TaskNetwork {
 
-  private final Map<String, String> startActTimepoints;
-  private final Map<String, String> endActTimepoints;
-  private final String startHorizon = "SI";
-  private final String endHorizon = "EI";
+  private final Map<String, Integer> startActTimepoints;
+  private final Map<String, Integer> endActTimepoints;
+  private int startHorizon;
+  private int endHorizon;
 
   double stHorizon = 0;
 
@@ -34,6 +34,22 @@ public class TaskNetwork {
 
   }
 
+  /**
+   * copies a task network, so that tasks and constraints can be added to the copy without affecting the original
+   *
+   * the propagated state of the original is copied too, so that only the additional constraints are propagated
+   *
+   * @param other IN the task network to copy
+   */
+  public TaskNetwork(TaskNetwork other){
+    stn = new STN(other.stn);
+    startActTimepoints = new HashMap<>(other.startActTimepoints);
+    endActTimepoints = new HashMap<>(other.endActTimepoints);
+    startHorizon = other.startHorizon;
+    endHorizon = other.endHorizon;
+    stHorizon = other.stHorizon;
+  }
+
   public record TNActData(Pair<Double,Double> start, Pair<Double,Double> end, Pair<Double,Double> duration) {}
 
   public TNActData getAllData(String nameAct){
@@ -50,8 +66,8 @@ public class TaskNetwork {
    */
   protected void setHorizon(double start, double end){
     stHorizon = start;
-    stn.addTimepoint(startHorizon);
-    stn.addTimepoint(endHorizon);
+    startHorizon = stn.addTimepoint("SI");
+    endHorizon = stn.addTimepoint("EI");
     stn.addDurCst(startHorizon, endHorizon, end-start, end-start);
 
     for(var nameTp:startActTimepoints.entrySet()){
@@ -100,11 +116,8 @@ public class TaskNetwork {
     var stAct = startActTimepoints.get(nameAct);
     var etAct = endActTimepoints.get(nameAct);
 
-    var stenvTpName = "st"+envName;
-    var etenvTpName = "et"+envName;
-
-    stn.addTimepoint(stenvTpName);
-    stn.addTimepoint(etenvTpName);
+    var stenvTpName = stn.addTimepoint("st"+envName);
+    var etenvTpName = stn.addTimepoint("et"+envName);
 
     stn.addDurCst(startHorizon, stenvTpName, t1-stHorizon, t1-stHorizon);
     stn.addDurCst(endHorizon, etenvTpName, t2-stHorizon, t2-stHorizon);
@@ -139,11 +152,8 @@ public class TaskNetwork {
 
 
   public void addAct(String name){
-    var namevertexst = "st"+name;
-    var namevertexet = "et"+name;
-
-    stn.addTimepoint(namevertexst);
-    stn.addTimepoint(namevertexet);
+    var namevertexst = stn.addTimepoint("st"+name);
+    var namevertexet = stn.addTimepoint("et"+name);
     startActTimepoints.put(name, namevertexst);
     endActTimepoints.put(name, namevertexet);
 
@@ -15,6 +15,15 @@ public class TaskNetworkAdapter {
     this.tw = tw;
   }
 
+  /**
+   * copies the underlying task network, so that constraints can be added to the copy without affecting this one
+   *
+   * @return an adapter for a copy of the task network
+   */
+  public TaskNetworkAdapter copy(){
+    return new TaskNetworkAdapter(new TaskNetwork(tw));
+  }
+
   public record TNActData(Window start, Window end, Window duration) {}
 
   public void addDurationInterval(String nameAct, Duration lb, Duration ub){
@@ -4,8 +4,11 @@ import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -108,6 +111,30 @@ public class TimeRangeExpression {
     this.name = name;
   }
 
+  /**
+   * fetches the names of the activity types whose instances this expression queries in the plan
+   *
+   * @return the names of the activity types queried by this expression (and its nested expressions), or empty if
+   *     some activity template does not have a single known type
+   */
+  public Optional<Set<String>> getActivityTypeNames() {
+    final var names = new HashSet<String>();
+    if (actTemplate != null) {
+      if (!actTemplate.isConjunctive() || actTemplate.getType() == null) {
+        return Optional.empty();
+      }
+      names.add(actTemplate.getType().getName());
+    }
+    for (var otherExpr : timeRangeExpressions) {
+      final var otherNames = otherExpr.getActivityTypeNames();
+      if (otherNames.isEmpty()) {
+        return Optional.empty();
+      }
+      names.addAll(otherNames.get());
+    }
+    return Optional.of(names);
+  }
+
   protected Windows constantWin;
   protected String name = "TRE_" + Math.abs(new Random().nextInt());
   protected List<TimeRangeExpression> timeRangeExpressions;
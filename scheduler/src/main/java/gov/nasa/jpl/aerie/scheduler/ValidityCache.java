@@ -3,96 +3,128 @@ package gov.nasa.jpl.aerie.scheduler;
 
 import gov.nasa.jpl.aerie.constraints.time.Window;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
-import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-
-public abstract class ValidityCache {
+import java.util.function.Function;
+
+/**
+ * cache of the time ranges over which constraints are known to be satisfied or not
+ *
+ * the cache may be shared by many constraints: the known ranges of each constraint are kept separately, keyed by the
+ * constraint itself (which must thus implement equals and hashCode). the known ranges of a constraint are disjoint and
+ * ordered by start time, so that the first range overlapping a query is found with a logarithmic seek.
+ *
+ * when the values the constraints depend on change, the changed time ranges must be invalidated
+ *
+ * the satisfaction of the constraints must be decidable point by point (eg a comparison of a state to a value), so
+ * that the satisfaction over a range can be assembled from the satisfaction over its parts
+ */
+public class ValidityCache {
 
   public enum Validity {
     TRUE,
-    FALSE,
-    UNKNOWN
+    FALSE
   }
 
-  private final TreeMap<Window, Validity> cache;
-
-
-  public ValidityCache() {
-    cache = new TreeMap<>();
-    cache.put(Window.between(Duration.ZERO, Duration.MAX_VALUE), Validity.UNKNOWN);
-  }
+  /**
+   * known ranges of each constraint
+   *
+   * ranges of a same constraint are disjoint and non-empty, so their starts (with inclusivity) are distinct
+   */
+  private final Map<Object, TreeMap<Window, Validity>> cache = new HashMap<>();
+
+  /**
+   * finds the time ranges over which a constraint is satisfied, within the given time ranges
+   *
+   * the satisfaction is only fetched over the parts of the query not already known from previous queries
+   *
+   * @param constraint IN the constraint being queried, used as the key of its cached ranges
+   * @param windows IN the time ranges over which the satisfaction is queried
+   * @param fetch IN computes the time ranges over which the constraint is satisfied, within a given time range
+   * @return the time ranges over which the constraint is satisfied, within the queried time ranges
+   */
+  public synchronized Windows findWindows(Object constraint, Windows windows, Function<Window, Windows> fetch) {
+    final var known = cache.computeIfAbsent(constraint, k -> new TreeMap<>(Window::compareStartToStart));
+
+    final var satisfied = new Windows();
+    final var unknown = new Windows();
+    for (final var window : windows) {
+      final var uncovered = new Windows(window);
+      for (final var entry : overlapping(known, window)) {
+        final var intersection = Window.intersect(entry.getKey(), window);
+        if (entry.getValue() == Validity.TRUE) {
+          satisfied.add(intersection);
+        }
+        uncovered.subtract(intersection);
+      }
+      unknown.addAll(uncovered);
+    }
 
-  public void put(Window range, Validity val) {
-    if (range.isSingleton()) {
-      throw new RuntimeException();
+    //the unknown ranges do not overlap any known range, so they can be stored as they are
+    for (final var window : unknown) {
+      final var fetched = fetch.apply(window);
+      fetched.intersectWith(window);
+      satisfied.addAll(fetched);
+      for (final var valid : fetched) {
+        known.put(valid, Validity.TRUE);
+      }
+      for (final var invalid : Windows.minus(new Windows(window), fetched)) {
+        known.put(invalid, Validity.FALSE);
+      }
     }
-    cache.put(range, val);
+    return satisfied;
   }
 
-
-  public Windows findWindowsCache(Plan plan, Windows windows) {
-
-
-    Windows returnWin = new Windows();
-    boolean reset = false;
-    Window window = null;
-    //for each input window
-    for (final Window value : windows) {
-      window = value;
-      //for each entry in the cache
-      Iterator<Map.Entry<Window, Validity>> itCache = cache.entrySet().iterator();
-      var toAdd = new HashMap<Window, Validity>();
-      while (itCache.hasNext()) {
-        var entry = itCache.next();
-        Window cacheInter = entry.getKey();
-
-        //if entry in cache is after the window, we can break
-        if (cacheInter.isStrictlyAfter(window)) {
-          break;
-        }
-
-        //if entry is strictly before we can continue
-        if (cacheInter.isStrictlyBefore(window)) {
-          continue;
-        }
-
-        Validity val = entry.getValue();
-        var intersection = Window.intersect(window, cacheInter);
-        if (!intersection.isEmpty()) {
-          if (val == Validity.TRUE) {
-            returnWin.add(intersection);
-
-          } else if (val == Validity.UNKNOWN) {
-            itCache.remove();
-            Windows fetched = fetchValue(plan, new Windows(intersection));
-            Windows subtractions = Windows.subtract(intersection, cacheInter);
-            for (var sub : subtractions) {
-              toAdd.put(sub, Validity.UNKNOWN);
-            }
-            for (var fetchedWin : fetched) {
-              toAdd.put(fetchedWin, Validity.TRUE);
-              returnWin.add(fetchedWin);
-            }
-            fetched = fetched.complement();
-            fetched = fetched.removeFirstAndLast();
-            for (var fetchedWin : fetched) {
-              toAdd.put(fetchedWin, Validity.FALSE);
-            }
+  /**
+   * forgets the known satisfaction of all constraints over the given time ranges
+   *
+   * @param changed IN the time ranges over which the values the constraints depend on may have changed
+   */
+  public synchronized void invalidate(Windows changed) {
+    for (final var known : cache.values()) {
+      for (final var window : changed) {
+        for (final var entry : overlapping(known, window)) {
+          known.remove(entry.getKey());
+          for (final var remaining : Windows.minus(new Windows(entry.getKey()), new Windows(window))) {
+            known.put(remaining, entry.getValue());
           }
         }
-
       }
-      cache.putAll(toAdd);
     }
-    return returnWin;
   }
 
-  //how to get the value
-  public abstract Windows fetchValue(Plan plan, Windows intervals);
+  /**
+   * forgets the known satisfaction of all constraints
+   */
+  public synchronized void clear() {
+    cache.clear();
+  }
 
+  /**
+   * collects the known ranges overlapping a time range
+   *
+   * ranges starting before the one starting at or just before the query cannot overlap it, so iteration starts there
+   */
+  private static List<Map.Entry<Window, Validity>> overlapping(TreeMap<Window, Validity> known, Window window) {
+    final var overlapping = new ArrayList<Map.Entry<Window, Validity>>();
+    if (window.isEmpty()) {
+      return overlapping;
+    }
+    final var floor = known.floorKey(window);
+    for (final var entry : known.tailMap(floor != null ? floor : window, true).entrySet()) {
+      if (entry.getKey().isStrictlyAfter(window)) {
+        break;
+      }
+      if (!Window.intersect(entry.getKey(), window).isEmpty()) {
+        //copied, as the entries of a tree map may be reused when another one is removed
+        overlapping.add(Map.entry(entry.getKey(), entry.getValue()));
+      }
+    }
+    return overlapping;
+  }
 
 }
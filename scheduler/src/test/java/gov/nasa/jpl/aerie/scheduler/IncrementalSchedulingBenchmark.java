@@ -0,0 +1,50 @@
+package gov.nasa.jpl.aerie.scheduler;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECOND;
+
+public class IncrementalSchedulingBenchmark {
+
+  /**
+   * This benchmark inserts the activities of a recurrence goal one at a time, checking each insertion by simulation as
+   * PrioritySolver does, with incremental and non-incremental simulation facades. The resources are queried once
+   * before the insertions, as they are when computing the conflicts of the goal. Each printed timing _left _right
+   * shows the mean time _right it took to insert and check an activity in a plan of _left activities.
+   */
+  public static void main(String[] args){
+    System.out.println("Incremental");
+    benchmarkRecurrenceInsertion(true);
+    System.out.println("Non-incremental");
+    benchmarkRecurrenceInsertion(false);
+  }
+
+  private static void benchmarkRecurrenceInsertion(boolean incremental){
+    final int nbActs = 5000;
+    final var step = Duration.of(3, SECOND);
+    final var horizon = new PlanningHorizon(new Time(0), new Time(3 * (nbActs + 1)));
+    final var problem = new Problem(SimulationUtility.getFooMissionModel(), horizon);
+    final var facade = problem.getSimulationFacade();
+    facade.setIncremental(incremental);
+    final var actType = problem.getActivityType("BasicActivity");
+
+    final var plan = new PlanInMemory();
+    facade.simulatePlan(plan);
+    facade.getResource("/utcClock").getValueAtTime(Duration.ZERO);
+
+    var sum = 0.;
+    for(int i = 0; i < nbActs; i++){
+      final var act = new ActivityInstance(actType, step.times(i));
+      final var start = System.nanoTime();
+      plan.add(act);
+      facade.simulatePlan(plan);
+      if(facade.getActivityDuration(act) == null){
+        throw new IllegalStateException("Activity " + act + " could not be simulated");
+      }
+      final var dur = System.nanoTime() - start;
+      sum += dur;
+      System.out.println((i + 1) + " " + sum / (i + 1));
+    }
+  }
+
+}
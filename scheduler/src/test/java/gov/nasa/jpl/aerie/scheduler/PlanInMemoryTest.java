@@ -0,0 +1,63 @@
+package gov.nasa.jpl.aerie.scheduler;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Exclusive;
+import static gov.nasa.jpl.aerie.constraints.time.Window.Inclusivity.Inclusive;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+
+public class PlanInMemoryTest {
+
+  private static PlanInMemory makePlan(ActivityType actTypeA, ActivityType actTypeB) {
+    final var plan = new PlanInMemory();
+    for (int i = 0; i < 20; i++) {
+      final var type = (i % 3 == 0) ? actTypeB : actTypeA;
+      plan.add(new ActivityInstance(type, Duration.of(i, SECONDS), Duration.of(i % 4, SECONDS)));
+    }
+    return plan;
+  }
+
+  /** matches the template against every activity of the plan, as a reference for indexed queries */
+  private static List<ActivityInstance> findByScan(Plan plan, ActivityExpression template) {
+    return plan.getActivitiesByTime().stream().filter(template::matches).collect(Collectors.toList());
+  }
+
+  @Test
+  public void findUsesIndicesWithoutChangingResults() {
+    final var actTypeA = new ActivityType("A");
+    final var actTypeB = new ActivityType("B");
+    final var plan = makePlan(actTypeA, actTypeB);
+
+    final var templates = List.of(
+        ActivityExpression.ofType(actTypeA),
+        new ActivityExpression.Builder()
+            .startsIn(Window.between(Duration.of(3, SECONDS), Exclusive, Duration.of(9, SECONDS), Inclusive))
+            .build(),
+        new ActivityExpression.Builder()
+            .ofType(actTypeB)
+            .endsIn(Window.between(Duration.of(5, SECONDS), Inclusive, Duration.of(12, SECONDS), Exclusive))
+            .build(),
+        new ActivityExpression.Builder()
+            .ofType(actTypeA)
+            .startsIn(Window.between(Duration.of(2, SECONDS), Duration.of(15, SECONDS)))
+            .endsIn(Window.between(Duration.of(4, SECONDS), Duration.of(10, SECONDS)))
+            .build(),
+        new ActivityExpression.Builder()
+            .startsIn(Window.between(Duration.of(9, SECONDS), Exclusive, Duration.of(9, SECONDS), Inclusive))
+            .build(),
+        new ActivityExpression.Builder().build());
+
+    for (final var template : templates) {
+      assertThat(plan.find(template)).containsExactlyElementsIn(findByScan(plan, template)).inOrder();
+      assertThat(plan.findStream(template).collect(Collectors.toList()))
+          .containsExactlyElementsIn(findByScan(plan, template)).inOrder();
+    }
+  }
+
+}
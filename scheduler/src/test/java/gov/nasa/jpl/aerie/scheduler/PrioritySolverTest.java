@@ -3,13 +3,20 @@ package gov.nasa.jpl.aerie.scheduler;
 import com.google.common.testing.NullPointerTester;
 import com.google.common.truth.Correspondence;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth8.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class PrioritySolverTest {
   private static PrioritySolver makeEmptyProblemSolver() {
@@ -228,4 +235,293 @@ public class PrioritySolverTest {
         .containsAtLeastElementsIn(expectedPlan.getActivitiesByTime());
   }
 
+  private static RecurrenceGoal makeRecurrenceGoal(String name, ActivityType type) {
+    return new RecurrenceGoal.Builder()
+        .named(name)
+        .startingAt(t0).endingAt(t2hr.plus(Duration.of(10, Duration.MINUTE)))
+        .repeatingEvery(d1hr)
+        .thereExistsOne(new ActivityCreationTemplate.Builder()
+                            .ofType(type)
+                            .duration(d1min)
+                            .build())
+        .build();
+  }
+
+  @Test
+  public void getNextSolution_independentGoalsGiveSameSolutionWithConcurrentConflictDetection() {
+    final var problem = makeTestMissionAB();
+    final var actTypeA = problem.getActivityType("A");
+    final var actTypeB = problem.getActivityType("B");
+    //the first two goals are independent, the third one queries the same type as the first one
+    problem.setGoals(List.of(
+        makeRecurrenceGoal("g0", actTypeA),
+        makeRecurrenceGoal("g1", actTypeB),
+        makeRecurrenceGoal("g2", actTypeA)));
+
+    final var sequentialSolver = makeProblemSolver(problem);
+    sequentialSolver.setConflictDetectionPool(null);
+    final var sequentialPlan = sequentialSolver.getNextSolution().orElseThrow();
+
+    final var concurrentSolver = makeProblemSolver(problem);
+    concurrentSolver.setConflictDetectionPool(new ForkJoinPool(2));
+    final var concurrentPlan = concurrentSolver.getNextSolution().orElseThrow();
+
+    assertThat(concurrentPlan.getActivitiesByTime())
+        .comparingElementsUsing(equalExceptInName)
+        .containsExactlyElementsIn(sequentialPlan.getActivitiesByTime()).inOrder();
+    for (final var goal : problem.getGoals()) {
+      assertThat(concurrentPlan.getEvaluation().forGoal(goal).getScore())
+          .isEqualTo(sequentialPlan.getEvaluation().forGoal(goal).getScore());
+    }
+  }
+
+  /** describes conflicts by what they ask for, as the activities they propose are named at random **/
+  private static List<List<Object>> describe(Collection<Conflict> conflicts) {
+    return conflicts.stream().map(conflict -> (conflict instanceof MissingActivityInstanceConflict missing)
+        ? Arrays.<Object>asList(
+            conflict.getClass(),
+            missing.getInstance().getType().getName(),
+            missing.getInstance().getStartTime(),
+            conflict.getTemporalContext())
+        : Arrays.<Object>asList(conflict.getClass(), conflict.getTemporalContext()))
+        .collect(Collectors.toList());
+  }
+
+  private static CoexistenceGoal makeStateConstrainedCoexistenceGoal(
+      String name, ActivityType anchorType, ActivityType createdType, StateConstraintExpression constraint)
+  {
+    return new CoexistenceGoal.Builder()
+        .named(name)
+        .forAllTimeIn(bananaHorizon.getHor())
+        .forEach(new ActivityExpression.Builder()
+                     .ofType(anchorType)
+                     .build())
+        .thereExistsOne(new ActivityCreationTemplate.Builder()
+                            .ofType(createdType)
+                            .duration(Duration.ZERO)
+                            .build())
+        .startsAt(TimeAnchor.START)
+        .attachStateConstraint(constraint)
+        .build();
+  }
+
+  @Test
+  public void detectConflictsConcurrently_matchesSequentialDetectionOfStateConstrainedGoals() {
+    final var problem = new Problem(SimulationUtility.getBananaMissionModel(), bananaHorizon);
+    final var facade = problem.getSimulationFacade();
+    final var initialPlan = new PlanInMemory();
+    for (var hour = 1; hour <= 3; hour++) {
+      final var peel = new ActivityInstance(problem.getActivityType("PeelBanana"), d1hr.times(hour));
+      peel.setArguments(Map.of("peelDirection", SerializedValue.of("fromStem")));
+      initialPlan.add(peel);
+      initialPlan.add(new ActivityInstance(problem.getActivityType("PickBanana"), d1hr.times(hour)));
+    }
+    problem.setInitialPlan(initialPlan);
+    //independent goals, whose conflicts depend on the simulated fruit and peel left after each peel
+    final var goals = List.<Goal>of(
+        makeStateConstrainedCoexistenceGoal(
+            "biteAfterPeel",
+            problem.getActivityType("PeelBanana"),
+            problem.getActivityType("BiteBanana"),
+            new StateConstraintExpression.Builder().above(facade.getResource("/fruit"), SerializedValue.of(2.5)).build()),
+        makeStateConstrainedCoexistenceGoal(
+            "throwAfterPick",
+            problem.getActivityType("PickBanana"),
+            problem.getActivityType("ThrowBanana"),
+            new StateConstraintExpression.Builder().above(facade.getResource("/peel"), SerializedValue.of(1.5)).build()));
+    problem.setGoals(goals);
+    final var solver = makeBananaSolver(problem, false);
+    solver.setConflictDetectionPool(new ForkJoinPool(2));
+    solver.initializePlan();
+
+    final var concurrent = solver.detectConflictsConcurrently(goals);
+
+    assertThat(concurrent).hasSize(goals.size());
+    for (int i = 0; i < goals.size(); i++) {
+      assertThat(concurrent.get(i).failure()).isNull();
+      assertThat(concurrent.get(i).conflicts()).isNotEmpty();
+      assertThat(describe(concurrent.get(i).conflicts()))
+          .containsExactlyElementsIn(describe(goals.get(i).getConflicts(solver.plan))).inOrder();
+    }
+  }
+
+  @Test
+  public void getNextSolution_recordsMetricsOfEachGoal() {
+    final var problem = makeTestMissionAB();
+    final var goal = makeRecurrenceGoal("g0", problem.getActivityType("A"));
+    problem.setGoals(List.of(goal));
+    final var solver = makeProblemSolver(problem);
+
+    final var plan = solver.getNextSolution().orElseThrow();
+
+    final var goalEval = plan.getEvaluation().forGoal(goal);
+    final var goalMetrics = solver.getMetrics().getGoalMetrics().get(goal);
+    assertThat(goalMetrics.goalName()).isEqualTo("g0");
+    assertThat(goalMetrics.activitiesCreated()).isEqualTo(goalEval.getInsertedActivities().size());
+    assertThat(goalMetrics.conflicts()).isEqualTo(goalEval.getNbConflictsDetected().orElseThrow());
+    assertThat(goalMetrics.wallTimeNanos()).isAtLeast(0);
+    assertThat(solver.getMetrics().getTrace())
+        .comparingElementsUsing(Correspondence.<SchedulerMetrics.TraceEvent, String>transforming(
+            SchedulerMetrics.TraceEvent::name, "has a name of"))
+        .contains("g0");
+  }
+
+  @Test
+  public void getNextSolution_resumesGoalsLeftWhenOutOfBudget() {
+    final var problem = makeTestMissionAB();
+    final var g0 = makeRecurrenceGoal("g0", problem.getActivityType("A"));
+    final var g1 = makeRecurrenceGoal("g1", problem.getActivityType("B"));
+    problem.setGoals(List.of(g0, g1));
+    final var solver = makeProblemSolver(problem);
+    solver.setGoalBudget(1);
+
+    final var partialPlan = solver.getNextSolution().orElseThrow();
+
+    assertThat(solver.isComplete()).isFalse();
+    assertThat(partialPlan.getEvaluation().isPartial()).isTrue();
+    assertThat(partialPlan.getEvaluation().forGoal(g0).isComplete()).isTrue();
+    assertThat(partialPlan.getEvaluation().forGoal(g1).isComplete()).isFalse();
+    assertThat(partialPlan.getEvaluation().forGoal(g1).getInsertedActivities()).isEmpty();
+
+    final var plan = solver.getNextSolution().orElseThrow();
+
+    assertThat(solver.isComplete()).isTrue();
+    assertThat(plan.getEvaluation().isPartial()).isFalse();
+    assertThat(plan.getEvaluation().forGoal(g1).getInsertedActivities()).isNotEmpty();
+    assertThat(solver.getNextSolution()).isEmpty();
+  }
+
+  private final static PlanningHorizon bananaHorizon = new PlanningHorizon(Time.fromMilli(0), Time.fromMilli(6 * 3600 * 1000));
+
+  //bites of 1.0 from a fruit of 4.0, at the start of every hour after the first until 4hr
+  private static RecurrenceGoal makeHourlyBiteGoal(Problem problem, StateConstraintExpression constraint) {
+    final var builder = new RecurrenceGoal.Builder()
+        .named("bites")
+        .startingAt(bananaHorizon.getStartAerie())
+        .endingAt(bananaHorizon.getStartAerie().plus(d1hr.times(4)).plus(Duration.of(10, Duration.MINUTE)))
+        .repeatingEvery(d1hr)
+        .thereExistsOne(new ActivityCreationTemplate.Builder()
+                            .ofType(problem.getActivityType("BiteBanana"))
+                            .duration(Duration.ZERO)
+                            .build());
+    if (constraint != null) {
+      builder.attachStateConstraint(constraint).partialSatisfaction();
+    }
+    return builder.build();
+  }
+
+  private static PrioritySolver makeBananaSolver(Problem problem, boolean inBatches) {
+    final var config = new HuginnConfiguration();
+    config.setHorizon(bananaHorizon);
+    final var solver = new PrioritySolver(config, problem);
+    solver.checkSimBeforeInsertingActInPlan();
+    if (inBatches) solver.checkSimOfActivitiesInBatches();
+    return solver;
+  }
+
+  @Test
+  public void getNextSolution_passingBatchGivesSameSolutionWithFewerSimulations() {
+    final var problem = new Problem(SimulationUtility.getBananaMissionModel(), bananaHorizon);
+    final var goal = makeHourlyBiteGoal(problem, null);
+    problem.setGoals(List.of(goal));
+
+    final var sequentialSolver = makeBananaSolver(problem, false);
+    final var sequentialPlan = sequentialSolver.getNextSolution().orElseThrow();
+
+    final var batchSolver = makeBananaSolver(problem, true);
+    final var batchPlan = batchSolver.getNextSolution().orElseThrow();
+
+    assertThat(batchPlan.getActivitiesByTime())
+        .comparingElementsUsing(equalExceptInName)
+        .containsExactlyElementsIn(sequentialPlan.getActivitiesByTime()).inOrder();
+    assertThat(batchPlan.getEvaluation().forGoal(goal).getInsertedActivities()).hasSize(4);
+    assertThat(batchPlan.getEvaluation().forGoal(goal).getScore()).isEqualTo(0);
+    assertThat(batchSolver.getMetrics().getSimulationCount())
+        .isLessThan(sequentialSolver.getMetrics().getSimulationCount());
+  }
+
+  @Test
+  public void getNextSolution_failingBatchIsBisectedAndKeepsOnlyPassingActivities() {
+    final var problem = new Problem(SimulationUtility.getBananaMissionModel(), bananaHorizon);
+    final var fruit = problem.getSimulationFacade().getResource("/fruit");
+    //every bite is allowed before the batch is simulated, but the fruit only affords two bites above 1.5
+    final var goal = makeHourlyBiteGoal(
+        problem,
+        new StateConstraintExpression.Builder().above(fruit, SerializedValue.of(1.5)).build());
+    problem.setGoals(List.of(goal));
+    final var solver = makeBananaSolver(problem, true);
+
+    final var plan = solver.getNextSolution().orElseThrow();
+
+    final var bites = plan.getActivitiesByTime();
+    assertThat(bites).hasSize(2);
+    assertThat(plan.getEvaluation().forGoal(goal).getScore()).isEqualTo(-2);
+    //the kept bites satisfy the constraint in the final plan, not only in the simulation of their half of the batch
+    problem.getSimulationFacade().simulatePlan(plan);
+    for (final var bite : bites) {
+      assertThat(fruit.getValueAtTime(bite.getStartTime()).asReal().orElseThrow()).isGreaterThan(1.5);
+    }
+  }
+
+  @Test
+  public void getNextSolution_resumesInterruptedSubgoalOfCompositeGoal() {
+    final var problem = makeTestMissionAB();
+    final var actTypeA = problem.getActivityType("A");
+    final var expectedActs = makePlanA012(problem).getActivitiesByTime();
+    //asks for one more activity of type A at a time, so that each activity takes a pass over the conflicts of the goal
+    final var stepwise = new ProceduralCreationGoal.Builder()
+        .named("stepwise")
+        .generateWith((plan) -> expectedActs.subList(0, Math.min(
+            expectedActs.size(),
+            1 + (int) plan.getActivitiesByTime().stream().filter(act -> act.getType().equals(actTypeA)).count())))
+        .forAllTimeIn(h.getHor())
+        .partialSatisfaction()
+        .build();
+    final var recurrence = makeRecurrenceGoal("recurrence", problem.getActivityType("B"));
+    final var composite = new CompositeAndGoal.Builder()
+        .named("composite")
+        .and(stepwise)
+        .and(recurrence)
+        .build();
+    problem.setGoals(List.of(composite));
+    final var solver = makeProblemSolver(problem);
+    //exhausted as soon as the first pass of the first subgoal is over
+    solver.setTimeBudget(java.time.Duration.ofNanos(1));
+
+    final var partialPlan = solver.getNextSolution().orElseThrow();
+
+    assertThat(solver.isComplete()).isFalse();
+    assertThat(partialPlan.getEvaluation().forGoal(composite).isComplete()).isFalse();
+    assertThat(partialPlan.getEvaluation().forGoal(stepwise).isComplete()).isFalse();
+    assertThat(partialPlan.getActivitiesByTime()).hasSize(1);
+
+    var requests = 1;
+    var plan = partialPlan;
+    while (!solver.isComplete()) {
+      plan = solver.getNextSolution().orElseThrow();
+      requests++;
+      assertThat(requests).isAtMost(expectedActs.size());
+    }
+
+    //each request resumed the stepwise subgoal instead of starting the composite goal over
+    assertThat(requests).isEqualTo(expectedActs.size());
+    assertThat(plan.getEvaluation().isPartial()).isFalse();
+    assertThat(plan.getEvaluation().forGoal(composite).getScore()).isEqualTo(0);
+    assertThat(plan.getEvaluation().forGoal(stepwise).getInsertedActivities())
+        .comparingElementsUsing(equalExceptInName)
+        .containsExactlyElementsIn(expectedActs);
+    assertThat(plan.getEvaluation().forGoal(recurrence).getInsertedActivities()).hasSize(2);
+    assertThat(plan.getActivitiesByTime()).hasSize(expectedActs.size() + 2);
+
+    final var stepwiseMetrics = solver.getMetrics().getGoalMetrics().get(stepwise);
+    assertThat(stepwiseMetrics.conflicts()).isEqualTo(1);
+    assertThat(stepwiseMetrics.activitiesCreated()).isEqualTo(expectedActs.size());
+  }
+
+  @Test
+  public void setGoalBudget_nonPositiveBudgetThrows() {
+    final var solver = makeEmptyProblemSolver();
+    assertThrows(IllegalArgumentException.class, () -> solver.setGoalBudget(0));
+  }
+
 }
@@ -82,4 +82,47 @@ public class STNTest {
     assert(expD1.equals(d));
   }
 
+  /**
+   * Constraints added to a copy of a propagated network do not affect the original
+   */
+  @Test
+  public void testCopy(){
+    var stn = new TaskNetwork(2,10);
+    stn.addAct("Act");
+    stn.addDurationInterval("Act", 1, 2);
+    var success = stn.propagate();
+    assert(success);
+
+    var copy = new TaskNetwork(stn);
+    copy.addEndInterval("Act", 2,4);
+    copy.addEnveloppe("Act", "win", 3,7);
+    success = copy.propagate();
+    assert(success);
+    var d = copy.getAllData("Act");
+    var expD1 = new TaskNetwork.TNActData(Pair.of(3.,3.), Pair.of(4.,4.), Pair.of(1.,1.));
+    assert(expD1.equals(d));
+
+    d = stn.getAllData("Act");
+    var expD2 = new TaskNetwork.TNActData(Pair.of(2.,9.), Pair.of(3.,10.), Pair.of(1.,2.));
+    assert(expD2.equals(d));
+  }
+
+  /**
+   * Replacing a constraint by a looser one relaxes the propagated domains
+   */
+  @Test
+  public void testLoosenedConstraint(){
+    var stn = new TaskNetwork(2,10);
+    stn.addAct("Act");
+    stn.addStartInterval("Act", 4,5);
+    var success = stn.propagate();
+    assert(success);
+    stn.addStartInterval("Act", 2,8);
+    success = stn.propagate();
+    assert(success);
+    var d = stn.getAllData("Act");
+    var expD1 = new TaskNetwork.TNActData(Pair.of(2.,8.), Pair.of(2.,10.), Pair.of(0.,8.));
+    assert(expD1.equals(d));
+  }
+
 }
@@ -0,0 +1,47 @@
+package gov.nasa.jpl.aerie.scheduler;
+
+import gov.nasa.jpl.aerie.constraints.time.Window;
+import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SimResourceTest {
+
+  private static Duration seconds(long quantity) {
+    return Duration.of(quantity, Duration.SECONDS);
+  }
+
+  @Test
+  public void getTimeline_mergesEqualSamplesIntoWindowsSortedByStart() {
+    final var resource = new SimResource();
+    resource.initFromSimRes(
+        "mode",
+        null,
+        List.of(
+            Pair.of(seconds(0), SerializedValue.of("OFF")),
+            Pair.of(seconds(10), SerializedValue.of("OFF")),
+            Pair.of(seconds(20), SerializedValue.of("ON")),
+            Pair.of(seconds(30), SerializedValue.of("OFF")),
+            Pair.of(seconds(40), SerializedValue.of("OFF"))),
+        seconds(100));
+
+    final var timeline = resource.getTimeline(new Windows());
+    final var first = Window.betweenClosedOpen(seconds(100), seconds(120));
+    final var second = Window.betweenClosedOpen(seconds(120), seconds(130));
+    final var third = Window.betweenClosedOpen(seconds(130), seconds(140));
+
+    assertEquals(List.of(first, second, third), new ArrayList<>(timeline.keySet()));
+    assertEquals(List.of(SerializedValue.of("OFF"), SerializedValue.of("ON"), SerializedValue.of("OFF")),
+                 new ArrayList<>(timeline.values()));
+    assertEquals(SerializedValue.of("ON"), timeline.get(second));
+    assertNull(timeline.get(Window.betweenClosedOpen(seconds(125), seconds(130))));
+  }
+}
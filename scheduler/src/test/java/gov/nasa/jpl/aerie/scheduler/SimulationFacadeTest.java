@@ -169,6 +169,23 @@ public class SimulationFacadeTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void whenValueAboveDoubleOnSimplePlanWithinWindows() {
+    facade.simulatePlan(makeTestPlanP0B1());
+    var windows = new Windows(List.of(Window.between(t0, t1), Window.between(t1_5, t2)));
+    var actual = getFruitRes().whenValueAbove(SerializedValue.of(2.9), windows);
+    var expected = new Windows(List.of(Window.between(t0, t1), Window.betweenClosedOpen(t1_5, t2)));
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void timelineOnSimplePlan() {
+    facade.simulatePlan(makeTestPlanP0B1());
+    var actual = getFruitRes().getTimeline(entireHorizon);
+    assertThat(actual.get(Window.betweenClosedOpen(t0, t1))).isEqualTo(SerializedValue.of(4.0));
+    assertThat(actual.get(Window.betweenClosedOpen(t1, t2))).isEqualTo(SerializedValue.of(3.0));
+  }
+
   @Test
   public void whenValueBelowDoubleOnSimplePlan() {
     facade.simulatePlan(makeTestPlanP0B1());
@@ -201,4 +218,143 @@ public class SimulationFacadeTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void cachedStateQueriesFollowReSimulation() {
+    final var plan = makeTestPlanP0B1();
+    facade.simulatePlan(plan);
+    var windows = new Windows(List.of(Window.between(t0, t1), Window.between(t1_5, t2)));
+    assertThat(getFruitRes().whenValueAbove(SerializedValue.of(2.9), windows))
+        .isEqualTo(new Windows(List.of(Window.between(t0, t1), Window.betweenClosedOpen(t1_5, t2))));
+    assertThat(getFruitRes().whenValueAbove(SerializedValue.of(2.9), entireHorizon))
+        .isEqualTo(new Windows(Window.betweenClosedOpen(t0, t2)));
+
+    //an earlier bite changes the resource after t1_5 only, which must not be answered from the cache
+    final var actTypeBite = problem.getActivityType("BiteBanana");
+    var bite = new ActivityInstance(actTypeBite, t1_5);
+    bite.setArguments(Map.of("biteSize", SerializedValue.of(0.1)));
+    plan.add(bite);
+    facade.simulatePlan(plan);
+    assertThat(getFruitRes().whenValueAbove(SerializedValue.of(2.9), windows))
+        .isEqualTo(new Windows(Window.between(t0, t1)));
+    assertThat(getFruitRes().whenValueAbove(SerializedValue.of(2.9), entireHorizon))
+        .isEqualTo(new Windows(Window.betweenClosedOpen(t0, t1_5)));
+  }
+
+  @Test
+  public void simulationsAndResourceQueriesAreRecordedInMetrics() {
+    facade.simulatePlan(makeTestPlanP0B1());
+    getFruitRes().getValueAtTime(t1_5);
+    getFruitRes().whenValueAbove(SerializedValue.of(2.9), entireHorizon);
+    assertThat(facade.getMetrics().getResourceQueryCounts()).containsExactly("/fruit", 2L);
+    assertThat(facade.getMetrics().getSimulationCount()).isAtLeast(1);
+  }
+
+  @Test
+  public void queriesOfResourcesRegisteredBySimulationAreRecordedInMetrics() {
+    facade.setIncremental(false);
+    facade.simulatePlan(makeTestPlanP0B1());
+    //the plant resource is first registered by the simulation results, not by a goal
+    getPlantRes().getValueAtTime(t1_5);
+    getFruitRes().getValueAtTime(t1_5);
+    assertThat(facade.getMetrics().getResourceQueryCounts()).containsExactly("/plant", 1L, "/fruit", 1L);
+  }
+
+  @Test
+  public void incrementalSimulationMatchesFullSimulation() {
+    final var plan = makeEmptyPlan();
+    final var actTypeBite = problem.getActivityType("BiteBanana");
+    final var actTypePeel = problem.getActivityType("PeelBanana");
+
+    //bite first, then peel earlier after the resources have been queried, forcing a restart
+    var bite = new ActivityInstance(actTypeBite, t2);
+    bite.setArguments(Map.of("biteSize", SerializedValue.of(0.1)));
+    plan.add(bite);
+    facade.simulatePlan(plan);
+    assertThat(getFruitRes().getValueAtTime(t1_5)).isEqualTo(SerializedValue.of(4.0));
+
+    var peel = new ActivityInstance(actTypePeel, t1);
+    peel.setArguments(Map.of("peelDirection", SerializedValue.of("fromStem")));
+    plan.add(peel);
+    facade.simulatePlan(plan);
+
+    assertThat(getFruitRes().getValueAtTime(t1_5)).isEqualTo(SerializedValue.of(3.0));
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(2.9));
+    assertThat(facade.getActivityDuration(bite)).isEqualTo(Duration.ZERO);
+  }
+
+  @Test
+  public void activityAfterQueriedTimeExtendsSimulation() {
+    final var plan = makeEmptyPlan();
+    var peel = new ActivityInstance(problem.getActivityType("PeelBanana"), t1);
+    peel.setArguments(Map.of("peelDirection", SerializedValue.of("fromStem")));
+    plan.add(peel);
+    facade.simulatePlan(plan);
+    //the query only advances the simulation up to t1_5
+    assertThat(getFruitRes().getValueAtTime(t1_5)).isEqualTo(SerializedValue.of(3.0));
+
+    var bite = new ActivityInstance(problem.getActivityType("BiteBanana"), t2);
+    bite.setArguments(Map.of("biteSize", SerializedValue.of(0.1)));
+    plan.add(bite);
+    facade.simulatePlan(plan);
+
+    assertThat(facade.getRestartCount()).isEqualTo(0);
+    assertThat(getFruitRes().getValueAtTime(t1_5)).isEqualTo(SerializedValue.of(3.0));
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(2.9));
+  }
+
+  @Test
+  public void activityBeforeQueriedTimeRestartsSimulation() {
+    final var plan = makeEmptyPlan();
+    var peel = new ActivityInstance(problem.getActivityType("PeelBanana"), t1);
+    peel.setArguments(Map.of("peelDirection", SerializedValue.of("fromStem")));
+    plan.add(peel);
+    facade.simulatePlan(plan);
+    //the query advances the simulation up to t2
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(3.0));
+
+    var bite = new ActivityInstance(problem.getActivityType("BiteBanana"), t1_5);
+    bite.setArguments(Map.of("biteSize", SerializedValue.of(0.1)));
+    plan.add(bite);
+    facade.simulatePlan(plan);
+
+    assertThat(facade.getRestartCount()).isEqualTo(1);
+    assertThat(getFruitRes().getValueAtTime(t1)).isEqualTo(SerializedValue.of(3.0));
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(2.9));
+  }
+
+  @Test
+  public void removedActivityRestartsSimulation() {
+    final var plan = makeTestPlanP0B1();
+    facade.simulatePlan(plan);
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(2.9));
+    assertThat(facade.getRestartCount()).isEqualTo(0);
+
+    final var bite = plan.getActivitiesByTime().get(1);
+    plan.remove(bite);
+    facade.simulatePlan(plan);
+
+    assertThat(facade.getRestartCount()).isEqualTo(1);
+    assertThat(facade.getActivityDuration(bite)).isNull();
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(3.0));
+  }
+
+  @Test
+  public void profilesAreConvertedOncePerSimulation() {
+    final var plan = makeTestPlanP0B1();
+    facade.simulatePlan(plan);
+    getFruitRes().getValueAtTime(t1_5);
+    getFruitRes().getValueAtTime(t1);
+    assertThat(facade.getProfileConversionCount()).isEqualTo(1);
+    assertThat(facade.getProfileHitCount()).isEqualTo(1);
+
+    //a new simulation invalidates the converted profiles
+    final var actTypeBite = problem.getActivityType("BiteBanana");
+    var bite = new ActivityInstance(actTypeBite, t1_5);
+    bite.setArguments(Map.of("biteSize", SerializedValue.of(0.1)));
+    plan.add(bite);
+    facade.simulatePlan(plan);
+    assertThat(getFruitRes().getValueAtTime(t2)).isEqualTo(SerializedValue.of(2.8));
+    assertThat(facade.getProfileConversionCount()).isEqualTo(2);
+  }
+
 }